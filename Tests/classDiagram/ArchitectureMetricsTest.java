@@ -0,0 +1,226 @@
+package classDiagram;
+
+import change.Change;
+import classDiagram.ArchitectureMetrics.Metrics;
+import classDiagram.components.ClassEntity;
+import classDiagram.components.Entity;
+import classDiagram.components.InterfaceEntity;
+import classDiagram.components.SimpleEntity;
+import classDiagram.relationships.Association.NavigateDirection;
+import classDiagram.relationships.Binary;
+import classDiagram.relationships.Dependency;
+import classDiagram.relationships.Inheritance;
+import classDiagram.relationships.Multi;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ArchitectureMetricsTest {
+
+  /**
+   * Relations, an entity and its metrics: "Ca Ce instability abstractness distance". Relations are written A->B for a
+   * dependency, A-|>B for an inheritance, A<->B, A~>B and A<~B for binary associations and *ABC for a multi
+   * association; entities whose name begins with I are interfaces.
+   */
+  private static final String[][] METRICS = {
+      {"A B", "A", "0 0 0.00 0.00 1.00"},
+      {"A->B", "A", "0 1 1.00 0.00 0.00"},
+      {"A->B", "B", "1 0 0.00 0.00 1.00"},
+      {"A->I", "I", "1 0 0.00 1.00 0.00"},
+      {"A->B A->B A-|>B", "A", "0 1 1.00 0.00 0.00"},
+      {"A->A", "A", "0 0 0.00 0.00 1.00"},
+      {"A-|>I B-|>I C->I", "I", "3 0 0.00 1.00 0.00"},
+      {"A<->B", "A", "1 1 0.50 0.00 0.50"},
+      {"A~>B", "A", "0 1 1.00 0.00 0.00"},
+      {"A~>B", "B", "1 0 0.00 0.00 1.00"},
+      {"A<~B", "A", "1 0 0.00 0.00 1.00"},
+      {"*ABC", "B", "2 2 0.50 0.00 0.50"},
+      {"A->B B->C C->A D->A A->I", "A", "2 2 0.50 0.00 0.50"},
+      {"IA->IB IC->IA", "IA", "1 1 0.50 1.00 0.50"},
+  };
+
+  /**
+   * Relations and their cycles: the names of the entities of each cycle, sorted.
+   */
+  private static final String[][] CYCLES = {
+      {"A->B B->C", ""},
+      {"A->A", ""},
+      {"A->B B->A", "AB"},
+      {"A->B B->C C->A D->A", "ABC"},
+      {"A->B B->A C->D D->C B->C", "AB CD"},
+      {"A->B B->C C->A C->D D->E E->C", "ABCDE"},
+      {"A->B B->C C->D D->B", "BCD"},
+      {"A<->B", "AB"},
+      {"A~>B", ""},
+      {"A-|>B B->A", "AB"},
+      {"*ABC", "ABC"},
+  };
+
+  @BeforeClass
+  public static void setUpClass() {
+    Change.setBlocked(true);
+  }
+
+  /**
+   * Build a diagram from the relations and analyze it. The model is changed on the event dispatch thread, like in
+   * Slyum.
+   */
+  private static Result analyze(final String relations) throws Exception {
+    return onEventDispatchThread(() -> {
+      Result result = new Result();
+
+      for (String relation : relations.split(" ")) {
+        if (relation.startsWith("*")) {
+          LinkedList<ClassEntity> components = new LinkedList<>();
+          for (char name : relation.substring(1).toCharArray())
+            components.add((ClassEntity) result.get(String.valueOf(name)));
+          result.diagram.addMulti(new Multi(components), false);
+          continue;
+        }
+
+        String[] ends = relation.split("->|-\\|>|<->|~>|<~");
+        if (ends.length == 1) {
+          result.get(ends[0]);
+        } else if (relation.contains("-|>")) {
+          result.diagram.addInheritance(
+              new Inheritance((SimpleEntity) result.get(ends[0]), (SimpleEntity) result.get(ends[1])), false);
+        } else if (relation.contains("->") && !relation.contains("<->")) {
+          result.diagram.addDependency(new Dependency(result.get(ends[0]), result.get(ends[1])), false);
+        } else {
+          NavigateDirection direction = relation.contains("<->") ? NavigateDirection.BIDIRECTIONAL
+                                        : relation.contains("~>") ? NavigateDirection.FIRST_TO_SECOND
+                                        : NavigateDirection.SECOND_TO_FIRST;
+          result.diagram.addBinary(new Binary(result.get(ends[0]), result.get(ends[1]), direction), false);
+        }
+      }
+
+      result.metrics = ArchitectureMetrics.analyze(result.diagram);
+      return result;
+    });
+  }
+
+  private static <T> T onEventDispatchThread(Callable<T> callable) throws Exception {
+    FutureTask<T> task = new FutureTask<>(callable);
+    SwingUtilities.invokeAndWait(task);
+    return task.get();
+  }
+
+  private static String format(Metrics metrics) {
+    return String.format(Locale.ROOT, "%d %d %.2f %.2f %.2f", metrics.getAfferentCoupling(),
+                         metrics.getEfferentCoupling(), metrics.getInstability(), metrics.getAbstractness(),
+                         metrics.getDistance());
+  }
+
+  private static String format(List<List<Entity>> cycles) {
+    List<String> result = new ArrayList<>();
+    for (List<Entity> cycle : cycles) {
+      List<String> names = new ArrayList<>();
+      for (Entity entity : cycle)
+        names.add(entity.getName());
+      Collections.sort(names);
+      result.add(String.join("", names));
+    }
+    Collections.sort(result);
+    return String.join(" ", result);
+  }
+
+  /**
+   * Test of getMetrics method for an entity, of class ArchitectureMetrics.
+   */
+  @Test
+  public void testEntityMetrics() throws Exception {
+    for (String[] row : METRICS) {
+      Result result = analyze(row[0]);
+      assertEquals(row[0], row[2], format(result.metrics.getMetrics(result.get(row[1]))));
+    }
+  }
+
+  /**
+   * Test of getMetrics method for a group: only the entities outside the group are counted.
+   */
+  @Test
+  public void testGroupMetrics() throws Exception {
+    Result result = analyze("A->B B->C D->A A-|>I");
+    Metrics group = result.metrics.getMetrics(Arrays.asList(result.get("A"), result.get("B"), result.get("I"),
+                                                            result.get("A"), new ClassEntity("Outside")));
+
+    assertEquals(3, group.getEntities());
+    assertEquals("1 1 0.50 0.33 0.17", format(group));
+    assertEquals("0 0 0.00 0.00 1.00", format(result.metrics.getMetrics(Collections.<Entity>emptyList())));
+    assertNull(result.metrics.getMetrics(new ClassEntity("Outside")));
+    assertEquals(4, result.metrics.countDependencies());
+  }
+
+  /**
+   * Test of getCycles method, of class ArchitectureMetrics.
+   */
+  @Test
+  public void testCycles() throws Exception {
+    for (String[] row : CYCLES) {
+      Result result = analyze(row[0]);
+      assertEquals(row[0], row[1], format(result.metrics.getCycles()));
+    }
+  }
+
+  /**
+   * Test of getCycle method, of class ArchitectureMetrics.
+   */
+  @Test
+  public void testCycleOfEntity() throws Exception {
+    Result result = analyze("A->B B->A B->C C->D D->C");
+
+    assertEquals("AB", format(Collections.singletonList(result.metrics.getCycle(result.get("B")))));
+    assertEquals("CD", format(Collections.singletonList(result.metrics.getCycle(result.get("C")))));
+    assertEquals(0, result.metrics.getCycle(new ClassEntity("Outside")).size());
+  }
+
+  /**
+   * Test of getCycles method with a long chain, which must not overflow the stack.
+   */
+  @Test
+  public void testLongCycle() throws Exception {
+    StringBuilder relations = new StringBuilder();
+    for (int i = 0; i < 20000; i++)
+      relations.append('C').append(i).append("->C").append(i + 1).append(' ');
+    relations.append("C20000->C0");
+
+    Result result = analyze(relations.toString());
+
+    assertEquals(1, result.metrics.getCycles().size());
+    assertEquals(20001, result.metrics.getCycles().get(0).size());
+  }
+
+  private static class Result {
+    final ClassDiagram diagram = new ClassDiagram();
+    final Map<String, Entity> entities = new HashMap<>();
+    ArchitectureMetrics metrics;
+
+    Entity get(String name) {
+      return entities.computeIfAbsent(name, n -> {
+        if (n.startsWith("I")) {
+          InterfaceEntity entity = new InterfaceEntity(n);
+          diagram.addInterfaceEntity(entity, false);
+          return entity;
+        }
+
+        ClassEntity entity = new ClassEntity(n);
+        diagram.addClassEntity(entity, false);
+        return entity;
+      });
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package classDiagram.components;
+
+import change.Change;
+import classDiagram.relationships.Inheritance;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EntityTest {
+
+  /**
+   * Hierarchies given as links "child>parent", an entity and its expected ancestors and descendants, in order.
+   */
+  private static final String[][] CLOSURES = {
+      {"", "A", "A", "A"},
+      {"B>A", "B", "B A", "B"},
+      {"B>A C>B", "B", "B A", "B C"},
+      // Diamond: the shared ancestor is listed once.
+      {"B>A C>A D>B D>C", "D", "D B A C", "D"},
+      {"B>A C>A D>B D>C", "A", "A", "A B D C"},
+      // Two stacked diamonds.
+      {"B>A C>A D>B D>C E>D F>D G>E G>F", "G", "G E D B A C F", "G"},
+      // Cycle: the closure ends.
+      {"A>B B>A", "A", "A B", "A B"},
+  };
+
+  @BeforeClass
+  public static void setUpClass() {
+    Change.setBlocked(true);
+  }
+
+  private static Map<String, ClassEntity> build(String links) {
+    Map<String, ClassEntity> entities = new HashMap<>();
+    for (String link : links.split(" ")) {
+      if (link.isEmpty()) continue;
+      String[] ends = link.split(">");
+      new Inheritance(get(entities, ends[0]), get(entities, ends[1]));
+    }
+    return entities;
+  }
+
+  private static ClassEntity get(Map<String, ClassEntity> entities, String name) {
+    return entities.computeIfAbsent(name, n -> new ClassEntity(n, Visibility.PUBLIC));
+  }
+
+  private static String names(Set<Entity> entities) {
+    List<String> names = new ArrayList<>();
+    for (Entity entity : entities)
+      names.add(entity.getName());
+    return String.join(" ", names);
+  }
+
+  private static void unlink(Entity child, Entity parent) {
+    for (Object link : child.getParents().toArray())
+      if (((Inheritance) link).getParent() == parent) {
+        child.removeParent((Inheritance) link);
+        parent.removeChild((Inheritance) link);
+      }
+  }
+
+  /**
+   * Test of getAllParents and getAllChilds methods, of class Entity.
+   */
+  @Test
+  public void testClosures() {
+    for (String[] row : CLOSURES) {
+      Map<String, ClassEntity> entities = build(row[0]);
+      Entity entity = get(entities, row[1]);
+
+      assertEquals(row[0], row[2], names(entity.getAllParents()));
+      assertEquals(row[0], row[3], names(entity.getAllChilds()));
+    }
+  }
+
+  /**
+   * Test of getAllParents method with a deep chain of diamonds, which was exponential without caching.
+   */
+  @Test
+  public void testDeepDiamonds() {
+    StringBuilder links = new StringBuilder();
+    for (int i = 0; i < 40; i++)
+      links.append(String.format("L%d>T%d R%d>T%d T%d>L%d T%d>R%d ", i, i, i, i, i + 1, i, i + 1, i));
+
+    Map<String, ClassEntity> entities = build(links.toString());
+
+    assertEquals(40 * 3 + 1, entities.get("T40").getAllParents().size());
+    assertEquals(40 * 3 + 1, entities.get("T0").getAllChilds().size());
+    assertTrue(entities.get("T40").isChildOf(entities.get("T0")));
+    assertTrue(entities.get("T0").isParentOf(entities.get("T40")));
+  }
+
+  /**
+   * Test that a closure is cached, and cleared when a link is added to one of the entities it contains.
+   */
+  @Test
+  public void testClosuresClearedOnNewLink() {
+    Map<String, ClassEntity> entities = build("B>A C>A D>B D>C X>Y");
+    ClassEntity a = entities.get("A"), d = entities.get("D"), x = entities.get("X");
+    Set<Entity> parentsOfD = d.getAllParents(), childsOfA = a.getAllChilds(), parentsOfX = x.getAllParents();
+
+    assertSame(parentsOfD, d.getAllParents());
+
+    // A new ancestor above A changes the ancestors of all the descendants of A.
+    new Inheritance(a, get(entities, "Z"));
+
+    assertNotSame(parentsOfD, d.getAllParents());
+    assertEquals("D B A Z C", names(d.getAllParents()));
+    assertEquals("Z A B D C", names(entities.get("Z").getAllChilds()));
+    assertSame(childsOfA, a.getAllChilds());
+    assertSame(parentsOfX, x.getAllParents());
+  }
+
+  /**
+   * Test that removing one side of a diamond keeps the shared ancestor, and removing both sides removes it.
+   */
+  @Test
+  public void testClosuresClearedOnRemovedLink() {
+    Map<String, ClassEntity> entities = build("B>A C>A D>B D>C");
+    ClassEntity a = entities.get("A"), b = entities.get("B"), c = entities.get("C"), d = entities.get("D");
+    d.getAllParents();
+    a.getAllChilds();
+
+    unlink(b, a);
+
+    assertEquals("D B C A", names(d.getAllParents()));
+    assertEquals("A C D", names(a.getAllChilds()));
+    assertEquals("B", names(b.getAllParents()));
+    assertTrue(d.isChildOf(a));
+
+    unlink(c, a);
+
+    assertEquals("D B C", names(d.getAllParents()));
+    assertEquals("A", names(a.getAllChilds()));
+    assertFalse(d.isChildOf(a));
+    assertFalse(a.isParentOf(d));
+  }
+
+  /**
+   * Test that the inherited methods follow the changes of the hierarchy and of the methods of the ancestors.
+   */
+  @Test
+  public void testInheritedMethodsCleared() {
+    Map<String, ClassEntity> entities = build("B>A C>A D>B D>C");
+    ClassEntity a = entities.get("A"), b = entities.get("B"), d = entities.get("D");
+    Method method = new Method("run", new Type("void"), Visibility.PUBLIC, a);
+    a.addMethod(method);
+
+    assertEquals(1, d.getInheritedMethods().size());
+
+    // Overridden by the nearest ancestor.
+    Method override = new Method("run", new Type("void"), Visibility.PUBLIC, b);
+    b.addMethod(override);
+    assertSame(override, d.getInheritedMethods().get(method.getSignature()));
+
+    b.removeMethod(override);
+    unlink(b, a);
+    assertSame(method, d.getInheritedMethods().get(method.getSignature()));
+
+    unlink(entities.get("C"), a);
+    assertTrue(d.getInheritedMethods().isEmpty());
+  }
+}
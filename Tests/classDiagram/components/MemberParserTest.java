@@ -0,0 +1,162 @@
+package classDiagram.components;
+
+import classDiagram.components.MemberParser.Member;
+import classDiagram.components.MemberParser.Parameter;
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class MemberParserTest {
+
+  /**
+   * Correct members and their content, written [visibility]name[(parameters)][:type][=default] {modifiers}.
+   */
+  private static final String[][] MEMBERS = {
+      {"x", "x"},
+      {"  x  :  int  ", "x:int"},
+      {"+ x : int", "+x:int"},
+      {"- count : int = 0", "-count:int=0"},
+      {"# items : Map<String, List<Item>>[]", "#items:Map<String,List<Item>>[]"},
+      {"+ a : java.util.List<Integer[]>", "+a:java.util.List<Integer[]>"},
+      {"- grid : int[ 3 ][]", "-grid:int[3][]"},
+      {"- all : List<?>", "-all:List<?>"},
+      {"~ m()", "~m()"},
+      {"+ m(a : int, b : String[]) : void", "+m(a:int,b:String[]):void"},
+      {"{static} + PI : double = 3.14 {readOnly}", "+PI:double=3.14 {static} {const}"},
+      {"<<abstract>> + run() : void", "+run():void {abstract}"},
+      {"+ «static» main(args : String[]) : void", "+main(args:String[]):void {static}"},
+      {"+ f() : void {abstract} {static}", "+f():void {static} {abstract}"},
+      {"- s : String = \"a = b, {static}\"", "-s:String=\"a = b, {static}\""},
+      {"- c : char = '\\''", "-c:char='\\''"},
+      {"- l : List<?> = new ArrayList<>() {final}", "-l:List<?>=new ArrayList<>() {const}"},
+      {"- m : int[] = {1, 2} {static}", "-m:int[]={1, 2} {static}"},
+  };
+
+  /**
+   * Malformed members, the offset of the error and its message.
+   */
+  private static final String[][] ERRORS = {
+      {"", "0", "name expected"},
+      {"+", "1", "name expected"},
+      {"+ 1x : int", "2", "name expected"},
+      {"x : ", "4", "name expected"},
+      {"+ m(a int)", "6", "':' expected"},
+      {"+ m(a : int", "11", "',' expected"},
+      {"+ x : Map<String", "16", "'>' expected"},
+      {"x : int[3", "9", "']' expected"},
+      {"x : ? extends T", "6", "bounds of wildcards are not supported"},
+      {"+ m() = 3", "6", "a method has no default value"},
+      {"x : int =", "9", "default value expected"},
+      {"x : int = \"abc", "10", "unclosed quote"},
+      {"{static x", "0", "unclosed modifier"},
+      {"{volatile} x", "0", "unknown modifier 'volatile'"},
+      {"x : int ;", "8", "unexpected ';'"},
+  };
+
+  private static String format(Member member) {
+    StringBuilder sb = new StringBuilder();
+    if (member.visibility != null) sb.append(member.visibility.toCar());
+    sb.append(member.name);
+
+    if (member.isMethod()) {
+      List<String> parameters = new ArrayList<>();
+      for (Parameter parameter : member.parameters)
+        parameters.add(parameter.name + ":" + parameter.type);
+      sb.append('(').append(String.join(",", parameters)).append(')');
+    }
+
+    if (member.type != null) sb.append(':').append(member.type);
+    if (member.defaultValue != null) sb.append('=').append(member.defaultValue);
+    if (member.isStatic) sb.append(" {static}");
+    if (member.isAbstract) sb.append(" {abstract}");
+    if (member.isConstant) sb.append(" {const}");
+    return sb.toString();
+  }
+
+  /**
+   * Test of parse method, of class MemberParser.
+   */
+  @Test
+  public void testParse() throws ParseException {
+    for (String[] row : MEMBERS)
+      assertEquals(row[0], row[1], format(MemberParser.parse(row[0])));
+  }
+
+  /**
+   * Test of parse method with malformed members.
+   */
+  @Test
+  public void testParseErrors() {
+    for (String[] row : ERRORS)
+      try {
+        MemberParser.parse(row[0]);
+        fail(row[0]);
+      } catch (ParseException e) {
+        assertEquals(row[0], row[2], e.getMessage());
+        assertEquals(row[0], Integer.parseInt(row[1]), e.getErrorOffset());
+      }
+  }
+
+  /**
+   * Test of parseEnumValue method, of class MemberParser.
+   */
+  @Test
+  public void testParseEnumValue() throws ParseException {
+    assertEquals("RED", MemberParser.parseEnumValue("  RED "));
+
+    String[][] errors = {
+        {"", "0", "name expected"},
+        {"1RED", "0", "name expected"},
+        {"RED GREEN", "4", "unexpected 'G'"},
+    };
+
+    for (String[] row : errors)
+      try {
+        MemberParser.parseEnumValue(row[0]);
+        fail(row[0]);
+      } catch (ParseException e) {
+        assertEquals(row[0], row[2], e.getMessage());
+        assertEquals(row[0], Integer.parseInt(row[1]), e.getErrorOffset());
+      }
+  }
+
+  /**
+   * Test of parseLines and describe methods: the offsets of the errors are in the whole text.
+   */
+  @Test
+  public void testParseLines() {
+    String text = "x : int\n+ m(a int)\n\n  y : ;\nz";
+    List<ParseException> errors = new ArrayList<>();
+    List<Member> members = MemberParser.parseLines(text, false, errors);
+
+    assertEquals(2, members.size());
+    assertEquals("x:int", format(members.get(0)));
+    assertEquals("z", format(members.get(1)));
+
+    assertEquals(2, errors.size());
+    assertEquals(14, errors.get(0).getErrorOffset());
+    assertEquals("line 2, column 7: ':' expected", MemberParser.describe(text, errors.get(0)));
+    assertEquals(26, errors.get(1).getErrorOffset());
+    assertEquals("line 4, column 7: name expected", MemberParser.describe(text, errors.get(1)));
+  }
+
+  /**
+   * Test of parseLines method with enum values.
+   */
+  @Test
+  public void testParseLinesEnumValues() {
+    String text = "RED\n GREEN \n\nBLUE\nDARK BLUE";
+    List<ParseException> errors = new ArrayList<>();
+    List<Member> members = MemberParser.parseLines(text, true, errors);
+
+    assertEquals(3, members.size());
+    assertEquals("GREEN", members.get(1).name);
+    assertEquals(1, errors.size());
+    assertEquals("line 5, column 6: unexpected 'B'", MemberParser.describe(text, errors.get(0)));
+  }
+}
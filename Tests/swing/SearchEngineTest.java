@@ -0,0 +1,56 @@
+package swing;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SearchEngineTest {
+
+  private final Object a = new Object(), b = new Object();
+
+  /**
+   * Test of isSameContent method for the first search, when nothing is indexed yet.
+   */
+  @Test
+  public void testIsSameContentEmptyIndex() {
+    assertFalse(SearchEngine.isSameContent(new ArrayList<>(), new String[0], new LinkedList<>(Arrays.asList(a, b)),
+                                           new String[] {"A", "B"}));
+    assertTrue(SearchEngine.isSameContent(new ArrayList<>(), new String[0], new LinkedList<>(), new String[0]));
+  }
+
+  /**
+   * Test of isSameContent method when components are added or removed.
+   */
+  @Test
+  public void testIsSameContentSizeChanged() {
+    List<Object> indexed = new ArrayList<>(Arrays.asList(a));
+
+    assertFalse(SearchEngine.isSameContent(indexed, new String[] {"A"}, new LinkedList<>(Arrays.asList(a, b)),
+                                           new String[] {"A", "B"}));
+    assertFalse(SearchEngine.isSameContent(new ArrayList<>(Arrays.asList(a, b)), new String[] {"A", "B"},
+                                           new LinkedList<>(Collections.singletonList(a)), new String[] {"A"}));
+  }
+
+  /**
+   * Test of isSameContent method when the components or their labels change.
+   */
+  @Test
+  public void testIsSameContent() {
+    List<Object> indexed = new ArrayList<>(Arrays.asList(a, b));
+    String[] labels = {"A", "B"};
+
+    assertTrue(SearchEngine.isSameContent(indexed, labels, new LinkedList<>(Arrays.asList(a, b)),
+                                          new String[] {"A", "B"}));
+    assertFalse(SearchEngine.isSameContent(indexed, labels, new LinkedList<>(Arrays.asList(b, a)),
+                                           new String[] {"A", "B"}));
+    assertFalse(SearchEngine.isSameContent(indexed, labels, new LinkedList<>(Arrays.asList(a, b)),
+                                           new String[] {"A", "C"}));
+  }
+}
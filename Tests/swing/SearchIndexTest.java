@@ -0,0 +1,70 @@
+package swing;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SearchIndexTest {
+
+  private final SearchIndex index = new SearchIndex(
+      new String[] {"Person", "Personne", "Élève", null, "aaaa", "Impl"});
+
+  /**
+   * Test of normalize method, of class SearchIndex.
+   */
+  @Test
+  public void testNormalize() {
+    assertEquals("eleve", SearchIndex.normalize("Élève"));
+  }
+
+  /**
+   * Test of search method with the queries shorter than a trigram, of class SearchIndex.
+   */
+  @Test
+  public void testSearchShortQuery() {
+    assertArrayEquals(new int[] {0, 1}, index.search("pe"));
+    assertArrayEquals(new int[] {0, 1, 2}, index.search("e"));
+    assertArrayEquals(new int[] {4}, index.search("aa"));
+    assertArrayEquals(new int[0], index.search("z"));
+    assertArrayEquals(new int[0], index.search(""));
+  }
+
+  /**
+   * Test of search method with the queries longer than a trigram, of class SearchIndex.
+   */
+  @Test
+  public void testSearchLongQuery() {
+    assertArrayEquals(new int[] {0, 1}, index.search("person"));
+    assertArrayEquals(new int[] {1}, index.search("sonne"));
+    assertArrayEquals(new int[] {2}, index.search("eleve"));
+    assertArrayEquals(new int[] {4}, index.search("aaaa"));
+    assertArrayEquals(new int[0], index.search("aaaaa"));
+    assertArrayEquals(new int[0], index.search("persons"));
+  }
+
+  /**
+   * Test of search method narrowing previous results, of class SearchIndex.
+   */
+  @Test
+  public void testSearchCandidates() {
+    assertArrayEquals(new int[] {1}, index.search("personn", new int[] {0, 1}));
+    assertArrayEquals(new int[0], index.search("person", new int[] {2, 5}));
+  }
+
+  /**
+   * Test of the growth of the table of grams, with more grams than its initial size.
+   */
+  @Test
+  public void testManyLabels() {
+    String[] labels = new String[2000];
+    for (int i = 0; i < labels.length; i++)
+      labels[i] = "Class" + i;
+
+    SearchIndex large = new SearchIndex(labels);
+
+    assertEquals(2000, large.size());
+    assertArrayEquals(new int[] {1999}, large.search("class1999"));
+    assertEquals(1111, large.search("class1").length);
+  }
+}
@@ -0,0 +1,47 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line arguments of the benchmark tools: options written "--name value" and the remaining values.
+ */
+class Arguments {
+  private final Map<String, String> options = new HashMap<>();
+  private final List<String> values = new ArrayList<>();
+
+  Arguments(String[] args) {
+    for (int i = 0; i < args.length; i++)
+      if (args[i].startsWith("--")) {
+        if (i + 1 == args.length) throw new IllegalArgumentException("missing value for " + args[i]);
+        options.put(args[i].substring(2), args[++i]);
+      } else {
+        values.add(args[i]);
+      }
+  }
+
+  String getString(String name, String defaultValue) {
+    return options.getOrDefault(name, defaultValue);
+  }
+
+  int getInt(String name, int defaultValue) {
+    String value = options.get(name);
+    return value == null ? defaultValue : Integer.parseInt(value);
+  }
+
+  long getLong(String name, long defaultValue) {
+    String value = options.get(name);
+    return value == null ? defaultValue : Long.parseLong(value);
+  }
+
+  double getDouble(String name, double defaultValue) {
+    String value = options.get(name);
+    return value == null ? defaultValue : Double.parseDouble(value);
+  }
+
+  List<String> getValues() {
+    return values;
+  }
+}
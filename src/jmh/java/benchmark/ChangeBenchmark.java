@@ -0,0 +1,79 @@
+package benchmark;
+
+import change.BufferBounds;
+import change.Change;
+import graphic.GraphicComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording a modification in the undo history, then undoing and redoing it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class ChangeBenchmark {
+  private GraphicComponent component;
+  private Rectangle bounds;
+
+  @Setup(Level.Trial)
+  public void setUp(DiagramState diagram) {
+    component = diagram.graphicView.searchAssociedComponent(diagram.classes.get(0));
+    bounds = component.getBounds();
+  }
+
+  @Setup(Level.Iteration)
+  public void clearHistory() {
+    Change.clear();
+  }
+
+  /**
+   * Move a class, like a drag in the view, then undo and redo the move.
+   */
+  @Benchmark
+  public void moveUndoRedo() {
+    Change.push(new BufferBounds(component));
+    bounds.translate(10, 0);
+    component.setBounds(bounds);
+    Change.push(new BufferBounds(component));
+
+    Change.undo();
+    Change.redo();
+  }
+
+  /**
+   * Group several modifications in a record, undone and redone at once.
+   */
+  @Benchmark
+  public void recordUndoRedo(DiagramState diagram) {
+    Change.record();
+    for (int i = 0; i < 10; i++) {
+      GraphicComponent other = diagram.graphicView.searchAssociedComponent(diagram.classes.get(i));
+      Rectangle otherBounds = other.getBounds();
+
+      Change.push(new BufferBounds(other));
+      otherBounds.translate(0, 10);
+      other.setBounds(otherBounds);
+      Change.push(new BufferBounds(other));
+    }
+    Change.stopRecord();
+
+    Change.undo();
+    Change.redo();
+  }
+}
@@ -0,0 +1,258 @@
+package benchmark;
+
+import change.Change;
+import classDiagram.ClassDiagram;
+import classDiagram.TypeRegistry;
+import classDiagram.components.Attribute;
+import classDiagram.components.ClassEntity;
+import classDiagram.components.Method;
+import classDiagram.components.Type;
+import classDiagram.components.Variable;
+import classDiagram.components.Visibility;
+import classDiagram.relationships.Aggregation;
+import classDiagram.relationships.Association.NavigateDirection;
+import classDiagram.relationships.Binary;
+import classDiagram.relationships.Composition;
+import classDiagram.relationships.Dependency;
+import classDiagram.relationships.Inheritance;
+import graphic.GraphicComponent;
+import graphic.GraphicView;
+import graphic.textbox.TextBoxCommentary;
+import swing.MultiViewManager;
+
+import java.awt.*;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generate a synthetic class diagram in the current diagram of Slyum (see {@link Headless}). The diagram is built
+ * through the model classes, like the user would do, and is always the same for the same parameters.
+ *
+ * Can also be run for writing a generated diagram in a .sly file, for reproducing a large diagram without sharing it:
+ *
+ * <pre>
+ * mvn -Pbenchmark compile exec:exec@generate -Dgenerator.args="--entities 2000 --views 4 large.sly"
+ * </pre>
+ */
+public class DiagramGenerator {
+  private static final int CELL_WIDTH = 260, CELL_HEIGHT = 260;
+  private static final String[] TYPES = {"int", "double", "boolean", "String", "List<String>"};
+
+  /**
+   * Write a generated diagram in a file. The options are the ones of {@link #fromArguments(Arguments)}; the last
+   * argument is the file.
+   */
+  public static void main(String[] args) throws Exception {
+    Arguments arguments = new Arguments(args);
+
+    if (arguments.getValues().size() != 1)
+      throw new IllegalArgumentException("usage: DiagramGenerator [--entities n] [--members n] [--density d] " +
+                                         "[--depth n] [--notes n] [--views n] [--seed s] file.sly");
+
+    File file = new File(arguments.getValues().get(0));
+
+    fromArguments(arguments).generate();
+    Headless.save(file);
+
+    System.out.println("Diagram written in " + file.getAbsolutePath());
+    System.exit(0);
+  }
+
+  /**
+   * Create a generator configured by the options --entities, --members, --density, --depth, --notes, --views and
+   * --seed, see the setters.
+   */
+  static DiagramGenerator fromArguments(Arguments arguments) {
+    return new DiagramGenerator().entities(arguments.getInt("entities", 100))
+                                 .members(arguments.getInt("members", 6))
+                                 .relationDensity(arguments.getDouble("density", 1.0))
+                                 .inheritanceDepth(arguments.getInt("depth", 3))
+                                 .notes(arguments.getInt("notes", 0))
+                                 .views(arguments.getInt("views", 0))
+                                 .seed(arguments.getLong("seed", 42));
+  }
+
+  private int entities = 100;
+  private int members = 6;
+  private double relationDensity = 1.0;
+  private int inheritanceDepth = 3;
+  private int notes = 0;
+  private int views = 0;
+  private long seed = 42;
+
+  /**
+   * Set the number of classes.
+   */
+  public DiagramGenerator entities(int entities) {
+    this.entities = entities;
+    return this;
+  }
+
+  /**
+   * Set the number of members of each class. Half are attributes, half are methods.
+   */
+  public DiagramGenerator members(int members) {
+    this.members = members;
+    return this;
+  }
+
+  /**
+   * Set the number of associations and dependencies per class, in addition to the inheritances.
+   */
+  public DiagramGenerator relationDensity(double relationDensity) {
+    this.relationDensity = relationDensity;
+    return this;
+  }
+
+  /**
+   * Set the maximum length of the inheritance chains. No inheritance is created with 0.
+   */
+  public DiagramGenerator inheritanceDepth(int inheritanceDepth) {
+    this.inheritanceDepth = inheritanceDepth;
+    return this;
+  }
+
+  /**
+   * Set the number of notes, each linked to a class of the root view.
+   */
+  public DiagramGenerator notes(int notes) {
+    this.notes = notes;
+    return this;
+  }
+
+  /**
+   * Set the number of views in addition to the root view. Each view shows a part of the classes and their relations.
+   */
+  public DiagramGenerator views(int views) {
+    this.views = views;
+    return this;
+  }
+
+  public DiagramGenerator seed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * Clear the current diagram and generate a new one. The classes are laid out on a grid in the root view. One class
+   * out of three inherits from a previous class, without exceeding the inheritance depth; the associations link random
+   * classes. Undo is disabled while generating.
+   *
+   * @return the generated classes
+   */
+  public List<ClassEntity> generate() {
+    Headless.init();
+
+    final ClassDiagram classDiagram = Headless.getClassDiagram();
+    final GraphicView graphicView = Headless.getRootGraphicView();
+    final Random random = new Random(seed);
+    final List<ClassEntity> classes = new ArrayList<>(entities);
+    final int[] depths = new int[entities];
+
+    boolean isBlocked = Change.isBlocked();
+    Change.setBlocked(true);
+
+    try {
+      for (int i = 0; i < entities; i++) {
+        ClassEntity entity = createClass("Entity" + i, random);
+        classDiagram.addClassEntity(entity);
+        graphicView.searchAssociedComponent(entity).setBounds(getCellBounds(i, entities));
+
+        if (i > 0 && inheritanceDepth > 0 && random.nextInt(3) == 0) {
+          int parent = random.nextInt(i);
+
+          if (depths[parent] < inheritanceDepth) {
+            classDiagram.addInheritance(new Inheritance(entity, classes.get(parent)));
+            depths[i] = depths[parent] + 1;
+          }
+        }
+
+        classes.add(entity);
+      }
+
+      if (entities > 1)
+        for (int i = (int) Math.round(entities * relationDensity); i > 0; i--) {
+          int source = random.nextInt(entities), target = random.nextInt(entities - 1);
+          if (target >= source) target++;
+
+          createRelation(classDiagram, classes.get(source), classes.get(target), random);
+        }
+
+      if (entities > 0) {
+        for (int i = 0; i < notes; i++) {
+          GraphicComponent entityView = graphicView.searchAssociedComponent(classes.get(random.nextInt(entities)));
+          Rectangle bounds = entityView.getBounds();
+
+          TextBoxCommentary note = new TextBoxCommentary(graphicView, "Note " + i, entityView);
+          note.setBounds(new Rectangle(bounds.x + bounds.width + 10, bounds.y + bounds.height + 10, 120, 60));
+          graphicView.addNotes(note);
+        }
+
+        for (int i = 0; i < views; i++)
+          createView("View " + i, classes, random);
+      }
+    } finally {
+      Change.setBlocked(isBlocked);
+    }
+
+    // The classes added to the views are placed later on the event dispatch thread.
+    Headless.waitForEvents();
+
+    return classes;
+  }
+
+  private ClassEntity createClass(String name, Random random) {
+    ClassEntity entity = new ClassEntity(name, Visibility.PUBLIC);
+
+    for (int i = 0; i < members; i++) {
+      Type type = TypeRegistry.internType(TYPES[random.nextInt(TYPES.length)]);
+
+      if (i % 2 == 0) {
+        entity.addAttribute(new Attribute("field" + i, type));
+      } else {
+        Method method = new Method("operation" + i, type, Visibility.PUBLIC, entity);
+        method.addParameter(new Variable("value", TypeRegistry.internType(TYPES[random.nextInt(TYPES.length)])));
+        entity.addMethod(method);
+      }
+    }
+
+    return entity;
+  }
+
+  private void createRelation(ClassDiagram classDiagram, ClassEntity source, ClassEntity target, Random random) {
+    switch (random.nextInt(4)) {
+      case 0:
+        classDiagram.addAggregation(new Aggregation(source, target, NavigateDirection.FIRST_TO_SECOND));
+        break;
+      case 1:
+        classDiagram.addComposition(new Composition(source, target, NavigateDirection.FIRST_TO_SECOND));
+        break;
+      case 2:
+        classDiagram.addDependency(new Dependency(source, target));
+        break;
+      default:
+        classDiagram.addBinary(new Binary(source, target, NavigateDirection.BIDIRECTIONAL));
+    }
+  }
+
+  /**
+   * Create a view showing consecutive classes, with the relations between them.
+   */
+  private void createView(String name, List<ClassEntity> classes, Random random) {
+    GraphicView view = MultiViewManager.addNewView(name);
+    int size = Math.max(1, classes.size() / (views + 1)), start = random.nextInt(classes.size() - size + 1);
+
+    for (int i = 0; i < size; i++) {
+      Rectangle cell = getCellBounds(i, size);
+      Point center = new Point((int) cell.getCenterX(), (int) cell.getCenterY());
+      view.createEntityWithRelations(classes.get(start + i), center);
+    }
+  }
+
+  private static Rectangle getCellBounds(int index, int count) {
+    int columns = Math.max(1, (int) Math.ceil(Math.sqrt(count)));
+    return new Rectangle((index % columns) * CELL_WIDTH, (index / columns) * CELL_HEIGHT, 200, 40);
+  }
+}
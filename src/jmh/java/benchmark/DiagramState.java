@@ -0,0 +1,41 @@
+package benchmark;
+
+import classDiagram.components.ClassEntity;
+import graphic.GraphicView;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Synthetic diagram shared by the benchmarks of a trial, generated with {@link DiagramGenerator}.
+ */
+@State(Scope.Benchmark)
+public class DiagramState {
+
+  @Param({"100", "500"})
+  public int entities;
+
+  @Param({"6"})
+  public int members;
+
+  public List<ClassEntity> classes;
+  public GraphicView graphicView;
+
+  @Setup(Level.Trial)
+  public void generate() {
+    classes = new DiagramGenerator().entities(entities).members(members).generate();
+    graphicView = Headless.getRootGraphicView();
+  }
+
+  /**
+   * Get the rectangle containing all the classes of the view.
+   */
+  public Rectangle getDiagramBounds() {
+    return Headless.getDiagramBounds(graphicView);
+  }
+}
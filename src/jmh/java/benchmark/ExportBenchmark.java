@@ -0,0 +1,66 @@
+package benchmark;
+
+import graphic.export.ExportViewEps;
+import graphic.export.ExportViewImage;
+import graphic.export.ExportViewPdf;
+import graphic.export.ExportViewSvg;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exporting a view with each backend.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+
+  @Param({"png", "svg", "pdf", "eps"})
+  public String backend;
+
+  private File file;
+
+  @Setup(Level.Trial)
+  public void createFile() throws IOException {
+    file = File.createTempFile("slyum-benchmark", "." + backend);
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteFile() {
+    if (file != null) file.delete();
+  }
+
+  @Benchmark
+  public Object export(DiagramState diagram) {
+    switch (backend) {
+      case "png":
+        return ExportViewImage.create(diagram.graphicView).export();
+      case "svg":
+        return ExportViewSvg.create(diagram.graphicView, file).export();
+      case "pdf":
+        return ExportViewPdf.create(diagram.graphicView, file).export();
+      case "eps":
+        return ExportViewEps.create(diagram.graphicView, file).export();
+      default:
+        throw new IllegalArgumentException("unknown backend " + backend);
+    }
+  }
+}
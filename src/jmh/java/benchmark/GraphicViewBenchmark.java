@@ -0,0 +1,70 @@
+package benchmark;
+
+import graphic.GraphicComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Painting a view into an offscreen image, and finding the component under the mouse.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class GraphicViewBenchmark {
+  private static final int POINTS = 1024, MAX_SIZE = 2048;
+
+  private BufferedImage image;
+  private Graphics2D g2;
+  private Point[] points;
+  private int nextPoint = 0;
+
+  @Setup(Level.Trial)
+  public void setUp(DiagramState diagram) {
+    Rectangle bounds = diagram.getDiagramBounds();
+
+    // Large diagrams are painted clipped, like in a window.
+    image = new BufferedImage(Math.min(bounds.x + bounds.width, MAX_SIZE), Math.min(bounds.y + bounds.height, MAX_SIZE),
+                              BufferedImage.TYPE_INT_ARGB);
+    g2 = image.createGraphics();
+
+    Random random = new Random(42);
+    points = new Point[POINTS];
+    for (int i = 0; i < POINTS; i++)
+      points[i] = new Point(bounds.x + random.nextInt(bounds.width), bounds.y + random.nextInt(bounds.height));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    g2.dispose();
+  }
+
+  @Benchmark
+  public BufferedImage paintScene(DiagramState diagram) {
+    diagram.graphicView.paintScene(g2);
+    return image;
+  }
+
+  @Benchmark
+  public GraphicComponent getComponentAtPosition(DiagramState diagram) {
+    nextPoint = (nextPoint + 1) % POINTS;
+    return diagram.graphicView.getComponentAtPosition(points[nextPoint]);
+  }
+}
@@ -0,0 +1,118 @@
+package benchmark;
+
+import change.Change;
+import classDiagram.ClassDiagram;
+import graphic.GraphicView;
+import graphic.entity.EntityView;
+import swing.MultiViewManager;
+import swing.PanelClassDiagram;
+import swing.XMLParser;
+import swing.XmlFactory;
+
+import javax.swing.*;
+import javax.xml.parsers.SAXParserFactory;
+import java.awt.*;
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Run Slyum without its main window. The diagram panel is created like in the application, so the class diagram, the
+ * views and the hierarchical view behave like when the user works with them; only the menus and dialogs are missing.
+ *
+ * Must be used from a JVM started with -Djava.awt.headless=true, or with a display, and with the project directory as
+ * working directory (the version of Slyum is read from the pom.xml).
+ */
+public class Headless {
+
+  private Headless() {
+  }
+
+  /**
+   * Create the diagram panel if needed and clear the current diagram.
+   *
+   * @return the diagram panel
+   */
+  public static PanelClassDiagram init() {
+    if (System.getProperty("java.awt.headless") == null) System.setProperty("java.awt.headless", "true");
+
+    PanelClassDiagram panel = PanelClassDiagram.getInstance();
+    panel.cleanApplication();
+    Change.clear();
+    return panel;
+  }
+
+  public static ClassDiagram getClassDiagram() {
+    return PanelClassDiagram.getInstance().getClassDiagram();
+  }
+
+  public static GraphicView getRootGraphicView() {
+    return MultiViewManager.getRootGraphicView();
+  }
+
+  /**
+   * Get the rectangle containing all the entities of the view.
+   *
+   * @param graphicView the view
+   *
+   * @return the bounds of the entities, not scaled
+   */
+  public static Rectangle getDiagramBounds(GraphicView graphicView) {
+    Rectangle bounds = null;
+
+    for (EntityView entityView : graphicView.getEntitiesView())
+      if (bounds == null) bounds = entityView.getBounds();
+      else bounds.add(entityView.getBounds());
+
+    return bounds == null ? new Rectangle(0, 0, 1, 1) : bounds;
+  }
+
+  /**
+   * Open the given file, like {@link PanelClassDiagram#openFromXML(File)} but without updating the recent projects
+   * and the window.
+   *
+   * @param file the .sly file to open
+   *
+   * @throws Exception if the file cannot be parsed
+   */
+  public static void open(File file) throws Exception {
+    PanelClassDiagram panel = init();
+
+    boolean isBlocked = Change.isBlocked();
+    Change.setBlocked(true);
+    panel.setXmlImportation(true);
+
+    try {
+      XMLParser handler = new XMLParser(panel.getClassDiagram());
+      SAXParserFactory.newInstance().newSAXParser().parse(file, handler);
+      handler.createDiagram();
+    } finally {
+      panel.setXmlImportation(false);
+      Change.setBlocked(isBlocked);
+    }
+  }
+
+  /**
+   * Wait until the events already posted on the event dispatch thread are processed. Some operations of Slyum finish
+   * later on the event dispatch thread, like placing the entities added to a view.
+   */
+  public static void waitForEvents() {
+    if (SwingUtilities.isEventDispatchThread()) return;
+
+    try {
+      SwingUtilities.invokeAndWait(() -> { });
+    } catch (InterruptedException | InvocationTargetException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Save the current diagram in the given file, like the application does.
+   *
+   * @param file the destination file
+   *
+   * @throws Exception if the file cannot be written
+   */
+  public static void save(File file) throws Exception {
+    PanelClassDiagram.saveDocumentInCurrentFile(XmlFactory.getDocument(), file);
+  }
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import graphic.relations.LineView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import swing.PropertyLoader;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Painting the relations of a view, with and without the arcs drawn where lines intersect.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class LineViewBenchmark {
+  private static final int MAX_SIZE = 2048;
+
+  @Param({"true", "false"})
+  public boolean showIntersections;
+
+  private BufferedImage image;
+  private Graphics2D g2;
+  private Object previousShowIntersections;
+
+  @Setup(Level.Trial)
+  public void setUp(DiagramState diagram) {
+    Rectangle bounds = diagram.getDiagramBounds();
+
+    // Large diagrams are painted clipped, like in a window.
+    image = new BufferedImage(Math.min(bounds.x + bounds.width, MAX_SIZE), Math.min(bounds.y + bounds.height, MAX_SIZE),
+                              BufferedImage.TYPE_INT_ARGB);
+    g2 = image.createGraphics();
+
+    // Changed in memory only, the properties file of the user is not modified.
+    previousShowIntersections = PropertyLoader.getInstance().getProperties().put(
+        PropertyLoader.SHOW_INTERSECTION_LINE, String.valueOf(showIntersections));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    g2.dispose();
+
+    final Properties properties = PropertyLoader.getInstance().getProperties();
+
+    if (previousShowIntersections == null)
+      properties.remove(PropertyLoader.SHOW_INTERSECTION_LINE);
+    else
+      properties.put(PropertyLoader.SHOW_INTERSECTION_LINE, previousShowIntersections);
+  }
+
+  @Benchmark
+  public BufferedImage paintLines(DiagramState diagram) {
+    for (LineView lineView : diagram.graphicView.getLinesView())
+      lineView.paintComponent(g2);
+    return image;
+  }
+}
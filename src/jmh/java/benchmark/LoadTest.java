@@ -0,0 +1,333 @@
+package benchmark;
+
+import change.Change;
+import graphic.GraphicView;
+import graphic.entity.EntityView;
+import graphic.export.ExportViewEps;
+import graphic.export.ExportViewImage;
+import graphic.export.ExportViewPdf;
+import graphic.export.ExportViewSvg;
+import swing.MultiViewManager;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Open diagrams headless and play the interactions of the user on them, reporting the latency percentiles of each
+ * interaction. Each interaction runs on the event dispatch thread, like in the application, and ends by painting the
+ * visible part of the view (the viewport) into an offscreen image.
+ *
+ * <ul>
+ * <li>open: open the file;</li>
+ * <li>pan: move the viewport across the diagram;</li>
+ * <li>zoom: change the scale of the view;</li>
+ * <li>select all: select all the components of the view;</li>
+ * <li>drag: press on a class, drag it and release it;</li>
+ * <li>undo, redo: undo and redo the drag;</li>
+ * <li>export png, svg, pdf, eps: export the view in a file.</li>
+ * </ul>
+ *
+ * Without file, a diagram is generated with the options of {@link DiagramGenerator}:
+ *
+ * <pre>
+ * mvn -Pbenchmark compile exec:exec@load-test -Dload-test.args="--iterations 100 large.sly"
+ * mvn -Pbenchmark compile exec:exec@load-test -Dload-test.args="--entities 2000 --views 4"
+ * </pre>
+ */
+public class LoadTest {
+  private static final double[] SCALES = {0.5, 0.75, 1.0, 1.5, 2.0};
+  private static final int DRAG_STEPS = 5, DRAG_STEP_SIZE = 20;
+
+  /**
+   * Options: --iterations (interactions of each kind, default 50), --repeat (opening and exports, default 3), --export
+   * (backends separated by commas, default png,svg,pdf,eps), --width and --height (viewport, default 1280x800). The
+   * other arguments are the .sly files to test.
+   */
+  public static void main(String[] args) throws Exception {
+    Arguments arguments = new Arguments(args);
+    List<File> files = new ArrayList<>();
+
+    for (String path : arguments.getValues())
+      files.add(new File(path));
+
+    if (files.isEmpty()) {
+      File file = File.createTempFile("slyum-load-test", ".sly");
+      file.deleteOnExit();
+      DiagramGenerator.fromArguments(arguments).generate();
+      Headless.save(file);
+      files.add(file);
+    }
+
+    LoadTest loadTest = new LoadTest(arguments);
+
+    for (File file : files)
+      loadTest.run(file);
+
+    System.exit(0);
+  }
+
+  private final int iterations;
+  private final int repeat;
+  private final String[] backends;
+  private final BufferedImage frame;
+  private final Random random = new Random(42);
+
+  private GraphicView graphicView;
+  private Rectangle viewport;
+
+  LoadTest(Arguments arguments) {
+    iterations = arguments.getInt("iterations", 50);
+    repeat = arguments.getInt("repeat", 3);
+    backends = arguments.getString("export", "png,svg,pdf,eps").split(",");
+    frame = new BufferedImage(arguments.getInt("width", 1280), arguments.getInt("height", 800),
+                              BufferedImage.TYPE_INT_ARGB);
+  }
+
+  /**
+   * Open the file and play all the interactions, then print the latencies.
+   */
+  public void run(File file) throws Exception {
+    List<Latencies> results = new ArrayList<>();
+
+    Latencies open = new Latencies("open");
+    for (int i = 0; i < repeat; i++)
+      open.measure(() -> Headless.open(file));
+    results.add(open);
+
+    Headless.waitForEvents();
+    onEventDispatchThread(() -> {
+      graphicView = Headless.getRootGraphicView();
+      viewport = new Rectangle(0, 0, frame.getWidth(), frame.getHeight());
+    });
+
+    results.add(pan());
+    results.add(zoom());
+    results.add(selectAll());
+    results.addAll(dragUndoRedo());
+
+    for (String backend : backends)
+      results.add(export(backend.trim()));
+
+    System.out.printf(Locale.ROOT, "%n%s: %d entities, %d views%n", file.getName(),
+                      graphicView.getEntitiesView().size(), MultiViewManager.getAllGraphicViews().size());
+    System.out.println(Latencies.HEADER);
+
+    for (Latencies latencies : results)
+      System.out.println(latencies);
+  }
+
+  private Latencies pan() throws Exception {
+    Latencies pan = new Latencies("pan");
+    Rectangle bounds = Headless.getDiagramBounds(graphicView);
+    int stepX = viewport.width / 4, stepY = viewport.height / 4;
+
+    for (int i = 0; i < iterations; i++)
+      pan.measure(() -> onEventDispatchThread(() -> {
+        // Scan the diagram row by row.
+        viewport.x += stepX;
+        if (viewport.x > bounds.x + bounds.width) {
+          viewport.x = 0;
+          viewport.y = viewport.y + stepY > bounds.y + bounds.height ? 0 : viewport.y + stepY;
+        }
+
+        paintViewport();
+      }));
+
+    return pan;
+  }
+
+  private Latencies zoom() throws Exception {
+    Latencies zoom = new Latencies("zoom");
+
+    for (int i = 0; i < iterations; i++) {
+      double scale = SCALES[i % SCALES.length];
+
+      zoom.measure(() -> onEventDispatchThread(() -> {
+        graphicView.setScale(scale);
+        paintViewport();
+      }));
+    }
+
+    onEventDispatchThread(() -> graphicView.setScale(1.0));
+    return zoom;
+  }
+
+  private Latencies selectAll() throws Exception {
+    Latencies selectAll = new Latencies("select all");
+
+    for (int i = 0; i < iterations; i++) {
+      selectAll.measure(() -> onEventDispatchThread(() -> {
+        graphicView.selectAll();
+        paintViewport();
+      }));
+
+      onEventDispatchThread(graphicView::unselectAll);
+    }
+
+    return selectAll;
+  }
+
+  /**
+   * Drag classes with the mouse, then undo and redo each drag.
+   */
+  private List<Latencies> dragUndoRedo() throws Exception {
+    Latencies drag = new Latencies("drag"), undo = new Latencies("undo"), redo = new Latencies("redo");
+    List<EntityView> entityViews = new ArrayList<>(graphicView.getEntitiesView());
+
+    if (entityViews.isEmpty()) return Arrays.asList(drag, undo, redo);
+
+    Change.clear();
+
+    for (int i = 0; i < iterations; i++) {
+      EntityView entityView = entityViews.get(random.nextInt(entityViews.size()));
+
+      drag.measure(() -> onEventDispatchThread(() -> {
+        Rectangle bounds = entityView.getBounds();
+        Point point = new Point(bounds.x + bounds.width / 2, bounds.y + 5);
+
+        graphicView.mousePressed(createMouseEvent(MouseEvent.MOUSE_PRESSED, point));
+        for (int step = 0; step < DRAG_STEPS; step++) {
+          point.translate(DRAG_STEP_SIZE, DRAG_STEP_SIZE);
+          graphicView.mouseDragged(createMouseEvent(MouseEvent.MOUSE_DRAGGED, point));
+        }
+        graphicView.mouseReleased(createMouseEvent(MouseEvent.MOUSE_RELEASED, point));
+
+        paintViewport();
+      }));
+
+      undo.measure(() -> onEventDispatchThread(() -> {
+        Change.undo();
+        paintViewport();
+      }));
+
+      redo.measure(() -> onEventDispatchThread(() -> {
+        Change.redo();
+        paintViewport();
+      }));
+    }
+
+    onEventDispatchThread(graphicView::unselectAll);
+    return Arrays.asList(drag, undo, redo);
+  }
+
+  private Latencies export(String backend) throws Exception {
+    Latencies export = new Latencies("export " + backend);
+    File file = File.createTempFile("slyum-load-test", "." + backend);
+
+    try {
+      for (int i = 0; i < repeat; i++)
+        export.measure(() -> onEventDispatchThread(() -> {
+          switch (backend) {
+            case "png":
+              ExportViewImage.create(graphicView).export();
+              break;
+            case "svg":
+              ExportViewSvg.create(graphicView, file).export();
+              break;
+            case "pdf":
+              ExportViewPdf.create(graphicView, file).export();
+              break;
+            case "eps":
+              ExportViewEps.create(graphicView, file).export();
+              break;
+            default:
+              throw new IllegalArgumentException("unknown backend " + backend);
+          }
+        }));
+    } finally {
+      file.delete();
+    }
+
+    return export;
+  }
+
+  /**
+   * Paint the visible part of the view, like the scroll pane of the view does.
+   */
+  private void paintViewport() {
+    Graphics2D g2 = frame.createGraphics();
+
+    try {
+      g2.translate(-viewport.x, -viewport.y);
+      g2.clip(viewport);
+      graphicView.paintScene(g2);
+    } finally {
+      g2.dispose();
+    }
+  }
+
+  /**
+   * Create a mouse event of the left button on the scene, at the given location of the diagram.
+   */
+  private MouseEvent createMouseEvent(int id, Point location) {
+    double scale = graphicView.getScale();
+    int x = (int) (location.x * scale), y = (int) (location.y * scale);
+
+    return new MouseEvent(graphicView.getScene(), id, System.currentTimeMillis(),
+                          id == MouseEvent.MOUSE_RELEASED ? 0 : MouseEvent.BUTTON1_DOWN_MASK,
+                          x, y, x, y, 1, false, MouseEvent.BUTTON1);
+  }
+
+  private static void onEventDispatchThread(Runnable runnable) throws Exception {
+    if (SwingUtilities.isEventDispatchThread()) runnable.run();
+    else SwingUtilities.invokeAndWait(runnable);
+  }
+
+  /**
+   * Latencies of an interaction.
+   */
+  private static class Latencies {
+    static final String HEADER = String.format(Locale.ROOT, "%-12s %6s %10s %10s %10s %10s %10s",
+                                               "interaction", "count", "mean ms", "p50 ms", "p90 ms", "p99 ms",
+                                               "max ms");
+
+    interface Action {
+      void run() throws Exception;
+    }
+
+    final String name;
+    long[] samples = new long[16];
+    int count = 0;
+
+    Latencies(String name) {
+      this.name = name;
+    }
+
+    void measure(Action action) throws Exception {
+      long start = System.nanoTime();
+      action.run();
+      long latency = System.nanoTime() - start;
+
+      if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+      samples[count++] = latency;
+    }
+
+    /**
+     * Get the percentile with the nearest-rank method, in milliseconds.
+     */
+    double percentile(long[] sorted, double percentile) {
+      int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+      return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+      if (count == 0) return String.format(Locale.ROOT, "%-12s %6d", name, 0);
+
+      long[] sorted = Arrays.copyOf(samples, count);
+      Arrays.sort(sorted);
+
+      return String.format(Locale.ROOT, "%-12s %6d %10.2f %10.2f %10.2f %10.2f %10.2f", name, count,
+                           Arrays.stream(sorted).average().orElse(0) / 1e6, percentile(sorted, 50),
+                           percentile(sorted, 90), percentile(sorted, 99), sorted[count - 1] / 1e6);
+    }
+  }
+}
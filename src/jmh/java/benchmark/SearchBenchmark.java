@@ -0,0 +1,47 @@
+package benchmark;
+
+import graphic.GraphicComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import swing.SearchEngine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searching the components of a view with {@link SearchEngine#initialize(String, graphic.GraphicView)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+  @Param({"e", "entity4", "operation3"})
+  public String query;
+
+  @Benchmark
+  public GraphicComponent search(DiagramState diagram) {
+    return SearchEngine.initialize(query, diagram.graphicView);
+  }
+
+  /**
+   * Type the query character by character, like in the search field.
+   */
+  @Benchmark
+  public GraphicComponent type(DiagramState diagram) {
+    GraphicComponent result = null;
+    for (int i = 1; i <= query.length(); i++)
+      result = SearchEngine.initialize(query.substring(0, i), diagram.graphicView);
+    return result;
+  }
+}
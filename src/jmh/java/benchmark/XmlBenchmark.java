@@ -0,0 +1,55 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving a diagram with {@link swing.XmlFactory} and opening it with {@link swing.XMLParser}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class XmlBenchmark {
+  private File file;
+
+  @Setup(Level.Trial)
+  public void createFile(DiagramState diagram) throws Exception {
+    file = File.createTempFile("slyum-benchmark", ".sly");
+    Headless.save(file);
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteFile() throws IOException {
+    if (file != null) file.delete();
+  }
+
+  @Benchmark
+  public void save(DiagramState diagram) throws Exception {
+    Headless.save(file);
+  }
+
+  /**
+   * Open the saved diagram. The opened diagram replaces the generated one, which is the same.
+   */
+  @Benchmark
+  public void open(DiagramState diagram) throws Exception {
+    Headless.open(file);
+  }
+}
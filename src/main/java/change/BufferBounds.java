@@ -15,6 +15,20 @@ public class BufferBounds extends BufferGraphicView {
     bounds = new Rectangle(gc.getBounds());
   }
 
+  /**
+   * Create a buffer restoring the given bounds instead of the current bounds of the component. Used when the component
+   * has already been moved, like after an animated layout.
+   *
+   * @param gc the component to restore
+   * @param bounds the bounds to restore
+   */
+  public BufferBounds(GraphicComponent gc, Rectangle bounds) {
+    super(gc.getGraphicView());
+
+    this.gc = gc;
+    this.bounds = new Rectangle(bounds);
+  }
+
   @Override
   public void restore() {
     super.restore();
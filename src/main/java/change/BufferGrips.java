@@ -0,0 +1,53 @@
+package change;
+
+import graphic.relations.LineView;
+import graphic.relations.MagneticGrip;
+import graphic.relations.RelationGrip;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Save the grips of a relation. Restoring the buffer removes the current intermediate grips and recreates the saved
+ * ones. The extremities are saved relatively to their component, like the magnetic grips do.
+ */
+public class BufferGrips extends BufferGraphicView {
+  private final LineView lineView;
+  private final List<Point> anchors = new ArrayList<>();
+  private final Point first, last;
+
+  public BufferGrips(LineView lineView) {
+    super(lineView.getGraphicView());
+
+    this.lineView = lineView;
+    for (RelationGrip grip : lineView.getPoints())
+      anchors.add(grip.getAnchor());
+
+    first = new Point(lineView.getFirstPoint().getPreferredAnchor());
+    last = new Point(lineView.getLastPoint().getPreferredAnchor());
+  }
+
+  @Override
+  public void restore() {
+    super.restore();
+
+    List<Point> route = new ArrayList<>(anchors);
+    restoreExtremity(route, 0, lineView.getFirstPoint(), first);
+    restoreExtremity(route, route.size() - 1, lineView.getLastPoint(), last);
+    lineView.applyRoute(route);
+  }
+
+  private static void restoreExtremity(List<Point> route, int index, MagneticGrip grip, Point preferredAnchor) {
+    if (!grip.isMagnetism()) return;
+
+    Rectangle bounds = grip.getAssociedComponentView().getBounds();
+    route.set(index, new Point(preferredAnchor.x + bounds.x, preferredAnchor.y + bounds.y));
+  }
+
+  @Override
+  public Object getAssociedComponent() {
+    return lineView;
+  }
+
+}
@@ -2,8 +2,9 @@ package change;
 
 import swing.PanelClassDiagram;
 import swing.Slyum;
+import utility.Instrumentation;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 
 public class Change {
 
@@ -20,10 +21,12 @@ public class Change {
   private boolean addSinceLastRecord = false;
   private boolean block = false;
   private boolean isRecord = false;
+  private boolean restoring = false;
   private int pointer = 0;
 
-  private LinkedList<Boolean> record = new LinkedList<>();
-  private LinkedList<Changeable> stack = new LinkedList<>();
+  // Accessed by index when undoing or ending a record: the lists are only changed at their end.
+  private ArrayList<Boolean> record = new ArrayList<>();
+  private ArrayList<Changeable> stack = new ArrayList<>();
 
   public void _clear() {
     stack.clear();
@@ -55,7 +58,7 @@ public class Change {
   }
 
   public Changeable _getLast() {
-    return stack.getLast();
+    return stack.get(stack.size() - 1);
   }
 
   public static int getSize() {
@@ -98,6 +101,46 @@ public class Change {
     return getInstance()._isRecord();
   }
 
+  public boolean _isRestoring() {
+    return restoring;
+  }
+
+  /**
+   * Check if an undo or a redo is running. The changes made while restoring come from the history and must not be
+   * recorded, nor trigger other changes.
+   *
+   * @return true if an undo or a redo is running
+   */
+  public static boolean isRestoring() {
+    return getInstance()._isRestoring();
+  }
+
+  /**
+   * Reopen the last record, so the next pushes are undone and redone with it, until {@link #stopRecord()} is called.
+   * The last record can be continued only if no record is running and nothing has been undone since.
+   *
+   * @return true if the last record has been reopened; false if nothing has been done
+   */
+  public boolean _continueLastRecord() {
+    if (isRecord || block || stack.isEmpty() || pointer != stack.size() - 1) return false;
+
+    // The first and the last pushes of a record are marked false when it stops, the others stay true.
+    int first = pointer - 1;
+    while (first > 0 && record.get(first))
+      first--;
+
+    for (int i = first; i <= pointer; i++)
+      record.set(i, true);
+
+    isRecord = true;
+    addSinceLastRecord = true;
+    return true;
+  }
+
+  public static boolean continueLastRecord() {
+    return getInstance()._continueLastRecord();
+  }
+
   public static void pop() {
     getInstance()._pop();
   }
@@ -105,8 +148,8 @@ public class Change {
   public void _pop() {
     if (pointer == stack.size() - 1) pointer--;
 
-    stack.removeLast();
-    record.removeLast();
+    stack.remove(stack.size() - 1);
+    record.remove(record.size() - 1);
   }
 
   public void _push(Changeable ch) {
@@ -114,11 +157,11 @@ public class Change {
 
     // Remove all elements positioned after index pointer.
     while (stack.size() > 1 && pointer < stack.size() - 1) {
-      stack.removeLast();
-      stack.removeLast();
+      stack.remove(stack.size() - 1);
+      stack.remove(stack.size() - 1);
 
-      record.removeLast();
-      record.removeLast();
+      record.remove(record.size() - 1);
+      record.remove(record.size() - 1);
     }
 
     stack.add(ch);
@@ -136,7 +179,10 @@ public class Change {
   }
 
   public static void push(Changeable ch) {
+    long start = Instrumentation.start();
     getInstance()._push(ch);
+
+    if (!isBlocked()) Instrumentation.changed("push", start);
   }
 
   /**
@@ -159,8 +205,13 @@ public class Change {
 
     final boolean isBlocked = isBlocked();
     setBlocked(true);
-    stack.get(pointer += increment).restore();
-    setBlocked(isBlocked);
+    restoring = true;
+    try {
+      stack.get(pointer += increment).restore();
+    } finally {
+      restoring = false;
+      setBlocked(isBlocked);
+    }
 
     printStackState();
 
@@ -168,7 +219,7 @@ public class Change {
 
     setHasChange(true);
 
-    if (record.get(pointer)) redo();
+    if (record.get(pointer)) _redo();
   }
 
   /**
@@ -200,11 +251,15 @@ public class Change {
   }
 
   public static void undo() {
+    long start = Instrumentation.start();
     getInstance()._undo();
+    Instrumentation.changed("undo", start);
   }
 
   public static void redo() {
+    long start = Instrumentation.start();
     getInstance()._redo();
+    Instrumentation.changed("redo", start);
   }
 
   public void _undo() {
@@ -214,15 +269,20 @@ public class Change {
 
     final boolean isBlocked = isBlocked();
     setBlocked(true);
-    stack.get(pointer -= decrement).restore();
-    setBlocked(isBlocked);
+    restoring = true;
+    try {
+      stack.get(pointer -= decrement).restore();
+    } finally {
+      restoring = false;
+      setBlocked(isBlocked);
+    }
 
     printStackState();
     checkToolbarButtonState();
     setHasChange(true);
 
     if (record.get(pointer))
-      undo();
+      _undo();
   }
 
   public static void checkToolbarButtonState() {
@@ -230,7 +290,8 @@ public class Change {
   }
 
   public void _checkToolbarButtonState() {
-    if (PanelClassDiagram.getInstance() == null)
+    // No buttons without the main window, like when running headless.
+    if (PanelClassDiagram.getInstance() == null || Slyum.getInstance() == null)
       return;
 
     Slyum.setEnableRedoButtons(pointer < stack.size() - 1);
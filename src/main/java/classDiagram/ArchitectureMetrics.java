@@ -0,0 +1,463 @@
+package classDiagram;
+
+import classDiagram.components.Entity;
+import classDiagram.components.InterfaceEntity;
+import classDiagram.components.SimpleEntity;
+import classDiagram.relationships.Association;
+import classDiagram.relationships.Binary;
+import classDiagram.relationships.Dependency;
+import classDiagram.relationships.Inheritance;
+import classDiagram.relationships.Multi;
+import classDiagram.relationships.Relation;
+import classDiagram.relationships.Role;
+import graphic.GraphicView;
+import graphic.entity.EntityView;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import swing.MultiViewManager;
+import swing.PanelClassDiagram;
+import swing.XmlElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Architecture metrics of a class diagram, computed from the dependencies between its entities:
+ * <ul>
+ * <li>afferent coupling (Ca): the number of entities depending on an entity;</li>
+ * <li>efferent coupling (Ce): the number of entities an entity depends on;</li>
+ * <li>instability: Ce / (Ca + Ce), 0 for an entity without dependency;</li>
+ * <li>abstractness: the part of abstract classes and interfaces;</li>
+ * <li>distance from the main sequence: |abstractness + instability - 1|;</li>
+ * <li>cycles: the strongly connected components of more than one entity.</li>
+ * </ul>
+ *
+ * An entity depends on another one through a dependency, an inheritance (the child depends on the parent) or an
+ * association, in the direction it can be navigated. The metrics are given for each entity and for groups of entities,
+ * like the entities shown in a view: the coupling of a group counts the entities outside the group only.
+ *
+ * The analysis is a snapshot of the diagram. The dependencies are stored in arrays of indexes and the cycles are found
+ * with the algorithm of Tarjan, in a time linear in the number of entities and dependencies.
+ */
+public class ArchitectureMetrics implements XmlElement {
+
+  /**
+   * Analyse the given class diagram.
+   *
+   * @param classDiagram the class diagram
+   *
+   * @return the metrics of the diagram
+   */
+  public static ArchitectureMetrics analyze(ClassDiagram classDiagram) {
+    if (classDiagram == null) throw new IllegalArgumentException("classDiagram is null");
+
+    return new ArchitectureMetrics(classDiagram.getEntities(), classDiagram.getRelations());
+  }
+
+  private final Entity[] entities;
+  private final Map<Entity, Integer> indexes = new IdentityHashMap<>();
+
+  // Dependencies of each entity i, without duplicates: targets[starts[i]] to targets[starts[i + 1] - 1]. Same for the
+  // entities depending on each entity in sources.
+  private final int[] starts, targets;
+  private final int[] reverseStarts, sources;
+
+  private final boolean[] abstracts;
+
+  // Index of the cycle of each entity, -1 if it is not in a cycle.
+  private final int[] cycleOf;
+  private final List<int[]> cycles = new ArrayList<>();
+
+  private ArchitectureMetrics(List<Entity> diagramEntities, List<Relation> relations) {
+    entities = diagramEntities.toArray(new Entity[0]);
+    abstracts = new boolean[entities.length];
+
+    for (int i = 0; i < entities.length; i++) {
+      indexes.put(entities[i], i);
+      abstracts[i] = entities[i] instanceof InterfaceEntity
+                     || entities[i] instanceof SimpleEntity && ((SimpleEntity) entities[i]).isAbstract();
+    }
+
+    final Edges edges = new Edges();
+    for (Relation relation : relations)
+      addEdges(relation, edges);
+
+    starts = new int[entities.length + 1];
+    targets = group(edges.from, edges.to, edges.size, starts);
+    reverseStarts = new int[entities.length + 1];
+    sources = group(edges.to, edges.from, edges.size, reverseStarts);
+
+    cycleOf = new int[entities.length];
+    findCycles();
+  }
+
+  /**
+   * Get the metrics of the entity.
+   *
+   * @param entity the entity
+   *
+   * @return the metrics of the entity, or null if it is not in the diagram
+   */
+  public Metrics getMetrics(Entity entity) {
+    final Integer index = indexes.get(entity);
+    if (index == null) return null;
+
+    return new Metrics(1, reverseStarts[index + 1] - reverseStarts[index], starts[index + 1] - starts[index],
+                       abstracts[index] ? 1 : 0);
+  }
+
+  /**
+   * Get the metrics of a group of entities, like a module. The coupling counts the entities outside the group.
+   *
+   * @param group the entities of the group; the entities not in the diagram are ignored
+   *
+   * @return the metrics of the group
+   */
+  public Metrics getMetrics(Collection<Entity> group) {
+    // Marks of the entities in the group (1) and of the entities counted (2 for afferent, 3 for efferent).
+    final byte[] marks = new byte[entities.length];
+    final int[] members = new int[group.size()];
+    int size = 0, abstractCount = 0, afferent = 0, efferent = 0;
+
+    for (Entity entity : group) {
+      final Integer index = indexes.get(entity);
+      if (index == null || marks[index] == 1) continue;
+
+      marks[index] = 1;
+      members[size++] = index;
+      if (abstracts[index]) abstractCount++;
+    }
+
+    for (int m = 0; m < size; m++)
+      for (int e = reverseStarts[members[m]]; e < reverseStarts[members[m] + 1]; e++)
+        if (marks[sources[e]] == 0) {
+          marks[sources[e]] = 2;
+          afferent++;
+        }
+
+    for (int m = 0; m < size; m++)
+      for (int e = starts[members[m]]; e < starts[members[m] + 1]; e++)
+        if (marks[targets[e]] == 0 || marks[targets[e]] == 2) {
+          marks[targets[e]] = 3;
+          efferent++;
+        }
+
+    return new Metrics(size, afferent, efferent, size == 0 ? 0 : (double) abstractCount / size);
+  }
+
+  /**
+   * Get the cycles of dependencies: the groups of entities depending on each other, directly or not.
+   *
+   * @return the entities of each cycle
+   */
+  public List<List<Entity>> getCycles() {
+    final List<List<Entity>> result = new ArrayList<>(cycles.size());
+
+    for (int[] cycle : cycles)
+      result.add(toEntities(cycle));
+
+    return result;
+  }
+
+  /**
+   * Get the cycle containing the entity.
+   *
+   * @param entity the entity
+   *
+   * @return the entities of the cycle, or an empty list if the entity is not in a cycle
+   */
+  public List<Entity> getCycle(Entity entity) {
+    final Integer index = indexes.get(entity);
+    return index == null || cycleOf[index] == -1 ? Collections.emptyList() : toEntities(cycles.get(cycleOf[index]));
+  }
+
+  public int countDependencies() {
+    return targets.length;
+  }
+
+  private List<Entity> toEntities(int[] cycle) {
+    final List<Entity> result = new ArrayList<>(cycle.length);
+
+    for (int index : cycle)
+      result.add(entities[index]);
+
+    return result;
+  }
+
+  @Override
+  public String getXmlTagName() {
+    return "metrics";
+  }
+
+  /**
+   * Get the metrics in XML: the metrics of each entity and of each view, and the cycles.
+   */
+  @Override
+  public Element getXmlElement(Document doc) {
+    final Element metrics = doc.createElement(getXmlTagName());
+    metrics.setAttribute("dependencies", String.valueOf(countDependencies()));
+
+    final Element entitiesElement = doc.createElement("entities");
+    for (Entity entity : entities) {
+      final Element element = getMetrics(entity).getXmlElement(doc, "entity");
+      element.setAttribute("id", String.valueOf(entity.getId()));
+      element.setAttribute("name", entity.getName());
+      entitiesElement.appendChild(element);
+    }
+    metrics.appendChild(entitiesElement);
+
+    if (PanelClassDiagram.getInstance() != null) {
+      final Element views = doc.createElement("views");
+      for (GraphicView graphicView : MultiViewManager.getAllGraphicViews()) {
+        final List<Entity> group = new ArrayList<>();
+        for (EntityView entityView : graphicView.getEntitiesView())
+          group.add((Entity) entityView.getAssociatedComponent());
+
+        final Element view = getMetrics(group).getXmlElement(doc, "view");
+        view.setAttribute("name", MultiViewManager.getViewName(graphicView));
+        views.appendChild(view);
+      }
+      metrics.appendChild(views);
+    }
+
+    final Element cyclesElement = doc.createElement("cycles");
+    for (int[] cycle : cycles) {
+      final Element element = doc.createElement("cycle");
+      for (int index : cycle) {
+        final Element member = doc.createElement("entity");
+        member.setAttribute("id", String.valueOf(entities[index].getId()));
+        member.setAttribute("name", entities[index].getName());
+        element.appendChild(member);
+      }
+      cyclesElement.appendChild(element);
+    }
+    metrics.appendChild(cyclesElement);
+
+    return metrics;
+  }
+
+  /* ---------------------------------------------------------------------- */
+  /* Dependencies                                                           */
+  /* ---------------------------------------------------------------------- */
+
+  private void addEdges(Relation relation, Edges edges) {
+    if (relation instanceof Dependency || relation instanceof Inheritance) {
+      // The source of an inheritance is its child.
+      edges.add(index(relation.getSource()), index(relation.getTarget()));
+
+    } else if (relation instanceof Multi) {
+      final List<Role> roles = ((Association) relation).getRoles();
+
+      for (Role from : roles)
+        for (Role to : roles)
+          edges.add(index(from.getEntity()), index(to.getEntity()));
+
+    } else if (relation instanceof Binary) {
+      final int source = index(relation.getSource()), target = index(relation.getTarget());
+      final Association.NavigateDirection direction = ((Binary) relation).getDirected();
+
+      if (direction != Association.NavigateDirection.SECOND_TO_FIRST) edges.add(source, target);
+      if (direction != Association.NavigateDirection.FIRST_TO_SECOND) edges.add(target, source);
+    }
+  }
+
+  private int index(Entity entity) {
+    final Integer index = indexes.get(entity);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Group the edges by their first end, without duplicates, with a counting sort.
+   *
+   * @param from the first end of each edge
+   * @param to the second end of each edge
+   * @param size the number of edges
+   * @param starts receives the start of the second ends of each first end in the result, and the size of the result
+   *
+   * @return the second ends, grouped by first end
+   */
+  private static int[] group(int[] from, int[] to, int size, int[] starts) {
+    final int n = starts.length - 1;
+
+    for (int e = 0; e < size; e++)
+      starts[from[e] + 1]++;
+    for (int i = 0; i < n; i++)
+      starts[i + 1] += starts[i];
+
+    final int[] grouped = new int[size];
+    final int[] next = Arrays.copyOf(starts, n);
+    for (int e = 0; e < size; e++)
+      grouped[next[from[e]]++] = to[e];
+
+    // Remove the duplicates of each group, marking the ends seen with the index of the group.
+    final int[] seen = new int[n];
+    Arrays.fill(seen, -1);
+    int length = 0, start = 0;
+
+    for (int i = 0; i < n; i++) {
+      final int end = starts[i + 1];
+      starts[i] = length;
+
+      for (int e = start; e < end; e++)
+        if (seen[grouped[e]] != i) {
+          seen[grouped[e]] = i;
+          grouped[length++] = grouped[e];
+        }
+
+      start = end;
+    }
+    starts[n] = length;
+
+    return Arrays.copyOf(grouped, length);
+  }
+
+  /**
+   * Find the strongly connected components with the algorithm of Tarjan, without recursion: deep hierarchies must not
+   * overflow the stack.
+   */
+  private void findCycles() {
+    final int n = entities.length;
+    final int[] order = new int[n], low = new int[n];
+    final boolean[] onStack = new boolean[n];
+    final int[] stack = new int[n];
+    final int[] calls = new int[n], edges = new int[n];
+    int counter = 0, stackSize = 0;
+
+    Arrays.fill(order, -1);
+    Arrays.fill(cycleOf, -1);
+
+    for (int root = 0; root < n; root++) {
+      if (order[root] != -1) continue;
+
+      int depth = 0;
+      calls[0] = root;
+      edges[0] = starts[root];
+      order[root] = low[root] = counter++;
+      stack[stackSize++] = root;
+      onStack[root] = true;
+
+      while (depth >= 0) {
+        final int v = calls[depth];
+
+        if (edges[depth] < starts[v + 1]) {
+          final int w = targets[edges[depth]++];
+
+          if (order[w] == -1) {
+            calls[++depth] = w;
+            edges[depth] = starts[w];
+            order[w] = low[w] = counter++;
+            stack[stackSize++] = w;
+            onStack[w] = true;
+          } else if (onStack[w]) {
+            low[v] = Math.min(low[v], order[w]);
+          }
+
+          continue;
+        }
+
+        // All the dependencies of v are visited: v is the root of a component or gives its low to its caller.
+        if (low[v] == order[v]) {
+          int size = 0;
+          while (stack[stackSize - 1 - size] != v)
+            size++;
+          size++;
+
+          final int[] component = Arrays.copyOfRange(stack, stackSize - size, stackSize);
+          stackSize -= size;
+          for (int w : component)
+            onStack[w] = false;
+
+          if (size > 1) {
+            for (int w : component)
+              cycleOf[w] = cycles.size();
+            cycles.add(component);
+          }
+        }
+
+        depth--;
+        if (depth >= 0) low[calls[depth]] = Math.min(low[calls[depth]], low[v]);
+      }
+    }
+  }
+
+  /**
+   * Edges growing while reading the relations. The edges with an end outside the diagram or linking an entity to
+   * itself are ignored.
+   */
+  private static class Edges {
+    int[] from = new int[16], to = new int[16];
+    int size;
+
+    void add(int source, int target) {
+      if (source == -1 || target == -1 || source == target) return;
+
+      if (size == from.length) {
+        from = Arrays.copyOf(from, size * 2);
+        to = Arrays.copyOf(to, size * 2);
+      }
+
+      from[size] = source;
+      to[size++] = target;
+    }
+  }
+
+  /* ---------------------------------------------------------------------- */
+  /* Result                                                                 */
+  /* ---------------------------------------------------------------------- */
+
+  /**
+   * Metrics of an entity or of a group of entities.
+   */
+  public static class Metrics {
+    private final int entities, afferent, efferent;
+    private final double abstractness;
+
+    private Metrics(int entities, int afferent, int efferent, double abstractness) {
+      this.entities = entities;
+      this.afferent = afferent;
+      this.efferent = efferent;
+      this.abstractness = abstractness;
+    }
+
+    public int getEntities() {
+      return entities;
+    }
+
+    public int getAfferentCoupling() {
+      return afferent;
+    }
+
+    public int getEfferentCoupling() {
+      return efferent;
+    }
+
+    public double getInstability() {
+      return afferent + efferent == 0 ? 0 : (double) efferent / (afferent + efferent);
+    }
+
+    public double getAbstractness() {
+      return abstractness;
+    }
+
+    public double getDistance() {
+      return Math.abs(getAbstractness() + getInstability() - 1);
+    }
+
+    private Element getXmlElement(Document doc, String tagName) {
+      final Element element = doc.createElement(tagName);
+      element.setAttribute("entities", String.valueOf(entities));
+      element.setAttribute("afferent", String.valueOf(afferent));
+      element.setAttribute("efferent", String.valueOf(efferent));
+      element.setAttribute("instability", String.format(Locale.ROOT, "%.3f", getInstability()));
+      element.setAttribute("abstractness", String.format(Locale.ROOT, "%.3f", getAbstractness()));
+      element.setAttribute("distance", String.format(Locale.ROOT, "%.3f", getDistance()));
+      return element;
+    }
+  }
+}
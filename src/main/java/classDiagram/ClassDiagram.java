@@ -20,8 +20,9 @@ import graphic.GraphicView;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import swing.XmlElement;
-import utility.Utility;
+import utility.Instrumentation;
 
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Observable;
@@ -43,6 +44,7 @@ public class ClassDiagram extends Observable
   }
 
   LinkedList<IDiagramComponent> components = new LinkedList<>();
+  HashSet<IDiagramComponent> componentsSet = new HashSet<>();
   LinkedList<Entity> entities = new LinkedList<>();
   LinkedList<IComponentsObserver> observers = new LinkedList<>();
   private boolean defaultViewEnum;
@@ -51,9 +53,16 @@ public class ClassDiagram extends Observable
   private String informations = "";
   private ViewEntity viewEntity;
   private boolean visibleType;
+  private DiagramChanges batchChanges;
+  private final TypeRegistry types;
+  private final DiagramStatistics statistics;
+  private final ModelValidator validator;
 
   public ClassDiagram() {
     initDefaultAttributes();
+    types = new TypeRegistry(this);
+    statistics = new DiagramStatistics(this);
+    validator = new ModelValidator(this);
   }
 
   public void addAggregation(Aggregation component) {
@@ -63,9 +72,7 @@ public class ClassDiagram extends Observable
   public void addAggregation(Aggregation component, boolean notifyGraphicView) {
 
     if (addComponent(component))
-      for (final IComponentsObserver c : observers)
-        if (notifyGraphicView || !(c instanceof GraphicView))
-          c.notifyAggregationCreation(component);
+      notifyCreation(component, notifyGraphicView);
   }
 
   public void addAssociationClass(AssociationClass component) {
@@ -75,11 +82,7 @@ public class ClassDiagram extends Observable
   public void addAssociationClass(AssociationClass component, boolean notifyGraphicView) {
 
     if (addComponent(component)) {
-
-      for (final IComponentsObserver c : observers)
-        if (notifyGraphicView || !(c instanceof GraphicView))
-          c.notifyAssociationClassCreation(component);
-
+      notifyCreation(component, notifyGraphicView);
       entities.addFirst(component);
     }
   }
@@ -92,9 +95,7 @@ public class ClassDiagram extends Observable
   public void addBinary(Binary component, boolean notifyGraphicView) {
 
     if (addComponent(component))
-      for (final IComponentsObserver c : observers)
-        if (notifyGraphicView || !(c instanceof GraphicView))
-          c.notifyBinaryCreation(component);
+      notifyCreation(component, notifyGraphicView);
   }
 
   public void addClassEntity(ClassEntity component) {
@@ -104,9 +105,7 @@ public class ClassDiagram extends Observable
   public void addClassEntity(ClassEntity component, boolean notifyGraphicView) {
 
     if (addComponent(component)) {
-      for (final IComponentsObserver c : observers)
-        if (notifyGraphicView || !(c instanceof GraphicView))
-          c.notifyClassEntityCreation(component);
+      notifyCreation(component, notifyGraphicView);
       entities.addFirst(component);
     }
   }
@@ -129,9 +128,7 @@ public class ClassDiagram extends Observable
   public void addComposition(Composition component, boolean notifyGraphicView) {
 
     if (addComponent(component))
-      for (final IComponentsObserver c : observers)
-        if (notifyGraphicView || !(c instanceof GraphicView))
-          c.notifyCompositionCreation(component);
+      notifyCreation(component, notifyGraphicView);
   }
 
   public void addDependency(Dependency component) {
@@ -141,9 +138,7 @@ public class ClassDiagram extends Observable
   public void addDependency(Dependency component, boolean notifyGraphicView) {
 
     if (addComponent(component))
-      for (final IComponentsObserver c : observers)
-        if (notifyGraphicView || !(c instanceof GraphicView))
-          c.notifyDependencyCreation(component);
+      notifyCreation(component, notifyGraphicView);
   }
 
   public void addEnumEntity(EnumEntity component) {
@@ -153,9 +148,7 @@ public class ClassDiagram extends Observable
   public void addEnumEntity(EnumEntity component, boolean notifyGraphicView) {
 
     if (addComponent(component)) {
-      for (final IComponentsObserver c : observers)
-        if (notifyGraphicView || !(c instanceof GraphicView))
-          c.notifyEnumEntityCreation(component);
+      notifyCreation(component, notifyGraphicView);
 
       entities.addFirst(component);
     }
@@ -168,9 +161,7 @@ public class ClassDiagram extends Observable
   public void addInheritance(Inheritance component, boolean notifyGraphicView) {
 
     if (addComponent(component))
-      for (final IComponentsObserver c : observers)
-        if (notifyGraphicView || !(c instanceof GraphicView))
-          c.notifyInheritanceCreation(component);
+      notifyCreation(component, notifyGraphicView);
   }
 
   public void addInnerClass(InnerClass component) {
@@ -180,9 +171,7 @@ public class ClassDiagram extends Observable
   public void addInnerClass(InnerClass component, boolean notifyGraphicView) {
 
     if (addComponent(component))
-      for (final IComponentsObserver c : observers)
-        if (notifyGraphicView || !(c instanceof GraphicView))
-          c.notifyInnerClassCreation(component);
+      notifyCreation(component, notifyGraphicView);
   }
 
   public void addInterfaceEntity(InterfaceEntity component) {
@@ -192,9 +181,7 @@ public class ClassDiagram extends Observable
   public void addInterfaceEntity(InterfaceEntity component, boolean notifyGraphicView) {
 
     if (addComponent(component)) {
-      for (final IComponentsObserver c : observers)
-        if (notifyGraphicView || !(c instanceof GraphicView))
-          c.notifyInterfaceEntityCreation(component);
+      notifyCreation(component, notifyGraphicView);
 
       entities.addFirst(component);
     }
@@ -205,15 +192,99 @@ public class ClassDiagram extends Observable
   }
 
   public void addMulti(Multi component, boolean notifyGraphicView) {
-    if (components.contains(component)) return;
+    if (componentsSet.contains(component)) return;
 
-    for (final IComponentsObserver c : observers)
-      if (notifyGraphicView || !(c instanceof GraphicView))
-        c.notifyMultiCreation(component);
+    notifyCreation(component, notifyGraphicView);
 
     addComponent(component);
   }
 
+  /**
+   * Run the given modifications as a batch. Observers are not notified of each component added during the batch but
+   * receive all the changes at once at the end, with {@link IComponentsObserver#notifyBatchUpdate(DiagramChanges)}. So
+   * the graphic components associated with the new components do not exist before the end of the batch. Removals are
+   * still notified immediately. The observers of the existing entities are not notified of each member added but
+   * once per entity at the end (see {@link #deferNotification(Entity)}). Batches can be nested, the changes are sent
+   * at the end of the outermost one.
+   *
+   * @param modifications the modifications to run
+   */
+  public void batch(Runnable modifications) {
+    if (modifications == null) throw new IllegalArgumentException("modifications is null");
+
+    if (batchChanges != null) {
+      modifications.run();
+      return;
+    }
+
+    DiagramChanges changes = batchChanges = new DiagramChanges();
+    try {
+      modifications.run();
+    } finally {
+      batchChanges = null;
+
+      if (!changes.isEmpty()) {
+        Instrumentation.notified(observers.size());
+
+        for (final IComponentsObserver c : new LinkedList<>(observers))
+          c.notifyBatchUpdate(changes);
+      }
+
+      for (Entity entity : changes.getModified())
+        entity.notifyDeferredChanges();
+    }
+  }
+
+  /**
+   * Defer the notification of the observers of an entity to the end of the current batch, if any.
+   *
+   * @param entity the modified entity
+   *
+   * @return true if the notification is deferred; false if no batch is running
+   */
+  public boolean deferNotification(Entity entity) {
+    if (batchChanges == null) return false;
+
+    batchChanges.entityModified(entity);
+    return true;
+  }
+
+  /**
+   * Get if the class diagram is running a batch of modifications.
+   *
+   * @return true if a batch is running; false otherwise
+   */
+  public boolean isBatching() {
+    return batchChanges != null;
+  }
+
+  /**
+   * Get the registry of the types used by the members of this class diagram.
+   *
+   * @return the registry of the types
+   */
+  public TypeRegistry getTypes() {
+    return types;
+  }
+
+  /**
+   * Get the statistics of this class diagram, updated when it changes.
+   *
+   * @return the statistics
+   */
+  public DiagramStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Get the validator of the model of this class diagram.
+   *
+   * @return the validator
+   */
+  public ModelValidator getValidator() {
+    return validator;
+  }
+
   public void clean() {
     removeAll();
     initDefaultAttributes();
@@ -221,7 +292,7 @@ public class ClassDiagram extends Observable
   }
 
   public int countComponents(Class<?> type) {
-    return Utility.count(type, components);
+    return statistics.count(type);
   }
 
   public LinkedList<IDiagramComponent> getAllMainsComponents() {
@@ -375,21 +446,25 @@ public class ClassDiagram extends Observable
    * Remove all components in class diagram.
    */
   public void removeAll() {
-    while (components.size() > 0)
-      removeComponent(components.get(0));
+    batch(() -> {
+      while (components.size() > 0)
+        removeComponent(components.get(0));
+    });
   }
 
   public void removeComponent(IDiagramComponent component) {
-    if (!components.contains(component))
+    if (!componentsSet.remove(component))
       return;
 
     components.remove(component);
+    if (batchChanges != null) batchChanges.componentRemoved(component);
 
     // Optimizes this (create more array for specific elements, not just an
     // array for all components.
     if (component instanceof Entity)
       entities.remove((Entity) component);
 
+    Instrumentation.notified(observers.size());
     observers.stream().forEach(c -> c.notifyRemoveComponent(component));
 
     if (GraphicView.countGraphicComponentsAssociedWith(component) == 0) {
@@ -461,7 +536,7 @@ public class ClassDiagram extends Observable
     if (component.getId() > currentID)
       setCurrentId(component.getId() + 1);
 
-    if (!components.contains(component)) {
+    if (componentsSet.add(component)) {
       components.addFirst(component);
       return true;
     }
@@ -469,6 +544,22 @@ public class ClassDiagram extends Observable
     return false;
   }
 
+  /**
+   * Notify the observers that a component has been added, or keep it for the end of the current batch.
+   */
+  private void notifyCreation(IDiagramComponent component, boolean notifyGraphicView) {
+    if (batchChanges != null) {
+      batchChanges.componentAdded(component, notifyGraphicView);
+      return;
+    }
+
+    Instrumentation.notified(observers.size());
+
+    for (final IComponentsObserver c : observers)
+      if (notifyGraphicView || !(c instanceof GraphicView))
+        DiagramChanges.notifyCreation(c, component);
+  }
+
   private void initDefaultAttributes() {
     setViewEntity(GraphicView.getDefaultViewEntities());
     setDefaultViewMethods(GraphicView.getDefaultViewMethods());
@@ -476,6 +567,12 @@ public class ClassDiagram extends Observable
     setVisibleType(GraphicView.getDefaultVisibleTypes());
   }
 
+  @Override
+  public void notifyObservers(Object arg) {
+    Instrumentation.notified(this);
+    super.notifyObservers(arg);
+  }
+
   public enum ViewEntity {
 
     ALL, ONLY_ATTRIBUTES, ONLY_METHODS, NOTHING;
@@ -0,0 +1,135 @@
+package classDiagram;
+
+import classDiagram.components.AssociationClass;
+import classDiagram.components.ClassEntity;
+import classDiagram.components.Entity;
+import classDiagram.components.EnumEntity;
+import classDiagram.components.InterfaceEntity;
+import classDiagram.relationships.Aggregation;
+import classDiagram.relationships.Binary;
+import classDiagram.relationships.Composition;
+import classDiagram.relationships.Dependency;
+import classDiagram.relationships.Inheritance;
+import classDiagram.relationships.InnerClass;
+import classDiagram.relationships.Multi;
+import graphic.GraphicView;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Set of components added and removed during a batch of modifications of the class diagram. It is given to the
+ * observers at the end of the batch (see {@link ClassDiagram#batch(Runnable)}).
+ */
+public class DiagramChanges {
+
+  /**
+   * Call the creation method of the observer corresponding to the type of the component.
+   *
+   * @param observer the observer to notify
+   * @param component the created component
+   */
+  public static void notifyCreation(IComponentsObserver observer, IDiagramComponent component) {
+    // Subclasses must be tested before their parent class.
+    if (component instanceof AssociationClass)
+      observer.notifyAssociationClassCreation((AssociationClass) component);
+    else if (component instanceof ClassEntity)
+      observer.notifyClassEntityCreation((ClassEntity) component);
+    else if (component instanceof InterfaceEntity)
+      observer.notifyInterfaceEntityCreation((InterfaceEntity) component);
+    else if (component instanceof EnumEntity)
+      observer.notifyEnumEntityCreation((EnumEntity) component);
+    else if (component instanceof Aggregation)
+      observer.notifyAggregationCreation((Aggregation) component);
+    else if (component instanceof Composition)
+      observer.notifyCompositionCreation((Composition) component);
+    else if (component instanceof Binary)
+      observer.notifyBinaryCreation((Binary) component);
+    else if (component instanceof Multi)
+      observer.notifyMultiCreation((Multi) component);
+    else if (component instanceof Dependency)
+      observer.notifyDependencyCreation((Dependency) component);
+    else if (component instanceof Inheritance)
+      observer.notifyInheritanceCreation((Inheritance) component);
+    else if (component instanceof InnerClass)
+      observer.notifyInnerClassCreation((InnerClass) component);
+  }
+
+  private final LinkedHashSet<IDiagramComponent> added = new LinkedHashSet<>();
+  private final Set<IDiagramComponent> hiddenFromGraphicViews = new HashSet<>();
+  private final LinkedList<IDiagramComponent> removed = new LinkedList<>();
+  private final LinkedHashSet<Entity> modified = new LinkedHashSet<>();
+
+  void componentAdded(IDiagramComponent component, boolean notifyGraphicView) {
+    added.add(component);
+    if (!notifyGraphicView) hiddenFromGraphicViews.add(component);
+  }
+
+  /**
+   * Register the removal of a component. A component added and removed in the same batch is simply forgotten.
+   */
+  void componentRemoved(IDiagramComponent component) {
+    if (added.remove(component)) hiddenFromGraphicViews.remove(component);
+    else removed.add(component);
+  }
+
+  /**
+   * Register an entity whose notifications are deferred to the end of the batch.
+   */
+  void entityModified(Entity entity) {
+    modified.add(entity);
+  }
+
+  /**
+   * Get the entities modified during the batch which are neither added nor removed by it. The observers of the added
+   * entities discover them with all their members at the end of the batch.
+   */
+  List<Entity> getModified() {
+    final List<Entity> entities = new LinkedList<>();
+
+    for (Entity entity : modified)
+      if (!added.contains(entity) && !removed.contains(entity)) entities.add(entity);
+
+    return entities;
+  }
+
+  /**
+   * Get the added components, in the order they have been added.
+   *
+   * @return the added components
+   */
+  public List<IDiagramComponent> getAdded() {
+    return Collections.unmodifiableList(new LinkedList<>(added));
+  }
+
+  /**
+   * Get the removed components. Removals are notified immediately, even during a batch; they are given here for
+   * information.
+   *
+   * @return the removed components
+   */
+  public List<IDiagramComponent> getRemoved() {
+    return Collections.unmodifiableList(removed);
+  }
+
+  public boolean isEmpty() {
+    return added.isEmpty() && removed.isEmpty();
+  }
+
+  /**
+   * Notify the given observer of each added component, like if they were added outside of a batch.
+   *
+   * @param observer the observer to notify
+   */
+  public void dispatch(IComponentsObserver observer) {
+    boolean isGraphicView = observer instanceof GraphicView;
+
+    for (IDiagramComponent component : added)
+      if (!isGraphicView || !hiddenFromGraphicViews.contains(component))
+        notifyCreation(observer, component);
+  }
+}
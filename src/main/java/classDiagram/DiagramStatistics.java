@@ -0,0 +1,555 @@
+package classDiagram;
+
+import classDiagram.components.AssociationClass;
+import classDiagram.components.ClassEntity;
+import classDiagram.components.Entity;
+import classDiagram.components.EnumEntity;
+import classDiagram.components.InterfaceEntity;
+import classDiagram.components.SimpleEntity;
+import classDiagram.relationships.Aggregation;
+import classDiagram.relationships.Binary;
+import classDiagram.relationships.Composition;
+import classDiagram.relationships.Dependency;
+import classDiagram.relationships.IParentChild;
+import classDiagram.relationships.Inheritance;
+import classDiagram.relationships.InnerClass;
+import classDiagram.relationships.Multi;
+import classDiagram.relationships.Relation;
+import classDiagram.relationships.Role;
+import graphic.GraphicView;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import swing.MultiViewManager;
+import swing.PanelClassDiagram;
+import swing.XmlElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Statistics of a class diagram, updated by the events of the model instead of scanning the components: counts of the
+ * components by type, members of the entities, depth of the entities in the inheritance hierarchy, and fan-in and
+ * fan-out of the entities.
+ *
+ * A relation goes from its source to its target: the child of an inheritance, the source of a dependency or of a
+ * binary association. An association between more than two entities goes both ways between all its entities.
+ *
+ * The depths are recomputed when they are read, only for the descendants of the entities whose inheritance links
+ * changed. Every other read takes a constant time, whatever the size of the diagram. The observers of the statistics
+ * are notified after each change. Like the graphic views, the statistics must be used on the event dispatch thread.
+ */
+public class DiagramStatistics extends Observable implements IComponentsObserver, Observer, XmlElement {
+
+  /**
+   * Types of components counted, in the order of the summary and of the dump.
+   */
+  private static final Class<?>[] TYPES = {
+      ClassEntity.class, InterfaceEntity.class, EnumEntity.class, AssociationClass.class, Binary.class,
+      Aggregation.class, Composition.class, Multi.class, Dependency.class, Inheritance.class, InnerClass.class};
+
+  private static final int ATTRIBUTES = 0, METHODS = 1, VALUES = 2;
+
+  private final Map<Class<?>, Integer> counts = new HashMap<>();
+
+  // Members of each entity, and their totals.
+  private final Map<Entity, int[]> members = new IdentityHashMap<>();
+  private final int[] totalMembers = new int[3];
+
+  // Entities linked by each relation, and the relations arriving to and leaving each entity.
+  private final Map<IDiagramComponent, Entity[][]> ends = new IdentityHashMap<>();
+  private final Map<Entity, int[]> fans = new IdentityHashMap<>();
+
+  // Depth of each entity in the inheritance hierarchy, the number of entities by depth, and the entities whose
+  // descendants have depths to recompute.
+  private final Map<Entity, Integer> depths = new IdentityHashMap<>();
+  private final SortedMap<Integer, Integer> depthDistribution = new TreeMap<>();
+  private final Set<Entity> dirtyDepths = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  /**
+   * Create the statistics of the given class diagram.
+   *
+   * @param classDiagram the class diagram
+   */
+  public DiagramStatistics(ClassDiagram classDiagram) {
+    if (classDiagram == null) throw new IllegalArgumentException("classDiagram is null");
+
+    classDiagram.addComponentsObserver(this);
+  }
+
+  /**
+   * Count the components of the given type, its subclasses included.
+   *
+   * @param type the type of the components
+   *
+   * @return the number of components
+   */
+  public int count(Class<?> type) {
+    int count = 0;
+
+    for (Map.Entry<Class<?>, Integer> entry : counts.entrySet())
+      if (type.isAssignableFrom(entry.getKey())) count += entry.getValue();
+
+    return count;
+  }
+
+  /**
+   * Count the entities of the diagram.
+   *
+   * @return the number of entities
+   */
+  public int countEntities() {
+    return members.size();
+  }
+
+  /**
+   * Count the relations of the diagram.
+   *
+   * @return the number of relations
+   */
+  public int countRelations() {
+    return ends.size();
+  }
+
+  public int countAttributes() {
+    return totalMembers[ATTRIBUTES];
+  }
+
+  public int countMethods() {
+    return totalMembers[METHODS];
+  }
+
+  public int countEnumValues() {
+    return totalMembers[VALUES];
+  }
+
+  public int countAttributes(Entity entity) {
+    return get(members, entity, ATTRIBUTES);
+  }
+
+  public int countMethods(Entity entity) {
+    return get(members, entity, METHODS);
+  }
+
+  public int countEnumValues(Entity entity) {
+    return get(members, entity, VALUES);
+  }
+
+  /**
+   * Count the relations arriving to the entity.
+   *
+   * @param entity the entity
+   *
+   * @return the fan-in of the entity
+   */
+  public int getFanIn(Entity entity) {
+    return get(fans, entity, 0);
+  }
+
+  /**
+   * Count the relations leaving the entity.
+   *
+   * @param entity the entity
+   *
+   * @return the fan-out of the entity
+   */
+  public int getFanOut(Entity entity) {
+    return get(fans, entity, 1);
+  }
+
+  /**
+   * Get the depth of the entity in the inheritance hierarchy: the length of its longest chain of parents. Inner classes
+   * are not part of the hierarchy.
+   *
+   * @param entity the entity
+   *
+   * @return the depth, 0 for an entity without parent
+   */
+  public int getDepth(Entity entity) {
+    updateDepths();
+    final Integer depth = depths.get(entity);
+    return depth == null ? 0 : depth;
+  }
+
+  /**
+   * Get the number of entities at each depth of the inheritance hierarchy (see {@link #getDepth(Entity)}).
+   *
+   * @return the number of entities by depth, sorted by depth
+   */
+  public SortedMap<Integer, Integer> getDepthDistribution() {
+    updateDepths();
+    return Collections.unmodifiableSortedMap(depthDistribution);
+  }
+
+  public int getMaxDepth() {
+    updateDepths();
+    return depthDistribution.isEmpty() ? 0 : depthDistribution.lastKey();
+  }
+
+  /**
+   * Get a short description of the statistics, like {@code 12 classes, 3 interfaces, 20 relations, 45 attributes and
+   * 80 methods}.
+   *
+   * @return the description
+   */
+  public String getSummary() {
+    final StringBuilder summary = new StringBuilder();
+
+    append(summary, count(ClassEntity.class) - count(AssociationClass.class), "class", "classes");
+    append(summary, count(AssociationClass.class), "association class", "association classes");
+    append(summary, count(InterfaceEntity.class), "interface", "interfaces");
+    append(summary, count(EnumEntity.class), "enum", "enums");
+    append(summary, countRelations(), "relation", "relations");
+    append(summary, countAttributes(), "attribute", "attributes");
+    append(summary, countMethods(), "method", "methods");
+
+    final int and = summary.lastIndexOf(", ");
+    if (and != -1) summary.replace(and, and + 2, " and ");
+
+    return summary.length() == 0 ? "Empty diagram" : summary.toString();
+  }
+
+  private static void append(StringBuilder summary, int count, String singular, String plural) {
+    if (count == 0) return;
+    if (summary.length() > 0) summary.append(", ");
+    summary.append(count).append(' ').append(count == 1 ? singular : plural);
+  }
+
+  @Override
+  public String getXmlTagName() {
+    return "statistics";
+  }
+
+  /**
+   * Get the statistics in XML: the counts, the entities with their members, depth, fan-in and fan-out, and the number
+   * of components shown in each view.
+   */
+  @Override
+  public Element getXmlElement(Document doc) {
+    final Element statistics = doc.createElement(getXmlTagName());
+
+    final Element components = doc.createElement("components");
+    for (Class<?> type : TYPES) {
+      final Element count = doc.createElement("count");
+      count.setAttribute("type", type.getSimpleName());
+      count.setAttribute("value", String.valueOf(counts.getOrDefault(type, 0)));
+      components.appendChild(count);
+    }
+    components.setAttribute("entities", String.valueOf(countEntities()));
+    components.setAttribute("relations", String.valueOf(countRelations()));
+    components.setAttribute("attributes", String.valueOf(countAttributes()));
+    components.setAttribute("methods", String.valueOf(countMethods()));
+    components.setAttribute("enumValues", String.valueOf(countEnumValues()));
+    statistics.appendChild(components);
+
+    final Element hierarchy = doc.createElement("inheritanceDepths");
+    for (Map.Entry<Integer, Integer> entry : getDepthDistribution().entrySet()) {
+      final Element depth = doc.createElement("depth");
+      depth.setAttribute("value", String.valueOf(entry.getKey()));
+      depth.setAttribute("entities", String.valueOf(entry.getValue()));
+      hierarchy.appendChild(depth);
+    }
+    statistics.appendChild(hierarchy);
+
+    final Element entities = doc.createElement("entities");
+    final List<Entity> sorted = new ArrayList<>(members.keySet());
+    sorted.sort(Comparator.comparingInt(Entity::getId));
+    for (Entity entity : sorted) {
+      final Element element = doc.createElement("entity");
+      element.setAttribute("id", String.valueOf(entity.getId()));
+      element.setAttribute("name", entity.getName());
+      element.setAttribute("attributes", String.valueOf(countAttributes(entity)));
+      element.setAttribute("methods", String.valueOf(countMethods(entity)));
+      element.setAttribute("enumValues", String.valueOf(countEnumValues(entity)));
+      element.setAttribute("depth", String.valueOf(getDepth(entity)));
+      element.setAttribute("fanIn", String.valueOf(getFanIn(entity)));
+      element.setAttribute("fanOut", String.valueOf(getFanOut(entity)));
+      entities.appendChild(element);
+    }
+    statistics.appendChild(entities);
+
+    if (PanelClassDiagram.getInstance() != null) {
+      final Element views = doc.createElement("views");
+      for (GraphicView graphicView : MultiViewManager.getAllGraphicViews()) {
+        final Element view = doc.createElement("view");
+        view.setAttribute("name", MultiViewManager.getViewName(graphicView));
+        view.setAttribute("entities", String.valueOf(graphicView.countEntities()));
+        view.setAttribute("lines", String.valueOf(graphicView.countLines()));
+        view.setAttribute("notes", String.valueOf(graphicView.countNotes()));
+        views.appendChild(view);
+      }
+      statistics.appendChild(views);
+    }
+
+    return statistics;
+  }
+
+  @Override
+  public void notifyAggregationCreation(Aggregation component) {
+    addRelation(component);
+  }
+
+  @Override
+  public void notifyAssociationClassCreation(AssociationClass component) {
+    addEntity(component);
+  }
+
+  @Override
+  public void notifyBinaryCreation(Binary component) {
+    addRelation(component);
+  }
+
+  @Override
+  public void notifyClassEntityCreation(ClassEntity component) {
+    addEntity(component);
+  }
+
+  @Override
+  public void notifyCompositionCreation(Composition component) {
+    addRelation(component);
+  }
+
+  @Override
+  public void notifyDependencyCreation(Dependency component) {
+    addRelation(component);
+  }
+
+  @Override
+  public void notifyInheritanceCreation(Inheritance component) {
+    addRelation(component);
+  }
+
+  @Override
+  public void notifyInnerClassCreation(InnerClass component) {
+    addRelation(component);
+  }
+
+  @Override
+  public void notifyInterfaceEntityCreation(InterfaceEntity component) {
+    addEntity(component);
+  }
+
+  @Override
+  public void notifyEnumEntityCreation(EnumEntity component) {
+    addEntity(component);
+  }
+
+  @Override
+  public void notifyMultiCreation(Multi component) {
+    addRelation(component);
+  }
+
+  @Override
+  public void notifyRemoveComponent(IDiagramComponent component) {
+    if (component instanceof Entity && members.containsKey(component)) {
+      final Entity entity = (Entity) component;
+
+      entity.deleteObserver(this);
+      count(entity, -1);
+      addMembers(members.remove(entity), -1);
+
+      final Integer depth = depths.remove(entity);
+      if (depth != null) distribute(depth, -1);
+      dirtyDepths.remove(entity);
+      for (IParentChild link : entity.getChilds())
+        if (link instanceof Inheritance) dirtyDepths.add(link.getChild());
+
+    } else if (ends.containsKey(component)) {
+      ((Observable) component).deleteObserver(this);
+      count(component, -1);
+      link(ends.remove(component), -1);
+      if (component instanceof Inheritance) dirtyDepths.add(((Inheritance) component).getChild());
+
+    } else {
+      return;
+    }
+
+    changed();
+  }
+
+  @Override
+  public void update(Observable o, Object arg) {
+    if (members.containsKey(o)) {
+      final Entity entity = (Entity) o;
+      final int[] current = getMembers(entity);
+
+      if (Arrays.equals(current, members.get(entity))) return;
+
+      addMembers(members.put(entity, current), -1);
+      addMembers(current, 1);
+
+    } else if (ends.containsKey(o)) {
+      // The ends of a relation are changed by reconnecting it.
+      final Entity[][] previous = ends.get(o);
+      final Entity[][] current = getEnds((Relation) o);
+
+      if (Arrays.deepEquals(current, previous)) return;
+
+      link(previous, -1);
+      link(current, 1);
+      ends.put((IDiagramComponent) o, current);
+
+      if (o instanceof Inheritance) {
+        dirtyDepths.add(previous[1][0]);
+        dirtyDepths.add(current[1][0]);
+      }
+
+    } else {
+      return;
+    }
+
+    changed();
+  }
+
+  private void addEntity(Entity entity) {
+    if (members.containsKey(entity)) return;
+
+    entity.addObserver(this);
+    count(entity, 1);
+
+    final int[] current = getMembers(entity);
+    members.put(entity, current);
+    addMembers(current, 1);
+    dirtyDepths.add(entity);
+
+    changed();
+  }
+
+  private void addRelation(Relation relation) {
+    if (ends.containsKey(relation)) return;
+
+    relation.addObserver(this);
+    count(relation, 1);
+
+    final Entity[][] current = getEnds(relation);
+    ends.put(relation, current);
+    link(current, 1);
+
+    if (relation instanceof Inheritance) dirtyDepths.add(current[1][0]);
+
+    changed();
+  }
+
+  private void changed() {
+    setChanged();
+    notifyObservers();
+  }
+
+  private void count(IDiagramComponent component, int delta) {
+    counts.merge(component.getClass(), delta, Integer::sum);
+  }
+
+  private static int get(Map<Entity, int[]> map, Entity entity, int index) {
+    final int[] values = map.get(entity);
+    return values == null ? 0 : values[index];
+  }
+
+  private static int[] getMembers(Entity entity) {
+    final int[] current = new int[3];
+
+    if (entity instanceof SimpleEntity) {
+      current[ATTRIBUTES] = ((SimpleEntity) entity).getAttributes().size();
+      current[METHODS] = ((SimpleEntity) entity).getMethods().size();
+    }
+
+    if (entity instanceof EnumEntity) current[VALUES] = ((EnumEntity) entity).getEnumValues().size();
+
+    return current;
+  }
+
+  private void addMembers(int[] entityMembers, int sign) {
+    for (int i = 0; i < totalMembers.length; i++)
+      totalMembers[i] += sign * entityMembers[i];
+  }
+
+  /**
+   * Get the entities arriving to the relation and the entities leaving it: the targets, then the sources.
+   */
+  private static Entity[][] getEnds(Relation relation) {
+    if (relation instanceof Multi) {
+      final List<Role> roles = ((Multi) relation).getRoles();
+      final Entity[] entities = new Entity[roles.size()];
+
+      for (int i = 0; i < entities.length; i++)
+        entities[i] = roles.get(i).getEntity();
+
+      return new Entity[][] {entities, entities};
+    }
+
+    return new Entity[][] {{relation.getTarget()}, {relation.getSource()}};
+  }
+
+  /**
+   * Update the fans of the ends of a relation. The fans are kept for the entities not in the diagram too, the relations
+   * of an entity being removed after it and restored before it.
+   */
+  private void link(Entity[][] relationEnds, int delta) {
+    for (int i = 0; i < 2; i++)
+      for (Entity end : relationEnds[i]) {
+        if (end == null) continue;
+
+        final int[] fan = fans.computeIfAbsent(end, k -> new int[2]);
+        fan[i] += delta;
+        if (fan[0] == 0 && fan[1] == 0) fans.remove(end);
+      }
+  }
+
+  private void distribute(int depth, int delta) {
+    if (depthDistribution.merge(depth, delta, Integer::sum) == 0) depthDistribution.remove(depth);
+  }
+
+  /**
+   * Recompute the depths of the entities whose inheritance links changed, and of their descendants.
+   */
+  private void updateDepths() {
+    if (dirtyDepths.isEmpty()) return;
+
+    final Set<Entity> affected = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Entity entity : dirtyDepths)
+      if (entity != null) affected.addAll(entity.getAllChilds());
+    dirtyDepths.clear();
+
+    final Map<Entity, Integer> computed = new IdentityHashMap<>();
+    for (Entity entity : affected) {
+      if (!members.containsKey(entity)) continue;
+
+      final Integer previous = depths.get(entity);
+      final int depth = computeDepth(entity, affected, computed, new HashSet<>());
+
+      if (previous != null && previous == depth) continue;
+
+      if (previous != null) distribute(previous, -1);
+      distribute(depth, 1);
+      depths.put(entity, depth);
+    }
+  }
+
+  private int computeDepth(Entity entity, Set<Entity> affected, Map<Entity, Integer> computed, Set<Entity> visiting) {
+    if (!affected.contains(entity) && depths.containsKey(entity)) return depths.get(entity);
+    if (computed.containsKey(entity)) return computed.get(entity);
+
+    // A cycle of inheritances is reported by the validator; its entities are given the depth of the entry in it.
+    if (!visiting.add(entity)) return 0;
+
+    // The links removed from the diagram are still known by their entities, for restoring them.
+    int depth = 0;
+    for (IParentChild link : entity.getParents())
+      if (link instanceof Inheritance && ends.containsKey(link))
+        depth = Math.max(depth, computeDepth(link.getParent(), affected, computed, visiting) + 1);
+
+    visiting.remove(entity);
+    computed.put(entity, depth);
+    return depth;
+  }
+}
@@ -2,6 +2,7 @@ package classDiagram;
 
 import classDiagram.components.AssociationClass;
 import classDiagram.components.ClassEntity;
+import classDiagram.components.Entity;
 import classDiagram.components.EnumEntity;
 import classDiagram.components.InterfaceEntity;
 import classDiagram.relationships.Aggregation;
@@ -12,6 +13,8 @@ import classDiagram.relationships.Inheritance;
 import classDiagram.relationships.InnerClass;
 import classDiagram.relationships.Multi;
 
+import java.util.Collection;
+
 /**
  * Interface implemented by all listeners of class diagram. When the class diagram add, remove or change a new
  * component, it notify all listeners with the specified method.
@@ -95,4 +98,23 @@ public interface IComponentsObserver {
    */
   public void notifyRemoveComponent(IDiagramComponent component);
 
+  /**
+   * Notify that a batch of modifications is finished (see {@link ClassDiagram#batch(Runnable)}). By default, each
+   * added component is notified with its creation method. Observers can override this method to refresh only once.
+   *
+   * @param changes the components added and removed during the batch.
+   */
+  public default void notifyBatchUpdate(DiagramChanges changes) {
+    changes.dispatch(this);
+  }
+
+  /**
+   * Notify that the problems found by the validation of the model changed (see {@link ModelValidator}). By default,
+   * nothing is done.
+   *
+   * @param entities the entities whose problems, or the problems of their members, changed.
+   */
+  public default void notifyProblemsChanged(Collection<Entity> entities) {
+  }
+
 }
@@ -0,0 +1,645 @@
+package classDiagram;
+
+import classDiagram.components.AssociationClass;
+import classDiagram.components.Attribute;
+import classDiagram.components.ClassEntity;
+import classDiagram.components.ConstructorMethod;
+import classDiagram.components.Entity;
+import classDiagram.components.EnumEntity;
+import classDiagram.components.InterfaceEntity;
+import classDiagram.components.Method;
+import classDiagram.components.SimpleEntity;
+import classDiagram.components.Variable;
+import classDiagram.relationships.Aggregation;
+import classDiagram.relationships.Binary;
+import classDiagram.relationships.Composition;
+import classDiagram.relationships.Dependency;
+import classDiagram.relationships.IParentChild;
+import classDiagram.relationships.Inheritance;
+import classDiagram.relationships.InnerClass;
+import classDiagram.relationships.Multi;
+import swing.Slyum;
+
+import javax.swing.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+
+/**
+ * Validate the model of a class diagram continuously. The rules check the structure of the diagram, unlike {@link
+ * classDiagram.verifyName.ValidationName} checking the names when they are typed:
+ * <ul>
+ * <li>inheritance cycles;</li>
+ * <li>interfaces extending a class;</li>
+ * <li>types of attributes and parameters not found in the diagram nor in the common Java types;</li>
+ * <li>abstract methods of the parents not implemented by a concrete class;</li>
+ * <li>attributes and methods declared twice in the same entity.</li>
+ * </ul>
+ *
+ * The validator observes the entities and their members. A modified entity is copied on the event dispatch thread,
+ * then the rules are evaluated on a background thread from the copies only. Each result records the entities and the
+ * type names it depends on: an edit only re-evaluates the entities depending on the modified one.
+ *
+ * The problems are sent back to the event dispatch thread and the observers of the diagram are notified with {@link
+ * IComponentsObserver#notifyProblemsChanged(Collection)}.
+ */
+public class ModelValidator implements IComponentsObserver, Observer {
+
+  /**
+   * Types resolved without an entity of the same name in the diagram.
+   */
+  private static final Set<String> KNOWN_TYPES = new HashSet<>(Arrays.asList(
+      "boolean", "byte", "char", "chat", "short", "int", "long", "float", "double", "void", "string",
+      "Object", "String", "Boolean", "Byte", "Character", "Short", "Integer", "Long", "Float", "Double", "Number",
+      "Void", "Class", "Enum", "CharSequence", "StringBuilder", "Comparable", "Comparator", "Runnable", "Thread",
+      "Throwable", "Exception", "RuntimeException", "Error", "Iterable", "Iterator", "Collection", "List",
+      "ArrayList", "LinkedList", "Set", "HashSet", "LinkedHashSet", "TreeSet", "SortedSet", "Map", "HashMap",
+      "LinkedHashMap", "TreeMap", "SortedMap", "Queue", "Deque", "ArrayDeque", "Stack", "Vector", "Optional",
+      "Stream", "Function", "BiFunction", "Consumer", "Supplier", "Predicate", "Date", "Calendar", "LocalDate",
+      "LocalTime", "LocalDateTime", "Instant", "Duration", "BigInteger", "BigDecimal", "UUID", "File", "Path"));
+
+  private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "Slyum validation");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final ClassDiagram classDiagram;
+
+  // State of the event dispatch thread.
+  private final Set<Entity> watched = identitySet();
+  private final Map<Inheritance, Entity> inheritances = new IdentityHashMap<>();
+  private final Map<Observable, Entity> owners = new IdentityHashMap<>();
+  private final Map<Entity, List<Observable>> members = new IdentityHashMap<>();
+  private final Set<Entity> dirty = identitySet();
+  private boolean flushScheduled = false;
+
+  private final Map<Entity, Map<IDiagramComponent, String>> problemsByEntity = new IdentityHashMap<>();
+  private final Map<IDiagramComponent, String> problems = new IdentityHashMap<>();
+
+  // State of the validation thread.
+  private final Evaluator evaluator = new Evaluator();
+
+  /**
+   * Create a validator observing the given class diagram.
+   *
+   * @param classDiagram the class diagram to validate
+   */
+  public ModelValidator(ClassDiagram classDiagram) {
+    if (classDiagram == null) throw new IllegalArgumentException("classDiagram is null");
+
+    this.classDiagram = classDiagram;
+    classDiagram.addComponentsObserver(this);
+  }
+
+  /**
+   * Get the problem found on the given component, an entity or one of its attributes and methods.
+   *
+   * @param component the component
+   *
+   * @return the description of the problems, or null if the component has no problem
+   */
+  public String getProblem(IDiagramComponent component) {
+    return component == null ? null : problems.get(component);
+  }
+
+  /**
+   * Get all problems found in the diagram.
+   *
+   * @return the descriptions of the problems by component
+   */
+  public Map<IDiagramComponent, String> getProblems() {
+    return Collections.unmodifiableMap(problems);
+  }
+
+  @Override
+  public void notifyAggregationCreation(Aggregation component) {
+  }
+
+  @Override
+  public void notifyAssociationClassCreation(AssociationClass component) {
+    watch(component);
+  }
+
+  @Override
+  public void notifyBinaryCreation(Binary component) {
+  }
+
+  @Override
+  public void notifyClassEntityCreation(ClassEntity component) {
+    watch(component);
+  }
+
+  @Override
+  public void notifyCompositionCreation(Composition component) {
+  }
+
+  @Override
+  public void notifyDependencyCreation(Dependency component) {
+  }
+
+  @Override
+  public void notifyInheritanceCreation(Inheritance component) {
+    if (inheritances.containsKey(component)) return;
+
+    inheritances.put(component, component.getChild());
+    component.addObserver(this);
+    markDirty(component.getChild());
+  }
+
+  @Override
+  public void notifyInnerClassCreation(InnerClass component) {
+  }
+
+  @Override
+  public void notifyInterfaceEntityCreation(InterfaceEntity component) {
+    watch(component);
+  }
+
+  @Override
+  public void notifyEnumEntityCreation(EnumEntity component) {
+    watch(component);
+  }
+
+  @Override
+  public void notifyMultiCreation(Multi component) {
+  }
+
+  @Override
+  public void notifyRemoveComponent(IDiagramComponent component) {
+    if (component instanceof Entity) {
+      Entity entity = (Entity) component;
+
+      if (!watched.remove(entity)) return;
+
+      entity.deleteObserver(this);
+      for (Observable member : members.getOrDefault(entity, Collections.emptyList())) {
+        member.deleteObserver(this);
+        owners.remove(member);
+      }
+      members.remove(entity);
+      markDirty(entity);
+
+    } else if (component instanceof Inheritance) {
+      Inheritance inheritance = (Inheritance) component;
+
+      final Entity child = inheritances.remove(inheritance);
+      if (child == null) return;
+
+      inheritance.deleteObserver(this);
+      markDirty(child);
+      markDirty(inheritance.getChild());
+    }
+  }
+
+  @Override
+  public void update(Observable o, Object arg) {
+    if (o instanceof Entity)
+      markDirty((Entity) o);
+    else if (o instanceof Inheritance && inheritances.containsKey(o)) {
+      // The inheritance could have been moved to another child.
+      final Inheritance inheritance = (Inheritance) o;
+      markDirty(inheritances.put(inheritance, inheritance.getChild()));
+      markDirty(inheritance.getChild());
+    }
+    else if (owners.containsKey(o))
+      markDirty(owners.get(o));
+  }
+
+  private void watch(Entity entity) {
+    if (!watched.add(entity)) return;
+
+    entity.addObserver(this);
+    markDirty(entity);
+  }
+
+  /**
+   * Copy the entity at the end of the current event. Notifications are numerous during an edit: the entities are
+   * copied once, with all their modifications.
+   */
+  private void markDirty(Entity entity) {
+    if (!dirty.add(entity) || flushScheduled) return;
+
+    flushScheduled = true;
+    SwingUtilities.invokeLater(this::flush);
+  }
+
+  private void flush() {
+    flushScheduled = false;
+
+    final List<EntityData> copies = new ArrayList<>();
+    final List<Entity> removed = new ArrayList<>();
+
+    final List<Entity> entities = new ArrayList<>(dirty);
+    dirty.clear();
+
+    for (Entity entity : entities)
+      if (watched.contains(entity)) {
+        watchMembers(entity);
+        copies.add(new EntityData(entity, inheritances.keySet()));
+      } else {
+        removed.add(entity);
+      }
+
+    executor.execute(() -> {
+      try {
+        final Map<Entity, Map<IDiagramComponent, String>> results = evaluator.update(copies, removed);
+
+        if (!results.isEmpty()) SwingUtilities.invokeLater(() -> apply(results));
+      } catch (RuntimeException e) {
+        Slyum.LOGGER.log(Level.SEVERE, "Unable to validate the class diagram", e);
+      }
+    });
+  }
+
+  /**
+   * Observe the attributes and the methods of the entity. Parameters are observed by their method.
+   */
+  private void watchMembers(Entity entity) {
+    final List<Observable> current = new ArrayList<>();
+
+    if (entity instanceof SimpleEntity) {
+      current.addAll(((SimpleEntity) entity).getAttributes());
+      current.addAll(((SimpleEntity) entity).getMethods());
+    }
+
+    final Set<Observable> currentSet = identitySet();
+    currentSet.addAll(current);
+
+    for (Observable member : members.getOrDefault(entity, Collections.emptyList()))
+      if (!currentSet.contains(member)) {
+        member.deleteObserver(this);
+        owners.remove(member);
+      }
+
+    for (Observable member : current)
+      if (owners.put(member, entity) == null)
+        member.addObserver(this);
+
+    members.put(entity, current);
+  }
+
+  private void apply(Map<Entity, Map<IDiagramComponent, String>> results) {
+    for (Map.Entry<Entity, Map<IDiagramComponent, String>> result : results.entrySet()) {
+      final Map<IDiagramComponent, String> previous = result.getValue().isEmpty()
+          ? problemsByEntity.remove(result.getKey())
+          : problemsByEntity.put(result.getKey(), result.getValue());
+
+      if (previous != null) problems.keySet().removeAll(previous.keySet());
+      problems.putAll(result.getValue());
+    }
+
+    final List<Entity> entities = new ArrayList<>(results.keySet());
+    for (final IComponentsObserver c : new ArrayList<>(classDiagram.observers))
+      c.notifyProblemsChanged(entities);
+  }
+
+  private static <T> Set<T> identitySet() {
+    return Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  /**
+   * Copy of an entity read by the rules. Two copies are equal if the rules give the same results for both.
+   */
+  private static class EntityData {
+    final Entity entity;
+    final String name;
+    final boolean isInterface;
+    final boolean isConcreteClass;
+    final List<Entity> parents = new ArrayList<>();
+    final List<MemberData> attributes = new ArrayList<>();
+    final List<MethodData> methods = new ArrayList<>();
+
+    EntityData(Entity entity, Set<Inheritance> inheritances) {
+      this.entity = entity;
+      name = entity.getName();
+      isInterface = entity instanceof InterfaceEntity;
+      isConcreteClass = entity instanceof ClassEntity && !((ClassEntity) entity).isAbstract();
+
+      for (IParentChild parent : entity.getParents())
+        if (parent instanceof Inheritance && inheritances.contains(parent))
+          parents.add(parent.getParent());
+
+      if (entity instanceof SimpleEntity) {
+        for (Attribute attribute : ((SimpleEntity) entity).getAttributes())
+          attributes.add(new MemberData(attribute, attribute.getName(), attribute.getType().getName()));
+
+        for (Method method : ((SimpleEntity) entity).getMethods())
+          methods.add(new MethodData(method));
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof EntityData)) return false;
+
+      EntityData other = (EntityData) o;
+      return entity == other.entity && name.equals(other.name) && isConcreteClass == other.isConcreteClass
+             && parents.equals(other.parents) && attributes.equals(other.attributes) && methods.equals(other.methods);
+    }
+
+    @Override
+    public int hashCode() {
+      return name.hashCode();
+    }
+  }
+
+  private static class MemberData {
+    final IDiagramComponent component;
+    final String name;
+    final String type;
+
+    MemberData(IDiagramComponent component, String name, String type) {
+      this.component = component;
+      this.name = name;
+      this.type = type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof MemberData)) return false;
+
+      MemberData other = (MemberData) o;
+      return component == other.component && name.equals(other.name) && type.equals(other.type);
+    }
+
+    @Override
+    public int hashCode() {
+      return name.hashCode();
+    }
+  }
+
+  private static class MethodData extends MemberData {
+    final List<String> parameterTypes = new ArrayList<>();
+    final String signature;
+    final boolean isAbstract;
+    final boolean isConstructor;
+
+    MethodData(Method method) {
+      super(method, method.getName(), method.getReturnType().getName());
+
+      for (Variable parameter : method.getParameters())
+        parameterTypes.add(parameter.getType().getName());
+
+      signature = method.getSignature();
+      isAbstract = method.isAbstract() && !method.isStatic();
+      isConstructor = method instanceof ConstructorMethod;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof MethodData)) return false;
+
+      MethodData other = (MethodData) o;
+      return super.equals(o) && signature.equals(other.signature) && isAbstract == other.isAbstract;
+    }
+
+    @Override
+    public int hashCode() {
+      return signature.hashCode();
+    }
+  }
+
+  /**
+   * Rules and their dependencies, only accessed by the validation thread.
+   */
+  private static class Evaluator {
+    private final Map<Entity, EntityData> entities = new IdentityHashMap<>();
+    private final Map<String, Set<Entity>> entitiesByName = new HashMap<>();
+
+    // Entities each result depends on, and the reverse.
+    private final Map<Entity, Set<Entity>> dependencies = new IdentityHashMap<>();
+    private final Map<Entity, Set<Entity>> dependents = new IdentityHashMap<>();
+
+    // Type names each result depends on, and the reverse.
+    private final Map<Entity, Set<String>> usedNames = new IdentityHashMap<>();
+    private final Map<String, Set<Entity>> nameUsers = new HashMap<>();
+
+    private final Map<Entity, Map<IDiagramComponent, String>> results = new IdentityHashMap<>();
+
+    /**
+     * Update the copies of the entities and evaluate the rules depending on them.
+     *
+     * @return the new problems of each re-evaluated entity, empty if it has no more problem
+     */
+    Map<Entity, Map<IDiagramComponent, String>> update(List<EntityData> copies, List<Entity> removed) {
+      final Set<Entity> affected = identitySet();
+
+      for (EntityData copy : copies) {
+        final EntityData previous = entities.put(copy.entity, copy);
+
+        if (copy.equals(previous)) continue;
+
+        if (previous == null || !previous.name.equals(copy.name)) {
+          if (previous != null) renamed(previous, affected);
+          entitiesByName.computeIfAbsent(copy.name, k -> identitySet()).add(copy.entity);
+          affected.addAll(nameUsers.getOrDefault(copy.name, Collections.emptySet()));
+        }
+
+        affected.add(copy.entity);
+
+        // The results of the other entities only depend on the name, the parents and the methods.
+        if (previous == null || !previous.name.equals(copy.name) || !previous.parents.equals(copy.parents)
+            || !previous.methods.equals(copy.methods))
+          affected.addAll(dependents.getOrDefault(copy.entity, Collections.emptySet()));
+      }
+
+      for (Entity entity : removed) {
+        final EntityData previous = entities.remove(entity);
+
+        if (previous == null) continue;
+
+        renamed(previous, affected);
+        affected.add(entity);
+        affected.addAll(dependents.getOrDefault(entity, Collections.emptySet()));
+      }
+
+      final Map<Entity, Map<IDiagramComponent, String>> changes = new IdentityHashMap<>();
+
+      for (Entity entity : affected) {
+        final Map<IDiagramComponent, String> problems = entities.containsKey(entity)
+            ? evaluate(entities.get(entity))
+            : forget(entity);
+
+        final Map<IDiagramComponent, String> previous = problems.isEmpty()
+            ? results.remove(entity)
+            : results.put(entity, problems);
+
+        if (!problems.equals(previous == null ? Collections.emptyMap() : previous))
+          changes.put(entity, problems);
+      }
+
+      return changes;
+    }
+
+    /**
+     * The name of the entity is no longer used: the types of this name must be resolved again.
+     */
+    private void renamed(EntityData previous, Set<Entity> affected) {
+      final Set<Entity> sameName = entitiesByName.get(previous.name);
+
+      if (sameName != null && sameName.remove(previous.entity) && sameName.isEmpty())
+        entitiesByName.remove(previous.name);
+
+      affected.addAll(nameUsers.getOrDefault(previous.name, Collections.emptySet()));
+    }
+
+    private Map<IDiagramComponent, String> evaluate(EntityData data) {
+      final Map<IDiagramComponent, String> problems = new LinkedHashMap<>();
+      final Set<Entity> entityDependencies = identitySet();
+      final Set<String> names = new HashSet<>();
+
+      entityDependencies.add(data.entity);
+
+      // Inheritance: the ancestors, in breadth-first order.
+      final List<EntityData> ancestors = new ArrayList<>();
+      boolean cycle = false;
+
+      final ArrayDeque<Entity> queue = new ArrayDeque<>(data.parents);
+      while (!queue.isEmpty()) {
+        final Entity ancestor = queue.poll();
+
+        if (ancestor == data.entity) cycle = true;
+        if (!entityDependencies.add(ancestor)) continue;
+
+        final EntityData ancestorData = entities.get(ancestor);
+        if (ancestorData == null) continue;
+
+        ancestors.add(ancestorData);
+        queue.addAll(ancestorData.parents);
+      }
+
+      if (cycle) report(problems, data.entity, "Inheritance cycle");
+
+      if (data.isInterface)
+        for (Entity parent : data.parents) {
+          final EntityData parentData = entities.get(parent);
+
+          if (parentData != null && !parentData.isInterface)
+            report(problems, data.entity, "Interface extends the class " + parentData.name);
+        }
+
+      if (data.isConcreteClass && !cycle) checkImplementations(data, ancestors, problems);
+
+      // Members.
+      final Set<String> attributeNames = new HashSet<>();
+      for (MemberData attribute : data.attributes) {
+        if (!attributeNames.add(attribute.name))
+          report(problems, attribute.component, "Duplicate attribute " + attribute.name);
+
+        for (String unresolved : unresolvedTypes(attribute.type, names))
+          report(problems, attribute.component, "Unresolved type " + unresolved);
+      }
+
+      final Set<String> signatures = new HashSet<>();
+      for (MethodData method : data.methods) {
+        if (!signatures.add(method.signature))
+          report(problems, method.component, "Duplicate method " + method.signature);
+
+        for (String type : method.parameterTypes)
+          for (String unresolved : unresolvedTypes(type, names))
+            report(problems, method.component, "Unresolved parameter type " + unresolved);
+      }
+
+      setDependencies(data.entity, entityDependencies, names);
+
+      return problems;
+    }
+
+    /**
+     * A concrete class must implement the abstract methods of its ancestors, or inherit an implementation.
+     */
+    private void checkImplementations(EntityData data, List<EntityData> ancestors,
+                                      Map<IDiagramComponent, String> problems) {
+      final Set<String> implemented = new HashSet<>();
+
+      for (MethodData method : data.methods)
+        if (!method.isAbstract) implemented.add(method.signature);
+
+      for (EntityData ancestor : ancestors)
+        for (MethodData method : ancestor.methods)
+          if (!method.isAbstract) implemented.add(method.signature);
+
+      final Set<String> reported = new HashSet<>();
+      for (EntityData ancestor : ancestors)
+        for (MethodData method : ancestor.methods)
+          if (method.isAbstract && !method.isConstructor && !implemented.contains(method.signature)
+              && reported.add(method.signature))
+            report(problems, data.entity,
+                   "Abstract method " + ancestor.name + "." + method.signature + " not implemented");
+    }
+
+    /**
+     * Get the names of a type not found in the diagram. Generic arguments are checked too, qualified names and type
+     * variables (a single uppercase letter) are considered resolved.
+     *
+     * @param type the name of the type
+     * @param names receives the names the result depends on
+     */
+    private List<String> unresolvedTypes(String type, Set<String> names) {
+      final List<String> unresolved = new ArrayList<>();
+
+      for (String name : TypeRegistry.getReferencedNames(type)) {
+        if (name.indexOf('.') >= 0 || KNOWN_TYPES.contains(name)
+            || name.length() == 1 && Character.isUpperCase(name.charAt(0)))
+          continue;
+
+        names.add(name);
+        if (!entitiesByName.containsKey(name)) unresolved.add(name);
+      }
+
+      return unresolved;
+    }
+
+    private static void report(Map<IDiagramComponent, String> problems, IDiagramComponent component, String problem) {
+      problems.merge(component, problem, (previous, added) -> previous + "\n" + added);
+    }
+
+    private void setDependencies(Entity entity, Set<Entity> entityDependencies, Set<String> names) {
+      forget(entity);
+
+      dependencies.put(entity, entityDependencies);
+      for (Entity dependency : entityDependencies)
+        dependents.computeIfAbsent(dependency, k -> identitySet()).add(entity);
+
+      usedNames.put(entity, names);
+      for (String name : names)
+        nameUsers.computeIfAbsent(name, k -> identitySet()).add(entity);
+    }
+
+    /**
+     * Remove the dependencies of the result of the entity.
+     *
+     * @return no problem
+     */
+    private Map<IDiagramComponent, String> forget(Entity entity) {
+      for (Entity dependency : dependencies.getOrDefault(entity, Collections.emptySet())) {
+        final Set<Entity> set = dependents.get(dependency);
+        if (set != null && set.remove(entity) && set.isEmpty()) dependents.remove(dependency);
+      }
+      dependencies.remove(entity);
+
+      for (String name : usedNames.getOrDefault(entity, Collections.emptySet())) {
+        final Set<Entity> set = nameUsers.get(name);
+        if (set != null && set.remove(entity) && set.isEmpty()) nameUsers.remove(name);
+      }
+      usedNames.remove(entity);
+
+      return Collections.emptyMap();
+    }
+  }
+}
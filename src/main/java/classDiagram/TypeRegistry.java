@@ -0,0 +1,385 @@
+package classDiagram;
+
+import classDiagram.components.AssociationClass;
+import classDiagram.components.Attribute;
+import classDiagram.components.ClassEntity;
+import classDiagram.components.Entity;
+import classDiagram.components.EnumEntity;
+import classDiagram.components.InterfaceEntity;
+import classDiagram.components.Method;
+import classDiagram.components.PrimitiveType;
+import classDiagram.components.SimpleEntity;
+import classDiagram.components.Type;
+import classDiagram.components.Variable;
+import classDiagram.relationships.Aggregation;
+import classDiagram.relationships.Binary;
+import classDiagram.relationships.Composition;
+import classDiagram.relationships.Dependency;
+import classDiagram.relationships.Inheritance;
+import classDiagram.relationships.InnerClass;
+import classDiagram.relationships.Multi;
+import swing.PanelClassDiagram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.Set;
+
+/**
+ * Types of a class diagram and their links to the entities.
+ *
+ * The types of the attributes, methods and parameters are never modified once created: members with the same type
+ * share one instance, given by {@link #intern(String)}. The registry also indexes the names referenced by the types of
+ * the members, generic arguments included: {@link #getUsages(Entity)} gets the members using an entity without walking
+ * the model, and {@link #resolve(Type)} gets the entity denoted by a type.
+ *
+ * Like the graphic views, the registry observes the entities and their members and updates the index of a member or an
+ * entity when they are notified. It must be used on the event dispatch thread.
+ */
+public class TypeRegistry implements IComponentsObserver, Observer {
+
+  /**
+   * Get a type from the registry of the current diagram. A new type is created when there is no diagram.
+   *
+   * @param name the name of the type
+   *
+   * @return the type of this name
+   */
+  public static Type internType(String name) {
+    final PanelClassDiagram panel = PanelClassDiagram.getInstance();
+    return panel == null || panel.getClassDiagram() == null
+        ? new Type(name) : panel.getClassDiagram().getTypes().intern(name);
+  }
+
+  /**
+   * Get the names referenced by a type: the type itself and its generic arguments, without the array dimensions. Names
+   * can be qualified.
+   *
+   * @param type the name of a type, like {@code Map<String, List<Item>>[]}
+   *
+   * @return the names referenced, like String and Item
+   */
+  public static List<String> getReferencedNames(String type) {
+    final List<String> names = new ArrayList<>(1);
+
+    int i = 0;
+    while (i < type.length()) {
+      if (!Character.isJavaIdentifierStart(type.charAt(i))) {
+        i++;
+        continue;
+      }
+
+      final int start = i;
+      while (i < type.length() && (Character.isJavaIdentifierPart(type.charAt(i)) || type.charAt(i) == '.'))
+        i++;
+
+      final String name = type.substring(start, i);
+      if (!name.equals("extends") && !name.equals("super")) names.add(name);
+    }
+
+    return names;
+  }
+
+  private final Map<String, Type> types = new HashMap<>();
+
+  private final Map<String, Set<Entity>> entitiesByName = new HashMap<>();
+  private final Map<Entity, String> names = new IdentityHashMap<>();
+
+  // Members of each entity, and the names referenced by the type of each member.
+  private final Map<Entity, List<IDiagramComponent>> members = new IdentityHashMap<>();
+  private final Map<IDiagramComponent, Entity> owners = new IdentityHashMap<>();
+  private final Map<IDiagramComponent, Set<String>> referencedNames = new IdentityHashMap<>();
+  private final Map<String, Set<IDiagramComponent>> usages = new HashMap<>();
+
+  /**
+   * Create the registry of the given class diagram.
+   *
+   * @param classDiagram the class diagram
+   */
+  public TypeRegistry(ClassDiagram classDiagram) {
+    if (classDiagram == null) throw new IllegalArgumentException("classDiagram is null");
+
+    for (Type primitive : new Type[] {PrimitiveType.BOOLEAN_TYPE, PrimitiveType.BYTE_TYPE, PrimitiveType.CHAR_TYPE,
+                                      PrimitiveType.DOUBLE_TYPE, PrimitiveType.FLOAT_TYPE, PrimitiveType.INTEGER_TYPE,
+                                      PrimitiveType.LONG_TYPE, PrimitiveType.STRING_TYPE, PrimitiveType.VOID_TYPE})
+      types.put(primitive.getName(), primitive);
+
+    classDiagram.addComponentsObserver(this);
+  }
+
+  /**
+   * Get the type of the given name. The same instance is returned for each name: it must not be modified.
+   *
+   * @param name the name of the type, with its generic arguments and its array dimensions
+   *
+   * @return the type of this name
+   */
+  public Type intern(String name) {
+    if (name == null) throw new IllegalArgumentException("name is null");
+
+    Type type = types.get(name);
+
+    if (type == null) {
+      type = new Type(name);
+      types.put(name, type);
+    }
+
+    return type;
+  }
+
+  /**
+   * Count the different types created by the registry.
+   *
+   * @return the number of types
+   */
+  public int countTypes() {
+    return types.size();
+  }
+
+  /**
+   * Get the entity denoted by a type, ignoring its generic arguments and its array dimensions.
+   *
+   * @param type the type
+   *
+   * @return the entity, or null if no entity has the name of the type
+   */
+  public Entity resolve(Type type) {
+    String name = type.getName();
+
+    for (int i = 0; i < name.length(); i++)
+      if (name.charAt(i) == '<' || name.charAt(i) == '[') {
+        name = name.substring(0, i);
+        break;
+      }
+
+    final Set<Entity> entities = entitiesByName.get(name.trim());
+    return entities == null ? null : entities.iterator().next();
+  }
+
+  /**
+   * Get the entities named like the given name.
+   *
+   * @param name the name
+   *
+   * @return the entities of this name
+   */
+  public Set<Entity> getEntities(String name) {
+    final Set<Entity> entities = entitiesByName.get(name);
+    return entities == null ? Collections.emptySet() : Collections.unmodifiableSet(entities);
+  }
+
+  /**
+   * Get the attributes and methods using the given entity, in the type of an attribute, the return type or the type of
+   * a parameter of a method.
+   *
+   * @param entity the entity
+   *
+   * @return the attributes and methods using the entity
+   */
+  public Set<IDiagramComponent> getUsages(Entity entity) {
+    return getUsages(entity.getName());
+  }
+
+  /**
+   * Get the attributes and methods whose type refers to the given name.
+   *
+   * @param name the name of a type, without its generic arguments and its array dimensions
+   *
+   * @return the attributes and methods using the name
+   */
+  public Set<IDiagramComponent> getUsages(String name) {
+    final Set<IDiagramComponent> components = usages.get(name);
+    return components == null ? Collections.emptySet() : Collections.unmodifiableSet(components);
+  }
+
+  /**
+   * Get the entities having an attribute or a method using the given entity (see {@link #getUsages(Entity)}).
+   *
+   * @param entity the entity
+   *
+   * @return the entities using the entity
+   */
+  public Set<Entity> getUsingEntities(Entity entity) {
+    final Set<Entity> entities = new LinkedHashSet<>();
+
+    for (IDiagramComponent member : getUsages(entity))
+      entities.add(owners.get(member));
+
+    return entities;
+  }
+
+  @Override
+  public void notifyAggregationCreation(Aggregation component) {
+  }
+
+  @Override
+  public void notifyAssociationClassCreation(AssociationClass component) {
+    watch(component);
+  }
+
+  @Override
+  public void notifyBinaryCreation(Binary component) {
+  }
+
+  @Override
+  public void notifyClassEntityCreation(ClassEntity component) {
+    watch(component);
+  }
+
+  @Override
+  public void notifyCompositionCreation(Composition component) {
+  }
+
+  @Override
+  public void notifyDependencyCreation(Dependency component) {
+  }
+
+  @Override
+  public void notifyInheritanceCreation(Inheritance component) {
+  }
+
+  @Override
+  public void notifyInnerClassCreation(InnerClass component) {
+  }
+
+  @Override
+  public void notifyInterfaceEntityCreation(InterfaceEntity component) {
+    watch(component);
+  }
+
+  @Override
+  public void notifyEnumEntityCreation(EnumEntity component) {
+    watch(component);
+  }
+
+  @Override
+  public void notifyMultiCreation(Multi component) {
+  }
+
+  @Override
+  public void notifyRemoveComponent(IDiagramComponent component) {
+    if (!(component instanceof Entity) || !names.containsKey(component)) return;
+
+    final Entity entity = (Entity) component;
+
+    entity.deleteObserver(this);
+    removeName(entity, names.remove(entity));
+
+    for (IDiagramComponent member : members.remove(entity))
+      forget(member);
+  }
+
+  @Override
+  public void update(Observable o, Object arg) {
+    if (o instanceof Entity) {
+      final Entity entity = (Entity) o;
+
+      if (!names.containsKey(entity)) return;
+
+      if (!entity.getName().equals(names.get(entity))) {
+        removeName(entity, names.get(entity));
+        addName(entity);
+      }
+
+      updateMembers(entity);
+
+    } else if (referencedNames.containsKey(o)) {
+      index((IDiagramComponent) o, getReferencedNames((IDiagramComponent) o));
+    }
+  }
+
+  private void watch(Entity entity) {
+    if (names.containsKey(entity)) return;
+
+    entity.addObserver(this);
+    addName(entity);
+    members.put(entity, new ArrayList<>());
+    updateMembers(entity);
+  }
+
+  private void addName(Entity entity) {
+    names.put(entity, entity.getName());
+    entitiesByName.computeIfAbsent(entity.getName(), k -> new LinkedHashSet<>()).add(entity);
+  }
+
+  private void removeName(Entity entity, String name) {
+    final Set<Entity> entities = entitiesByName.get(name);
+    if (entities != null && entities.remove(entity) && entities.isEmpty()) entitiesByName.remove(name);
+  }
+
+  /**
+   * Observe the attributes and methods of the entity and index their types. Parameters are observed by their method.
+   */
+  private void updateMembers(Entity entity) {
+    final List<IDiagramComponent> current = new ArrayList<>();
+
+    if (entity instanceof SimpleEntity) {
+      current.addAll(((SimpleEntity) entity).getAttributes());
+      current.addAll(((SimpleEntity) entity).getMethods());
+    }
+
+    final Set<IDiagramComponent> currentSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    currentSet.addAll(current);
+
+    for (IDiagramComponent member : members.get(entity))
+      if (!currentSet.contains(member))
+        forget(member);
+
+    for (IDiagramComponent member : current) {
+      if (owners.put(member, entity) == null) ((Observable) member).addObserver(this);
+      index(member, getReferencedNames(member));
+    }
+
+    members.put(entity, current);
+  }
+
+  private static Set<String> getReferencedNames(IDiagramComponent member) {
+    final Set<String> names = new HashSet<>();
+
+    if (member instanceof Attribute) {
+      names.addAll(getReferencedNames(((Attribute) member).getType().getName()));
+    } else {
+      final Method method = (Method) member;
+      names.addAll(getReferencedNames(method.getReturnType().getName()));
+
+      for (Variable parameter : method.getParameters())
+        names.addAll(getReferencedNames(parameter.getType().getName()));
+    }
+
+    return names;
+  }
+
+  /**
+   * Replace the names referenced by the member.
+   */
+  private void index(IDiagramComponent member, Set<String> names) {
+    final Set<String> previous = referencedNames.put(member, names);
+
+    if (previous != null)
+      for (String name : previous)
+        if (!names.contains(name)) removeUsage(name, member);
+
+    for (String name : names)
+      usages.computeIfAbsent(name, k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(member);
+  }
+
+  private void forget(IDiagramComponent member) {
+    ((Observable) member).deleteObserver(this);
+    owners.remove(member);
+
+    for (String name : referencedNames.remove(member))
+      removeUsage(name, member);
+  }
+
+  private void removeUsage(String name, IDiagramComponent member) {
+    final Set<IDiagramComponent> components = usages.get(name);
+    if (components != null && components.remove(member) && components.isEmpty()) usages.remove(name);
+  }
+}
@@ -2,10 +2,12 @@ package classDiagram.components;
 
 import change.BufferAttribute;
 import change.Change;
-import classDiagram.verifyName.TypeName;
+import classDiagram.TypeRegistry;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import java.text.ParseException;
+
 /**
  * Represent an attribute in UML structure.
  *
@@ -41,13 +43,13 @@ public class Attribute extends Variable {
    * @param attribute attribute
    */
   public Attribute(Attribute attribute) {
-    super(attribute.getName(), new Type(attribute.getType().getName()));
+    super(attribute.getName(), attribute.getType());
 
     boolean isBlocked = Change.isBlocked();
     Change.setBlocked(true);
 
     name = attribute.name;
-    type = new Type(attribute.getType().getName());
+    type = attribute.getType();
     defaultValue = attribute.defaultValue;
     visibility = attribute.visibility;
     _isStatic = attribute._isStatic;
@@ -61,7 +63,7 @@ public class Attribute extends Variable {
     Change.record();
 
     setName(attribute.getName());
-    setType(new Type(attribute.getType().getName()));
+    setType(attribute.getType());
     setDefaultValue(attribute.getDefaultValue());
     setVisibility(attribute.getVisibility());
     setStatic(attribute.isStatic());
@@ -145,43 +147,46 @@ public class Attribute extends Variable {
   }
 
   /**
-   * Change this attribute according to the text. If the syntax of the text is incorrect, this method will not make
-   * changes.
+   * Change this attribute according to the text, parsed by {@link MemberParser}. If the syntax of the text is
+   * incorrect, this method will not make changes.
    *
    * @param text the text representing an UML Attribute
    */
   public void setText(String text) {
-    if (text.length() == 0) return;
-
-    String newName;
-    Type type = getType();
-    text = text.trim();
-    Visibility newVisibility = Visibility.getVisibility(text.charAt(0));
-
-    if (newVisibility == null)
-      newVisibility = getVisibility();
-    else
-      text = text.substring(1); // Delete the first car (visibility).
-
-    final String[] subString = text.split(":");
-
-    newName = subString[0].trim();
+    if (text.trim().isEmpty()) return;
 
-    if (subString.length == 2) {
-      subString[1] = subString[1].trim();
-
-      if (!TypeName.getInstance().verifyName(subString[1])) return;
-
-      type = new Type(subString[1]);
+    try {
+      setText(MemberParser.parse(text));
+    } catch (ParseException | IllegalArgumentException e) {
+      // Syntax error: the attribute is not changed.
     }
+  }
+
+  /**
+   * Change this attribute according to a parsed member. The parts not written are kept, except the constant state
+   * which is always written in the text of an attribute. All the changes are undone at once.
+   *
+   * @param member the member, which must not be a method
+   */
+  public void setText(MemberParser.Member member) {
+    if (member.isMethod()) throw new IllegalArgumentException("member is a method");
 
     boolean isRecord = Change.isRecord();
     Change.record();
+    Change.push(new BufferAttribute(this));
 
-    setType(type);
-    setName(newName);
-    setVisibility(newVisibility);
+    boolean isBlocked = Change.isBlocked();
+    Change.setBlocked(true);
+
+    setName(member.name);
+    if (member.visibility != null) setVisibility(member.visibility);
+    if (member.type != null) setType(TypeRegistry.internType(member.type));
+    if (member.defaultValue != null) setDefaultValue(member.defaultValue);
+    if (member.isStatic) setStatic(true);
+    setConstant(member.isConstant);
 
+    Change.setBlocked(isBlocked);
+    Change.push(new BufferAttribute(this));
     if (!isRecord) Change.stopRecord();
 
     notifyObservers();
@@ -3,6 +3,8 @@ package classDiagram.components;
 import change.BufferClass;
 import change.BufferIndex;
 import change.Change;
+import classDiagram.ClassDiagram;
+import classDiagram.IDiagramComponent.UpdateMessage;
 import classDiagram.relationships.IParentChild;
 import classDiagram.relationships.Multi;
 import classDiagram.relationships.Relation;
@@ -19,9 +21,13 @@ import java.awt.datatransfer.UnsupportedFlavorException;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 
 /**
@@ -40,6 +46,9 @@ public abstract class Entity extends Type implements Cloneable, Transferable {
   protected List<Role> roles = new LinkedList<>();
   protected String stereotype = "";
 
+  // Transitive closures of the parents and the children, computed on demand and cleared when a link changes.
+  private Set<Entity> allParents, allChilds;
+
   public Entity(String name) {
     super(name);
   }
@@ -61,6 +70,7 @@ public abstract class Entity extends Type implements Cloneable, Transferable {
     if (child == null) throw new IllegalArgumentException("child is null");
 
     childs.add(child);
+    linksChanged(child);
 
     setChanged();
   }
@@ -74,6 +84,7 @@ public abstract class Entity extends Type implements Cloneable, Transferable {
     if (parent == null) throw new IllegalArgumentException("parent is null");
 
     parents.add(parent);
+    linksChanged(parent);
 
     setChanged();
   }
@@ -91,6 +102,33 @@ public abstract class Entity extends Type implements Cloneable, Transferable {
     setChanged();
   }
 
+  /**
+   * Notify the observers. During a batch of the class diagram, the notifications following the addition of members are
+   * deferred: the observers are notified once at the end of the batch (see {@link ClassDiagram#batch(Runnable)}).
+   *
+   * @param arg the message of the notification
+   */
+  @Override
+  public void notifyObservers(Object arg) {
+    if (arg == null || arg == UpdateMessage.ADD_ATTRIBUTE_NO_EDIT || arg == UpdateMessage.ADD_METHOD_NO_EDIT
+        || arg == UpdateMessage.ADD_ENUM_NO_EDIT) {
+      final PanelClassDiagram panel = PanelClassDiagram.getInstance();
+      final ClassDiagram classDiagram = panel == null ? null : panel.getClassDiagram();
+
+      if (classDiagram != null && classDiagram.deferNotification(this)) return;
+    }
+
+    super.notifyObservers(arg);
+  }
+
+  /**
+   * Notify the observers of the changes deferred during a batch, once it is over.
+   */
+  public void notifyDeferredChanges() {
+    setChanged();
+    notifyObservers();
+  }
+
   @Override
   public Entity clone() throws CloneNotSupportedException {
     try {
@@ -111,26 +149,64 @@ public abstract class Entity extends Type implements Cloneable, Transferable {
     return null;
   }
 
-  public LinkedList<Entity> getAllChilds() {
-    LinkedList<Entity> allChilds = new LinkedList<>();
-    allChilds.add(this);
-
-    for (IParentChild p : childs)
-      allChilds.addAll(p.getChild().getAllChilds());
+  /**
+   * Get this entity and all its descendants, each one once, in depth-first order. The result is cached until a link of
+   * the hierarchy changes.
+   *
+   * @return the entity and its descendants
+   */
+  public Set<Entity> getAllChilds() {
+    if (allChilds == null) {
+      final Set<Entity> closure = new LinkedHashSet<>();
+      collect(this, closure, false);
+      allChilds = Collections.unmodifiableSet(closure);
+    }
 
     return allChilds;
   }
 
-  public LinkedList<Entity> getAllParents() {
-    final LinkedList<Entity> allParents = new LinkedList<>();
-    allParents.add(this);
-
-    for (final IParentChild p : parents)
-      allParents.addAll(p.getParent().getAllParents());
+  /**
+   * Get this entity and all its ancestors, each one once, in depth-first order: the nearest ancestors come first. The
+   * result is cached until a link of the hierarchy changes.
+   *
+   * @return the entity and its ancestors
+   */
+  public Set<Entity> getAllParents() {
+    if (allParents == null) {
+      final Set<Entity> closure = new LinkedHashSet<>();
+      collect(this, closure, true);
+      allParents = Collections.unmodifiableSet(closure);
+    }
 
     return allParents;
   }
 
+  private static void collect(Entity entity, Set<Entity> closure, boolean up) {
+    if (!closure.add(entity)) return;
+
+    for (IParentChild link : up ? entity.parents : entity.childs)
+      collect(up ? link.getParent() : link.getChild(), closure, up);
+  }
+
+  /**
+   * Clear the closures changed by adding or removing the link: the ancestors of the child and its descendants, the
+   * descendants of the parent and its ancestors. An end is null while the link is being created.
+   */
+  private static void linksChanged(IParentChild link) {
+    if (link.getChild() != null) clearClosures(link.getChild(), false, new HashSet<>());
+    if (link.getParent() != null) clearClosures(link.getParent(), true, new HashSet<>());
+  }
+
+  private static void clearClosures(Entity entity, boolean up, Set<Entity> visited) {
+    if (!visited.add(entity)) return;
+
+    if (up) entity.allChilds = null;
+    else entity.allParents = null;
+
+    for (IParentChild link : up ? entity.parents : entity.childs)
+      clearClosures(up ? link.getParent() : link.getChild(), up, visited);
+  }
+
   public List<IParentChild> getChilds() {
     return childs;
   }
@@ -210,12 +286,7 @@ public abstract class Entity extends Type implements Cloneable, Transferable {
   }
 
   public boolean isChildOf(Entity entity) {
-    boolean isChild = false;
-
-    for (final IParentChild i : parents)
-      isChild |= i.getParent().isChildOf(entity);
-
-    return isChild || equals(entity);
+    return getAllParents().contains(entity);
   }
 
   @Override
@@ -228,12 +299,7 @@ public abstract class Entity extends Type implements Cloneable, Transferable {
   }
 
   public boolean isParentOf(Entity entity) {
-    boolean isParent = false;
-
-    for (final IParentChild i : childs)
-      isParent |= i.getChild().isParentOf(entity);
-
-    return isParent || equals(entity);
+    return getAllChilds().contains(entity);
   }
 
   /**
@@ -243,6 +309,7 @@ public abstract class Entity extends Type implements Cloneable, Transferable {
    */
   public void removeChild(IParentChild child) {
     childs.remove(child);
+    linksChanged(child);
 
     setChanged();
   }
@@ -254,6 +321,7 @@ public abstract class Entity extends Type implements Cloneable, Transferable {
    */
   public void removeParent(IParentChild parent) {
     parents.remove(parent);
+    linksChanged(parent);
 
     setChanged();
   }
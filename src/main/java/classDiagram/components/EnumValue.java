@@ -6,6 +6,7 @@ import classDiagram.ClassDiagram;
 import classDiagram.IDiagramComponent;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import utility.Instrumentation;
 
 import java.util.Observable;
 
@@ -72,4 +73,10 @@ public class EnumValue extends Observable
     return new EnumValue(getValue());
   }
 
+  @Override
+  public void notifyObservers(Object arg) {
+    Instrumentation.notified(this);
+    super.notifyObservers(arg);
+  }
+
 }
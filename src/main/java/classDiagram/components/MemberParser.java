@@ -0,0 +1,404 @@
+package classDiagram.components;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser for the UML notation of the members, as written when editing an attribute, a method or an enum value:
+ *
+ * <pre>
+ * [modifiers] [visibility] [modifiers] name [(parameter : Type, ...)] [: Type] [= default value] [modifiers]
+ * </pre>
+ *
+ * The visibility is one of {@code + - # ~}. Modifiers are written {@code {static}}, {@code <<static>>} or
+ * {@code «static»}; the known ones are static, abstract and const (or readOnly, final). Types can have generic
+ * arguments, qualified names and array dimensions: {@code Map<String, List<Item>>[]} gives the type
+ * {@code Map<String,List<Item>>[]}, without spaces.
+ *
+ * The text is read in one pass, character by character, without tokens: only the parts kept in the result are
+ * copied. Errors are reported by a {@link ParseException} giving the offset of the error in the text.
+ */
+public class MemberParser {
+
+  private final String text;
+  private final int end;
+  private int pos;
+
+  private MemberParser(String text, int start, int end) {
+    this.text = text;
+    this.pos = start;
+    this.end = end;
+  }
+
+  /**
+   * Parse an attribute or a method. The result is a method if the text has parameters, even empty.
+   *
+   * @param text the text of the member
+   *
+   * @return the member declared
+   *
+   * @throws ParseException if the syntax is incorrect
+   */
+  public static Member parse(String text) throws ParseException {
+    return new MemberParser(text, 0, text.length()).member();
+  }
+
+  /**
+   * Parse the value of an enum: a name, with spaces around.
+   *
+   * @param text the text of the value
+   *
+   * @return the name of the value
+   *
+   * @throws ParseException if the syntax is incorrect
+   */
+  public static String parseEnumValue(String text) throws ParseException {
+    return new MemberParser(text, 0, text.length()).enumValue();
+  }
+
+  /**
+   * Parse a list of members, one by line. Empty lines are ignored, the errors of every line are collected.
+   *
+   * @param text the lines of the members
+   * @param enumValues true for parsing enum values instead of attributes and methods
+   * @param errors receives the errors, with their offset in the whole text
+   *
+   * @return the members declared by the correct lines; for enum values, members having only a name
+   */
+  public static List<Member> parseLines(String text, boolean enumValues, List<ParseException> errors) {
+    final List<Member> members = new ArrayList<>();
+    int start = 0;
+
+    while (start <= text.length()) {
+      int lineEnd = text.indexOf('\n', start);
+      if (lineEnd == -1) lineEnd = text.length();
+
+      final MemberParser parser = new MemberParser(text, start, lineEnd);
+      parser.skipSpaces();
+
+      if (parser.pos < lineEnd)
+        try {
+          if (enumValues) {
+            final Member value = new Member();
+            value.name = parser.enumValue();
+            members.add(value);
+          } else {
+            members.add(parser.member());
+          }
+        } catch (ParseException e) {
+          errors.add(e);
+        }
+
+      start = lineEnd + 1;
+    }
+
+    return members;
+  }
+
+  /**
+   * Describe an error of {@link #parseLines(String, boolean, List)} with its line and its column in the text.
+   *
+   * @param text the parsed text
+   * @param error the error
+   *
+   * @return a message like {@code line 3, column 12: ')' expected}
+   */
+  public static String describe(String text, ParseException error) {
+    int line = 1, lineStart = 0;
+
+    for (int i = 0; i < error.getErrorOffset() && i < text.length(); i++)
+      if (text.charAt(i) == '\n') {
+        line++;
+        lineStart = i + 1;
+      }
+
+    return "line " + line + ", column " + (error.getErrorOffset() - lineStart + 1) + ": " + error.getMessage();
+  }
+
+  /* ---------------------------------------------------------------------- */
+  /* Grammar                                                                */
+  /* ---------------------------------------------------------------------- */
+
+  private Member member() throws ParseException {
+    final Member member = new Member();
+
+    // The modifiers can be written before or after the visibility.
+    modifiers(member);
+    if (pos < end) member.visibility = Visibility.getVisibility(text.charAt(pos));
+    if (member.visibility != null) pos++;
+
+    modifiers(member);
+    member.name = name();
+    skipSpaces();
+
+    if (is('(')) {
+      pos++;
+      member.parameters = new ArrayList<>();
+      parameters(member.parameters);
+    }
+
+    skipSpaces();
+    if (is(':')) {
+      pos++;
+      member.type = type();
+    }
+
+    skipSpaces();
+    if (is('=')) {
+      if (member.isMethod()) throw error("a method has no default value");
+      pos++;
+      member.defaultValue = defaultValue();
+      if (member.defaultValue.isEmpty()) throw error("default value expected");
+    }
+
+    modifiers(member);
+
+    if (pos < end) throw error("unexpected '" + text.charAt(pos) + "'");
+
+    return member;
+  }
+
+  private String enumValue() throws ParseException {
+    skipSpaces();
+    final int start = pos;
+    final String name = name();
+
+    if (!name.matches(Variable.REGEX_SEMANTIC_ATTRIBUTE)) {
+      pos = start;
+      throw error("invalid name of enum value");
+    }
+
+    skipSpaces();
+
+    if (pos < end) throw error("unexpected '" + text.charAt(pos) + "'");
+
+    return name;
+  }
+
+  private void parameters(List<Parameter> parameters) throws ParseException {
+    skipSpaces();
+    if (is(')')) {
+      pos++;
+      return;
+    }
+
+    while (true) {
+      final Parameter parameter = new Parameter();
+      parameter.name = name();
+
+      skipSpaces();
+      expect(':');
+      parameter.type = type();
+      parameters.add(parameter);
+
+      skipSpaces();
+      if (is(')')) {
+        pos++;
+        return;
+      }
+
+      expect(',');
+      skipSpaces();
+    }
+  }
+
+  private String type() throws ParseException {
+    final StringBuilder type = new StringBuilder();
+    skipSpaces();
+    typeReference(type);
+    return type.toString();
+  }
+
+  private void typeReference(StringBuilder type) throws ParseException {
+    if (is('?')) {
+      pos++;
+      type.append('?');
+      skipSpaces();
+      if (isWord("extends") || isWord("super")) throw error("bounds of wildcards are not supported");
+      return;
+    }
+
+    type.append(name());
+    while (is('.')) {
+      pos++;
+      type.append('.').append(name());
+    }
+
+    skipSpaces();
+    if (is('<')) {
+      pos++;
+      type.append('<');
+
+      skipSpaces();
+      if (!is('>'))
+        while (true) {
+          typeReference(type);
+          skipSpaces();
+
+          if (!is(',')) break;
+
+          pos++;
+          type.append(',');
+          skipSpaces();
+        }
+
+      expect('>');
+      type.append('>');
+      skipSpaces();
+    }
+
+    while (is('[')) {
+      pos++;
+      type.append('[');
+      skipSpaces();
+      while (pos < end && Character.isDigit(text.charAt(pos)))
+        type.append(text.charAt(pos++));
+      skipSpaces();
+      expect(']');
+      type.append(']');
+      skipSpaces();
+    }
+  }
+
+  /**
+   * Read a default value until the end, or until the modifiers following it. Quoted strings and brackets can contain
+   * anything.
+   */
+  private String defaultValue() throws ParseException {
+    skipSpaces();
+    final int start = pos;
+    int depth = 0, valueEnd = pos;
+
+    while (pos < end) {
+      final char c = text.charAt(pos);
+
+      if (depth == 0 && isModifierStart() && modifierEnd() != -1) break;
+
+      if (c == '"' || c == '\'') {
+        final int quote = pos++;
+        while (pos < end && text.charAt(pos) != c)
+          pos += text.charAt(pos) == '\\' ? 2 : 1;
+        if (pos >= end) {
+          pos = quote;
+          throw error("unclosed quote");
+        }
+      } else if (c == '(' || c == '[' || c == '{') {
+        depth++;
+      } else if (c == ')' || c == ']' || c == '}') {
+        depth--;
+      }
+
+      pos++;
+      if (!Character.isWhitespace(c)) valueEnd = pos;
+    }
+
+    return text.substring(start, valueEnd);
+  }
+
+  private void modifiers(Member member) throws ParseException {
+    skipSpaces();
+
+    while (isModifierStart()) {
+      final int close = modifierEnd();
+      if (close == -1) throw error("unclosed modifier");
+
+      final String modifier = text.substring(pos + (text.startsWith("<<", pos) ? 2 : 1), close).trim();
+
+      switch (modifier) {
+        case "static":
+          member.isStatic = true;
+          break;
+        case "abstract":
+          member.isAbstract = true;
+          break;
+        case "const":
+        case "readOnly":
+        case "final":
+          member.isConstant = true;
+          break;
+        default:
+          throw error("unknown modifier '" + modifier + "'");
+      }
+
+      pos = close + (text.startsWith(">>", close) ? 2 : 1);
+      skipSpaces();
+    }
+  }
+
+  private boolean isModifierStart() {
+    return is('{') || is('«') || text.startsWith("<<", pos) && pos + 1 < end;
+  }
+
+  /**
+   * Get the offset of the closing symbol of the modifier beginning at the current position, or -1 if it does not end
+   * on the same line or contains something else than a word.
+   */
+  private int modifierEnd() {
+    final String close = is('{') ? "}" : is('«') ? "»" : ">>";
+    int i = pos + (close.equals(">>") ? 2 : 1);
+
+    while (i < end && (Character.isLetter(text.charAt(i)) || Character.isWhitespace(text.charAt(i))))
+      i++;
+
+    return text.startsWith(close, i) && i + close.length() <= end ? i : -1;
+  }
+
+  private String name() throws ParseException {
+    if (pos >= end || !Character.isLetter(text.charAt(pos)) && text.charAt(pos) != '_') throw error("name expected");
+
+    final int start = pos;
+    while (pos < end && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_'))
+      pos++;
+
+    return text.substring(start, pos);
+  }
+
+  private boolean isWord(String word) {
+    return text.startsWith(word, pos) && pos + word.length() <= end
+           && (pos + word.length() == end || !Character.isLetterOrDigit(text.charAt(pos + word.length())));
+  }
+
+  private boolean is(char c) {
+    return pos < end && text.charAt(pos) == c;
+  }
+
+  private void expect(char c) throws ParseException {
+    if (!is(c)) throw error("'" + c + "' expected");
+    pos++;
+  }
+
+  private void skipSpaces() {
+    while (pos < end && Character.isWhitespace(text.charAt(pos)))
+      pos++;
+  }
+
+  private ParseException error(String message) {
+    return new ParseException(message, pos);
+  }
+
+  /* ---------------------------------------------------------------------- */
+  /* Result                                                                 */
+  /* ---------------------------------------------------------------------- */
+
+  /**
+   * A member declared in UML notation. The parts not written are null; the modifiers not written are false.
+   */
+  public static class Member {
+    public Visibility visibility;
+    public String name;
+    public String type;
+    public String defaultValue;
+    public List<Parameter> parameters;
+    public boolean isStatic, isAbstract, isConstant;
+
+    public boolean isMethod() {
+      return parameters != null;
+    }
+  }
+
+  public static class Parameter {
+    public String name;
+    public String type;
+  }
+}
@@ -4,17 +4,18 @@ import change.BufferMethod;
 import change.Change;
 import classDiagram.ClassDiagram;
 import classDiagram.IDiagramComponent;
+import classDiagram.TypeRegistry;
 import classDiagram.verifyName.MethodName;
-import classDiagram.verifyName.TypeName;
-import classDiagram.verifyName.VariableName;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import swing.PanelClassDiagram;
 import swing.Slyum;
+import utility.Instrumentation;
 import utility.PersonalizedIcon;
 import utility.SMessageDialog;
 
 import javax.swing.*;
+import java.text.ParseException;
 import java.util.LinkedList;
 import java.util.Observable;
 import java.util.Observer;
@@ -106,6 +107,7 @@ public class Method extends Observable implements IDiagramComponent, Observer, C
 
     parameter.addObserver(this);
 
+    signatureChanged();
     setChanged();
   }
 
@@ -170,6 +172,8 @@ public class Method extends Observable implements IDiagramComponent, Observer, C
 
     if (!isRecord) Change.stopRecord();
 
+    signatureChanged();
+
     notifyObservers();
   }
 
@@ -270,71 +274,52 @@ public class Method extends Observable implements IDiagramComponent, Observer, C
     return getStringFromMethod(getParametersViewStyle());
   }
 
+  /**
+   * Change this method according to the text, parsed by {@link MemberParser}. If the syntax of the text is incorrect,
+   * this method will not make changes.
+   *
+   * @param text the text representing an UML method
+   */
   public void setText(String text) {
-    if (text.length() == 0
-        || text.equals(getStringFromMethod(ParametersViewStyle.TYPE_AND_NAME)))
-      return;
-
-    String returnType = getReturnType().getName();
-    LinkedList<Variable> par = new LinkedList<>();
-    text = text.trim();
-    String newName;
-    Visibility newVisibility = Visibility.getVisibility(text.charAt(0));
-
-    if (newVisibility == null)
-      newVisibility = getVisibility();
-    else
-      text = text.substring(1); // Delete the first car (visibility).
-
-    final String[] subString = text.split("\\(");
-
-    newName = subString[0].trim();
-
-    if (!MethodName.getInstance().verifyName(newName)) newName = getName();
-
-    if (subString.length == 2) {
-      final String[] arguments = subString[1].trim().split("\\)");
-
-      if (arguments.length > 0 && arguments[0].trim().length() > 0) {
-        final String[] variables = arguments[0].split(",");
+    if (text.trim().isEmpty() || text.equals(getStringFromMethod(ParametersViewStyle.TYPE_AND_NAME))) return;
 
-        for (final String v : variables) {
-          final String[] variable = v.split(":");
-
-          if (variable[0].trim().length() == 0) continue;
-
-          if (variable.length == 2) {
-            String name = variable[0].trim(), type = variable[1].trim();
-
-            if (!VariableName.getInstance().verifyName(name)
-                || !TypeName.getInstance().verifyName(type)) continue;
-
-            par.add(new Variable(name, new Type(type)));
-          }
-        }
-      }
-
-      if (arguments.length > 1) {
-        String rt = arguments[1].substring(arguments[1].indexOf(":") + 1)
-                                .trim();
-        if (TypeName.getInstance().verifyName(rt)) returnType = rt;
-      }
+    try {
+      setText(MemberParser.parse(text));
+    } catch (ParseException | IllegalArgumentException e) {
+      // Syntax error: the method is not changed.
     }
+  }
 
+  /**
+   * Change this method according to a parsed member. The parts not written are kept: the parameters are replaced only
+   * if they are written, even empty. All the changes are undone at once.
+   *
+   * @param member the member
+   */
+  public void setText(MemberParser.Member member) {
     boolean isRecord = Change.isRecord();
     Change.record();
+    Change.push(new BufferMethod(this));
+
+    boolean isBlocked = Change.isBlocked();
+    Change.setBlocked(true);
 
-    if (subString.length == 2) clearParameters();
+    setName(member.name);
+    if (member.visibility != null) setVisibility(member.visibility);
+    if (member.type != null) setReturnType(TypeRegistry.internType(member.type));
 
-    setName(newName);
-    setVisibility(newVisibility);
+    if (member.parameters != null) {
+      clearParameters();
 
-    returnType = returnType.isEmpty() ? PrimitiveType.VOID_TYPE.getName() : returnType;
-    setReturnType(new Type(returnType));
+      for (MemberParser.Parameter parameter : member.parameters)
+        addParameter(new Variable(parameter.name, TypeRegistry.internType(parameter.type)));
+    }
 
-    for (Variable v : par)
-      addParameter(v);
+    if (member.isStatic) setStatic(true);
+    if (member.isAbstract) setAbstract(true);
 
+    Change.setBlocked(isBlocked);
+    Change.push(new BufferMethod(this));
     if (!isRecord) Change.stopRecord();
 
     notifyObservers();
@@ -415,6 +400,7 @@ public class Method extends Observable implements IDiagramComponent, Observer, C
     _isAbstract = isAbstract;
     Change.push(new BufferMethod(this));
 
+    signatureChanged();
     setChanged();
   }
 
@@ -439,6 +425,7 @@ public class Method extends Observable implements IDiagramComponent, Observer, C
     _isStatic = isStatic;
     Change.push(new BufferMethod(this));
 
+    signatureChanged();
     setChanged();
   }
 
@@ -449,6 +436,7 @@ public class Method extends Observable implements IDiagramComponent, Observer, C
       parameters.remove(parameter);
       parameters.add(index + offset, parameter);
 
+      signatureChanged();
       setChanged();
     }
   }
@@ -459,6 +447,7 @@ public class Method extends Observable implements IDiagramComponent, Observer, C
     parameter.deleteObserver(this);
     Change.push(new BufferMethod(this));
 
+    signatureChanged();
     setChanged();
   }
 
@@ -482,6 +471,7 @@ public class Method extends Observable implements IDiagramComponent, Observer, C
     this.name = name;
     Change.push(new BufferMethod(this));
 
+    signatureChanged();
     setChanged();
 
     return true;
@@ -516,9 +506,39 @@ public class Method extends Observable implements IDiagramComponent, Observer, C
   @Override
   public void update(Observable arg0, Object arg1) {
     // parameter's changed
+    signatureChanged();
     setChanged();
   }
 
+  /**
+   * Get the signature of the method: its name and the types of its parameters, like {@code add(int, List<Item>)}.
+   *
+   * @return the signature of the method
+   */
+  public String getSignature() {
+    final StringBuilder signature = new StringBuilder(name).append('(');
+
+    for (Variable parameter : parameters) {
+      if (parameter != parameters.getFirst()) signature.append(", ");
+      signature.append(parameter.getType().getName());
+    }
+
+    return signature.append(')').toString();
+  }
+
+  /**
+   * Tell the entity its methods index must be updated.
+   */
+  private void signatureChanged() {
+    if (entity != null) entity.methodsChanged();
+  }
+
+  @Override
+  public void notifyObservers(Object arg) {
+    Instrumentation.notified(this);
+    super.notifyObservers(arg);
+  }
+
   /**
    * Enumeration class for the mode of display parameters in methods.
    *
@@ -4,12 +4,22 @@ import change.BufferClass;
 import change.BufferCreationAttribute;
 import change.BufferCreationMethod;
 import change.Change;
+import classDiagram.relationships.IParentChild;
+import classDiagram.relationships.Inheritance;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import utility.SMessageDialog;
 
 import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class SimpleEntity extends Entity {
 
@@ -20,6 +30,20 @@ public class SimpleEntity extends Entity {
   private Attribute lastAddedAttribute;
   private Method lastAddedMethod;
 
+  // Incremented when a method is added, removed, moved or its signature changes: the indexes below are rebuilt when
+  // the version of this entity or of one of its ancestors changed.
+  private int methodsVersion;
+  private int indexedVersion = -1;
+  private Map<String, Method> methodsBySignature;
+
+  // Methods inherited by signature, and the ancestors and the sum of their versions when they were indexed.
+  private Set<Entity> indexedParents;
+  private List<SimpleEntity> ancestors;
+  private long ancestorsVersion;
+  private Map<String, Method> inheritedMethods;
+  private Map<String, Method> inheritedAbstractMethods;
+  private Set<String> inheritedImplementations;
+
   public SimpleEntity(String name) {
     super(name);
     initializeComponents(Visibility.PUBLIC);
@@ -97,6 +121,7 @@ public class SimpleEntity extends Entity {
 
     methods.add(index, method);
     lastAddedMethod = method;
+    methodsChanged();
 
     int i = methods.indexOf(method);
     Change.push(new BufferCreationMethod(this, method, true, i));
@@ -147,6 +172,15 @@ public class SimpleEntity extends Entity {
     return copy;
   }
 
+  /**
+   * Get if the entity has attributes or methods, without copying them.
+   *
+   * @return true if the entity has at least one attribute or method; false otherwise
+   */
+  public boolean hasMembers() {
+    return !attributes.isEmpty() || !methods.isEmpty();
+  }
+
   /**
    * Get the visibility of the entity.
    *
@@ -197,6 +231,7 @@ public class SimpleEntity extends Entity {
    */
   public void moveMethodPosition(Method method, int offset) {
     moveComponentPosition(methods, method, offset);
+    methodsChanged();
   }
 
   /**
@@ -233,6 +268,7 @@ public class SimpleEntity extends Entity {
     int i = methods.indexOf(method);
 
     if (methods.remove(method)) {
+      methodsChanged();
       Change.push(new BufferCreationMethod(this, method, false, i));
       Change.push(new BufferCreationMethod(this, method, true, i));
 
@@ -283,6 +319,118 @@ public class SimpleEntity extends Entity {
     setChanged();
   }
 
+  /**
+   * Get the method of this entity having the given signature (see {@link Method#getSignature()}).
+   *
+   * @param signature the signature of the method
+   *
+   * @return the method, or null if the entity has no method with this signature
+   */
+  public Method getMethod(String signature) {
+    if (indexedVersion != methodsVersion) {
+      methodsBySignature = new HashMap<>();
+
+      for (Method method : methods)
+        methodsBySignature.putIfAbsent(method.getSignature(), method);
+
+      indexedVersion = methodsVersion;
+    }
+
+    return methodsBySignature.get(signature);
+  }
+
+  /**
+   * Get the methods that can be overridden by this entity: the non-static methods of its ancestors by signature. When
+   * several ancestors have a method with the same signature, the method of the nearest one is given.
+   *
+   * @return the inherited methods by signature, in the order of the ancestors
+   */
+  public Map<String, Method> getInheritedMethods() {
+    updateInheritedMethods();
+    return inheritedMethods;
+  }
+
+  /**
+   * Get the abstract methods of the ancestors not implemented by this entity or one of its ancestors. A concrete class
+   * must implement them.
+   *
+   * @return the unimplemented methods, in the order of the ancestors
+   */
+  public List<Method> getUnimplementedMethods() {
+    updateInheritedMethods();
+
+    final List<Method> unimplemented = new ArrayList<>();
+
+    for (Map.Entry<String, Method> entry : inheritedAbstractMethods.entrySet()) {
+      final Method own = getMethod(entry.getKey());
+
+      if (!inheritedImplementations.contains(entry.getKey()) && (own == null || own.isAbstract() && !own.isStatic()))
+        unimplemented.add(entry.getValue());
+    }
+
+    return unimplemented;
+  }
+
+  /**
+   * Called by the methods of this entity when their signature changes.
+   */
+  void methodsChanged() {
+    methodsVersion++;
+  }
+
+  /**
+   * Index the methods of the ancestors again if the hierarchy or one of their methods changed since the last time.
+   * Checking it costs one addition by ancestor.
+   */
+  private void updateInheritedMethods() {
+    if (indexedParents == getAllParents() && ancestorsVersion == sumVersions(ancestors)) return;
+
+    indexedParents = getAllParents();
+    ancestors = new ArrayList<>();
+    final Set<SimpleEntity> visited = new HashSet<>();
+    visited.add(this);
+    collectAncestors(this, ancestors, visited);
+    ancestorsVersion = sumVersions(ancestors);
+
+    final Map<String, Method> inherited = new LinkedHashMap<>(), inheritedAbstract = new LinkedHashMap<>();
+    final Set<String> implementations = new HashSet<>();
+
+    for (SimpleEntity ancestor : ancestors)
+      for (Method method : ancestor.methods) {
+        final String signature = method.getSignature();
+
+        if (!method.isStatic()) inherited.putIfAbsent(signature, method);
+
+        if (!method.isAbstract() || method.isStatic()) implementations.add(signature);
+        else if (!(method instanceof ConstructorMethod)) inheritedAbstract.putIfAbsent(signature, method);
+      }
+
+    inheritedMethods = Collections.unmodifiableMap(inherited);
+    inheritedAbstractMethods = inheritedAbstract;
+    inheritedImplementations = implementations;
+  }
+
+  /**
+   * Collect the ancestors of the entity by its inheritances in depth-first order; the other links, like inner classes,
+   * are ignored.
+   */
+  private static void collectAncestors(SimpleEntity entity, List<SimpleEntity> ancestors, Set<SimpleEntity> visited) {
+    for (IParentChild link : entity.parents)
+      if (link instanceof Inheritance && visited.add((SimpleEntity) link.getParent())) {
+        ancestors.add((SimpleEntity) link.getParent());
+        collectAncestors((SimpleEntity) link.getParent(), ancestors, visited);
+      }
+  }
+
+  private static long sumVersions(List<SimpleEntity> entities) {
+    long sum = 0;
+
+    for (SimpleEntity entity : entities)
+      sum += entity.methodsVersion;
+
+    return sum;
+  }
+
   public Attribute getLastAddedAttribute() {
     return lastAddedAttribute;
   }
@@ -309,7 +457,7 @@ public class SimpleEntity extends Entity {
       entity.addAttribute(new Attribute(a));
 
     for (Method m : getMethods())
-      entity.addMethod(m.createCopy(this));
+      entity.addMethod(m.createCopy(entity));
 
     return entity;
   }
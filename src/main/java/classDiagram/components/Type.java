@@ -6,6 +6,7 @@ import classDiagram.IDiagramComponent;
 import classDiagram.verifyName.TypeName;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import utility.Instrumentation;
 
 import java.util.LinkedList;
 import java.util.Observable;
@@ -226,4 +227,10 @@ public class Type extends Observable implements IDiagramComponent {
     return null;
   }
 
+  @Override
+  public void notifyObservers(Object arg) {
+    Instrumentation.notified(this);
+    super.notifyObservers(arg);
+  }
+
 }
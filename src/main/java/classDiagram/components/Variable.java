@@ -7,6 +7,7 @@ import classDiagram.IDiagramComponent;
 import classDiagram.verifyName.VariableName;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import utility.Instrumentation;
 
 import java.util.Observable;
 
@@ -56,7 +57,7 @@ public class Variable extends Observable implements IDiagramComponent {
    */
   public Variable(Variable variable) {
     this.name = variable.name;
-    this.type = new Type(variable.type.getName());
+    this.type = variable.type;
   }
 
   public void setVariable(Variable variable) {
@@ -156,4 +157,10 @@ public class Variable extends Observable implements IDiagramComponent {
     return variable;
   }
 
+  @Override
+  public void notifyObservers(Object arg) {
+    Instrumentation.notified(this);
+    super.notifyObservers(arg);
+  }
+
 }
@@ -5,6 +5,7 @@ import classDiagram.components.Entity;
 import graphic.textbox.ILabelTitle;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import utility.Instrumentation;
 
 import java.util.LinkedList;
 import java.util.Observable;
@@ -18,6 +19,12 @@ import java.util.Observable;
  */
 public abstract class Association extends Observable implements Relation, ILabelTitle {
 
+  @Override
+  public void notifyObservers(Object arg) {
+    Instrumentation.notified(this);
+    super.notifyObservers(arg);
+  }
+
   public enum NavigateDirection {
     BIDIRECTIONAL, FIRST_TO_SECOND, SECOND_TO_FIRST
   }
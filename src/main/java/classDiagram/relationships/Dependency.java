@@ -5,6 +5,7 @@ import classDiagram.components.Entity;
 import graphic.textbox.ILabelTitle;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import utility.Instrumentation;
 
 import java.util.Observable;
 
@@ -152,4 +153,10 @@ public class Dependency extends Observable implements Relation, ILabelTitle {
     return dependency;
   }
 
+  @Override
+  public void notifyObservers(Object arg) {
+    Instrumentation.notified(this);
+    super.notifyObservers(arg);
+  }
+
 }
@@ -4,10 +4,12 @@ import classDiagram.ClassDiagram;
 import classDiagram.components.ClassEntity;
 import classDiagram.components.Entity;
 import classDiagram.components.InterfaceEntity;
+import classDiagram.components.Method;
 import classDiagram.components.SimpleEntity;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import swing.OverridesAndImplementationsDialog;
+import utility.Instrumentation;
 import utility.SMessageDialog;
 
 import java.util.Observable;
@@ -157,11 +159,13 @@ public class Inheritance extends Observable implements Relation, IParentChild {
     if (oai.isAccepted())
       for (OverridesAndImplementationsDialog.CheckableItem m :
           oai.getCheckableItems()) {
+        final Method overriding = child.getMethod(m.getMethod().getSignature());
+
         if (m.isSelected()) {
-          child.addMethod(m.getMethod().createCopy(child));
+          if (overriding == null) child.addMethod(m.getMethod().createCopy(child));
           thereAbstractMethod |= m.getMethod().isAbstract();
-        } else {
-          child.removeMethod(m.getMethod());
+        } else if (overriding != null) {
+          child.removeMethod(overriding);
         }
       }
     if (thereAbstractMethod && !child.isAbstract())
@@ -219,4 +223,10 @@ public class Inheritance extends Observable implements Relation, IParentChild {
     return inheritance;
   }
 
+  @Override
+  public void notifyObservers(Object arg) {
+    Instrumentation.notified(this);
+    super.notifyObservers(arg);
+  }
+
 }
@@ -4,6 +4,7 @@ import classDiagram.ClassDiagram;
 import classDiagram.components.Entity;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import utility.Instrumentation;
 
 import java.util.Observable;
 
@@ -138,4 +139,10 @@ public class InnerClass extends Observable implements Relation, IParentChild {
     return inheritance;
   }
 
+  @Override
+  public void notifyObservers(Object arg) {
+    Instrumentation.notified(this);
+    super.notifyObservers(arg);
+  }
+
 }
@@ -4,6 +4,7 @@ import classDiagram.ClassDiagram;
 import classDiagram.IDiagramComponent;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import utility.Instrumentation;
 
 import java.util.Observable;
 
@@ -163,4 +164,10 @@ public class Multiplicity extends Observable implements IDiagramComponent {
     return multiplicity;
   }
 
+  @Override
+  public void notifyObservers(Object arg) {
+    Instrumentation.notified(this);
+    super.notifyObservers(arg);
+  }
+
 }
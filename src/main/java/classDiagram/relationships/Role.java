@@ -6,6 +6,7 @@ import classDiagram.components.Entity;
 import classDiagram.components.Visibility;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import utility.Instrumentation;
 
 import java.util.Observable;
 
@@ -197,4 +198,10 @@ public class Role extends Observable implements IDiagramComponent {
     return role;
   }
 
+  @Override
+  public void notifyObservers(Object arg) {
+    Instrumentation.notified(this);
+    super.notifyObservers(arg);
+  }
+
 }
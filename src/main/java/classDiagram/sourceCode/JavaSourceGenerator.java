@@ -0,0 +1,519 @@
+package classDiagram.sourceCode;
+
+import classDiagram.ClassDiagram;
+import classDiagram.components.Attribute;
+import classDiagram.components.ConstructorMethod;
+import classDiagram.components.Entity;
+import classDiagram.components.EnumEntity;
+import classDiagram.components.EnumValue;
+import classDiagram.components.InterfaceEntity;
+import classDiagram.components.Method;
+import classDiagram.components.SimpleEntity;
+import classDiagram.components.Variable;
+import classDiagram.components.Visibility;
+import classDiagram.relationships.Association;
+import classDiagram.relationships.Association.NavigateDirection;
+import classDiagram.relationships.IParentChild;
+import classDiagram.relationships.Inheritance;
+import classDiagram.relationships.InnerClass;
+import classDiagram.relationships.Role;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generate Java skeletons from the entities of a class diagram: one file per top-level entity, inner classes are
+ * written in the file of their outer entity.
+ *
+ * The generation is incremental. A hash of the generated content is kept for each entity, in memory and in an index
+ * file in the output directory, and only the files whose content changed since the last generation are written. Files
+ * are written in parallel. A file modified since it was generated, or not generated by Slyum, is never overwritten: it
+ * is reported as a conflict. Files of removed or renamed entities are deleted, unless they have been modified since
+ * they were generated.
+ */
+public class JavaSourceGenerator {
+  private static final String INDEX_FILE = ".slyum-generation";
+  private static final String INDENT = "  ";
+
+  private final Path directory;
+  private final Map<Integer, Generated> generated = new HashMap<>();
+
+  /**
+   * Create a new generator writing in the given directory. The index of a previous generation in this directory is
+   * loaded, if any.
+   *
+   * @param directory the output directory
+   *
+   * @throws IOException if the index file exists but cannot be read
+   */
+  public JavaSourceGenerator(Path directory) throws IOException {
+    if (directory == null) throw new IllegalArgumentException("directory is null");
+
+    this.directory = directory;
+    loadIndex();
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Generate the sources of the given diagram on the calling thread, which must be the event dispatch thread. Use
+   * {@link #prepare(List)} to write the files on another thread.
+   *
+   * @param classDiagram the diagram to generate
+   *
+   * @return a summary of the generation
+   *
+   * @throws IOException if a file cannot be written
+   */
+  public Report generate(ClassDiagram classDiagram) throws IOException {
+    if (classDiagram == null) throw new IllegalArgumentException("classDiagram is null");
+
+    return generate(classDiagram.getEntities());
+  }
+
+  /**
+   * Generate the sources of the given entities on the calling thread. Inner classes are generated with their outer
+   * entity and must not be in the list. Files of entities generated before and not in the list are deleted.
+   *
+   * @param entities the entities to generate
+   *
+   * @return a summary of the generation
+   *
+   * @throws IOException if a file cannot be written
+   */
+  public Report generate(List<Entity> entities) throws IOException {
+    return prepare(entities).write();
+  }
+
+  /**
+   * Render the sources of the given entities, without touching the disk. The model is read on the calling thread, so
+   * this method must be called from the event dispatch thread; the returned generation can be written from any thread.
+   *
+   * @param entities the entities to generate, without inner classes
+   *
+   * @return the generation, to write with {@link Generation#write()}
+   */
+  public synchronized Generation prepare(List<Entity> entities) {
+    if (entities == null) throw new IllegalArgumentException("entities is null");
+
+    Generation generation = new Generation();
+    Set<String> fileNames = new HashSet<>();
+
+    for (Entity entity : entities) {
+      if (getOuter(entity) != null) continue;
+
+      String fileName = entity.getName() + ".java";
+      if (!fileNames.add(fileName)) {
+        generation.report.skipped.add(entity.getName());
+        continue;
+      }
+
+      String content = render(entity);
+      Generated file = new Generated(fileName, hash(content));
+      file.content = content;
+      generation.files.put(entity.getId(), file);
+    }
+
+    return generation;
+  }
+
+  /**
+   * The rendered sources of a set of entities, ready to be written.
+   */
+  public class Generation {
+    private final long start = System.nanoTime();
+    private final Report report = new Report();
+    private final Map<Integer, Generated> files = new HashMap<>();
+
+    private Generation() {
+    }
+
+    /**
+     * Write the files whose content changed since the last generation and delete the files of removed entities. Files
+     * modified on disk since the last generation are left untouched and reported as conflicts.
+     *
+     * @return a summary of the generation
+     *
+     * @throws IOException if a file cannot be written
+     */
+    public Report write() throws IOException {
+      synchronized (JavaSourceGenerator.this) {
+        Files.createDirectories(directory);
+
+        Map<String, Generated> previousFiles = new HashMap<>();
+        for (Generated previous : generated.values())
+          previousFiles.put(previous.fileName, previous);
+
+        List<Generated> toWrite = new ArrayList<>();
+        for (Map.Entry<Integer, Generated> entry : files.entrySet()) {
+          Generated file = entry.getValue();
+          Generated previous = generated.get(entry.getKey());
+
+          if (previous != null && previous.equals(file) && Files.exists(directory.resolve(file.fileName))) {
+            report.unchanged++;
+            file.content = null;
+          } else {
+            file.previous = previousFiles.get(file.fileName);
+            toWrite.add(file);
+          }
+        }
+
+        // Files of removed and renamed entities.
+        Set<String> fileNames = new HashSet<>();
+        for (Generated file : files.values())
+          fileNames.add(file.fileName);
+        for (Generated previous : generated.values())
+          if (!fileNames.contains(previous.fileName) && deleteIfUnmodified(previous)) report.deleted++;
+
+        try {
+          toWrite.parallelStream().forEach(file -> {
+            try {
+              Path path = directory.resolve(file.fileName);
+              if (isModified(path, file.previous)) file.conflict = true;
+              else Files.write(path, file.content.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            file.content = null;
+          });
+        } catch (UncheckedIOException e) {
+          throw e.getCause();
+        }
+
+        for (Map.Entry<Integer, Generated> entry : files.entrySet()) {
+          Generated file = entry.getValue();
+          if (!file.conflict) continue;
+
+          // Keep the previous hash so the file is checked again at the next generation.
+          report.conflicts.add(file.fileName);
+          if (file.previous != null) entry.setValue(file.previous);
+        }
+        files.values().removeIf(file -> file.conflict);
+
+        report.written = toWrite.size() - report.conflicts.size();
+
+        generated.clear();
+        generated.putAll(files);
+        saveIndex();
+
+        report.time = System.nanoTime() - start;
+        return report;
+      }
+    }
+  }
+
+  private boolean deleteIfUnmodified(Generated file) throws IOException {
+    Path path = directory.resolve(file.fileName);
+    if (!Files.exists(path) || isModified(path, file)) return false;
+
+    Files.delete(path);
+    return true;
+  }
+
+  /**
+   * Check if the file on disk is different from what was generated. An existing file without previous generation has
+   * not been written by the generator and is considered as modified.
+   *
+   * @param path the file on disk
+   * @param previous the previous generation of the file, or null
+   *
+   * @return true if the file exists and has been modified
+   */
+  private static boolean isModified(Path path, Generated previous) throws IOException {
+    if (!Files.exists(path)) return false;
+    if (previous == null) return true;
+
+    String content = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    return hash(content) != previous.hash;
+  }
+
+  /* ---------------------------------------------------------------------- */
+  /* Rendering                                                              */
+  /* ---------------------------------------------------------------------- */
+
+  private static Entity getOuter(Entity entity) {
+    for (IParentChild parent : entity.getParents())
+      if (parent instanceof InnerClass) return parent.getParent();
+    return null;
+  }
+
+  private String render(Entity entity) {
+    StringBuilder body = new StringBuilder();
+    Set<String> imports = new HashSet<>();
+    renderEntity(entity, body, imports, "", new HashSet<>());
+
+    StringBuilder sb = new StringBuilder();
+    for (String imported : imports)
+      sb.append("import ").append(imported).append(";\n");
+    if (!imports.isEmpty()) sb.append('\n');
+
+    return sb.append(body).toString();
+  }
+
+  private void renderEntity(Entity entity, StringBuilder sb, Set<String> imports, String indent, Set<Entity> visited) {
+    if (!visited.add(entity)) return; // Cycle of inner classes.
+
+    boolean topLevel = indent.isEmpty();
+    sb.append(indent);
+
+    Visibility visibility = entity instanceof SimpleEntity ? ((SimpleEntity) entity).getVisibility()
+                                                           : Visibility.PUBLIC;
+    if (!topLevel || visibility == Visibility.PUBLIC) appendVisibility(sb, visibility);
+
+    if (entity instanceof EnumEntity) {
+      sb.append("enum ").append(entity.getName()).append(" {\n");
+
+      List<EnumValue> values = ((EnumEntity) entity).getEnumValues();
+      for (int i = 0; i < values.size(); i++)
+        sb.append(indent).append(INDENT).append(values.get(i).getValue()).append(i < values.size() - 1 ? ",\n" : ";\n");
+    } else {
+      SimpleEntity simpleEntity = (SimpleEntity) entity;
+      boolean isInterface = entity instanceof InterfaceEntity;
+
+      if (isInterface) sb.append("interface ");
+      else sb.append(simpleEntity.isAbstract() ? "abstract class " : "class ");
+      sb.append(entity.getName());
+
+      List<String> classes = new ArrayList<>(), interfaces = new ArrayList<>();
+      for (IParentChild parent : entity.getParents())
+        if (parent instanceof Inheritance)
+          (parent.getParent() instanceof InterfaceEntity ? interfaces : classes).add(parent.getParent().getName());
+
+      if (isInterface) {
+        interfaces.addAll(classes);
+        appendList(sb, " extends ", interfaces);
+      } else {
+        if (!classes.isEmpty()) sb.append(" extends ").append(classes.get(0));
+        appendList(sb, " implements ", interfaces);
+      }
+      sb.append(" {\n");
+
+      String memberIndent = indent + INDENT;
+      for (Attribute attribute : simpleEntity.getAttributes())
+        renderAttribute(attribute, isInterface, sb, memberIndent);
+
+      renderAssociations(entity, sb, imports, memberIndent);
+
+      for (Method method : simpleEntity.getMethods())
+        renderMethod(method, isInterface, sb, memberIndent);
+    }
+
+    for (IParentChild child : entity.getChilds())
+      if (child instanceof InnerClass) {
+        sb.append('\n');
+        renderEntity(child.getChild(), sb, imports, indent + INDENT, visited);
+      }
+
+    sb.append(indent).append("}\n");
+  }
+
+  private void renderAttribute(Attribute attribute, boolean isInterface, StringBuilder sb, String indent) {
+    sb.append(indent);
+    if (!isInterface) {
+      appendVisibility(sb, attribute.getVisibility());
+      if (attribute.isStatic()) sb.append("static ");
+      if (attribute.isConstant()) sb.append("final ");
+    }
+    sb.append(attribute.getType().getName()).append(' ').append(attribute.getName());
+
+    String defaultValue = attribute.getDefaultValue();
+    if (defaultValue != null && !defaultValue.isEmpty()) sb.append(" = ").append(defaultValue);
+    sb.append(";\n");
+  }
+
+  /**
+   * Write a field for each named and navigable role at the other end of an association.
+   */
+  private void renderAssociations(Entity entity, StringBuilder sb, Set<String> imports, String indent) {
+    for (Role role : entity.getRoles()) {
+      Association association = role.getAssociation();
+      List<Role> roles = association.getRoles();
+
+      for (int i = 0; i < roles.size(); i++) {
+        Role other = roles.get(i);
+        if (other == role || other.getName() == null || other.getName().isEmpty()) continue;
+
+        NavigateDirection direction = association.getDirected();
+        if (direction == NavigateDirection.FIRST_TO_SECOND && i == 0 ||
+            direction == NavigateDirection.SECOND_TO_FIRST && i == roles.size() - 1)
+          continue;
+
+        String type = other.getEntity().getName();
+        if (other.getMultiplicity() != null && other.getMultiplicity().getUpperBound() > 1) {
+          imports.add("java.util.List");
+          type = "List<" + type + ">";
+        }
+
+        sb.append(indent);
+        appendVisibility(sb, other.getVisibility());
+        sb.append(type).append(' ').append(other.getName()).append(";\n");
+      }
+    }
+  }
+
+  private void renderMethod(Method method, boolean isInterface, StringBuilder sb, String indent) {
+    sb.append('\n').append(indent);
+
+    boolean isConstructor = method instanceof ConstructorMethod;
+    boolean hasBody = !method.isAbstract() || isConstructor;
+
+    if (!isInterface) appendVisibility(sb, method.getVisibility());
+    else if (method.isStatic()) hasBody = true;
+    else hasBody = false;
+
+    if (method.isStatic()) sb.append("static ");
+    else if (!isInterface && method.isAbstract() && !isConstructor) sb.append("abstract ");
+
+    String returnType = method.getReturnType().getName();
+    if (!isConstructor) sb.append(returnType).append(' ');
+    sb.append(method.getName()).append('(');
+
+    List<Variable> parameters = method.getParameters();
+    for (int i = 0; i < parameters.size(); i++) {
+      if (i > 0) sb.append(", ");
+      Variable parameter = parameters.get(i);
+      sb.append(parameter.getType().getName()).append(' ').append(parameter.getName());
+    }
+    sb.append(')');
+
+    if (!hasBody) {
+      sb.append(";\n");
+    } else if (isConstructor || "void".equals(returnType)) {
+      sb.append(" {\n").append(indent).append("}\n");
+    } else {
+      sb.append(" {\n").append(indent).append(INDENT)
+        .append("throw new UnsupportedOperationException(\"Not implemented yet\");\n")
+        .append(indent).append("}\n");
+    }
+  }
+
+  private static void appendVisibility(StringBuilder sb, Visibility visibility) {
+    if (visibility != null && visibility != Visibility.PACKAGE)
+      sb.append(visibility.getName().toLowerCase(Locale.ROOT)).append(' ');
+  }
+
+  private static void appendList(StringBuilder sb, String keyword, List<String> names) {
+    if (names.isEmpty()) return;
+    sb.append(keyword).append(String.join(", ", names));
+  }
+
+  /**
+   * 64 bits FNV-1a hash of the content.
+   */
+  static long hash(String content) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < content.length(); i++) {
+      hash ^= content.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  /* ---------------------------------------------------------------------- */
+  /* Index                                                                  */
+  /* ---------------------------------------------------------------------- */
+
+  private void loadIndex() throws IOException {
+    Path index = directory.resolve(INDEX_FILE);
+    if (!Files.exists(index)) return;
+
+    for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+      String[] fields = line.split(";", 3);
+      if (fields.length != 3) continue;
+
+      try {
+        generated.put(Integer.parseInt(fields[0]), new Generated(fields[2], Long.parseUnsignedLong(fields[1], 16)));
+      } catch (NumberFormatException e) {
+        // Corrupted line, the file will be regenerated.
+      }
+    }
+  }
+
+  private void saveIndex() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<Integer, Generated> entry : generated.entrySet())
+      sb.append(entry.getKey()).append(';').append(Long.toHexString(entry.getValue().hash)).append(';')
+        .append(entry.getValue().fileName).append('\n');
+
+    Files.write(directory.resolve(INDEX_FILE), sb.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static class Generated {
+    final String fileName;
+    final long hash;
+    String content;
+    Generated previous;
+    boolean conflict;
+
+    Generated(String fileName, long hash) {
+      this.fileName = fileName;
+      this.hash = hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Generated)) return false;
+      Generated other = (Generated) obj;
+      return hash == other.hash && fileName.equals(other.fileName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(hash) * 31 + fileName.hashCode();
+    }
+  }
+
+  /**
+   * Summary of a generation.
+   */
+  public static class Report {
+    private int written, unchanged, deleted;
+    private long time;
+    private final List<String> skipped = new ArrayList<>();
+    private final List<String> conflicts = new ArrayList<>();
+
+    public int getWritten() {
+      return written;
+    }
+
+    public int getUnchanged() {
+      return unchanged;
+    }
+
+    public int getDeleted() {
+      return deleted;
+    }
+
+    /**
+     * Get the files not written because they have been modified since the last generation.
+     *
+     * @return the names of the files in conflict
+     */
+    public List<String> getConflicts() {
+      return conflicts;
+    }
+
+    @Override
+    public String toString() {
+      String report = String.format("%d file(s) written, %d unchanged, %d deleted in %d ms.",
+                                    written, unchanged, deleted, time / 1_000_000);
+      if (!skipped.isEmpty())
+        report += "\nSeveral entities have the same name, ignored: " + String.join(", ", skipped);
+      if (!conflicts.isEmpty())
+        report += "\nModified since the last generation, not overwritten: " + String.join(", ", conflicts);
+      return report;
+    }
+  }
+}
@@ -0,0 +1,466 @@
+package classDiagram.sourceCode;
+
+import change.Change;
+import classDiagram.ClassDiagram;
+import classDiagram.components.Attribute;
+import classDiagram.components.ClassEntity;
+import classDiagram.components.ConstructorMethod;
+import classDiagram.components.Entity;
+import classDiagram.components.EnumEntity;
+import classDiagram.components.EnumValue;
+import classDiagram.components.InterfaceEntity;
+import classDiagram.components.Method;
+import classDiagram.components.SimpleEntity;
+import classDiagram.components.Variable;
+import classDiagram.components.Visibility;
+import classDiagram.relationships.Association.NavigateDirection;
+import classDiagram.relationships.Binary;
+import classDiagram.relationships.Dependency;
+import classDiagram.relationships.Inheritance;
+import classDiagram.relationships.InnerClass;
+import classDiagram.relationships.Multiplicity;
+import classDiagram.relationships.Role;
+import classDiagram.sourceCode.JavaSourceParser.FieldDeclaration;
+import classDiagram.sourceCode.JavaSourceParser.Kind;
+import classDiagram.sourceCode.JavaSourceParser.MethodDeclaration;
+import classDiagram.sourceCode.JavaSourceParser.Modifiers;
+import classDiagram.sourceCode.JavaSourceParser.ParameterDeclaration;
+import classDiagram.sourceCode.JavaSourceParser.SourceFile;
+import classDiagram.sourceCode.JavaSourceParser.TypeDeclaration;
+import classDiagram.sourceCode.JavaSourceParser.TypeReference;
+import graphic.GraphicComponent;
+import graphic.GraphicView;
+import graphic.entity.EntityView;
+import swing.MultiViewManager;
+import swing.PanelClassDiagram;
+import swing.Slyum;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reverse-engineer a directory of Java source files into the current class diagram. The import runs in four phases:
+ * scanning the directory, parsing the files in parallel, resolving the type references between the parsed types and
+ * creating the diagram components. Only the last phase runs on the event dispatch thread; the created components are
+ * shown in a new view.
+ */
+public class JavaSourceImporter {
+  private static final Set<String> COLLECTIONS = new HashSet<>(Arrays.asList(
+      "Collection", "List", "ArrayList", "LinkedList", "Set", "HashSet", "LinkedHashSet", "TreeSet", "SortedSet",
+      "Queue", "Deque", "ArrayDeque", "Vector", "Iterable", "Stream"));
+
+  private static final int GRID_COLUMNS_MIN = 4;
+  private static final int GRID_SPACE = 60;
+
+  private final Path root;
+
+  private final List<TypeDeclaration> types = new ArrayList<>();
+  private final Map<String, TypeDeclaration> byQualifiedName = new HashMap<>();
+  private final Map<String, List<TypeDeclaration>> bySimpleName = new HashMap<>();
+  private final Map<TypeDeclaration, Entity> entities = new LinkedHashMap<>();
+  private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+  private int filesCount;
+  private long scanTime, parseTime, resolveTime, insertTime;
+  private int relationsCount;
+
+  /**
+   * Create a new importer for the given directory. The directory is searched recursively for .java files.
+   *
+   * @param root the root directory of the sources
+   */
+  public JavaSourceImporter(Path root) {
+    if (root == null) throw new IllegalArgumentException("root is null");
+
+    this.root = root;
+  }
+
+  /**
+   * Run the import. Must not be called from the event dispatch thread: the diagram components are created on it and
+   * this method waits until they are created.
+   *
+   * @throws IOException if the directory cannot be read
+   */
+  public void importSources() throws IOException {
+    if (SwingUtilities.isEventDispatchThread())
+      throw new IllegalStateException("import must not run on the event dispatch thread");
+
+    long start = System.nanoTime();
+    List<Path> files;
+    try (Stream<Path> paths = Files.walk(root)) {
+      files = paths.filter(p -> p.toString().endsWith(".java") && Files.isRegularFile(p)).collect(Collectors.toList());
+    }
+    filesCount = files.size();
+    scanTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    List<SourceFile> sources = files.parallelStream()
+                                    .map(this::parseFile)
+                                    .filter(f -> f != null)
+                                    .collect(Collectors.toList());
+    parseTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (SourceFile source : sources)
+      for (TypeDeclaration type : source.types)
+        index(type);
+    resolveTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    try {
+      SwingUtilities.invokeAndWait(new Runnable() {
+
+        @Override
+        public void run() {
+          insert();
+        }
+      });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (InvocationTargetException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+    insertTime = System.nanoTime() - start;
+
+    Slyum.LOGGER.log(Level.INFO, getReport());
+  }
+
+  /**
+   * Get a summary of the last import: the number of files and components imported, the time spent in each phase and
+   * the errors.
+   *
+   * @return the report of the import
+   */
+  public String getReport() {
+    long total = scanTime + parseTime + resolveTime + insertTime;
+    StringBuilder report = new StringBuilder();
+    report.append(String.format("%d file(s), %d type(s), %d relation(s) imported in %d ms (%.0f files/s).%n",
+                                filesCount, entities.size(), relationsCount, total / 1_000_000,
+                                total == 0 ? 0.0 : filesCount * 1e9 / total));
+    report.append(String.format("Scan: %d ms, parse: %d ms, resolve: %d ms, insert: %d ms.",
+                                scanTime / 1_000_000, parseTime / 1_000_000, resolveTime / 1_000_000,
+                                insertTime / 1_000_000));
+
+    if (!errors.isEmpty()) {
+      report.append(String.format("%n%d file(s) ignored:", errors.size()));
+      for (String error : errors.subList(0, Math.min(errors.size(), 10)))
+        report.append(System.lineSeparator()).append(error);
+      if (errors.size() > 10) report.append(System.lineSeparator()).append("...");
+    }
+
+    return report.toString();
+  }
+
+  public boolean hasErrors() {
+    return !errors.isEmpty();
+  }
+
+  private SourceFile parseFile(Path file) {
+    try {
+      return JavaSourceParser.parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8).toCharArray());
+    } catch (IOException | RuntimeException e) {
+      errors.add(root.relativize(file) + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  private void index(TypeDeclaration type) {
+    types.add(type);
+    byQualifiedName.put(type.getQualifiedName(), type);
+    bySimpleName.computeIfAbsent(type.name, k -> new ArrayList<>(1)).add(type);
+
+    for (TypeDeclaration nested : type.nested)
+      index(nested);
+  }
+
+  /**
+   * Find the parsed type referenced by the given name from the given type. The lookup follows the Java rules in a
+   * simplified way: nested types, single imports, same package, wildcard imports and finally a unique simple name.
+   *
+   * @return the referenced type or null if it is not part of the imported sources
+   */
+  private TypeDeclaration resolve(String name, TypeDeclaration from) {
+    int dot = name.indexOf('.');
+    if (dot != -1) {
+      TypeDeclaration qualified = byQualifiedName.get(name);
+      if (qualified != null) return qualified;
+
+      // Outer.Inner: resolve the first part and walk down.
+      TypeDeclaration outer = resolve(name.substring(0, dot), from);
+      if (outer != null) return byQualifiedName.get(outer.getQualifiedName() + name.substring(dot));
+      return null;
+    }
+
+    for (TypeDeclaration t = from; t != null; t = t.outer) {
+      if (t.name.equals(name)) return t;
+      for (TypeDeclaration nested : t.nested)
+        if (nested.name.equals(name)) return nested;
+    }
+
+    SourceFile file = from.file;
+    for (String imported : file.imports)
+      if (imported.endsWith("." + name)) return byQualifiedName.get(imported);
+
+    TypeDeclaration found = byQualifiedName.get(file.packageName.isEmpty() ? name : file.packageName + "." + name);
+    if (found != null) return found;
+
+    for (String wildcard : file.wildcardImports) {
+      found = byQualifiedName.get(wildcard + "." + name);
+      if (found != null) return found;
+    }
+
+    List<TypeDeclaration> candidates = bySimpleName.get(name);
+    return candidates != null && candidates.size() == 1 ? candidates.get(0) : null;
+  }
+
+  /* ---------------------------------------------------------------------- */
+  /* Insertion, on the event dispatch thread                                */
+  /* ---------------------------------------------------------------------- */
+
+  private void insert() {
+    if (types.isEmpty()) return;
+
+    ClassDiagram classDiagram = PanelClassDiagram.getInstance().getClassDiagram();
+    GraphicView graphicView = MultiViewManager.addAndOpenNewView(root.getFileName().toString());
+
+    // An import is not undoable, like opening a file.
+    boolean isBlocked = Change.isBlocked();
+    Change.setBlocked(true);
+    graphicView.setStopRepaint(true);
+
+    try {
+      // The graphic components are created once, at the end of the batch, with all their members.
+      classDiagram.batch(() -> {
+        for (TypeDeclaration type : types)
+          createEntity(type, classDiagram);
+
+        for (Map.Entry<TypeDeclaration, Entity> entry : entities.entrySet())
+          createMembers(entry.getKey(), entry.getValue(), classDiagram);
+
+        for (Map.Entry<TypeDeclaration, Entity> entry : entities.entrySet())
+          createRelations(entry.getKey(), entry.getValue(), classDiagram);
+      });
+
+      layout(graphicView);
+    } finally {
+      Change.setBlocked(isBlocked);
+      graphicView.goRepaint();
+    }
+  }
+
+  private void createEntity(TypeDeclaration type, ClassDiagram classDiagram) {
+    Visibility visibility = visibility(type.modifiers, type.outer != null && type.outer.kind == Kind.INTERFACE);
+
+    switch (type.kind) {
+      case ENUM:
+        EnumEntity enumEntity = new EnumEntity(type.name);
+        for (String constant : type.enumConstants)
+          enumEntity.addEnumValue(new EnumValue(constant));
+        classDiagram.addEnumEntity(enumEntity);
+        entities.put(type, enumEntity);
+        break;
+
+      case INTERFACE:
+      case ANNOTATION:
+        InterfaceEntity interfaceEntity = new InterfaceEntity(type.name, visibility);
+        if (type.kind == Kind.ANNOTATION) interfaceEntity.setStereotype("annotation");
+        classDiagram.addInterfaceEntity(interfaceEntity);
+        entities.put(type, interfaceEntity);
+        break;
+
+      default:
+        ClassEntity classEntity = new ClassEntity(type.name, visibility);
+        if (type.kind == Kind.RECORD) classEntity.setStereotype("record");
+        // Must be set before adding methods, otherwise the user is asked what to do with abstract methods.
+        if (type.modifiers.has("abstract")) classEntity.setAbstract(true);
+        classDiagram.addClassEntity(classEntity);
+        entities.put(type, classEntity);
+        break;
+    }
+  }
+
+  private void createMembers(TypeDeclaration type, Entity entity, ClassDiagram classDiagram) {
+    if (!(entity instanceof SimpleEntity)) return;
+
+    SimpleEntity simpleEntity = (SimpleEntity) entity;
+    boolean isInterface = type.kind == Kind.INTERFACE || type.kind == Kind.ANNOTATION;
+
+    for (FieldDeclaration field : type.fields) {
+      if (isAssociation(field, type)) continue;
+
+      Attribute attribute = new Attribute(field.name, classDiagram.getTypes().intern(field.type.toDiagramString()));
+      attribute.setVisibility(visibility(field.modifiers, isInterface));
+      attribute.setStatic(field.modifiers.has("static") || isInterface);
+      attribute.setConstant(field.modifiers.has("final") || isInterface);
+      String value = field.defaultValue;
+      if (!value.isEmpty() && value.length() < 40 && value.indexOf('\n') == -1)
+        attribute.setDefaultValue(value);
+      simpleEntity.addAttribute(attribute);
+    }
+
+    for (MethodDeclaration declaration : type.methods) {
+      Visibility visibility = visibility(declaration.modifiers, isInterface);
+      Method method;
+
+      if (declaration.returnType == null) {
+        method = new ConstructorMethod(declaration.name, visibility, simpleEntity);
+      } else {
+        method = new Method(declaration.name, classDiagram.getTypes().intern(declaration.returnType.toDiagramString()),
+                            visibility, simpleEntity);
+        method.setStatic(declaration.modifiers.has("static"));
+      }
+
+      for (ParameterDeclaration parameter : declaration.parameters)
+        method.addParameter(
+            new Variable(parameter.name, classDiagram.getTypes().intern(parameter.type.toDiagramString())));
+
+      simpleEntity.addMethod(method);
+
+      // Adding a method in an abstract class makes it abstract.
+      if (!isInterface && simpleEntity.isAbstract() && declaration.returnType != null)
+        method.setAbstract(declaration.modifiers.has("abstract"));
+    }
+  }
+
+  private void createRelations(TypeDeclaration type, Entity entity, ClassDiagram classDiagram) {
+    // Nested types.
+    if (type.outer != null) {
+      classDiagram.addInnerClass(new InnerClass(entity, entities.get(type.outer)));
+      relationsCount++;
+    }
+
+    Set<Entity> linked = new HashSet<>();
+    linked.add(entity);
+
+    // Generalizations and realizations.
+    if (entity instanceof SimpleEntity) {
+      List<TypeReference> parents = new ArrayList<>(type.superClasses);
+      parents.addAll(type.interfaces);
+
+      for (TypeReference reference : parents) {
+        TypeDeclaration parentType = resolve(reference.name, type);
+        Entity parent = parentType == null ? null : entities.get(parentType);
+
+        if (!(parent instanceof SimpleEntity) || !linked.add(parent)) continue;
+        if (entity instanceof InterfaceEntity && !(parent instanceof InterfaceEntity)) continue;
+
+        classDiagram.addInheritance(new Inheritance((SimpleEntity) entity, (SimpleEntity) parent));
+        relationsCount++;
+      }
+    }
+
+    // Associations, from the fields referencing another imported type.
+    for (FieldDeclaration field : type.fields) {
+      TypeDeclaration targetType = associationTarget(field, type);
+      if (targetType == null) continue;
+
+      Entity target = entities.get(targetType);
+      Binary binary = new Binary(entity, target, NavigateDirection.FIRST_TO_SECOND);
+      Role role = binary.getRoles().getLast();
+      role.setName(field.name);
+      role.setMultiplicity(isMultiple(field.type) ? Multiplicity.ZERO_OR_MORE : Multiplicity.ZERO_OR_ONE);
+      classDiagram.addBinary(binary);
+      linked.add(target);
+      relationsCount++;
+    }
+
+    // Dependencies, from the signatures of the methods.
+    for (MethodDeclaration method : type.methods) {
+      List<String> names = new ArrayList<>();
+      if (method.returnType != null) method.returnType.collectNames(names);
+      for (ParameterDeclaration parameter : method.parameters)
+        parameter.type.collectNames(names);
+
+      for (String name : names) {
+        TypeDeclaration targetType = resolve(name, type);
+        Entity target = targetType == null ? null : entities.get(targetType);
+
+        if (target == null || targetType.outer == type || type.outer == targetType || !linked.add(target)) continue;
+
+        classDiagram.addDependency(new Dependency(entity, target));
+        relationsCount++;
+      }
+    }
+  }
+
+  private boolean isAssociation(FieldDeclaration field, TypeDeclaration owner) {
+    return associationTarget(field, owner) != null;
+  }
+
+  /**
+   * Get the imported type referenced by the field, if the field is a reference (or a collection of references) to an
+   * other imported type. Constants are never associations.
+   */
+  private TypeDeclaration associationTarget(FieldDeclaration field, TypeDeclaration owner) {
+    if (field.modifiers.has("static") || owner.kind == Kind.INTERFACE) return null;
+
+    TypeReference type = field.type;
+    if (COLLECTIONS.contains(type.getSimpleName()) && type.arguments.size() == 1 && type.dimensions == 0)
+      type = type.arguments.get(0);
+
+    if (type.isPrimitive() || !type.arguments.isEmpty() && type != field.type) return null;
+
+    TypeDeclaration target = resolve(type.name, owner);
+    return target == null || target == owner || !entities.containsKey(target) ? null : target;
+  }
+
+  private boolean isMultiple(TypeReference type) {
+    return type.dimensions > 0 || COLLECTIONS.contains(type.getSimpleName());
+  }
+
+  private Visibility visibility(Modifiers modifiers, boolean publicByDefault) {
+    if (modifiers.has("public")) return Visibility.PUBLIC;
+    if (modifiers.has("protected")) return Visibility.PROTECTED;
+    if (modifiers.has("private")) return Visibility.PRIVATE;
+    return publicByDefault ? Visibility.PUBLIC : Visibility.PACKAGE;
+  }
+
+  /**
+   * Place the imported entities in a grid, in the order of the files, so packages stay together.
+   */
+  private void layout(GraphicView graphicView) {
+    int columns = Math.max(GRID_COLUMNS_MIN, (int) Math.ceil(Math.sqrt(entities.size())));
+    int x = GRID_SPACE, y = GRID_SPACE, column = 0, rowHeight = 0;
+
+    for (Entity entity : entities.values()) {
+      GraphicComponent component = graphicView.searchAssociedComponent(entity);
+      if (!(component instanceof EntityView)) continue;
+
+      EntityView view = (EntityView) component;
+      view.adjustWidth();
+      view.updateHeight();
+
+      Rectangle bounds = view.getBounds();
+      view.setBounds(new Rectangle(x, y, bounds.width, bounds.height));
+
+      rowHeight = Math.max(rowHeight, bounds.height);
+      x += bounds.width + GRID_SPACE;
+
+      if (++column == columns) {
+        column = 0;
+        x = GRID_SPACE;
+        y += rowHeight + GRID_SPACE;
+        rowHeight = 0;
+      }
+    }
+
+    graphicView.updatePreferredSize();
+  }
+}
@@ -0,0 +1,687 @@
+package classDiagram.sourceCode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lightweight parser extracting the declarations of a Java source file: package, imports, types, fields, methods and
+ * enum constants. Method bodies and initializers are skipped by matching braces, so the parser never builds an
+ * expression tree. This is enough to reverse-engineer a class diagram and is much faster than a full Java parser.
+ *
+ * A parser is not thread-safe, but several parsers can run at the same time on different files.
+ */
+public class JavaSourceParser {
+  private static final int EOF = 0, IDENT = 1, SYMBOL = 2, LITERAL = 3;
+
+  private static final Set<String> MODIFIERS = new HashSet<>(Arrays.asList(
+      "public", "protected", "private", "static", "abstract", "final", "native", "synchronized", "transient",
+      "volatile", "strictfp", "default", "sealed"));
+
+  private static final Set<String> PRIMITIVES = new HashSet<>(Arrays.asList(
+      "void", "boolean", "byte", "char", "short", "int", "long", "float", "double", "var"));
+
+  private final char[] src;
+
+  // Tokens, stored in parallel arrays to avoid an object per token.
+  private int[] kinds = new int[1024], starts = new int[1024], ends = new int[1024];
+  private int count = 0;
+  private int pos = 0;
+
+  private JavaSourceParser(char[] src) {
+    this.src = src;
+  }
+
+  /**
+   * Parse the given source code.
+   *
+   * @param source the content of a .java file
+   *
+   * @return the declarations found in the file
+   *
+   * @throws IllegalStateException if the file cannot be parsed
+   */
+  public static SourceFile parse(char[] source) {
+    JavaSourceParser parser = new JavaSourceParser(source);
+    parser.tokenize();
+    return parser.parseCompilationUnit();
+  }
+
+  /* ---------------------------------------------------------------------- */
+  /* Lexer                                                                  */
+  /* ---------------------------------------------------------------------- */
+
+  private void tokenize() {
+    int i = 0, length = src.length;
+
+    while (i < length) {
+      char c = src[i];
+
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '/' && i + 1 < length && src[i + 1] == '/') {
+        while (i < length && src[i] != '\n')
+          i++;
+      } else if (c == '/' && i + 1 < length && src[i + 1] == '*') {
+        i += 2;
+        while (i + 1 < length && !(src[i] == '*' && src[i + 1] == '/'))
+          i++;
+        i += 2;
+      } else if (c == '"' && i + 2 < length && src[i + 1] == '"' && src[i + 2] == '"') {
+        int start = i;
+        i += 3;
+        while (i + 2 < length && !(src[i] == '"' && src[i + 1] == '"' && src[i + 2] == '"'))
+          i += src[i] == '\\' ? 2 : 1;
+        i += 3;
+        add(LITERAL, start, Math.min(i, length));
+      } else if (c == '"' || c == '\'') {
+        int start = i++;
+        while (i < length && src[i] != c && src[i] != '\n')
+          i += src[i] == '\\' ? 2 : 1;
+        i++;
+        add(LITERAL, start, Math.min(i, length));
+      } else if (Character.isDigit(c) || c == '.' && i + 1 < length && Character.isDigit(src[i + 1])) {
+        int start = i++;
+        while (i < length && (Character.isLetterOrDigit(src[i]) || src[i] == '_' || src[i] == '.'
+                              || (src[i] == '+' || src[i] == '-') && (src[i - 1] == 'e' || src[i - 1] == 'E')))
+          i++;
+        add(LITERAL, start, i);
+      } else if (Character.isJavaIdentifierStart(c)) {
+        int start = i++;
+        while (i < length && Character.isJavaIdentifierPart(src[i]))
+          i++;
+        add(IDENT, start, i);
+      } else {
+        add(SYMBOL, i, ++i);
+      }
+    }
+  }
+
+  private void add(int kind, int start, int end) {
+    if (count == kinds.length) {
+      kinds = Arrays.copyOf(kinds, count * 2);
+      starts = Arrays.copyOf(starts, count * 2);
+      ends = Arrays.copyOf(ends, count * 2);
+    }
+
+    kinds[count] = kind;
+    starts[count] = start;
+    ends[count++] = end;
+  }
+
+  /* ---------------------------------------------------------------------- */
+  /* Token helpers                                                          */
+  /* ---------------------------------------------------------------------- */
+
+  private int kind(int offset) {
+    int i = pos + offset;
+    return i < count ? kinds[i] : EOF;
+  }
+
+  private boolean isSymbol(int offset, char symbol) {
+    int i = pos + offset;
+    return i < count && kinds[i] == SYMBOL && src[starts[i]] == symbol;
+  }
+
+  private boolean isSymbol(char symbol) {
+    return isSymbol(0, symbol);
+  }
+
+  private boolean isIdent(int offset, String word) {
+    int i = pos + offset;
+    if (i >= count || kinds[i] != IDENT || ends[i] - starts[i] != word.length()) return false;
+
+    for (int j = 0; j < word.length(); j++)
+      if (src[starts[i] + j] != word.charAt(j)) return false;
+    return true;
+  }
+
+  private boolean isIdent(String word) {
+    return isIdent(0, word);
+  }
+
+  private String text() {
+    return pos < count ? new String(src, starts[pos], ends[pos] - starts[pos]) : "";
+  }
+
+  private String nextIdent() {
+    if (kind(0) != IDENT) throw error("identifier expected");
+    String ident = text();
+    pos++;
+    return ident;
+  }
+
+  private void expect(char symbol) {
+    if (!isSymbol(symbol)) throw error("'" + symbol + "' expected");
+    pos++;
+  }
+
+  private IllegalStateException error(String message) {
+    int offset = pos < count ? starts[pos] : src.length, line = 1;
+    for (int i = 0; i < offset && i < src.length; i++)
+      if (src[i] == '\n') line++;
+    return new IllegalStateException(message + " at line " + line);
+  }
+
+  /**
+   * Skip a balanced block starting on the current token (which must be the open symbol).
+   */
+  private void skipBalanced(char open, char close) {
+    int depth = 0;
+    do {
+      if (pos >= count) return;
+      if (isSymbol(open)) depth++;
+      else if (isSymbol(close)) depth--;
+      pos++;
+    } while (depth > 0);
+  }
+
+  /**
+   * Skip tokens until one of the given symbols is found at depth 0. The symbol is not consumed.
+   */
+  private void skipUntil(char first, char second) {
+    int depth = 0;
+    while (pos < count) {
+      if (depth == 0 && (isSymbol(first) || isSymbol(second))) return;
+      if (isSymbol('(') || isSymbol('{') || isSymbol('[')) depth++;
+      else if (isSymbol(')') || isSymbol('}') || isSymbol(']')) depth--;
+      if (depth < 0) return;
+      pos++;
+    }
+  }
+
+  private String qualifiedName() {
+    StringBuilder name = new StringBuilder(nextIdent());
+    while (isSymbol('.') && kind(1) == IDENT) {
+      pos++;
+      name.append('.').append(nextIdent());
+    }
+    return name.toString();
+  }
+
+  /* ---------------------------------------------------------------------- */
+  /* Declarations                                                           */
+  /* ---------------------------------------------------------------------- */
+
+  private SourceFile parseCompilationUnit() {
+    SourceFile file = new SourceFile();
+
+    while (pos < count) {
+      if (isIdent("package")) {
+        pos++;
+        file.packageName = qualifiedName();
+        skipUntil(';', ';');
+        pos++;
+      } else if (isIdent("import")) {
+        pos++;
+        boolean isStatic = isIdent("static");
+        if (isStatic) pos++;
+        String name = qualifiedName();
+        if (isSymbol('.') && isSymbol(1, '*')) {
+          if (!isStatic) file.wildcardImports.add(name);
+        } else if (!isStatic) {
+          file.imports.add(name);
+        }
+        skipUntil(';', ';');
+        pos++;
+      } else if (isSymbol(';')) {
+        pos++;
+      } else {
+        int start = pos;
+        Modifiers modifiers = parseModifiers();
+        TypeDeclaration type = parseTypeDeclaration(modifiers, null, file);
+
+        if (type != null) file.types.add(type);
+        else if (pos == start) pos++; // Unknown token, avoid infinite loop.
+      }
+    }
+
+    return file;
+  }
+
+  private Modifiers parseModifiers() {
+    Modifiers modifiers = new Modifiers();
+
+    while (pos < count) {
+      if (isSymbol('@') && !isIdent(1, "interface")) {
+        pos++;
+        qualifiedName();
+        if (isSymbol('(')) skipBalanced('(', ')');
+      } else if (kind(0) == IDENT && MODIFIERS.contains(text()) && !isSymbol(1, '(') && !isSymbol(1, '=')) {
+        modifiers.add(text());
+        pos++;
+      } else if (isIdent("non") && isSymbol(1, '-') && isIdent(2, "sealed")) {
+        pos += 3;
+      } else {
+        break;
+      }
+    }
+
+    return modifiers;
+  }
+
+  /**
+   * Parse a type declaration if the current token starts one.
+   *
+   * @return the declaration, or null if the current tokens are not a type declaration
+   */
+  private TypeDeclaration parseTypeDeclaration(Modifiers modifiers, TypeDeclaration outer, SourceFile file) {
+    Kind kind;
+    if (isIdent("class")) kind = Kind.CLASS;
+    else if (isIdent("interface")) kind = Kind.INTERFACE;
+    else if (isIdent("enum")) kind = Kind.ENUM;
+    else if (isIdent("record") && kind(1) == IDENT) kind = Kind.RECORD;
+    else if (isSymbol('@') && isIdent(1, "interface")) {
+      kind = Kind.ANNOTATION;
+      pos++;
+    } else return null;
+
+    pos++;
+
+    TypeDeclaration type = new TypeDeclaration();
+    type.kind = kind;
+    type.modifiers = modifiers;
+    type.outer = outer;
+    type.file = file;
+    type.name = nextIdent();
+
+    if (isSymbol('<')) skipBalanced('<', '>');
+
+    if (kind == Kind.RECORD && isSymbol('(')) {
+      pos++;
+      while (pos < count && !isSymbol(')')) {
+        parseModifiers();
+        TypeReference componentType = parseType();
+        if (isSymbol('.')) pos += 3; // varargs
+        FieldDeclaration field = new FieldDeclaration();
+        field.type = componentType;
+        field.name = nextIdent();
+        field.modifiers = new Modifiers();
+        field.modifiers.add("private");
+        field.modifiers.add("final");
+        type.fields.add(field);
+        if (isSymbol(',')) pos++;
+      }
+      expect(')');
+    }
+
+    while (pos < count && !isSymbol('{')) {
+      if (isIdent("extends")) {
+        pos++;
+        parseTypeList(kind == Kind.INTERFACE ? type.interfaces : type.superClasses);
+      } else if (isIdent("implements")) {
+        pos++;
+        parseTypeList(type.interfaces);
+      } else if (isIdent("permits")) {
+        pos++;
+        parseTypeList(new ArrayList<>());
+      } else {
+        throw error("'{' expected");
+      }
+    }
+
+    expect('{');
+
+    if (kind == Kind.ENUM) parseEnumConstants(type);
+    parseClassBody(type);
+
+    return type;
+  }
+
+  private void parseTypeList(List<TypeReference> list) {
+    list.add(parseType());
+    while (isSymbol(',')) {
+      pos++;
+      list.add(parseType());
+    }
+  }
+
+  private void parseEnumConstants(TypeDeclaration type) {
+    while (pos < count) {
+      parseModifiers(); // annotations
+
+      if (kind(0) == IDENT) {
+        type.enumConstants.add(nextIdent());
+        if (isSymbol('(')) skipBalanced('(', ')');
+        if (isSymbol('{')) skipBalanced('{', '}');
+      }
+
+      if (isSymbol(',')) {
+        pos++;
+      } else if (isSymbol(';')) {
+        pos++;
+        return;
+      } else if (isSymbol('}')) {
+        return;
+      } else {
+        throw error("enum constant expected");
+      }
+    }
+  }
+
+  /**
+   * Parse the members of a type until the closing brace, which is consumed.
+   */
+  private void parseClassBody(TypeDeclaration type) {
+    while (pos < count) {
+      if (isSymbol('}')) {
+        pos++;
+        return;
+      }
+
+      if (isSymbol(';')) {
+        pos++;
+        continue;
+      }
+
+      int start = pos;
+      Modifiers modifiers = parseModifiers();
+
+      // Initializer block.
+      if (isSymbol('{')) {
+        skipBalanced('{', '}');
+        continue;
+      }
+
+      TypeDeclaration nested = parseTypeDeclaration(modifiers, type, type.file);
+      if (nested != null) {
+        type.nested.add(nested);
+        continue;
+      }
+
+      if (isSymbol('<')) skipBalanced('<', '>');
+
+      // Constructor (also compact constructors of records).
+      if (isIdent(type.name) && (isSymbol(1, '(') || isSymbol(1, '{'))) {
+        pos++;
+        MethodDeclaration constructor = new MethodDeclaration();
+        constructor.name = type.name;
+        constructor.modifiers = modifiers;
+        if (isSymbol('(')) parseParameters(constructor);
+        skipMethodEnd();
+        type.methods.add(constructor);
+        continue;
+      }
+
+      if (kind(0) != IDENT) {
+        if (pos == start) pos++;
+        skipUntil(';', '}');
+        if (isSymbol(';')) pos++;
+        continue;
+      }
+
+      TypeReference memberType = parseType();
+      String name = nextIdent();
+
+      if (isSymbol('(')) {
+        MethodDeclaration method = new MethodDeclaration();
+        method.name = name;
+        method.modifiers = modifiers;
+        method.returnType = memberType;
+        parseParameters(method);
+        while (isSymbol('[')) {
+          pos += 2;
+          method.returnType.dimensions++;
+        }
+        skipMethodEnd();
+        type.methods.add(method);
+      } else {
+        while (pos < count) {
+          FieldDeclaration field = new FieldDeclaration();
+          field.name = name;
+          field.modifiers = modifiers;
+          field.type = memberType.copy();
+          while (isSymbol('[')) {
+            pos += 2;
+            field.type.dimensions++;
+          }
+          if (isSymbol('=')) {
+            pos++;
+            int valueStart = pos;
+            skipUntil(',', ';');
+            if (pos > valueStart)
+              field.defaultValue = new String(src, starts[valueStart], ends[pos - 1] - starts[valueStart]);
+          }
+          type.fields.add(field);
+
+          if (isSymbol(',')) {
+            pos++;
+            name = nextIdent();
+          } else {
+            break;
+          }
+        }
+        expect(';');
+      }
+    }
+  }
+
+  private void parseParameters(MethodDeclaration method) {
+    expect('(');
+
+    while (pos < count && !isSymbol(')')) {
+      parseModifiers();
+      TypeReference type = parseType();
+
+      if (isSymbol('.') && isSymbol(1, '.') && isSymbol(2, '.')) {
+        pos += 3;
+        type.dimensions++;
+      }
+
+      // Receiver parameter (Foo this) or qualified receiver (Outer.this).
+      String name = nextIdent();
+      if (isSymbol('.')) {
+        pos++;
+        nextIdent();
+        name = "this";
+      }
+
+      while (isSymbol('[')) {
+        pos += 2;
+        type.dimensions++;
+      }
+
+      if (!"this".equals(name)) {
+        ParameterDeclaration parameter = new ParameterDeclaration();
+        parameter.name = name;
+        parameter.type = type;
+        method.parameters.add(parameter);
+      }
+
+      if (isSymbol(',')) pos++;
+      else if (!isSymbol(')')) throw error("')' expected");
+    }
+
+    expect(')');
+  }
+
+  private void skipMethodEnd() {
+    skipUntil('{', ';');
+    if (isSymbol('{')) skipBalanced('{', '}');
+    else if (isSymbol(';')) pos++;
+  }
+
+  /**
+   * Parse a type reference: annotations, qualified name, type arguments and array dimensions.
+   */
+  private TypeReference parseType() {
+    TypeReference type = new TypeReference();
+    parseModifiers(); // type annotations
+
+    if (isSymbol('?')) {
+      pos++;
+      type.name = "?";
+      if (isIdent("extends") || isIdent("super")) {
+        pos++;
+        // The bound is kept as a reference but not in the displayed name.
+        type.arguments.add(parseType());
+        type.hiddenArguments = true;
+      }
+      return type;
+    }
+
+    type.name = nextIdent();
+    while (true) {
+      if (isSymbol('<')) {
+        pos++;
+        while (pos < count && !isSymbol('>')) {
+          type.arguments.add(parseType());
+          if (isSymbol(',')) pos++;
+          else if (!isSymbol('>')) throw error("'>' expected");
+        }
+        expect('>');
+      }
+
+      if (isSymbol('.') && kind(1) == IDENT) {
+        pos++;
+        type.name += "." + nextIdent();
+        type.arguments.clear();
+      } else {
+        break;
+      }
+    }
+
+    while (isSymbol('@')) parseModifiers();
+    while (isSymbol('[') && isSymbol(1, ']')) {
+      pos += 2;
+      type.dimensions++;
+    }
+
+    return type;
+  }
+
+  /* ---------------------------------------------------------------------- */
+  /* Declarations                                                           */
+  /* ---------------------------------------------------------------------- */
+
+  public enum Kind {
+    CLASS, INTERFACE, ENUM, RECORD, ANNOTATION
+  }
+
+  public static class SourceFile {
+    public String packageName = "";
+    public final List<String> imports = new ArrayList<>();
+    public final List<String> wildcardImports = new ArrayList<>();
+    public final List<TypeDeclaration> types = new ArrayList<>();
+  }
+
+  public static class Modifiers {
+    private final Set<String> set = new HashSet<>(4);
+
+    void add(String modifier) {
+      set.add(modifier);
+    }
+
+    public boolean has(String modifier) {
+      return set.contains(modifier);
+    }
+  }
+
+  public static class TypeDeclaration {
+    public Kind kind;
+    public String name;
+    public Modifiers modifiers;
+    public TypeDeclaration outer;
+    public SourceFile file;
+    public final List<TypeReference> superClasses = new ArrayList<>();
+    public final List<TypeReference> interfaces = new ArrayList<>();
+    public final List<FieldDeclaration> fields = new ArrayList<>();
+    public final List<MethodDeclaration> methods = new ArrayList<>();
+    public final List<String> enumConstants = new ArrayList<>();
+    public final List<TypeDeclaration> nested = new ArrayList<>();
+
+    /**
+     * Get the fully qualified name of the type, nested types are separated by a dot.
+     *
+     * @return the qualified name
+     */
+    public String getQualifiedName() {
+      if (outer != null) return outer.getQualifiedName() + "." + name;
+      return file.packageName.isEmpty() ? name : file.packageName + "." + name;
+    }
+  }
+
+  public static class FieldDeclaration {
+    public String name;
+    public Modifiers modifiers;
+    public TypeReference type;
+    public String defaultValue = "";
+  }
+
+  public static class MethodDeclaration {
+    public String name;
+    public Modifiers modifiers;
+    public TypeReference returnType; // null for constructors
+    public final List<ParameterDeclaration> parameters = new ArrayList<>();
+  }
+
+  public static class ParameterDeclaration {
+    public String name;
+    public TypeReference type;
+  }
+
+  public static class TypeReference {
+    public String name;
+    public final List<TypeReference> arguments = new ArrayList<>();
+    public int dimensions = 0;
+    boolean hiddenArguments = false;
+
+    /**
+     * Get the simple name of the referenced type, without package or outer types.
+     *
+     * @return the simple name
+     */
+    public String getSimpleName() {
+      return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    public boolean isPrimitive() {
+      return PRIMITIVES.contains(name);
+    }
+
+    /**
+     * Get the type as displayed in a diagram: simple names, type arguments and array dimensions, without spaces.
+     *
+     * @return the text of the type
+     */
+    public String toDiagramString() {
+      StringBuilder sb = new StringBuilder(getSimpleName());
+
+      if (!arguments.isEmpty() && !hiddenArguments) {
+        sb.append('<');
+        for (int i = 0; i < arguments.size(); i++) {
+          if (i > 0) sb.append(',');
+          sb.append(arguments.get(i).toDiagramString());
+        }
+        sb.append('>');
+      }
+
+      for (int i = 0; i < dimensions; i++)
+        sb.append("[]");
+
+      return sb.toString();
+    }
+
+    /**
+     * Add the names of all class types referenced by this type, including type arguments, in the given list.
+     *
+     * @param names the list receiving the names
+     */
+    public void collectNames(List<String> names) {
+      if (!"?".equals(name) && !isPrimitive()) names.add(name);
+      for (TypeReference argument : arguments)
+        argument.collectNames(names);
+    }
+
+    TypeReference copy() {
+      TypeReference copy = new TypeReference();
+      copy.name = name;
+      copy.arguments.addAll(arguments);
+      copy.dimensions = dimensions;
+      copy.hiddenArguments = hiddenArguments;
+      return copy;
+    }
+  }
+}
@@ -12,6 +12,7 @@ import swing.SPanelDiagramComponent;
 import swing.Slyum;
 import swing.XmlElement;
 import swing.slyumCustomizedComponents.SRadioButtonMenuItem;
+import utility.Instrumentation;
 import utility.PersonalizedIcon;
 import utility.Utility;
 
@@ -62,7 +63,7 @@ public abstract class GraphicComponent extends Observable implements ActionListe
   protected GraphicView parent;
   protected boolean pictureMode = false;
 
-  protected JPopupMenu popupMenu;
+  private JPopupMenu popupMenu;
   private Color color = Color.DARK_GRAY;
 
   private boolean selected = false;
@@ -74,7 +75,6 @@ public abstract class GraphicComponent extends Observable implements ActionListe
     if (parent == null)
       throw new IllegalArgumentException("parent is null");
     this.parent = parent;
-    init();
   }
 
   /**
@@ -83,7 +83,6 @@ public abstract class GraphicComponent extends Observable implements ActionListe
    */
   GraphicComponent() {
     parent = (GraphicView) this;
-    init();
   }
 
   @Override
@@ -240,7 +239,7 @@ public abstract class GraphicComponent extends Observable implements ActionListe
    * @param e the swing mouse event.
    */
   public void gMousePressed(MouseEvent e) {
-    maybeShowPopup(e, popupMenu);
+    maybeShowPopup(e, getPopupMenu());
   }
 
   /**
@@ -250,7 +249,7 @@ public abstract class GraphicComponent extends Observable implements ActionListe
    * @param e the swing mouse event.
    */
   public void gMouseReleased(MouseEvent e) {
-    maybeShowPopup(e, popupMenu);
+    maybeShowPopup(e, getPopupMenu());
   }
 
   /**
@@ -336,9 +335,17 @@ public abstract class GraphicComponent extends Observable implements ActionListe
    * Get the popup menu for this component. The popup menu is shown when user make a right-click on it. Some component
    * hides this menu and don't use it.
    *
+   * The menu is created the first time it is requested: most components are never right-clicked, and creating the
+   * menus of all the new components made pasting or importing large diagrams slow.
+   *
    * @return the popup menu.
    */
   public JPopupMenu getPopupMenu() {
+    if (popupMenu == null) {
+      popupMenu = new JPopupMenu();
+      initializePopupMenu(popupMenu);
+    }
+
     return popupMenu;
   }
 
@@ -453,7 +460,7 @@ public abstract class GraphicComponent extends Observable implements ActionListe
     locationContextMenuRequested = e.getPoint();
 
     if (e.isPopupTrigger()) {
-      miNewNote.setEnabled(getAssociatedComponent() != null);
+      if (miNewNote != null) miNewNote.setEnabled(getAssociatedComponent() != null);
       popupMenu.show(e.getComponent(),
                      (int) (e.getX() / gv.getInversedScale()),
                      (int) (e.getY() / gv.getInversedScale()));
@@ -549,12 +556,12 @@ public abstract class GraphicComponent extends Observable implements ActionListe
   }
 
   /**
-   * Calls by the constructor for initialize components.
+   * Fill the popup menu, when it is requested for the first time. Subclasses add their items after the ones of their
+   * parent class.
+   *
+   * @param popupMenu the new popup menu
    */
-  private void init() {
-    // Create context menu.
-    popupMenu = new JPopupMenu();
-
+  protected void initializePopupMenu(JPopupMenu popupMenu) {
     JMenuItem menuItem;
 
     miNewNote = menuItem = makeMenuItem("New note",
@@ -618,6 +625,16 @@ public abstract class GraphicComponent extends Observable implements ActionListe
     return highlight;
   }
 
+  /**
+   * Get the problems found by the validation of the model on the component associated with this graphic component (see
+   * {@link classDiagram.ModelValidator}).
+   *
+   * @return the description of the problems, or null if there is no problem
+   */
+  public String getProblem() {
+    return parent.getClassDiagram().getValidator().getProblem(getAssociatedComponent());
+  }
+
   public static void removeHighlightForAllComponents() {
     MultiViewManager.getAllGraphicViews().stream().forEach((gv) -> {
       gv.getChildsRecursively().stream().forEach((gc) -> {
@@ -626,4 +643,10 @@ public abstract class GraphicComponent extends Observable implements ActionListe
     });
   }
 
+  @Override
+  public void notifyObservers(Object arg) {
+    Instrumentation.notified(this);
+    super.notifyObservers(arg);
+  }
+
 }
@@ -5,6 +5,7 @@ import change.BufferColor;
 import change.Change;
 import classDiagram.ClassDiagram;
 import classDiagram.ClassDiagram.ViewEntity;
+import classDiagram.DiagramChanges;
 import classDiagram.IComponentsObserver;
 import classDiagram.IDiagramComponent;
 import classDiagram.INameObserver;
@@ -23,15 +24,18 @@ import classDiagram.relationships.InnerClass;
 import classDiagram.relationships.Multi;
 import classDiagram.relationships.Relation;
 import classDiagram.relationships.Role;
+import graphic.clipboard.DiagramFragment;
+import graphic.clipboard.DiagramSelection;
 import graphic.entity.AssociationClassView;
 import graphic.entity.ClassView;
 import graphic.entity.EntityView;
 import graphic.entity.EnumView;
 import graphic.entity.InterfaceView;
 import graphic.entity.SimpleEntityView;
-import graphic.export.ExportViewImage;
 import graphic.factory.CreateComponent;
 import graphic.factory.MultiFactory;
+import graphic.layout.ForceDirectedLayout;
+import graphic.layout.OrthogonalRouter;
 import graphic.relations.AggregationView;
 import graphic.relations.BinaryView;
 import graphic.relations.CompositionView;
@@ -58,6 +62,7 @@ import swing.SPanelElement;
 import swing.Slyum;
 import swing.slyumCustomizedComponents.SButton;
 import swing.slyumCustomizedComponents.SScrollPane;
+import utility.Instrumentation;
 import utility.OSValidator;
 import utility.SMessageDialog;
 import utility.Utility;
@@ -66,6 +71,7 @@ import javax.print.attribute.Size2DSyntax;
 import javax.print.attribute.standard.MediaSize;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.UnsupportedFlavorException;
 import java.awt.event.ActionEvent;
 import java.awt.event.AdjustmentEvent;
@@ -80,16 +86,18 @@ import java.awt.event.MouseWheelListener;
 import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
-import java.awt.print.PageFormat;
-import java.awt.print.Printable;
-import java.awt.print.PrinterException;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 /**
@@ -107,7 +115,6 @@ public class GraphicView extends GraphicComponent
     MouseWheelListener,
     IComponentsObserver,
     INameObserver,
-    Printable,
     ColoredComponent,
     Observer {
 
@@ -128,6 +135,11 @@ public class GraphicView extends GraphicComponent
   public final static String ROOT_VIEW_DEFAULT_NAME = "Main view";
   public final static double SCALE_STEP = 0.1;
 
+  // Cells of the heatmap painted at the lowest level of detail, in pixels on the screen.
+  private final static int HEATMAP_CELL_SIZE = 24;
+  private final static int HEATMAP_MIN_ALPHA = 40;
+  private final static Color HEATMAP_COLOR = EntityView.DEFAULT_BORDER_COLOR;
+
   /**
    * Compute mouse entered and exited event. the componentMouseHover can be the same as the current component. In this
    * case, no event will be called.
@@ -158,7 +170,9 @@ public class GraphicView extends GraphicComponent
     boolean isRecord = Change.isRecord();
     Change.record();
 
-    components.stream().forEach((c) -> { c.userDelete(); });
+    // Observers of the class diagram are updated once for all the removed components.
+    PanelClassDiagram.getInstance().getClassDiagram().batch(
+        () -> components.stream().forEach((c) -> { c.userDelete(); }));
 
     if (!isRecord) Change.stopRecord();
   }
@@ -433,15 +447,14 @@ public class GraphicView extends GraphicComponent
     return null; // no component found
   }
 
-  // use in printing
-  private final int MAX_PRINT_PAGE = 1;
-
   private final ClassDiagram classDiagram;
   // last component mouse pressed
   private GraphicComponent componentMousePressed;
 
   private CreateComponent currentFactory;
   private final LinkedList<EntityView> entities = new LinkedList<>();
+  private ForceDirectedLayout forceDirectedLayout;
+  private OrthogonalRouter orthogonalRouter;
   private GraphicComponent justCreatedComponent;
 
   private LinkedList<IListenerComponentSelectionChanged> lcsc = new LinkedList<>();
@@ -456,6 +469,14 @@ public class GraphicView extends GraphicComponent
   private final LinkedList<TextBoxCommentary> notes = new LinkedList<>();
 
   private final LinkedList<GraphicComponent> othersComponents = new LinkedList<>();
+
+  // Identity set of the components of all the lists above, to avoid searching the lists when adding a component.
+  private final Set<GraphicComponent> componentsSet = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  // Components of the view by their associated component, see searchAssociedComponent().
+  private final IdentityHashMap<IDiagramComponent, LinkedList<GraphicComponent>> associatedComponents =
+      new IdentityHashMap<>();
+
   private boolean paintBackgroundLast = false;
 
   // Selection rectangle.
@@ -467,11 +488,16 @@ public class GraphicView extends GraphicComponent
 
   private final JScrollPane scrollPane;
   private boolean stopRepaint = false;
+  private final AtomicLong version = new AtomicLong();
   private TextBoxDiagramName txtBoxDiagramName;
 
   private Rectangle visibleRect = new Rectangle();
   private float zoom = 1.0f;
 
+  // Level of detail of the painting in progress.
+  private LevelOfDetail levelOfDetail = LevelOfDetail.FULL;
+  private boolean allDetailsForced = false;
+
   /**
    * Create a new graphic view representing the class diagram given. The new graphic view is empty when created. If
    * classDiagram given is not empty, you must manually add existing component.
@@ -522,9 +548,18 @@ public class GraphicView extends GraphicComponent
 
       @Override
       public void paintComponent(Graphics g) {
+        Instrumentation.Frame frame = Instrumentation.beginFrame(GraphicView.this.getName(), g.getClipBounds());
+
         updatePreferredSize(); // for scrolling
         super.paintComponent(g);
-        paintScene((Graphics2D) g);
+
+        // Only the screen is painted with less details, exports and printing are always complete.
+        levelOfDetail = allDetailsForced ? LevelOfDetail.FULL : LevelOfDetail.forScale(getScale());
+        paintScene((Graphics2D) g, frame);
+        levelOfDetail = LevelOfDetail.FULL;
+
+        Instrumentation.endFrame(frame);
+        Instrumentation.paintOverlay((Graphics2D) g, getVisibleRect());
       }
 
       @Override
@@ -534,6 +569,7 @@ public class GraphicView extends GraphicComponent
 
       @Override
       public void repaint(Rectangle r) {
+        version.incrementAndGet();
         if (stopRepaint) return;
 
         super.repaint(growForRepaint(Utility.scaleRect(r, getScale())));
@@ -546,6 +582,7 @@ public class GraphicView extends GraphicComponent
 
       @Override
       public void paintImmediately(Rectangle r) {
+        version.incrementAndGet();
         if (stopRepaint) return;
 
         super.paintImmediately(r.x, r.y, r.width, r.height);
@@ -594,69 +631,6 @@ public class GraphicView extends GraphicComponent
 
     setColor(getBasicColor());
 
-    JMenuItem menuItem;
-
-    // Menu item add class
-    menuItem = makeMenuItem("Add Class", Slyum.ACTION_NEW_CLASS, "class");
-    popupMenu.add(menuItem);
-
-    // Menu item add interface
-    menuItem = makeMenuItem("Add Interface", Slyum.ACTION_NEW_INTERFACE,
-                            "interface");
-    popupMenu.add(menuItem);
-
-    // Menu item add class association
-    menuItem = makeMenuItem("Add Association class",
-                            Slyum.ACTION_NEW_CLASS_ASSOCIATION, "classAssoc");
-    popupMenu.add(menuItem);
-
-    popupMenu.addSeparator();
-
-    // Menu item add generalize
-    menuItem = makeMenuItem("Add Inheritance", Slyum.ACTION_NEW_GENERALIZE,
-                            "generalize");
-    popupMenu.add(menuItem);
-
-    // Menu item add inner class
-    menuItem = makeMenuItem("Add inner class", Slyum.ACTION_NEW_INNER_CLASS,
-                            "innerClass");
-    popupMenu.add(menuItem);
-
-    // Menu item add dependency
-    menuItem = makeMenuItem("Add Dependency", Slyum.ACTION_NEW_DEPENDENCY,
-                            "dependency");
-    popupMenu.add(menuItem);
-
-    // Menu item add association
-    menuItem = makeMenuItem("Add Association", Slyum.ACTION_NEW_ASSOCIATION,
-                            "association");
-    popupMenu.add(menuItem);
-
-    // Menu item add aggregation
-    menuItem = makeMenuItem("Add Aggregation", Slyum.ACTION_NEW_AGGREGATION,
-                            "aggregation");
-    popupMenu.add(menuItem);
-
-    // Menu item add composition
-    menuItem = makeMenuItem("Add Composition", Slyum.ACTION_NEW_COMPOSITION,
-                            "composition");
-    popupMenu.add(menuItem);
-
-    // Menu item add composition
-    menuItem = makeMenuItem("Add Multi-association", Slyum.ACTION_NEW_MULTI,
-                            "multi");
-    popupMenu.add(menuItem);
-
-    popupMenu.addSeparator();
-
-    // Menu item add note
-    menuItem = makeMenuItem("Add Note", Slyum.ACTION_NEW_NOTE, "note");
-    popupMenu.add(menuItem);
-
-    // Menu item link note
-    menuItem = makeMenuItem("Link Note", Slyum.ACTION_NEW_LINK_NOTE, "linkNote");
-    popupMenu.add(menuItem);
-
     addSPanelListener();
 
     txtBoxDiagramName = new TextBoxDiagramName(this, isRoot ? classDiagram : this);
@@ -778,8 +752,15 @@ public class GraphicView extends GraphicComponent
     if (component == null)
       throw new IllegalArgumentException("component is null");
 
-    if (!list.contains(component) && list.add(component)) {
-      getScene().paintImmediately(component.getBounds());
+    if ((!componentsSet.contains(component) || !list.contains(component)) && list.add(component)) {
+      componentsSet.add(component);
+
+      if (component.getAssociatedComponent() != null)
+        associatedComponents.computeIfAbsent(component.getAssociatedComponent(), k -> new LinkedList<>())
+                            .add(component);
+
+      paintImmediatelyWithAllDetails(component.getBounds());
+      if (orthogonalRouter != null) orthogonalRouter.componentAdded(component);
       return true;
     }
 
@@ -1081,6 +1062,48 @@ public class GraphicView extends GraphicComponent
     if (!isRecord) Change.stopRecord();
   }
 
+  /**
+   * Start a force-directed layout on the entities of this view. If a layout is already running, it is stopped instead.
+   * Pinned entities keep their location. See ForceDirectedLayout.
+   */
+  public void toggleForceDirectedLayout() {
+    if (forceDirectedLayout != null) {
+      forceDirectedLayout.cancel();
+      return;
+    }
+
+    forceDirectedLayout = new ForceDirectedLayout(this);
+    forceDirectedLayout.start(new Runnable() {
+
+      @Override
+      public void run() {
+        forceDirectedLayout = null;
+      }
+    });
+  }
+
+  /**
+   * Enable or disable the automatic orthogonal routing of the relations. When enabled, all relations are rerouted
+   * around the entities, then only the relations affected by a move are rerouted. See OrthogonalRouter.
+   *
+   * @param enable true to route the relations automatically
+   */
+  public void setOrthogonalRouting(boolean enable) {
+    if (enable == isOrthogonalRouting()) return;
+
+    if (enable) {
+      orthogonalRouter = new OrthogonalRouter(this);
+      orthogonalRouter.routeAll();
+    } else {
+      orthogonalRouter.dispose();
+      orthogonalRouter = null;
+    }
+  }
+
+  public boolean isOrthogonalRouting() {
+    return orthogonalRouter != null;
+  }
+
   public void backScale() {
     setScale(getScale() + SCALE_STEP);
   }
@@ -1186,14 +1209,50 @@ public class GraphicView extends GraphicComponent
     return getAllComponents().contains(component);
   }
 
+  /**
+   * Copy the selection to the clipboard. The selected entities, with the relations between them, can be pasted as
+   * components into any view; other applications get a picture of the selection, rendered when they ask for it.
+   */
   public void copyDiagramToClipboard() {
-    Toolkit.getDefaultToolkit().getSystemClipboard()
-           .setContents(new Utility.ImageSelection(getSelectedScreen()), null);
+    final DiagramSelection selection = new DiagramSelection(this);
+
+    if (!selection.isEmpty()) Toolkit.getDefaultToolkit().getSystemClipboard().setContents(selection, null);
   }
 
-  public int countEntities(
-  ) {
-    return getEntitiesView().size();
+  /**
+   * Paste the components copied with {@link #copyDiagramToClipboard()} into this view, which must be the selected
+   * view. The pasted entities are selected.
+   */
+  public void pasteFromClipboard() {
+    final Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+
+    try {
+      if (!clipboard.isDataFlavorAvailable(DiagramSelection.FLAVOR)) return;
+
+      selectPasted(((DiagramFragment) clipboard.getData(DiagramSelection.FLAVOR)).paste(this));
+    } catch (UnsupportedFlavorException | IOException | IllegalStateException ex) {
+      Slyum.LOGGER.log(Level.WARNING, "Unable to paste the clipboard", ex);
+    }
+  }
+
+  private void selectPasted(List<EntityView> entityViews) {
+    unselectAll();
+
+    for (EntityView entityView : entityViews)
+      entityView.setSelected(true);
+  }
+
+  public int countEntities() {
+    return entities.size();
+  }
+
+  /**
+   * Count the lines of this view: the relations and the links of the notes.
+   *
+   * @return the number of lines
+   */
+  public int countLines() {
+    return linesView.size();
   }
 
   public int countNotes() {
@@ -1279,45 +1338,13 @@ public class GraphicView extends GraphicComponent
     g2.drawRect(limits.x, limits.y, (int) width, (int) height);
   }
 
+  /**
+   * Duplicate the selected entities, with the relations between them, in this view. The copies are selected.
+   */
   public void duplicateSelectedEntities() {
+    final LinkedList<EntityView> selectedEntities = getSelectedEntities();
 
-    boolean isRecord = Change.isRecord();
-    Change.record();
-
-    for (final EntityView entityView : getSelectedEntities()) {
-      try {
-        final EntityView newView = entityView.clone();
-        Entity entity = ((Entity) newView.getAssociatedComponent());
-
-        // Récupération par réflexion de la méthode a appelé pour l'ajout.
-        // Le nom de la méthode doit être add<Type_Class>(<Type_Class> entity);
-        try {
-          parent.addEntity(newView);
-          classDiagram
-              .getClass()
-              .getMethod(
-                  String.format("add%s", entity.getClass()
-                                               .getSimpleName()), entity.getClass())
-              .invoke(classDiagram, entity);
-          newView.regenerateEntity();
-
-          SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-              entityView.setSelected(false);
-              newView.setSelected(true);
-              newView.repaint();
-            }
-          });
-        } catch (Exception e) {
-          e.printStackTrace();
-        }
-      } catch (CloneNotSupportedException e) {
-        e.printStackTrace();
-      }
-    }
-
-    if (!isRecord) Change.stopRecord();
+    if (!selectedEntities.isEmpty()) selectPasted(DiagramFragment.create(this, selectedEntities).paste(this));
   }
 
   public void forwardScale() {
@@ -1473,8 +1500,11 @@ public class GraphicView extends GraphicComponent
    * @return the component at the location; or the graphic view if no component are at this location
    */
   public GraphicComponent getComponentAtPosition(Point pos) {
-    final GraphicComponent component = getComponentListAtPosition(
-        getAllComponents(), pos);
+    final long start = Instrumentation.start();
+    final LinkedList<GraphicComponent> components = getAllComponents();
+    final GraphicComponent component = getComponentListAtPosition(components, pos);
+
+    Instrumentation.hitTested(start, components.size());
 
     return component == null ? this : component;
   }
@@ -1700,6 +1730,30 @@ public class GraphicView extends GraphicComponent
       c.setPictureMode(enable);
   }
 
+  /**
+   * Get the level of detail of the painting in progress. The components paint only the details visible at this level.
+   *
+   * @return the level of detail; {@link LevelOfDetail#FULL} if the view is not painted on the screen
+   */
+  public LevelOfDetail getLevelOfDetail() {
+    return levelOfDetail;
+  }
+
+  /**
+   * Paint immediately the given region of the scene with all the details, whatever the scale. The components compute
+   * their layout while painting (like the height of the entities), this method ensures it is computed completely.
+   *
+   * @param bounds the region to paint, not scaled like the bounds of the components
+   */
+  public void paintImmediatelyWithAllDetails(Rectangle bounds) {
+    allDetailsForced = true;
+    try {
+      getScene().paintImmediately(bounds);
+    } finally {
+      allDetailsForced = false;
+    }
+  }
+
   public double getScale() {
     return SPanelElement.getInstance().getSliderZoom().getValue() / 100.0;
   }
@@ -1979,7 +2033,7 @@ public class GraphicView extends GraphicComponent
     // The font size can only be computed with a graphic context. We must
     // call a repainting for update the font size before redrawing the
     // scene.
-    getScene().paintImmediately(0, 0, 1, 1);
+    paintImmediatelyWithAllDetails(new Rectangle(0, 0, 1, 1));
     getScene().repaint();
 
     // Adjust the width for selected entities.
@@ -2301,6 +2355,20 @@ public class GraphicView extends GraphicComponent
       addInterfaceEntity(component);
   }
 
+  @Override
+  public void notifyBatchUpdate(DiagramChanges changes) {
+    boolean isStopRepaint = getStopRepaint();
+    setStopRepaint(true);
+
+    changes.dispatch(this);
+
+    setStopRepaint(isStopRepaint);
+    if (!isStopRepaint) {
+      updatePreferredSize();
+      repaint();
+    }
+  }
+
   @Override
   public void notifyRemoveComponent(IDiagramComponent component) {
     final GraphicComponent g = searchAssociedComponent(component);
@@ -2308,6 +2376,15 @@ public class GraphicView extends GraphicComponent
       g.hardDelete();
   }
 
+  @Override
+  public void notifyProblemsChanged(Collection<Entity> entities) {
+    for (Entity entity : entities) {
+      final GraphicComponent g = searchAssociedComponent(entity);
+      if (g != null)
+        g.repaint();
+    }
+  }
+
   public void paintBackgroundFirst() {
     setPaintBackgroundLast(false);
     repaint();
@@ -2325,6 +2402,16 @@ public class GraphicView extends GraphicComponent
    * @param g2 the graphic context
    */
   public void paintScene(final Graphics2D g2) {
+    paintScene(g2, null);
+  }
+
+  /**
+   * Paint the scene, measuring the painting of each component in the given frame.
+   *
+   * @param g2 the graphic context
+   * @param frame the measure of the painting, or null
+   */
+  private void paintScene(final Graphics2D g2, Instrumentation.Frame frame) {
     int gridSize = getGridSize();
 
     // Paint background.
@@ -2332,14 +2419,25 @@ public class GraphicView extends GraphicComponent
 
     if (!isVisible()) return;
 
-    Utility.setRenderQuality(g2);
+    // Antialiasing is not visible on simple shapes at low scales.
+    if (levelOfDetail.isAtLeast(LevelOfDetail.NAMES))
+      Utility.setRenderQuality(g2);
 
     double scale = getScale(), inversedScale = getInversedScale();
     g2.scale(scale, scale);
 
     // Paint components
-    for (GraphicComponent c : getAllComponents())
-      c.paintComponent(g2);
+    if (levelOfDetail == LevelOfDetail.HEATMAP)
+      paintHeatmap(g2, scale);
+    else
+      for (GraphicComponent c : getAllComponents())
+        if (frame == null) {
+          c.paintComponent(g2);
+        } else {
+          long start = System.nanoTime();
+          c.paintComponent(g2);
+          frame.painted(c, start);
+        }
 
     for (GraphicComponent c : getSelectedComponents())
       c.drawSelectedEffect(g2);
@@ -2359,44 +2457,64 @@ public class GraphicView extends GraphicComponent
       paintBackground(gridSize, getBasicColor(), g2);
   }
 
-  @Override
-  public int print(Graphics g, PageFormat pageFormat, int pageIndex) throws PrinterException {
-
-    if (pageIndex >= MAX_PRINT_PAGE)
-      return NO_SUCH_PAGE;
-
-    Utility.setRenderQuality(g);
-
-    BufferedImage m_bi = ExportViewImage.create(this).export();
-    int wPage = (int) pageFormat.getImageableWidth(),
-        hPage = (int) pageFormat.getImageableHeight(),
-        wBi = m_bi.getWidth(),
-        hBi = m_bi.getHeight(),
-        wScaled = wBi,
-        hScaled = hBi;
-
-    // Compute the ratio for scaling the scene into one page.
-    float wScale = (float) wBi / wPage,
-        hScale = (float) hBi / hPage;
-
-    // If the scene overflow the page, scale it for not overbounding the page.
-    if (wScale > 1.0f || hScale > 1.0f)
-      if (wScale > hScale) {
-        wScaled = wPage;
-        hScaled /= wScale;
-      } else {
-        hScaled = hPage;
-        wScaled /= hScale;
-      }
+  /**
+   * Paint the density of the entities instead of the components: the scene is divided in cells of
+   * HEATMAP_CELL_SIZE pixels on the screen, each cell is darker as the entities cover more of it.
+   *
+   * @param g2 the graphic context, scaled
+   * @param scale the scale of the view
+   */
+  private void paintHeatmap(Graphics2D g2, double scale) {
+    final double cellSize = HEATMAP_CELL_SIZE / scale;
+    final LinkedList<EntityView> entityViews = getEntitiesView();
+
+    int columns = 0, rows = 0;
+    for (EntityView entityView : entityViews) {
+      Rectangle bounds = entityView.getBounds();
+      columns = Math.max(columns, (int) ((bounds.x + bounds.width) / cellSize) + 1);
+      rows = Math.max(rows, (int) ((bounds.y + bounds.height) / cellSize) + 1);
+    }
+
+    // Area of the cells covered by entities.
+    final double[][] density = new double[rows][columns];
+    double maxDensity = 0;
+
+    for (EntityView entityView : entityViews) {
+      Rectangle bounds = entityView.getBounds();
+      int firstColumn = Math.max(0, (int) (bounds.x / cellSize));
+      int lastColumn = (int) ((bounds.x + bounds.width) / cellSize);
+      int firstRow = Math.max(0, (int) (bounds.y / cellSize));
+      int lastRow = (int) ((bounds.y + bounds.height) / cellSize);
+
+      for (int row = firstRow; row <= lastRow; row++)
+        for (int column = firstColumn; column <= lastColumn; column++) {
+          double left = Math.max(bounds.x, column * cellSize);
+          double right = Math.min(bounds.x + bounds.width, (column + 1) * cellSize);
+          double top = Math.max(bounds.y, row * cellSize);
+          double bottom = Math.min(bounds.y + bounds.height, (row + 1) * cellSize);
+          double width = right - left, height = bottom - top;
+
+          if (width > 0 && height > 0) {
+            density[row][column] += width * height;
+            maxDensity = Math.max(maxDensity, density[row][column]);
+          }
+        }
+    }
 
-    g.translate((int) pageFormat.getImageableX(),
-                (int) pageFormat.getImageableY());
+    if (maxDensity == 0) return;
 
-    g.drawImage(m_bi, 0, 0, wScaled, hScaled, getScene());
+    final Rectangle2D.Double cell = new Rectangle2D.Double(0, 0, cellSize, cellSize);
 
-    System.gc();
+    for (int row = 0; row < rows; row++)
+      for (int column = 0; column < columns; column++)
+        if (density[row][column] > 0) {
+          int alpha = (int) (HEATMAP_MIN_ALPHA + (255 - HEATMAP_MIN_ALPHA) * density[row][column] / maxDensity);
 
-    return PAGE_EXISTS;
+          g2.setColor(new Color(HEATMAP_COLOR.getRed(), HEATMAP_COLOR.getGreen(), HEATMAP_COLOR.getBlue(), alpha));
+          cell.x = column * cellSize;
+          cell.y = row * cellSize;
+          g2.fill(cell);
+        }
   }
 
   /**
@@ -2444,8 +2562,16 @@ public class GraphicView extends GraphicComponent
     success |= multiViews.remove(component);
     success |= notes.remove(component);
 
-    if (success)
+    if (success) {
+      componentsSet.remove(component);
+
+      final LinkedList<GraphicComponent> associated = associatedComponents.get(component.getAssociatedComponent());
+
+      if (associated != null && associated.remove(component) && associated.isEmpty())
+        associatedComponents.remove(component.getAssociatedComponent());
+
       component.repaint();
+    }
 
     return success;
   }
@@ -2456,9 +2582,20 @@ public class GraphicView extends GraphicComponent
 
   @Override
   public void repaint() {
+    version.incrementAndGet();
     scene.repaint();
   }
 
+  /**
+   * Get the version of the view. The version changes each time a part of the view needs to be painted again, so it
+   * can be used to invalidate data computed from the appearance of the view, like thumbnails.
+   *
+   * @return the current version of the view
+   */
+  public long getVersion() {
+    return version.get();
+  }
+
   /**
    * Search a graphic component associated with the object given. Some graphic component have an UML component
    * associated. Return null if no component are associated.
@@ -2468,13 +2605,9 @@ public class GraphicView extends GraphicComponent
    * @return the graphic component associated with the given object; or null if no graphic component are found
    */
   public GraphicComponent searchAssociedComponent(Object search) {
-    if (search == null) return null;
-
-    for (final GraphicComponent c : getAllComponents())
-      if (c.getAssociatedComponent() == search)
-        return c;
+    final LinkedList<GraphicComponent> components = associatedComponents.get(search);
 
-    return null;
+    return components == null ? null : components.getFirst();
   }
 
   /**
@@ -2652,6 +2785,74 @@ public class GraphicView extends GraphicComponent
                           e.getButton());
   }
 
+  @Override
+  protected void initializePopupMenu(JPopupMenu popupMenu) {
+    super.initializePopupMenu(popupMenu);
+
+    JMenuItem menuItem;
+
+    // Menu item add class
+    menuItem = makeMenuItem("Add Class", Slyum.ACTION_NEW_CLASS, "class");
+    popupMenu.add(menuItem);
+
+    // Menu item add interface
+    menuItem = makeMenuItem("Add Interface", Slyum.ACTION_NEW_INTERFACE,
+                            "interface");
+    popupMenu.add(menuItem);
+
+    // Menu item add class association
+    menuItem = makeMenuItem("Add Association class",
+                            Slyum.ACTION_NEW_CLASS_ASSOCIATION, "classAssoc");
+    popupMenu.add(menuItem);
+
+    popupMenu.addSeparator();
+
+    // Menu item add generalize
+    menuItem = makeMenuItem("Add Inheritance", Slyum.ACTION_NEW_GENERALIZE,
+                            "generalize");
+    popupMenu.add(menuItem);
+
+    // Menu item add inner class
+    menuItem = makeMenuItem("Add inner class", Slyum.ACTION_NEW_INNER_CLASS,
+                            "innerClass");
+    popupMenu.add(menuItem);
+
+    // Menu item add dependency
+    menuItem = makeMenuItem("Add Dependency", Slyum.ACTION_NEW_DEPENDENCY,
+                            "dependency");
+    popupMenu.add(menuItem);
+
+    // Menu item add association
+    menuItem = makeMenuItem("Add Association", Slyum.ACTION_NEW_ASSOCIATION,
+                            "association");
+    popupMenu.add(menuItem);
+
+    // Menu item add aggregation
+    menuItem = makeMenuItem("Add Aggregation", Slyum.ACTION_NEW_AGGREGATION,
+                            "aggregation");
+    popupMenu.add(menuItem);
+
+    // Menu item add composition
+    menuItem = makeMenuItem("Add Composition", Slyum.ACTION_NEW_COMPOSITION,
+                            "composition");
+    popupMenu.add(menuItem);
+
+    // Menu item add composition
+    menuItem = makeMenuItem("Add Multi-association", Slyum.ACTION_NEW_MULTI,
+                            "multi");
+    popupMenu.add(menuItem);
+
+    popupMenu.addSeparator();
+
+    // Menu item add note
+    menuItem = makeMenuItem("Add Note", Slyum.ACTION_NEW_NOTE, "note");
+    popupMenu.add(menuItem);
+
+    // Menu item link note
+    menuItem = makeMenuItem("Link Note", Slyum.ACTION_NEW_LINK_NOTE, "linkNote");
+    popupMenu.add(menuItem);
+  }
+
   @Override
   protected boolean displayGeneralMenuItems() {
     return false;
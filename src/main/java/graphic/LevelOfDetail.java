@@ -0,0 +1,66 @@
+package graphic;
+
+/**
+ * Level of detail used for painting a graphic view on the screen, depending on its scale. When the view is zoomed
+ * out, the details cannot be read anymore and painting them is too slow for large diagrams.
+ *
+ * The components compute their layout at all levels, only what they paint changes; so the bounds and the hit-testing
+ * of the components are the same at any scale.
+ */
+public enum LevelOfDetail {
+
+  /**
+   * Everything is painted.
+   */
+  FULL(0.5),
+
+  /**
+   * The entities are painted with their name only, the relations without their labels.
+   */
+  NAMES(0.35),
+
+  /**
+   * The entities are painted as simple boxes, the relations as simple polylines.
+   */
+  SHAPES(0.15),
+
+  /**
+   * The components are replaced by a heatmap of the density of entities.
+   */
+  HEATMAP(0.0);
+
+  private final double minimumScale;
+
+  LevelOfDetail(double minimumScale) {
+    this.minimumScale = minimumScale;
+  }
+
+  /**
+   * Get the level of detail for painting a view at the given scale.
+   *
+   * @param scale the scale of the view
+   *
+   * @return the most detailed level allowed at this scale
+   */
+  public static LevelOfDetail forScale(double scale) {
+    for (LevelOfDetail levelOfDetail : values())
+      if (scale >= levelOfDetail.minimumScale) return levelOfDetail;
+
+    return HEATMAP;
+  }
+
+  public double getMinimumScale() {
+    return minimumScale;
+  }
+
+  /**
+   * Is this level at least as detailed as the given one?
+   *
+   * @param levelOfDetail the level to compare with
+   *
+   * @return true if this level paints all the details of the given level
+   */
+  public boolean isAtLeast(LevelOfDetail levelOfDetail) {
+    return ordinal() <= levelOfDetail.ordinal();
+  }
+}
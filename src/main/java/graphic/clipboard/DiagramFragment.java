@@ -0,0 +1,615 @@
+package graphic.clipboard;
+
+import change.BufferCreation;
+import change.BufferDeepCreation;
+import change.BufferFirstCreation;
+import change.Change;
+import classDiagram.ClassDiagram;
+import classDiagram.IDiagramComponent;
+import classDiagram.components.Attribute;
+import classDiagram.components.ClassEntity;
+import classDiagram.components.ConstructorMethod;
+import classDiagram.components.Entity;
+import classDiagram.components.EnumEntity;
+import classDiagram.components.EnumValue;
+import classDiagram.components.InterfaceEntity;
+import classDiagram.components.Method;
+import classDiagram.components.Method.ParametersViewStyle;
+import classDiagram.components.SimpleEntity;
+import classDiagram.components.Variable;
+import classDiagram.components.Visibility;
+import classDiagram.relationships.Aggregation;
+import classDiagram.relationships.Association;
+import classDiagram.relationships.Association.NavigateDirection;
+import classDiagram.relationships.Binary;
+import classDiagram.relationships.Composition;
+import classDiagram.relationships.Dependency;
+import classDiagram.relationships.Inheritance;
+import classDiagram.relationships.InnerClass;
+import classDiagram.relationships.Multiplicity;
+import classDiagram.relationships.Role;
+import graphic.GraphicComponent;
+import graphic.GraphicView;
+import graphic.entity.EntityView;
+import graphic.relations.LineView;
+import graphic.relations.RelationGrip;
+
+import java.awt.*;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * A part of a class diagram copied to the clipboard: entities with their members, the relations between them and their
+ * geometry in the view they were copied from. The fragment only contains values, so it stays valid after the copied
+ * components are modified or deleted, or another project is opened, and it can be serialized for pasting into another
+ * instance of Slyum.
+ *
+ * Relations with an entity outside of the fragment are not copied, nor are multi-associations; association classes are
+ * copied as classes.
+ */
+public class DiagramFragment implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private enum EntityKind {
+    CLASS, INTERFACE, ENUM
+  }
+
+  private enum RelationKind {
+    BINARY, AGGREGATION, COMPOSITION, DEPENDENCY, INHERITANCE, INNER_CLASS
+  }
+
+  private static class VariableData implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    String name, type;
+  }
+
+  private static class AttributeData implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    String name, type, defaultValue;
+    Visibility visibility;
+    boolean isStatic, isConstant;
+  }
+
+  private static class MethodData implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    String name, returnType;
+    Visibility visibility;
+    ParametersViewStyle parametersViewStyle;
+    boolean isConstructor, isStatic, isAbstract;
+    final ArrayList<VariableData> parameters = new ArrayList<>();
+  }
+
+  private static class EntityData implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    EntityKind kind;
+    String name, stereotype;
+    Visibility visibility;
+    boolean isAbstract;
+    final ArrayList<AttributeData> attributes = new ArrayList<>();
+    final ArrayList<MethodData> methods = new ArrayList<>();
+    final ArrayList<String> enumValues = new ArrayList<>();
+    Rectangle bounds;
+    Color color;
+  }
+
+  private static class RoleData implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    String name;
+    Visibility visibility;
+    int lowerBound, upperBound;
+  }
+
+  private static class RelationData implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    RelationKind kind;
+    int source, target; // Index of the entities in the fragment.
+    String label;
+    NavigateDirection direction;
+    RoleData sourceRole, targetRole;
+    ArrayList<Point> points; // Null if the relation was not displayed.
+    Color color;
+  }
+
+  /**
+   * Copy the given entities of a view, with the relations between them.
+   *
+   * @param graphicView the view containing the entities
+   * @param entityViews the entities to copy
+   *
+   * @return the fragment containing the copy
+   */
+  public static DiagramFragment create(GraphicView graphicView, Collection<EntityView> entityViews) {
+    if (graphicView == null) throw new IllegalArgumentException("graphicView is null");
+
+    final DiagramFragment fragment = new DiagramFragment();
+    final IdentityHashMap<Entity, Integer> indexes = new IdentityHashMap<>();
+
+    for (EntityView entityView : entityViews) {
+      final Entity entity = (Entity) entityView.getAssociatedComponent();
+
+      if (indexes.containsKey(entity)) continue;
+
+      indexes.put(entity, fragment.entities.size());
+      fragment.entities.add(copyEntity(entity, entityView));
+    }
+
+    for (IDiagramComponent component : graphicView.getClassDiagram().getComponents()) {
+      final RelationData relation = copyRelation(component, indexes);
+
+      if (relation == null) continue;
+
+      final GraphicComponent lineView = graphicView.searchAssociedComponent(component);
+
+      if (lineView instanceof LineView) {
+        relation.points = new ArrayList<>();
+        relation.color = lineView.getColor();
+
+        for (RelationGrip grip : ((LineView) lineView).getPoints())
+          relation.points.add(new Point(grip.getAnchor()));
+      }
+
+      fragment.relations.add(relation);
+    }
+
+    return fragment;
+  }
+
+  private static EntityData copyEntity(Entity entity, EntityView entityView) {
+    final EntityData data = new EntityData();
+
+    data.name = entity.getName();
+    data.stereotype = entity.getStereotype();
+    data.bounds = new Rectangle(entityView.getBounds());
+    data.color = entityView.getColor();
+
+    if (entity instanceof EnumEntity) {
+      data.kind = EntityKind.ENUM;
+
+      for (EnumValue value : ((EnumEntity) entity).getEnumValues())
+        data.enumValues.add(value.getValue());
+
+      return data;
+    }
+
+    final SimpleEntity simpleEntity = (SimpleEntity) entity;
+
+    data.kind = entity instanceof InterfaceEntity ? EntityKind.INTERFACE : EntityKind.CLASS;
+    data.visibility = simpleEntity.getVisibility();
+    data.isAbstract = simpleEntity.isAbstract();
+
+    for (Attribute attribute : simpleEntity.getAttributes()) {
+      final AttributeData a = new AttributeData();
+      a.name = attribute.getName();
+      a.type = attribute.getType().getName();
+      a.defaultValue = attribute.getDefaultValue();
+      a.visibility = attribute.getVisibility();
+      a.isStatic = attribute.isStatic();
+      a.isConstant = attribute.isConstant();
+      data.attributes.add(a);
+    }
+
+    for (Method method : simpleEntity.getMethods()) {
+      final MethodData m = new MethodData();
+      m.name = method.getName();
+      m.returnType = method.getReturnType().getName();
+      m.visibility = method.getVisibility();
+      m.parametersViewStyle = method.getParametersViewStyle();
+      m.isConstructor = method instanceof ConstructorMethod;
+      m.isStatic = method.isStatic();
+      m.isAbstract = method.isAbstract();
+
+      for (Variable parameter : method.getParameters()) {
+        final VariableData p = new VariableData();
+        p.name = parameter.getName();
+        p.type = parameter.getType().getName();
+        m.parameters.add(p);
+      }
+
+      data.methods.add(m);
+    }
+
+    return data;
+  }
+
+  /**
+   * Copy the given component if it is a relation between two copied entities.
+   *
+   * @return the copy of the relation, or null if it is not copied
+   */
+  private static RelationData copyRelation(IDiagramComponent component, IdentityHashMap<Entity, Integer> indexes) {
+    final RelationData data = new RelationData();
+    final Entity source, target;
+
+    if (component instanceof Association && ((Association) component).getRoles().size() == 2) {
+      final Association association = (Association) component;
+
+      if (association instanceof Composition) data.kind = RelationKind.COMPOSITION;
+      else if (association instanceof Aggregation) data.kind = RelationKind.AGGREGATION;
+      else if (association instanceof Binary) data.kind = RelationKind.BINARY;
+      else return null;
+
+      source = association.getSource();
+      target = association.getTarget();
+      data.label = association.getLabel();
+      data.direction = association.getDirected();
+      data.sourceRole = copyRole(association.getRoles().getFirst());
+      data.targetRole = copyRole(association.getRoles().getLast());
+    } else if (component instanceof Dependency) {
+      data.kind = RelationKind.DEPENDENCY;
+      source = ((Dependency) component).getSource();
+      target = ((Dependency) component).getTarget();
+      data.label = ((Dependency) component).getLabel();
+    } else if (component instanceof Inheritance) {
+      data.kind = RelationKind.INHERITANCE;
+      source = ((Inheritance) component).getChild();
+      target = ((Inheritance) component).getParent();
+    } else if (component instanceof InnerClass) {
+      data.kind = RelationKind.INNER_CLASS;
+      source = ((InnerClass) component).getChild();
+      target = ((InnerClass) component).getParent();
+    } else {
+      return null;
+    }
+
+    final Integer sourceIndex = indexes.get(source), targetIndex = indexes.get(target);
+
+    if (sourceIndex == null || targetIndex == null) return null;
+
+    data.source = sourceIndex;
+    data.target = targetIndex;
+    return data;
+  }
+
+  private static RoleData copyRole(Role role) {
+    final RoleData data = new RoleData();
+    data.name = role.getName();
+    data.visibility = role.getVisibility();
+    data.lowerBound = role.getMultiplicity().getLowerBound();
+    data.upperBound = role.getMultiplicity().getUpperBound();
+    return data;
+  }
+
+  private final ArrayList<EntityData> entities = new ArrayList<>();
+  private final ArrayList<RelationData> relations = new ArrayList<>();
+
+  // Each paste of the same fragment is shifted a bit more, so the pasted entities do not hide each other.
+  private transient int pasteCount = 0;
+
+  private DiagramFragment() {
+  }
+
+  public int countEntities() {
+    return entities.size();
+  }
+
+  public int countRelations() {
+    return relations.size();
+  }
+
+  public boolean isEmpty() {
+    return entities.isEmpty();
+  }
+
+  /**
+   * Write the fragment as a PlantUML class diagram, for pasting it as text. Names that are not plain identifiers, or
+   * used by several entities, are quoted and given an alias.
+   *
+   * @return the PlantUML text, from "@startuml" to "@enduml"
+   */
+  public String toPlantUml() {
+    final StringBuilder uml = new StringBuilder("@startuml\n");
+    final String[] aliases = new String[entities.size()];
+    final HashSet<String> names = new HashSet<>();
+
+    for (int i = 0; i < entities.size(); i++) {
+      final EntityData entity = entities.get(i);
+
+      if (entity.kind == EntityKind.ENUM) uml.append("enum ");
+      else if (entity.kind == EntityKind.INTERFACE) uml.append("interface ");
+      else uml.append(entity.isAbstract ? "abstract class " : "class ");
+
+      if (entity.name.matches("[A-Za-z_][A-Za-z0-9_]*") && names.add(entity.name)) {
+        aliases[i] = entity.name;
+        uml.append(entity.name);
+      } else {
+        aliases[i] = "E" + i;
+        uml.append('"').append(entity.name.replace("\"", "'")).append("\" as ").append(aliases[i]);
+      }
+
+      if (entity.stereotype != null && !entity.stereotype.isEmpty())
+        uml.append(" <<").append(entity.stereotype).append(">>");
+
+      uml.append(" {\n");
+
+      for (String value : entity.enumValues)
+        uml.append("  ").append(value).append('\n');
+
+      for (AttributeData a : entity.attributes) {
+        uml.append("  ").append(a.visibility.toCar()).append(a.isStatic ? " {static} " : " ");
+        uml.append(a.name).append(" : ").append(a.type);
+        if (a.defaultValue != null && !a.defaultValue.isEmpty()) uml.append(" = ").append(a.defaultValue);
+        uml.append('\n');
+      }
+
+      for (MethodData m : entity.methods) {
+        uml.append("  ").append(m.visibility.toCar()).append(m.isStatic ? " {static} " : " ");
+        if (m.isAbstract) uml.append("{abstract} ");
+        uml.append(m.name).append('(');
+
+        for (int p = 0; p < m.parameters.size(); p++) {
+          final VariableData parameter = m.parameters.get(p);
+          uml.append(p == 0 ? "" : ", ").append(parameter.name).append(" : ").append(parameter.type);
+        }
+
+        uml.append(')');
+        if (!m.isConstructor) uml.append(" : ").append(m.returnType);
+        uml.append('\n');
+      }
+
+      uml.append("}\n");
+    }
+
+    for (RelationData relation : relations) {
+      final String source = aliases[relation.source], target = aliases[relation.target];
+
+      switch (relation.kind) {
+        case INHERITANCE:
+          // The target is the parent.
+          final boolean isRealization = entities.get(relation.target).kind == EntityKind.INTERFACE
+                                        && entities.get(relation.source).kind != EntityKind.INTERFACE;
+          uml.append(target).append(isRealization ? " <|.. " : " <|-- ").append(source);
+          break;
+
+        case INNER_CLASS:
+          uml.append(target).append(" +-- ").append(source);
+          break;
+
+        case DEPENDENCY:
+          uml.append(source).append(" ..> ").append(target);
+          break;
+
+        default:
+          final String end = relation.kind == RelationKind.COMPOSITION ? "*"
+              : relation.kind == RelationKind.AGGREGATION ? "o" : "";
+          String link = "--";
+
+          if (relation.direction == NavigateDirection.FIRST_TO_SECOND) link = "-->";
+          else if (relation.direction == NavigateDirection.SECOND_TO_FIRST && end.isEmpty()) link = "<--";
+
+          uml.append(source).append(roleToPlantUml(relation.sourceRole)).append(' ').append(end).append(link);
+          uml.append(roleToPlantUml(relation.targetRole)).append(' ').append(target);
+      }
+
+      if (relation.label != null && !relation.label.isEmpty()) uml.append(" : ").append(relation.label);
+
+      uml.append('\n');
+    }
+
+    return uml.append("@enduml\n").toString();
+  }
+
+  /**
+   * Get the name and the multiplicity of the role, quoted and preceded by a space.
+   */
+  private static String roleToPlantUml(RoleData role) {
+    final String upperBound = role.upperBound == Integer.MAX_VALUE ? "*" : String.valueOf(role.upperBound);
+    final String multiplicity = role.lowerBound == role.upperBound ? upperBound : role.lowerBound + ".." + upperBound;
+    final String name = role.name == null ? "" : role.name.replace("\"", "'");
+
+    return " \"" + (name.isEmpty() ? multiplicity : name + " " + multiplicity) + "\"";
+  }
+
+  /**
+   * Paste the fragment into the given view, which must be the selected view. New components are created for the
+   * entities and the relations, shifted from their original location. The observers of the class diagram are notified
+   * once for the whole fragment and the paste is undone at once.
+   *
+   * @param graphicView the selected view
+   *
+   * @return the views of the pasted entities
+   */
+  public List<EntityView> paste(GraphicView graphicView) {
+    if (graphicView == null) throw new IllegalArgumentException("graphicView is null");
+
+    final ClassDiagram classDiagram = graphicView.getClassDiagram();
+    final int offset = GraphicView.getGridSize() * 2 * ++pasteCount;
+    final Entity[] pastedEntities = new Entity[entities.size()];
+    final IDiagramComponent[] pastedRelations = new IDiagramComponent[relations.size()];
+    final List<EntityView> entityViews = new ArrayList<>(entities.size());
+
+    final boolean isRecord = Change.isRecord();
+    Change.record();
+
+    try {
+      // Graphic components are created blocked: their creation is pushed once they are located.
+      final boolean isBlocked = Change.isBlocked();
+      Change.setBlocked(true);
+
+      try {
+        classDiagram.batch(() -> {
+          for (int i = 0; i < entities.size(); i++)
+            pastedEntities[i] = createEntity(classDiagram, entities.get(i));
+
+          for (int i = 0; i < relations.size(); i++)
+            pastedRelations[i] = createRelation(classDiagram, relations.get(i), pastedEntities);
+        });
+
+        // The graphic components exist once the batch is over.
+        for (int i = 0; i < entities.size(); i++) {
+          final GraphicComponent g = graphicView.searchAssociedComponent(pastedEntities[i]);
+
+          if (g instanceof EntityView) {
+            final EntityData data = entities.get(i);
+            final Rectangle bounds = new Rectangle(data.bounds);
+
+            bounds.translate(offset, offset);
+            g.setBounds(bounds);
+            g.setColor(data.color);
+            entityViews.add((EntityView) g);
+          }
+        }
+
+        for (int i = 0; i < relations.size(); i++) {
+          final RelationData data = relations.get(i);
+          final GraphicComponent g = graphicView.searchAssociedComponent(pastedRelations[i]);
+
+          if (g instanceof LineView && data.points != null) locateLineView(graphicView, (LineView) g, data, offset);
+        }
+      } finally {
+        Change.setBlocked(isBlocked);
+      }
+
+      // Entities are created before relations: undo deletes the relations first.
+      for (EntityView entityView : entityViews) {
+        Change.push(new BufferFirstCreation(entityView));
+        Change.push(new BufferCreation(true, entityView));
+      }
+
+      for (IDiagramComponent relation : pastedRelations) {
+        Change.push(new BufferDeepCreation(false, relation));
+        Change.push(new BufferDeepCreation(true, relation));
+      }
+    } finally {
+      if (!isRecord) Change.stopRecord();
+    }
+
+    return entityViews;
+  }
+
+  private static Entity createEntity(ClassDiagram classDiagram, EntityData data) {
+    if (data.kind == EntityKind.ENUM) {
+      final EnumEntity entity = new EnumEntity(data.name);
+
+      entity.setStereotype(data.stereotype);
+      for (String value : data.enumValues)
+        entity.addEnumValue(new EnumValue(value));
+
+      classDiagram.addEnumEntity(entity);
+      return entity;
+    }
+
+    final SimpleEntity entity = data.kind == EntityKind.INTERFACE
+        ? new InterfaceEntity(data.name, data.visibility)
+        : new ClassEntity(data.name, data.visibility);
+
+    // Before adding the methods: an abstract method needs an abstract class.
+    entity.setAbstract(data.isAbstract);
+    entity.setStereotype(data.stereotype);
+
+    for (AttributeData a : data.attributes) {
+      final Attribute attribute = new Attribute(a.name, classDiagram.getTypes().intern(a.type));
+      attribute.setVisibility(a.visibility);
+      attribute.setStatic(a.isStatic);
+      attribute.setConstant(a.isConstant);
+      attribute.setDefaultValue(a.defaultValue);
+      entity.addAttribute(attribute);
+    }
+
+    for (MethodData m : data.methods) {
+      final Method method = m.isConstructor
+          ? new ConstructorMethod(m.name, m.visibility, entity)
+          : new Method(m.name, classDiagram.getTypes().intern(m.returnType), m.visibility, entity);
+
+      entity.addMethod(method);
+      method.setParametersViewStyle(m.parametersViewStyle);
+      method.setStatic(m.isStatic);
+      method.setAbstract(m.isAbstract);
+
+      for (VariableData p : m.parameters)
+        method.addParameter(new Variable(p.name, classDiagram.getTypes().intern(p.type)));
+    }
+
+    if (data.kind == EntityKind.INTERFACE) classDiagram.addInterfaceEntity((InterfaceEntity) entity);
+    else classDiagram.addClassEntity((ClassEntity) entity);
+
+    return entity;
+  }
+
+  private static IDiagramComponent createRelation(ClassDiagram classDiagram, RelationData data, Entity[] entities) {
+    final Entity source = entities[data.source], target = entities[data.target];
+    final Association association;
+
+    switch (data.kind) {
+      case DEPENDENCY:
+        final Dependency dependency = new Dependency(source, target);
+        dependency.setLabel(data.label);
+        classDiagram.addDependency(dependency);
+        return dependency;
+
+      case INHERITANCE:
+        final Inheritance inheritance = new Inheritance((SimpleEntity) source, (SimpleEntity) target);
+        classDiagram.addInheritance(inheritance);
+        return inheritance;
+
+      case INNER_CLASS:
+        final InnerClass innerClass = new InnerClass(source, target);
+        classDiagram.addInnerClass(innerClass);
+        return innerClass;
+
+      case AGGREGATION:
+        association = new Aggregation(source, target, data.direction);
+        classDiagram.addAggregation((Aggregation) association);
+        break;
+
+      case COMPOSITION:
+        association = new Composition(source, target, data.direction);
+        classDiagram.addComposition((Composition) association);
+        break;
+
+      default:
+        association = new Binary(source, target, data.direction);
+        classDiagram.addBinary((Binary) association);
+    }
+
+    association.setLabel(data.label);
+    pasteRole(association.getRoles().getFirst(), data.sourceRole);
+    pasteRole(association.getRoles().getLast(), data.targetRole);
+    return association;
+  }
+
+  private static void pasteRole(Role role, RoleData data) {
+    role.setName(data.name);
+    role.setVisibility(data.visibility);
+    role.setMultiplicity(new Multiplicity(data.lowerBound, data.upperBound));
+  }
+
+  /**
+   * Place the ends and the bend points of the line like in the copied view.
+   */
+  private static void locateLineView(GraphicView graphicView, LineView lineView, RelationData data, int offset) {
+    final ArrayList<Point> points = data.points;
+
+    for (int i = 1; i < points.size() - 1; i++) {
+      final RelationGrip grip = new RelationGrip(graphicView, lineView);
+      final Point anchor = new Point(points.get(i));
+
+      anchor.translate(offset, offset);
+      grip.setAnchor(anchor);
+      grip.notifyObservers();
+      lineView.addGrip(grip, i);
+    }
+
+    final RelationGrip first = lineView.getFirstPoint(), last = lineView.getLastPoint();
+    final Point firstAnchor = new Point(points.get(0)), lastAnchor = new Point(points.get(points.size() - 1));
+
+    firstAnchor.translate(offset, offset);
+    lastAnchor.translate(offset, offset);
+    first.setAnchor(firstAnchor);
+    last.setAnchor(lastAnchor);
+    first.notifyObservers();
+    last.notifyObservers();
+
+    if (data.color != null) lineView.setColor(data.color);
+  }
+}
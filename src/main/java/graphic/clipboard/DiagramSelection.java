@@ -0,0 +1,184 @@
+package graphic.clipboard;
+
+import graphic.GraphicComponent;
+import graphic.GraphicView;
+import graphic.entity.EntityView;
+import org.apache.batik.dom.GenericDOMImplementation;
+import org.apache.batik.svggen.SVGGeneratorContext;
+import org.apache.batik.svggen.SVGGraphics2D;
+import org.w3c.dom.Document;
+import utility.Utility;
+
+import java.awt.*;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Content of the clipboard when a part of a diagram is copied. It can be pasted as components into a view, with
+ * {@link #FLAVOR}, or into other applications as a picture, an SVG document or a PlantUML text.
+ *
+ * Copying records the painting of the selection, which is a snapshot of the components: later changes of the view do
+ * not appear in the picture, and the selection does not keep the view. Each other flavor is rendered from the snapshot
+ * when another application first asks for it, on the thread of the request, and kept for the next requests.
+ */
+public class DiagramSelection implements Transferable {
+
+  /**
+   * Flavor of a {@link DiagramFragment}. The fragment is serialized when it is pasted into another instance of Slyum.
+   */
+  public static final DataFlavor FLAVOR = new DataFlavor(DiagramFragment.class, "Slyum diagram");
+
+  public static final DataFlavor SVG_FLAVOR = new DataFlavor("image/svg+xml; class=java.io.InputStream",
+                                                             "Scalable Vector Graphics");
+
+  /**
+   * Maximum number of pixels of the picture: larger selections are scaled down.
+   */
+  public static final int MAX_IMAGE_PIXELS = 4096 * 4096;
+
+  private static final int MARGIN = 20;
+
+  private final DiagramFragment fragment;
+  private final Rectangle bounds;
+  private final RecordingGraphics picture;
+  private final DataFlavor[] flavors;
+
+  // Rendered data by flavor, each one is rendered once.
+  private final Map<DataFlavor, Object> transferData = new HashMap<>();
+
+  /**
+   * Record the selected components of the view. Must be called on the event dispatch thread.
+   *
+   * @param graphicView the view containing the selection
+   */
+  public DiagramSelection(GraphicView graphicView) {
+    if (graphicView == null) throw new IllegalArgumentException("graphicView is null");
+
+    final LinkedList<EntityView> selectedEntities = graphicView.getSelectedEntities();
+    fragment = DiagramFragment.create(graphicView, selectedEntities);
+
+    Rectangle selectionBounds = null;
+    for (GraphicComponent c : graphicView.getSelectedComponents())
+      selectionBounds = selectionBounds == null ? new Rectangle(c.getBounds()) : selectionBounds.union(c.getBounds());
+
+    bounds = selectionBounds == null ? new Rectangle() : selectionBounds;
+    picture = paint(graphicView, bounds);
+
+    flavors = fragment.isEmpty()
+        ? new DataFlavor[] {DataFlavor.imageFlavor, SVG_FLAVOR}
+        : new DataFlavor[] {FLAVOR, DataFlavor.imageFlavor, SVG_FLAVOR, DataFlavor.stringFlavor};
+  }
+
+  public boolean isEmpty() {
+    return bounds.isEmpty();
+  }
+
+  @Override
+  public Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException, IOException {
+    if (!isDataFlavorSupported(flavor)) throw new UnsupportedFlavorException(flavor);
+
+    // The fragment has been created when copying.
+    if (FLAVOR.equals(flavor)) return fragment;
+
+    final Object result;
+
+    // Requests of the system clipboard may come from several threads; the snapshot is read by one at a time.
+    synchronized (transferData) {
+      if (transferData.containsKey(flavor)) {
+        result = transferData.get(flavor);
+      } else {
+        result = render(flavor);
+        transferData.put(flavor, result);
+      }
+    }
+
+    // A stream can only be read once.
+    return result instanceof byte[] ? new ByteArrayInputStream((byte[]) result) : result;
+  }
+
+  @Override
+  public DataFlavor[] getTransferDataFlavors() {
+    return flavors.clone();
+  }
+
+  @Override
+  public boolean isDataFlavorSupported(DataFlavor flavor) {
+    return Arrays.asList(flavors).contains(flavor);
+  }
+
+  private Object render(DataFlavor flavor) throws IOException {
+    if (DataFlavor.imageFlavor.equals(flavor)) return renderImage();
+    if (SVG_FLAVOR.equals(flavor)) return renderSvg();
+    return fragment.toPlantUml();
+  }
+
+  private BufferedImage renderImage() {
+    final int width = bounds.width + MARGIN * 2, height = bounds.height + MARGIN * 2;
+    final double scale = Math.min(1.0, Math.sqrt((double) MAX_IMAGE_PIXELS / ((double) width * height)));
+
+    final BufferedImage img = new BufferedImage(Math.max((int) (width * scale), 1), Math.max((int) (height * scale), 1),
+                                                BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D g2 = img.createGraphics();
+
+    Utility.setRenderQuality(g2);
+    g2.scale(scale, scale);
+    picture.replay(g2);
+    g2.dispose();
+
+    return img;
+  }
+
+  private byte[] renderSvg() throws IOException {
+    final Document document = GenericDOMImplementation.getDOMImplementation()
+                                                      .createDocument("http://www.w3.org/2000/svg", "svg", null);
+    final SVGGeneratorContext context = SVGGeneratorContext.createDefault(document);
+    context.setPrecision(12);
+
+    final SVGGraphics2D g2 = new SVGGraphics2D(context, true);
+
+    Utility.setRenderQuality(g2);
+    picture.replay(g2);
+    g2.setSVGCanvasSize(new Dimension(bounds.width + MARGIN * 2, bounds.height + MARGIN * 2));
+
+    final ByteArrayOutputStream svg = new ByteArrayOutputStream();
+    try (Writer writer = new OutputStreamWriter(svg, StandardCharsets.UTF_8)) {
+      g2.stream(writer, true);
+    }
+
+    return svg.toByteArray();
+  }
+
+  /**
+   * Record the painting of the selection, with the components around it, with its margin at the origin.
+   */
+  private static RecordingGraphics paint(GraphicView graphicView, Rectangle bounds) {
+    final RecordingGraphics g2 = new RecordingGraphics();
+
+    Utility.setRenderQuality(g2);
+    g2.translate(-bounds.x + MARGIN, -bounds.y + MARGIN);
+    graphicView.setPictureMode(true);
+
+    try {
+      // Like in the view, the components around the selection are painted too.
+      for (GraphicComponent c : graphicView.getAllDiagramComponents())
+        if (c.getBounds().intersects(bounds))
+          c.paintComponent(g2);
+    } finally {
+      graphicView.setPictureMode(false);
+    }
+
+    return g2;
+  }
+}
@@ -0,0 +1,237 @@
+package graphic.clipboard;
+
+import org.apache.batik.ext.awt.g2d.AbstractGraphics2D;
+import org.apache.batik.ext.awt.g2d.GraphicContext;
+
+import java.awt.*;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.RectangularShape;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.renderable.RenderableImage;
+import java.text.AttributedCharacterIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Graphics recording the painting operations instead of drawing them, with the state they are painted with. The
+ * recording can then be replayed on other graphics, on any thread: the shapes are copied, so later changes of the
+ * painted components do not modify it.
+ */
+final class RecordingGraphics extends AbstractGraphics2D {
+
+  /**
+   * State of the graphics for an operation. Consecutive operations painted with the same state share it.
+   */
+  private static final class State {
+    final AffineTransform transform;
+    final Paint paint;
+    final Stroke stroke;
+    final Composite composite;
+    final Font font;
+    final Shape clip;
+    final RenderingHints hints;
+
+    State(AffineTransform transform, Paint paint, Stroke stroke, Composite composite, Font font, Shape clip,
+          RenderingHints hints) {
+      this.transform = transform;
+      this.paint = paint;
+      this.stroke = stroke;
+      this.composite = composite;
+      this.font = font;
+      this.clip = clip;
+      this.hints = hints;
+    }
+
+    boolean matches(AffineTransform transform, Paint paint, Stroke stroke, Composite composite, Font font, Shape clip,
+                    RenderingHints hints) {
+      return this.transform.equals(transform) && this.paint == paint && this.stroke == stroke
+             && this.composite == composite && this.font == font && this.hints == hints
+             && Objects.equals(this.clip, clip);
+    }
+
+    void apply(Graphics2D g2, AffineTransform base) {
+      g2.setTransform(base);
+      g2.transform(transform);
+      g2.setRenderingHints(hints);
+      g2.setPaint(paint);
+      g2.setStroke(stroke);
+      g2.setComposite(composite);
+      g2.setFont(font);
+      g2.setClip(clip);
+    }
+  }
+
+  private static final class Operation {
+    final State state;
+    final Consumer<Graphics2D> paint;
+
+    Operation(State state, Consumer<Graphics2D> paint) {
+      this.state = state;
+      this.paint = paint;
+    }
+  }
+
+  private final List<Operation> operations;
+  private final Graphics2D metrics;
+  private State last;
+  private RenderingHints hints;
+
+  RecordingGraphics() {
+    super(true);
+
+    gc = new GraphicContext();
+    operations = new ArrayList<>();
+    metrics = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+  }
+
+  private RecordingGraphics(RecordingGraphics g) {
+    super(g);
+
+    operations = g.operations;
+    metrics = g.metrics;
+  }
+
+  /**
+   * Paint the recorded operations on the given graphics, in its current user space.
+   *
+   * @param g2 the graphics to paint on
+   */
+  void replay(Graphics2D g2) {
+    final AffineTransform base = g2.getTransform();
+    State current = null;
+
+    for (Operation operation : operations) {
+      if (operation.state != current) {
+        current = operation.state;
+        current.apply(g2, base);
+      }
+
+      operation.paint.accept(g2);
+    }
+  }
+
+  private void record(Consumer<Graphics2D> operation) {
+    // The hints are only copied when they change, copying them for each operation is slow.
+    if (hints == null) hints = gc.getRenderingHints();
+
+    final AffineTransform transform = gc.getTransform();
+    final Paint paint = gc.getPaint();
+    final Stroke stroke = gc.getStroke();
+    final Composite composite = gc.getComposite();
+    final Font font = gc.getFont();
+    final Shape clip = gc.getClip();
+
+    if (last == null || !last.matches(transform, paint, stroke, composite, font, clip, hints))
+      last = new State(transform, paint, stroke, composite, font, clip, hints);
+
+    operations.add(new Operation(last, operation));
+  }
+
+  private static Shape copy(Shape shape) {
+    if (shape instanceof RectangularShape) return (Shape) ((RectangularShape) shape).clone();
+    if (shape instanceof Line2D) return (Shape) ((Line2D) shape).clone();
+    return new Path2D.Double(shape);
+  }
+
+  @Override
+  public void draw(Shape s) {
+    final Shape shape = copy(s);
+    record(g2 -> g2.draw(shape));
+  }
+
+  @Override
+  public void fill(Shape s) {
+    final Shape shape = copy(s);
+    record(g2 -> g2.fill(shape));
+  }
+
+  @Override
+  public void drawString(String str, float x, float y) {
+    record(g2 -> g2.drawString(str, x, y));
+  }
+
+  @Override
+  public void drawString(AttributedCharacterIterator iterator, float x, float y) {
+    // The iterator can be changed by the caller: the text is painted as shapes.
+    fill(new TextLayout(iterator, getFontRenderContext()).getOutline(AffineTransform.getTranslateInstance(x, y)));
+  }
+
+  @Override
+  public boolean drawImage(Image img, int x, int y, ImageObserver observer) {
+    record(g2 -> g2.drawImage(img, x, y, null));
+    return true;
+  }
+
+  @Override
+  public boolean drawImage(Image img, int x, int y, int width, int height, ImageObserver observer) {
+    record(g2 -> g2.drawImage(img, x, y, width, height, null));
+    return true;
+  }
+
+  @Override
+  public void drawRenderedImage(RenderedImage img, AffineTransform xform) {
+    final AffineTransform transform = new AffineTransform(xform);
+    record(g2 -> g2.drawRenderedImage(img, transform));
+  }
+
+  @Override
+  public void drawRenderableImage(RenderableImage img, AffineTransform xform) {
+    final AffineTransform transform = new AffineTransform(xform);
+    record(g2 -> g2.drawRenderableImage(img, transform));
+  }
+
+  @Override
+  public void setRenderingHint(RenderingHints.Key hintKey, Object hintValue) {
+    super.setRenderingHint(hintKey, hintValue);
+    hints = null;
+  }
+
+  @Override
+  public void setRenderingHints(Map hints) {
+    super.setRenderingHints(hints);
+    this.hints = null;
+  }
+
+  @Override
+  public void addRenderingHints(Map hints) {
+    super.addRenderingHints(hints);
+    this.hints = null;
+  }
+
+  @Override
+  public FontMetrics getFontMetrics(Font f) {
+    metrics.setRenderingHints(gc.getRenderingHints());
+    return metrics.getFontMetrics(f);
+  }
+
+  @Override
+  public GraphicsConfiguration getDeviceConfiguration() {
+    return metrics.getDeviceConfiguration();
+  }
+
+  @Override
+  public Graphics create() {
+    return new RecordingGraphics(this);
+  }
+
+  @Override
+  public void setXORMode(Color c) {
+    // Not used for painting the components.
+  }
+
+  @Override
+  public void copyArea(int x, int y, int width, int height, int dx, int dy) {
+    // Not used for painting the components.
+  }
+
+  @Override
+  public void dispose() { }
+}
@@ -54,7 +54,7 @@ public class ClassView extends SimpleEntityView {
 
   @Override
   protected void initializeMenuItemsAddElements(JPopupMenu popupmenu) {
-    popupMenu.add(makeMenuItem("Add constructor", ACTION_ADD_CONSTRUCTOR, "constructor"));
+    popupmenu.add(makeMenuItem("Add constructor", ACTION_ADD_CONSTRUCTOR, "constructor"));
     super.initializeMenuItemsAddElements(popupmenu);
   }
 
@@ -8,9 +8,11 @@ import classDiagram.components.ClassEntity;
 import classDiagram.components.Entity;
 import classDiagram.components.EnumEntity;
 import classDiagram.components.InterfaceEntity;
+import classDiagram.components.MemberParser;
 import graphic.ColoredComponent;
 import graphic.GraphicComponent;
 import graphic.GraphicView;
+import graphic.LevelOfDetail;
 import graphic.MovableComponent;
 import graphic.relations.RelationGrip;
 import graphic.textbox.TextBox;
@@ -20,18 +22,27 @@ import org.w3c.dom.Element;
 import swing.PropertyLoader;
 import swing.SPanelElement;
 import swing.Slyum;
+import swing.slyumCustomizedComponents.SButton;
+import utility.SMessageDialog;
 import utility.Utility;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.datatransfer.Clipboard;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.UnsupportedFlavorException;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.logging.Level;
 
 /**
  * Represent the view of an entity in UML structure.
@@ -46,8 +57,10 @@ public abstract class EntityView extends MovableComponent implements Observer, C
   public static final Color baseColor = new Color(255, 247, 225);
   private static Color basicColor = new Color(baseColor.getRGB());
 
+  private static final int MAX_ERRORS_SHOWN = 10;
+
   private static final Font stereotypeFontBasic = new Font(
-      Slyum.getInstance().defaultFont.getFamily(), 0, 11);
+      Slyum.DEFAULT_FONT.getFamily(), 0, 11);
 
   public static EntityView createFromEntity(
       GraphicView graphicView, Entity entity) {
@@ -209,6 +222,8 @@ public abstract class EntityView extends MovableComponent implements Observer, C
 
   private Rectangle bounds = new Rectangle();
   private Color defaultColor;
+  private boolean pinned = false;
+  private JCheckBoxMenuItem menuItemPinned;
   private int fullWidthStereotype = 0;
 
   private final TextBoxEntityName entityName;
@@ -254,6 +269,11 @@ public abstract class EntityView extends MovableComponent implements Observer, C
       change.Helper.deepDeleteEntityView(this);
     } else if (Slyum.ACTION_DUPLICATE.equals(e.getActionCommand())) {
       if (pressedTextBox == null) parent.duplicateSelectedEntities();
+    } else if (Slyum.ACTION_PIN.equals(e.getActionCommand())) {
+      for (EntityView ev : parent.getSelectedEntities())
+        ev.setPinned(menuItemPinned.isSelected());
+    } else if (Slyum.ACTION_SELECT_USAGES.equals(e.getActionCommand())) {
+      selectUsages();
     } else {
       SPanelElement.getInstance().actionPerformed(e);
     }
@@ -502,6 +522,69 @@ public abstract class EntityView extends MovableComponent implements Observer, C
     notifyObservers();
   }
 
+  /**
+   * A pinned entity keeps its location when an automatic layout is applied on the view.
+   *
+   * @return true if the entity is pinned; false otherwise
+   */
+  public boolean isPinned() {
+    return pinned;
+  }
+
+  public void setPinned(boolean pinned) {
+    this.pinned = pinned;
+  }
+
+  /**
+   * Parse the text of the clipboard as a list of members, one by line (see {@link MemberParser}). If a line is
+   * incorrect, the errors are shown with their position and nothing is returned.
+   *
+   * @param enumValues true for parsing enum values instead of attributes and methods
+   *
+   * @return the members, or null if the clipboard has no text or has syntax errors
+   */
+  protected static List<MemberParser.Member> parseClipboardMembers(boolean enumValues) {
+    final String text;
+
+    try {
+      final Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+      if (!clipboard.isDataFlavorAvailable(DataFlavor.stringFlavor)) return null;
+
+      text = (String) clipboard.getData(DataFlavor.stringFlavor);
+    } catch (UnsupportedFlavorException | IOException | IllegalStateException ex) {
+      Slyum.LOGGER.log(Level.WARNING, "Unable to paste the clipboard", ex);
+      return null;
+    }
+
+    final List<ParseException> errors = new ArrayList<>();
+    final List<MemberParser.Member> members = MemberParser.parseLines(text, enumValues, errors);
+
+    if (errors.isEmpty()) return members;
+
+    final StringBuilder message = new StringBuilder("Nothing has been pasted, the text has errors:");
+
+    for (int i = 0; i < errors.size() && i < MAX_ERRORS_SHOWN; i++)
+      message.append("\n").append(MemberParser.describe(text, errors.get(i)));
+
+    if (errors.size() > MAX_ERRORS_SHOWN)
+      message.append("\n... and ").append(errors.size() - MAX_ERRORS_SHOWN).append(" more.");
+
+    SMessageDialog.showErrorMessage(message.toString());
+    return null;
+  }
+
+  /**
+   * Select the entities of the view having an attribute or a method using the entity of this view.
+   */
+  public void selectUsages() {
+    parent.unselectAll();
+
+    for (Entity entity : parent.getClassDiagram().getTypes().getUsingEntities(component)) {
+      final GraphicComponent entityView = parent.searchAssociedComponent(entity);
+      if (entityView != null) entityView.setSelected(true);
+    }
+  }
+
   @Override
   public Color getColor() {
     if (pictureMode) return defaultColor;
@@ -594,6 +677,7 @@ public abstract class EntityView extends MovableComponent implements Observer, C
         text += pressedTextBox.getText();
       }
       menuItemDelete.setText(text);
+      menuItemPinned.setSelected(isPinned());
     }
     super.maybeShowPopup(e, popupMenu);
   }
@@ -651,8 +735,11 @@ public abstract class EntityView extends MovableComponent implements Observer, C
     int classNameLocationX = bounds.x + (bounds.width - entityNameBounds.width)
                                         / 2;
 
+    // The layout is computed at all levels of detail, only the painting is simplified.
+    final LevelOfDetail levelOfDetail = parent.getLevelOfDetail();
+
     // draw background
-    g2.setPaint(background);
+    g2.setPaint(levelOfDetail == LevelOfDetail.FULL ? background : getColor());
     g2.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
 
     // draw border
@@ -664,9 +751,11 @@ public abstract class EntityView extends MovableComponent implements Observer, C
     if (!component.getStereotype().isEmpty()) {
       offset += stereotypeSize.height;
 
-      g2.setFont(stereotypeFont);
-      g2.setColor(DEFAULT_TEXT_COLOR);
-      g2.drawString(truncatStereotype, stereotypeLocationWidth, offset);
+      if (levelOfDetail == LevelOfDetail.FULL) {
+        g2.setFont(stereotypeFont);
+        g2.setColor(DEFAULT_TEXT_COLOR);
+        g2.drawString(truncatStereotype, stereotypeLocationWidth, offset);
+      }
     }
 
     // draw class name
@@ -674,7 +763,8 @@ public abstract class EntityView extends MovableComponent implements Observer, C
 
     entityName.setBounds(new Rectangle(classNameLocationX, offset,
                                        bounds.width - 15, textBoxHeight + 2));
-    entityName.paintComponent(g2);
+    if (levelOfDetail.isAtLeast(LevelOfDetail.NAMES))
+      entityName.paintComponent(g2);
 
     offset += entityNameBounds.height;
 
@@ -770,7 +860,7 @@ public abstract class EntityView extends MovableComponent implements Observer, C
    */
   public void updateHeight() {
     Rectangle repaintBounds = getBounds();
-    parent.getScene().paintImmediately(repaintBounds);
+    parent.paintImmediatelyWithAllDetails(repaintBounds);
 
     // set new height compute while repainting.
     setBounds(new Rectangle(bounds));
@@ -781,10 +871,14 @@ public abstract class EntityView extends MovableComponent implements Observer, C
   }
 
   protected final void initializeComponents() {
+    component.addObserver(this);
+    setColor(getBasicColor());
+  }
 
-    JMenuItem menuItem;
+  @Override
+  protected void initializePopupMenu(JPopupMenu popupMenu) {
+    super.initializePopupMenu(popupMenu);
 
-    // Create the popup menu.
     popupMenu.addSeparator();
     initializeMenuItemsAddElements(popupMenu);
     initializeMenuItemsPropertiesElements(popupMenu);
@@ -801,6 +895,12 @@ public abstract class EntityView extends MovableComponent implements Observer, C
 
     popupMenu.addSeparator();
 
+    menuItemPinned = new JCheckBoxMenuItem("Pin for layout");
+    menuItemPinned.setActionCommand(Slyum.ACTION_PIN);
+    menuItemPinned.addActionListener(this);
+    popupMenu.add(menuItemPinned);
+    popupMenu.add(makeMenuItem("Select usages", Slyum.ACTION_SELECT_USAGES, "select"));
+
     popupMenu.add(makeMenuItem("Duplicate", Slyum.ACTION_DUPLICATE, "duplicate"));
     popupMenu.add(menuItemDelete = makeMenuItem("Delete from this view", "Delete", "delete"));
     popupMenu.add(makeMenuItem("Delete", "DeepDelete", "delete"));
@@ -809,24 +909,21 @@ public abstract class EntityView extends MovableComponent implements Observer, C
     initializeMenuViews(popupMenu);
 
     SPanelElement p = SPanelElement.getInstance();
-    menuItem = makeMenuItem("Move top", Slyum.ACTION_MOVE_TOP, "top");
-    p.getBtnTop().linkComponent(menuItem);
-    popupMenu.add(menuItem);
-
-    menuItem = makeMenuItem("Up", Slyum.ACTION_MOVE_UP, "up");
-    p.getBtnUp().linkComponent(menuItem);
-    popupMenu.add(menuItem);
-
-    menuItem = makeMenuItem("Down", Slyum.ACTION_MOVE_DOWN, "down");
-    p.getBtnDown().linkComponent(menuItem);
-    popupMenu.add(menuItem);
+    popupMenu.add(makeLinkedMenuItem("Move top", Slyum.ACTION_MOVE_TOP, "top", p.getBtnTop()));
+    popupMenu.add(makeLinkedMenuItem("Up", Slyum.ACTION_MOVE_UP, "up", p.getBtnUp()));
+    popupMenu.add(makeLinkedMenuItem("Down", Slyum.ACTION_MOVE_DOWN, "down", p.getBtnDown()));
+    popupMenu.add(makeLinkedMenuItem("Move bottom", Slyum.ACTION_MOVE_BOTTOM, "bottom", p.getBtnBottom()));
+  }
 
-    menuItem = makeMenuItem("Move bottom", Slyum.ACTION_MOVE_BOTTOM, "bottom");
-    p.getBtnBottom().linkComponent(menuItem);
-    popupMenu.add(menuItem);
+  /**
+   * Create a menu item enabled like the given button. The menu is created after the button, when it is requested.
+   */
+  private JMenuItem makeLinkedMenuItem(String text, String action, String iconName, SButton button) {
+    final JMenuItem menuItem = makeMenuItem(text, action, iconName);
 
-    component.addObserver(this);
-    setColor(getBasicColor());
+    menuItem.setEnabled(button.isEnabled());
+    button.linkComponent(menuItem);
+    return menuItem;
   }
 
   protected abstract void initializeMenuItemsAddElements(JPopupMenu popupmenu);
@@ -839,6 +936,15 @@ public abstract class EntityView extends MovableComponent implements Observer, C
 
   protected abstract int paintTextBoxes(Graphics2D g2, Rectangle bounds, int textboxHeight, int offset);
 
+  /**
+   * Is the members of the entity painted? At the lower levels of detail, only their place is computed.
+   *
+   * @return true if the members must be painted
+   */
+  protected boolean isMembersPainted() {
+    return parent.getLevelOfDetail() == LevelOfDetail.FULL;
+  }
+
   /**
    * Search and return the Textbox (methods and attributes) at the given location.
    *
@@ -1,9 +1,11 @@
 package graphic.entity;
 
+import change.Change;
 import classDiagram.IDiagramComponent;
 import classDiagram.IDiagramComponent.UpdateMessage;
 import classDiagram.components.EnumEntity;
 import classDiagram.components.EnumValue;
+import classDiagram.components.MemberParser;
 import graphic.GraphicView;
 import graphic.textbox.TextBox;
 import graphic.textbox.TextBoxEnumValue;
@@ -46,6 +48,7 @@ public class EnumView extends EntityView {
   protected void initializeMenuItemsAddElements(JPopupMenu popupmenu) {
     popupmenu.add(makeMenuItem("Add enum value", ACTION_ADD_ENUM_VALUE,
                                "add-enum-value"));
+    popupmenu.add(makeMenuItem("Paste enum values", Slyum.ACTION_PASTE_MEMBERS, "klipper"));
     popupmenu.addSeparator();
   }
 
@@ -75,15 +78,17 @@ public class EnumView extends EntityView {
                                int textboxHeight, int offset) {
     if (isEnumValuesVisible()) {
       offset += 10;
-      g2.setStroke(new BasicStroke(BORDER_WIDTH));
-      g2.setColor(DEFAULT_BORDER_COLOR);
-      g2.drawLine(bounds.x, offset, bounds.x + bounds.width, offset);
+      if (isMembersPainted()) {
+        g2.setStroke(new BasicStroke(BORDER_WIDTH));
+        g2.setColor(DEFAULT_BORDER_COLOR);
+        g2.drawLine(bounds.x, offset, bounds.x + bounds.width, offset);
+      }
 
       // draw values (enum)
       for (TextBoxEnumValue tb : viewValues) {
         tb.setBounds(new Rectangle(bounds.x + 8, offset + 2, bounds.width - 15,
                                    textboxHeight + 2));
-        tb.paintComponent(g2);
+        if (isMembersPainted()) tb.paintComponent(g2);
 
         offset += textboxHeight;
       }
@@ -160,12 +165,33 @@ public class EnumView extends EntityView {
     });
   }
 
+  /**
+   * Add values to the enum at once: the view is regenerated one time, and one undo removes them all.
+   *
+   * @param values the values to add, parsed by {@link MemberParser}
+   */
+  public void addEnumValues(List<MemberParser.Member> values) {
+    final EnumEntity entity = (EnumEntity) component;
+    boolean isRecord = Change.isRecord();
+    Change.record();
+
+    for (MemberParser.Member value : values)
+      entity.addEnumValue(new EnumValue(value.name));
+
+    if (!isRecord) Change.stopRecord();
+
+    entity.notifyObservers();
+  }
+
   @Override
   public void actionPerformed(ActionEvent e) {
     super.actionPerformed(e);
 
     if (ACTION_ADD_ENUM_VALUE.equals(e.getActionCommand())) {
       ((EnumEntity) component).createEnumValue();
+    } else if (Slyum.ACTION_PASTE_MEMBERS.equals(e.getActionCommand())) {
+      final List<MemberParser.Member> values = parseClipboardMembers(true);
+      if (values != null) addEnumValues(values);
 
       // Action Move up and down
     } else if (Slyum.ACTION_TEXTBOX_UP.equals(e.getActionCommand())
@@ -1,10 +1,12 @@
 package graphic.entity;
 
+import change.Change;
 import classDiagram.ClassDiagram.ViewEntity;
 import classDiagram.IDiagramComponent;
 import classDiagram.IDiagramComponent.UpdateMessage;
 import classDiagram.components.Attribute;
 import classDiagram.components.ConstructorMethod;
+import classDiagram.components.MemberParser;
 import classDiagram.components.Method;
 import classDiagram.components.Method.ParametersViewStyle;
 import classDiagram.components.PrimitiveType;
@@ -86,6 +88,9 @@ public abstract class SimpleEntityView extends EntityView {
       addMethod();
     } else if ("AddAttribute".equals(e.getActionCommand())) {
       addAttribute();
+    } else if (Slyum.ACTION_PASTE_MEMBERS.equals(e.getActionCommand())) {
+      final List<MemberParser.Member> members = parseClipboardMembers(false);
+      if (members != null) addMembers(members);
     } else if ("ViewDefault".equals(e.getActionCommand())) {
       parent.setDefaultForSelectedEntities(true);
     } else if ("ViewAttribute".equals(e.getActionCommand())) {
@@ -195,6 +200,44 @@ public abstract class SimpleEntityView extends EntityView {
     if (editing) newTextBox.editing();
   }
 
+  /**
+   * Add attributes and methods to the entity at once: the view is regenerated one time, and one undo removes them all.
+   * Members with parameters become methods, the others attributes.
+   *
+   * @param members the members to add, parsed by {@link MemberParser}
+   */
+  public void addMembers(List<MemberParser.Member> members) {
+    final SimpleEntity entity = (SimpleEntity) component;
+    boolean isRecord = Change.isRecord();
+    Change.record();
+
+    for (MemberParser.Member member : members) {
+      // The new members are not recorded before they are added.
+      boolean isBlocked = Change.isBlocked();
+      Change.setBlocked(true);
+
+      if (member.isMethod()) {
+        final Method method = new Method(member.name, PrimitiveType.VOID_TYPE, Visibility.PUBLIC, entity);
+        prepareNewMethod(method);
+        method.setText(member);
+
+        Change.setBlocked(isBlocked);
+        entity.addMethod(method);
+      } else {
+        final Attribute attribute = new Attribute(member.name, PrimitiveType.VOID_TYPE);
+        prepareNewAttribute(attribute);
+        attribute.setText(member);
+
+        Change.setBlocked(isBlocked);
+        entity.addAttribute(attribute);
+      }
+    }
+
+    if (!isRecord) Change.stopRecord();
+
+    entity.notifyObservers();
+  }
+
   /**
    * Create a new method with default type and name, without parameter.
    */
@@ -469,9 +512,10 @@ public abstract class SimpleEntityView extends EntityView {
 
   @Override
   protected void initializeMenuItemsAddElements(JPopupMenu popupmenu) {
-    popupMenu.add(makeMenuItem("Add attribute", "AddAttribute", "attribute"));
-    popupMenu.add(makeMenuItem("Add method", "AddMethod", "method"));
-    popupMenu.addSeparator();
+    popupmenu.add(makeMenuItem("Add attribute", "AddAttribute", "attribute"));
+    popupmenu.add(makeMenuItem("Add method", "AddMethod", "method"));
+    popupmenu.add(makeMenuItem("Paste members", Slyum.ACTION_PASTE_MEMBERS, "klipper"));
+    popupmenu.addSeparator();
   }
 
   @Override
@@ -562,15 +606,17 @@ public abstract class SimpleEntityView extends EntityView {
     if (displayAttributes) {
       // draw attributs separator
       offset += 10;
-      g2.setStroke(new BasicStroke(BORDER_WIDTH));
-      g2.setColor(DEFAULT_BORDER_COLOR);
-      g2.drawLine(bounds.x, offset, bounds.x + bounds.width, offset);
+      if (isMembersPainted()) {
+        g2.setStroke(new BasicStroke(BORDER_WIDTH));
+        g2.setColor(DEFAULT_BORDER_COLOR);
+        g2.drawLine(bounds.x, offset, bounds.x + bounds.width, offset);
+      }
 
       // draw attributes
       for (TextBoxAttribute tb : attributesView) {
         tb.setBounds(new Rectangle(bounds.x + 8, offset + 2, bounds.width - 15,
                                    textboxHeight + 2));
-        tb.paintComponent(g2);
+        if (isMembersPainted()) tb.paintComponent(g2);
 
         offset += textboxHeight;
       }
@@ -579,15 +625,17 @@ public abstract class SimpleEntityView extends EntityView {
     if (displayMethods) {
       // draw methods separator
       offset += 10;
-      g2.setStroke(new BasicStroke(BORDER_WIDTH));
-      g2.setColor(DEFAULT_BORDER_COLOR);
-      g2.drawLine(bounds.x, offset, bounds.x + bounds.width, offset);
+      if (isMembersPainted()) {
+        g2.setStroke(new BasicStroke(BORDER_WIDTH));
+        g2.setColor(DEFAULT_BORDER_COLOR);
+        g2.drawLine(bounds.x, offset, bounds.x + bounds.width, offset);
+      }
 
       // draw methods
       for (final TextBoxMethod tb : methodsView) {
         tb.setBounds(new Rectangle(bounds.x + 8, offset + 2, bounds.width - 15,
                                    textboxHeight + 2));
-        tb.paintComponent(g2);
+        if (isMembersPainted()) tb.paintComponent(g2);
         offset += textboxHeight;
       }
     }
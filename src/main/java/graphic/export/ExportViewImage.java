@@ -7,7 +7,7 @@ import java.awt.image.BufferedImage;
 
 import static graphic.GraphicView.DEFAULT_TITLE_BORDER_WIDTH;
 
-public class ExportViewImage extends ExportView {
+public class ExportViewImage extends ExportView<Graphics2D> {
 
   int type;
 
@@ -72,4 +72,44 @@ public class ExportViewImage extends ExportView {
     return img;
   }
 
+  /**
+   * Export the view in an image fitting in the given size. The view is drawn directly at the target scale, so it is
+   * much faster than exporting the full image and resizing it.
+   *
+   * @param maxWidth the maximum width of the image
+   * @param maxHeight the maximum height of the image
+   *
+   * @return the image; never larger than the full size export
+   */
+  public BufferedImage export(int maxWidth, int maxHeight) {
+    Rectangle outerBounds = getOuterBounds();
+
+    if (outerBounds.width <= 0 || outerBounds.height <= 0 || maxWidth <= 0 || maxHeight <= 0)
+      return new BufferedImage(10, 10, type);
+
+    int fullWidth = outerBounds.width + DEFAULT_TITLE_BORDER_WIDTH * 2,
+        fullHeight = outerBounds.height + DEFAULT_TITLE_BORDER_WIDTH * 2;
+    double scale = Math.min(1.0, Math.min((double) maxWidth / fullWidth, (double) maxHeight / fullHeight));
+
+    final BufferedImage img = new BufferedImage(
+        Math.max((int) (fullWidth * scale), 1),
+        Math.max((int) (fullHeight * scale), 1),
+        type);
+
+    final Graphics2D g2d = img.createGraphics();
+
+    if (type == BufferedImage.TYPE_INT_RGB) {
+      g2d.setColor(Color.WHITE);
+      g2d.fillRect(0, 0, img.getWidth(), img.getHeight());
+    }
+
+    g2d.scale(scale, scale);
+    g2d.translate(-(outerBounds.x - DEFAULT_TITLE_BORDER_WIDTH),
+                  -(outerBounds.y - DEFAULT_TITLE_BORDER_WIDTH));
+
+    draw(g2d);
+    g2d.dispose();
+    return img;
+  }
+
 }
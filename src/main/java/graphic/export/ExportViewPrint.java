@@ -0,0 +1,168 @@
+package graphic.export;
+
+import graphic.GraphicView;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.print.PageFormat;
+import java.awt.print.Pageable;
+import java.awt.print.Printable;
+
+import static graphic.GraphicView.DEFAULT_TITLE_BORDER_WIDTH;
+
+/**
+ * Print a view at full size on as many pages as needed. The diagram is cut into tiles of the size of the printable
+ * area of a page; adjacent tiles overlap by {@link #OVERLAP} points and marks show where the next page begins, for
+ * assembling the pages.
+ *
+ * Each tile is painted directly into the graphics of the printer, which often asks for a page in several bands: only
+ * the components in the band are painted, so no image of the diagram is created. A printer is created once per job,
+ * the bounds of the diagram are computed at creation.
+ */
+public class ExportViewPrint extends ViewDrawer<Graphics2D> implements Printable, Pageable {
+
+  /**
+   * Part of the diagram printed on two adjacent pages, in points.
+   */
+  public static final int OVERLAP = 18;
+
+  private static final int MARK_LENGTH = 8;
+  private static final Color MARK_COLOR = Color.GRAY;
+
+  private PageFormat pageFormat;
+
+  public static ExportViewPrint create(GraphicView graphicView) {
+    return new ExportViewPrint(graphicView, graphicView.getTxtBoxDiagramName().isVisible());
+  }
+
+  private ExportViewPrint(GraphicView graphicView, boolean displayTitle) {
+    super(graphicView, displayTitle);
+  }
+
+  /**
+   * Set the format of all pages, used when the printer is given to a job as a {@link Pageable}.
+   *
+   * @param pageFormat the page format
+   */
+  public void setPageFormat(PageFormat pageFormat) {
+    if (pageFormat == null) throw new IllegalArgumentException("pageFormat is null");
+
+    this.pageFormat = pageFormat;
+  }
+
+  /**
+   * Get the size of the printed diagram, in points.
+   *
+   * @return the size of the diagram with its margins and title
+   */
+  public Dimension getSize() {
+    final Rectangle outerBounds = getOuterBounds();
+
+    return new Dimension(outerBounds.width + DEFAULT_TITLE_BORDER_WIDTH * 2,
+                         outerBounds.height + DEFAULT_TITLE_BORDER_WIDTH * 2);
+  }
+
+  @Override
+  public int getNumberOfPages() {
+    if (pageFormat == null) return UNKNOWN_NUMBER_OF_PAGES;
+
+    final Dimension size = getSize();
+    return countTiles(size.width, pageFormat.getImageableWidth())
+           * countTiles(size.height, pageFormat.getImageableHeight());
+  }
+
+  @Override
+  public PageFormat getPageFormat(int pageIndex) {
+    checkPageIndex(pageIndex);
+    return pageFormat;
+  }
+
+  @Override
+  public Printable getPrintable(int pageIndex) {
+    checkPageIndex(pageIndex);
+    return this;
+  }
+
+  private void checkPageIndex(int pageIndex) {
+    if (pageFormat == null || pageIndex < 0 || pageIndex >= getNumberOfPages())
+      throw new IndexOutOfBoundsException("no page " + pageIndex);
+  }
+
+  @Override
+  public int print(Graphics g, PageFormat pageFormat, int pageIndex) {
+    final Dimension size = getSize();
+    final double pageWidth = pageFormat.getImageableWidth(), pageHeight = pageFormat.getImageableHeight();
+    final int columns = countTiles(size.width, pageWidth), rows = countTiles(size.height, pageHeight);
+
+    if (pageIndex < 0 || pageIndex >= columns * rows) return NO_SUCH_PAGE;
+
+    final int row = pageIndex / columns, column = pageIndex % columns;
+    final Graphics2D g2 = (Graphics2D) g;
+    final AffineTransform pageTransform = g2.getTransform();
+    final Shape pageClip = g2.getClip();
+    final Rectangle outerBounds = getOuterBounds();
+
+    g2.translate(pageFormat.getImageableX(), pageFormat.getImageableY());
+    final AffineTransform imageableTransform = g2.getTransform();
+
+    // Only this tile of the diagram is visible on the page.
+    g2.clip(new Rectangle.Double(0, 0, pageWidth, pageHeight));
+    g2.translate(-column * getStep(pageWidth), -row * getStep(pageHeight));
+    g2.translate(-(outerBounds.x - DEFAULT_TITLE_BORDER_WIDTH), -(outerBounds.y - DEFAULT_TITLE_BORDER_WIDTH));
+
+    draw(g2);
+
+    g2.setTransform(imageableTransform);
+    paintMarks(g2, column < columns - 1, row < rows - 1, column > 0, row > 0, pageWidth, pageHeight);
+
+    g2.setTransform(pageTransform);
+    g2.setClip(pageClip);
+
+    return PAGE_EXISTS;
+  }
+
+  /**
+   * Paint marks on the edges of the page shared with the adjacent pages: they show where the next page begins and
+   * where the previous page ends.
+   */
+  private static void paintMarks(Graphics2D g2, boolean right, boolean bottom, boolean left, boolean top,
+                                 double pageWidth, double pageHeight) {
+    g2.setColor(MARK_COLOR);
+    g2.setStroke(new BasicStroke(0.5f));
+
+    final int width = (int) pageWidth, height = (int) pageHeight;
+
+    if (right) {
+      final int x = (int) getStep(pageWidth);
+      g2.drawLine(x, 0, x, MARK_LENGTH);
+      g2.drawLine(x, height - MARK_LENGTH, x, height);
+    }
+
+    if (left) {
+      g2.drawLine(OVERLAP, 0, OVERLAP, MARK_LENGTH);
+      g2.drawLine(OVERLAP, height - MARK_LENGTH, OVERLAP, height);
+    }
+
+    if (bottom) {
+      final int y = (int) getStep(pageHeight);
+      g2.drawLine(0, y, MARK_LENGTH, y);
+      g2.drawLine(width - MARK_LENGTH, y, width, y);
+    }
+
+    if (top) {
+      g2.drawLine(0, OVERLAP, MARK_LENGTH, OVERLAP);
+      g2.drawLine(width - MARK_LENGTH, OVERLAP, width, OVERLAP);
+    }
+  }
+
+  /**
+   * Get the distance between the beginnings of two adjacent tiles.
+   */
+  private static double getStep(double pageSize) {
+    return Math.max(pageSize - OVERLAP, 1.0);
+  }
+
+  private static int countTiles(int size, double pageSize) {
+    return size <= pageSize ? 1 : 1 + (int) Math.ceil((size - pageSize) / getStep(pageSize));
+  }
+}
@@ -0,0 +1,125 @@
+package graphic.export;
+
+import graphic.GraphicView;
+import swing.Slyum;
+
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+
+/**
+ * Generate and cache small images of graphic views. Thumbnails are rendered directly at the requested size; a
+ * thumbnail is valid while the version of its view (see {@link GraphicView#getVersion()}) does not change.
+ *
+ * Like the other exports, thumbnails are rendered on the event dispatch thread, so they see a consistent view painted
+ * with all its details. To keep the interface responsive when many thumbnails are requested at once, they are rendered
+ * one per event: other events can be processed between two thumbnails.
+ *
+ * All methods must be called from the event dispatch thread.
+ */
+public class ThumbnailService {
+  private static final ThumbnailService instance = new ThumbnailService();
+
+  public static ThumbnailService getInstance() {
+    return instance;
+  }
+
+  // Weak keys: thumbnails of removed views are released with them.
+  private final Map<GraphicView, Thumbnail> cache = new WeakHashMap<>();
+  private final ArrayDeque<Request> pending = new ArrayDeque<>();
+
+  private ThumbnailService() {
+  }
+
+  /**
+   * Get the thumbnail of the given view. If the cached thumbnail is missing or out of date, a new one is rendered in a
+   * later event and the callback is called when it is ready. Meanwhile the out of date thumbnail, if any, is returned.
+   *
+   * @param graphicView the view
+   * @param width the maximum width of the thumbnail
+   * @param height the maximum height of the thumbnail
+   * @param onReady called when a new thumbnail is ready; can be null
+   *
+   * @return the last thumbnail of the view, or null if no thumbnail has been rendered yet
+   */
+  public BufferedImage getThumbnail(final GraphicView graphicView, final int width, final int height,
+                                    final Runnable onReady) {
+    if (graphicView == null) throw new IllegalArgumentException("graphicView is null");
+
+    Thumbnail thumbnail = cache.get(graphicView);
+
+    if (thumbnail != null && thumbnail.isValid(graphicView.getVersion(), width, height)) return thumbnail.image;
+
+    if (!isPending(graphicView)) {
+      pending.add(new Request(graphicView, width, height, onReady));
+      if (pending.size() == 1) SwingUtilities.invokeLater(this::renderNext);
+    }
+
+    return thumbnail == null ? null : thumbnail.image;
+  }
+
+  /**
+   * Forget the thumbnail of the given view.
+   *
+   * @param graphicView the view
+   */
+  public void invalidate(GraphicView graphicView) {
+    cache.remove(graphicView);
+  }
+
+  private boolean isPending(GraphicView graphicView) {
+    for (Request request : pending)
+      if (request.graphicView == graphicView) return true;
+    return false;
+  }
+
+  private void renderNext() {
+    Request request = pending.peek();
+
+    try {
+      GraphicView graphicView = request.graphicView;
+      BufferedImage image = ExportViewImage.create(graphicView, false).export(request.width, request.height);
+      cache.put(graphicView, new Thumbnail(image, graphicView.getVersion(), request.width, request.height));
+
+      if (request.onReady != null) request.onReady.run();
+    } catch (RuntimeException e) {
+      Slyum.LOGGER.log(Level.WARNING, "Unable to render the thumbnail of " + request.graphicView.getName(), e);
+    } finally {
+      pending.remove();
+      if (!pending.isEmpty()) SwingUtilities.invokeLater(this::renderNext);
+    }
+  }
+
+  private static class Request {
+    final GraphicView graphicView;
+    final int width, height;
+    final Runnable onReady;
+
+    Request(GraphicView graphicView, int width, int height, Runnable onReady) {
+      this.graphicView = graphicView;
+      this.width = width;
+      this.height = height;
+      this.onReady = onReady;
+    }
+  }
+
+  private static class Thumbnail {
+    final BufferedImage image;
+    final long version;
+    final int width, height;
+
+    Thumbnail(BufferedImage image, long version, int width, int height) {
+      this.image = image;
+      this.version = version;
+      this.width = width;
+      this.height = height;
+    }
+
+    boolean isValid(long version, int width, int height) {
+      return this.version == version && this.width == width && this.height == height;
+    }
+  }
+}
@@ -0,0 +1,313 @@
+package graphic.layout;
+
+import change.BufferBounds;
+import change.Change;
+import graphic.GraphicComponent;
+import graphic.GraphicView;
+import graphic.entity.EntityView;
+import graphic.relations.LineView;
+import swing.Slyum;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Force-directed layout for the entities of a graphic view. Entities and multi-associations are the nodes, relations
+ * between them are the springs. Repulsion between nodes is approximated with a Barnes-Hut quadtree (O(n log n) per
+ * iteration) and computed in parallel on a fork-join pool.
+ *
+ * The layout works on a snapshot of the view: the simulation runs on its own thread and positions are published to
+ * the event dispatch thread at a fixed rate, so the diagram is animated progressively. Pinned entities never move.
+ * When the layout is finished or cancelled, all moves are pushed as one undoable change.
+ */
+public class ForceDirectedLayout implements Runnable {
+  private static final ForkJoinPool POOL = new ForkJoinPool();
+
+  private static final int MAX_ITERATIONS = 400;
+  private static final int FRAME_DELAY = 40; // ms
+  private static final int PARALLEL_THRESHOLD = 128;
+  private static final double THETA = 0.8;
+  private static final double GRAVITY = 0.02;
+  private static final double MIN_SPACE = 80.0;
+  private static final int MARGIN = 40;
+
+  private final GraphicView graphicView;
+  private final GraphicComponent[] nodes;
+  private final Rectangle[] initialBounds;
+  private final boolean[] pinned;
+  private boolean hasPinned;
+  private final int[] edgeSources, edgeTargets;
+
+  private final double[] x, y, dispX, dispY;
+  private final double idealLength;
+
+  private final AtomicBoolean cancelled = new AtomicBoolean(false);
+  private final AtomicBoolean framePending = new AtomicBoolean(false);
+  private Thread thread;
+  private Runnable onFinish;
+
+  /**
+   * Create a new layout for the given graphic view. Must be called from the event dispatch thread, the components of
+   * the view are copied at this moment.
+   *
+   * @param graphicView the view to layout
+   */
+  public ForceDirectedLayout(GraphicView graphicView) {
+    if (graphicView == null) throw new IllegalArgumentException("graphicView is null");
+
+    this.graphicView = graphicView;
+
+    LinkedList<GraphicComponent> components = new LinkedList<>();
+    components.addAll(graphicView.getEntitiesView());
+    components.addAll(graphicView.getMultiView());
+
+    int n = components.size();
+    nodes = components.toArray(new GraphicComponent[n]);
+    initialBounds = new Rectangle[n];
+    pinned = new boolean[n];
+    x = new double[n];
+    y = new double[n];
+    dispX = new double[n];
+    dispY = new double[n];
+
+    HashMap<GraphicComponent, Integer> indexes = new HashMap<>();
+    double totalSize = 0;
+
+    for (int i = 0; i < n; i++) {
+      Rectangle bounds = nodes[i].getBounds();
+      initialBounds[i] = bounds;
+      pinned[i] = nodes[i] instanceof EntityView && ((EntityView) nodes[i]).isPinned();
+      hasPinned |= pinned[i];
+      x[i] = bounds.getCenterX();
+      y[i] = bounds.getCenterY();
+      totalSize += Math.max(bounds.width, bounds.height);
+      indexes.put(nodes[i], i);
+    }
+
+    idealLength = (n == 0 ? 0 : totalSize / n) + MIN_SPACE;
+
+    LinkedList<int[]> edges = new LinkedList<>();
+    for (LineView lv : graphicView.getLinesView()) {
+      Integer source = indexes.get(lv.getFirstPoint().getAssociedComponentView()),
+          target = indexes.get(lv.getLastPoint().getAssociedComponentView());
+
+      if (source != null && target != null && !source.equals(target))
+        edges.add(new int[] {source, target});
+    }
+
+    edgeSources = new int[edges.size()];
+    edgeTargets = new int[edges.size()];
+    int i = 0;
+    for (int[] edge : edges) {
+      edgeSources[i] = edge[0];
+      edgeTargets[i++] = edge[1];
+    }
+  }
+
+  /**
+   * Start the layout on a new thread.
+   *
+   * @param onFinish called on the event dispatch thread when the layout is finished or cancelled; can be null
+   */
+  public void start(Runnable onFinish) {
+    if (thread != null) throw new IllegalStateException("layout already started");
+
+    this.onFinish = onFinish;
+    thread = new Thread(this, "Slyum force-directed layout");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Stop the layout. The positions reached so far are kept and recorded in the undo stack.
+   */
+  public void cancel() {
+    cancelled.set(true);
+  }
+
+  public boolean isCancelled() {
+    return cancelled.get();
+  }
+
+  @Override
+  public void run() {
+    try {
+      compute();
+    } catch (RuntimeException e) {
+      Slyum.LOGGER.log(Level.SEVERE, "Force-directed layout failed", e);
+    } finally {
+      final double[] finalX = x.clone(), finalY = y.clone();
+      SwingUtilities.invokeLater(new Runnable() {
+
+        @Override
+        public void run() {
+          applyPositions(finalX, finalY);
+          pushChanges();
+          if (onFinish != null) onFinish.run();
+        }
+      });
+    }
+  }
+
+  private void compute() {
+    final int n = nodes.length;
+    if (n < 2) return;
+
+    double temperature = idealLength * 2.0;
+    final double cooling = temperature / MAX_ITERATIONS;
+    long lastFrame = System.currentTimeMillis();
+
+    for (int iteration = 0; iteration < MAX_ITERATIONS && !cancelled.get(); iteration++) {
+      QuadTree tree = new QuadTree(x, y);
+      POOL.invoke(new Repulsion(tree, 0, n));
+
+      // Springs.
+      for (int e = 0; e < edgeSources.length; e++) {
+        int s = edgeSources[e], t = edgeTargets[e];
+        double dx = x[s] - x[t], dy = y[s] - y[t];
+        double dist = Math.max(Math.sqrt(dx * dx + dy * dy), 0.01);
+        double f = dist / idealLength;
+
+        dispX[s] -= dx * f;
+        dispY[s] -= dy * f;
+        dispX[t] += dx * f;
+        dispY[t] += dy * f;
+      }
+
+      // Gravity toward the barycenter keeps unconnected parts together.
+      double centerX = 0, centerY = 0;
+      for (int i = 0; i < n; i++) {
+        centerX += x[i];
+        centerY += y[i];
+      }
+      centerX /= n;
+      centerY /= n;
+
+      for (int i = 0; i < n; i++) {
+        if (pinned[i]) continue;
+
+        dispX[i] -= (x[i] - centerX) * GRAVITY;
+        dispY[i] -= (y[i] - centerY) * GRAVITY;
+
+        double length = Math.sqrt(dispX[i] * dispX[i] + dispY[i] * dispY[i]);
+        if (length > 0) {
+          double limited = Math.min(length, temperature);
+          x[i] += dispX[i] / length * limited;
+          y[i] += dispY[i] / length * limited;
+        }
+      }
+
+      temperature = Math.max(temperature - cooling, 1.0);
+
+      long now = System.currentTimeMillis();
+      if (now - lastFrame >= FRAME_DELAY) {
+        lastFrame = now;
+        publishFrame();
+      }
+    }
+  }
+
+  /**
+   * Send the current positions to the event dispatch thread. A frame is dropped if the previous one has not been
+   * painted yet, so a slow diagram never accumulates pending frames.
+   */
+  private void publishFrame() {
+    if (!framePending.compareAndSet(false, true)) return;
+
+    final double[] frameX = x.clone(), frameY = y.clone();
+    SwingUtilities.invokeLater(new Runnable() {
+
+      @Override
+      public void run() {
+        if (!cancelled.get()) applyPositions(frameX, frameY);
+        framePending.set(false);
+      }
+    });
+  }
+
+  private void applyPositions(double[] posX, double[] posY) {
+    // Changes are pushed once at the end of the layout.
+    boolean isBlocked = Change.isBlocked();
+    Change.setBlocked(true);
+
+    // Without pinned entities, the diagram is moved back to the top left corner.
+    double offsetX = 0, offsetY = 0;
+    if (!hasPinned) {
+      double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+      for (int i = 0; i < nodes.length; i++) {
+        minX = Math.min(minX, posX[i] - initialBounds[i].width / 2.0);
+        minY = Math.min(minY, posY[i] - initialBounds[i].height / 2.0);
+      }
+      offsetX = MARGIN - minX;
+      offsetY = MARGIN - minY;
+    }
+
+    for (int i = 0; i < nodes.length; i++) {
+      if (pinned[i]) continue;
+
+      Rectangle bounds = nodes[i].getBounds();
+      bounds.x = Math.max((int) Math.round(posX[i] + offsetX - bounds.width / 2.0), 0);
+      bounds.y = Math.max((int) Math.round(posY[i] + offsetY - bounds.height / 2.0), 0);
+      nodes[i].setBounds(bounds);
+    }
+
+    Change.setBlocked(isBlocked);
+    graphicView.updatePreferredSize();
+    graphicView.repaint();
+  }
+
+  private void pushChanges() {
+    boolean isRecord = Change.isRecord();
+    Change.record();
+
+    for (int i = 0; i < nodes.length; i++) {
+      if (pinned[i] || initialBounds[i].equals(nodes[i].getBounds())) continue;
+
+      Change.push(new BufferBounds(nodes[i], initialBounds[i]));
+      Change.push(new BufferBounds(nodes[i]));
+    }
+
+    if (!isRecord) Change.stopRecord();
+  }
+
+  /**
+   * Compute the repulsion of a range of nodes, splitting the range in sub-tasks while it is too large.
+   */
+  private class Repulsion extends RecursiveAction {
+    private static final long serialVersionUID = -3094563262179480671L;
+
+    private final QuadTree tree;
+    private final int from, to;
+
+    Repulsion(QuadTree tree, int from, int to) {
+      this.tree = tree;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > PARALLEL_THRESHOLD) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new Repulsion(tree, from, middle), new Repulsion(tree, middle, to));
+        return;
+      }
+
+      final double strength = idealLength * idealLength;
+      final double[] force = new double[2];
+
+      for (int i = from; i < to; i++) {
+        force[0] = force[1] = 0;
+        tree.computeRepulsion(i, THETA, strength, force);
+        dispX[i] = force[0];
+        dispY[i] = force[1];
+      }
+    }
+  }
+}
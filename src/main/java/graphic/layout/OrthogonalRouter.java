@@ -0,0 +1,479 @@
+package graphic.layout;
+
+import change.Change;
+import graphic.GraphicComponent;
+import graphic.GraphicView;
+import graphic.entity.EntityView;
+import graphic.relations.LineView;
+import graphic.relations.MultiView;
+import graphic.relations.RelationGrip;
+import swing.Slyum;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.Line2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+
+/**
+ * Automatic orthogonal routing of the relations of a graphic view. Each relation is routed with an A* search on a
+ * sparse grid built from the borders of the entities near the relation (a Hanan grid), so the search only visits
+ * points where a bend can be useful. Entities are obstacles and bends are penalized.
+ *
+ * When an entity is moved, only the relations attached to it or crossing its new bounds are rerouted. Moves are
+ * coalesced, the routes are computed on a background thread and applied together on the event dispatch thread, so
+ * the view stays interactive. Only real moves are rerouted: notifications not changing the bounds are ignored.
+ *
+ * Routes have no history entries of their own. The routes following a move or a new relation are added to the record
+ * of that change, so undoing it also restores the previous grips, including the ones placed by hand; if another change
+ * has been recorded in between, they are not recorded. Moves made by an undo or a redo are not rerouted, their grips
+ * are restored by the history. Routing all the relations is recorded as one change.
+ */
+public class OrthogonalRouter implements Observer {
+  private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "Slyum orthogonal router");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private static final int COALESCE_DELAY = 120; // ms
+  private static final int BEND_COST = 40;
+  private static final int SEARCH_MARGIN = 200;
+
+  private final GraphicView graphicView;
+  private final LinkedHashSet<GraphicComponent> movedComponents = new LinkedHashSet<>();
+  private final LinkedHashSet<LineView> linesToRoute = new LinkedHashSet<>();
+  private final HashMap<LineView, Integer> pendingRoutes = new HashMap<>();
+  private final WeakHashMap<GraphicComponent, Rectangle> knownBounds = new WeakHashMap<>();
+  private final Timer timer;
+  private int requestId = 0;
+  private boolean applying = false;
+  private boolean routeAllRequested = false;
+
+  public OrthogonalRouter(GraphicView graphicView) {
+    if (graphicView == null) throw new IllegalArgumentException("graphicView is null");
+
+    this.graphicView = graphicView;
+
+    timer = new Timer(COALESCE_DELAY, e -> flush());
+    timer.setRepeats(false);
+
+    for (EntityView ev : graphicView.getEntitiesView())
+      observe(ev);
+    for (MultiView mv : graphicView.getMultiView())
+      observe(mv);
+  }
+
+  /**
+   * Route all relations of the view, as one undoable change.
+   */
+  public void routeAll() {
+    linesToRoute.addAll(graphicView.getLinesView());
+    routeAllRequested = true;
+    timer.restart();
+  }
+
+  /**
+   * Must be called when a component is added in the view. New entities are observed, new relations are routed.
+   *
+   * @param component the new component
+   */
+  public void componentAdded(GraphicComponent component) {
+    if (component instanceof EntityView || component instanceof MultiView) {
+      observe(component);
+    } else if (component instanceof LineView && !applying && !Change.isRestoring()) {
+      linesToRoute.add((LineView) component);
+      timer.restart();
+    }
+  }
+
+  /**
+   * Stop routing: observers are removed and pending routes are forgotten. Existing grips are kept.
+   */
+  public void dispose() {
+    timer.stop();
+    pendingRoutes.clear();
+    movedComponents.clear();
+    linesToRoute.clear();
+    knownBounds.clear();
+
+    for (EntityView ev : graphicView.getEntitiesView())
+      ev.deleteObserver(this);
+    for (MultiView mv : graphicView.getMultiView())
+      mv.deleteObserver(this);
+  }
+
+  private void observe(GraphicComponent component) {
+    component.addObserver(this);
+    knownBounds.put(component, component.getBounds());
+  }
+
+  @Override
+  public void update(Observable o, Object arg) {
+    if (applying || !(o instanceof GraphicComponent)) return;
+
+    final GraphicComponent component = (GraphicComponent) o;
+    final Rectangle bounds = component.getBounds();
+    if (bounds.equals(knownBounds.put(component, bounds))) return;
+
+    // The grips of the relations are restored with the move by the history.
+    if (Change.isRestoring()) return;
+
+    movedComponents.add(component);
+    timer.restart();
+  }
+
+  /**
+   * Collect the relations affected by the moves since the last flush and send them to the background thread.
+   */
+  private void flush() {
+    // A move is being recorded, like while dragging: the routes are computed when it ends, to join its record.
+    if (Change.isRecord()) {
+      timer.restart();
+      return;
+    }
+
+    LinkedList<Rectangle> obstacles = new LinkedList<>();
+    for (EntityView ev : graphicView.getEntitiesView())
+      obstacles.add(ev.getBounds());
+
+    LinkedList<LineView> lines = graphicView.getLinesView();
+    for (GraphicComponent moved : movedComponents) {
+      if (!graphicView.containsComponent(moved)) continue;
+
+      Rectangle bounds = moved.getBounds();
+      for (LineView lv : lines)
+        if (isAttachedTo(lv, moved) || crosses(lv, bounds)) linesToRoute.add(lv);
+    }
+    movedComponents.clear();
+
+    final Rectangle[] snapshot = obstacles.toArray(new Rectangle[obstacles.size()]);
+    final List<Request> requests = new ArrayList<>();
+
+    for (LineView lv : linesToRoute) {
+      if (!isRoutable(lv)) continue;
+
+      int id = ++requestId;
+      pendingRoutes.put(lv, id);
+      requests.add(new Request(lv, id, lv.getFirstPoint().getAssociedComponentView().getBounds(),
+                               lv.getLastPoint().getAssociedComponentView().getBounds()));
+    }
+    linesToRoute.clear();
+
+    final boolean routeAll = routeAllRequested;
+    final int historySize = Change.getSize();
+    routeAllRequested = false;
+
+    if (requests.isEmpty()) return;
+
+    EXECUTOR.execute(() -> {
+      for (Request request : requests)
+        try {
+          request.route = route(request.source, request.target, snapshot);
+        } catch (RuntimeException e) {
+          Slyum.LOGGER.log(Level.WARNING, "Unable to route relation", e);
+        }
+
+      SwingUtilities.invokeLater(() -> apply(requests, routeAll, historySize));
+    });
+  }
+
+  /**
+   * Apply the routes computed for a flush.
+   *
+   * @param requests the routed requests
+   * @param routeAll true if the routes have been requested by {@link #routeAll()}
+   * @param historySize the size of the history when the routes have been requested
+   */
+  private void apply(List<Request> requests, boolean routeAll, int historySize) {
+    final List<Request> routed = new ArrayList<>();
+
+    for (Request request : requests) {
+      Integer id = pendingRoutes.get(request.line);
+
+      // A newer route has been requested for this line, or the line has been removed.
+      if (id == null || id != request.id) continue;
+      pendingRoutes.remove(request.line);
+      if (request.route != null && graphicView.containsComponent(request.line)) routed.add(request);
+    }
+
+    if (routed.isEmpty()) return;
+
+    final boolean isBlocked = Change.isBlocked(), isRecord = Change.isRecord();
+    final boolean record = routeAll || Change.getSize() == historySize && Change.continueLastRecord();
+
+    applying = true;
+    if (routeAll) Change.record();
+    else if (!record) Change.setBlocked(true);
+
+    try {
+      for (Request request : routed)
+        request.line.applyRoute(request.route);
+    } finally {
+      if (record && !isRecord) Change.stopRecord();
+      Change.setBlocked(isBlocked);
+      applying = false;
+    }
+  }
+
+  private static boolean isAttachedTo(LineView lv, GraphicComponent component) {
+    return lv.getFirstPoint().getAssociedComponentView() == component
+           || lv.getLastPoint().getAssociedComponentView() == component;
+  }
+
+  private static boolean crosses(LineView lv, Rectangle bounds) {
+    for (Line2D line : lv.getLines())
+      if (line.intersects(bounds)) return true;
+    return false;
+  }
+
+  private static boolean isRoutable(LineView lv) {
+    GraphicComponent source = lv.getFirstPoint().getAssociedComponentView(),
+        target = lv.getLastPoint().getAssociedComponentView();
+
+    return source != target
+           && (source instanceof EntityView || source instanceof MultiView)
+           && (target instanceof EntityView || target instanceof MultiView);
+  }
+
+  /**
+   * Compute an orthogonal route between two rectangles. The route starts and ends on the borders of the rectangles and
+   * contains the bends in between.
+   *
+   * @param source the bounds of the source component
+   * @param target the bounds of the target component
+   * @param allObstacles the bounds of all entities of the view
+   *
+   * @return the points of the route, or null if no route is found
+   */
+  static List<Point> route(Rectangle source, Rectangle target, Rectangle[] allObstacles) {
+    final int grid = GraphicView.getGridSize();
+    final int margin = grid * 2;
+
+    // Only the obstacles around the two components are considered.
+    Rectangle area = source.union(target);
+    area.grow(SEARCH_MARGIN, SEARCH_MARGIN);
+
+    List<Rectangle> obstacles = new ArrayList<>();
+    for (Rectangle r : allObstacles)
+      if (r.intersects(area)) {
+        Rectangle inflated = new Rectangle(r);
+        inflated.grow(margin - 1, margin - 1);
+        obstacles.add(inflated);
+      }
+
+    Point[] sourceStubs = stubs(source, margin, grid), targetStubs = stubs(target, margin, grid);
+
+    TreeSet<Integer> xSet = new TreeSet<>(), ySet = new TreeSet<>();
+    for (Rectangle r : obstacles) {
+      xSet.add(floor(r.x - 1, grid));
+      xSet.add(ceil(r.x + r.width + 1, grid));
+      ySet.add(floor(r.y - 1, grid));
+      ySet.add(ceil(r.y + r.height + 1, grid));
+    }
+    for (Point p : sourceStubs) {
+      xSet.add(p.x);
+      ySet.add(p.y);
+    }
+    for (Point p : targetStubs) {
+      xSet.add(p.x);
+      ySet.add(p.y);
+    }
+
+    int[] xs = toArray(xSet), ys = toArray(ySet);
+    int width = xs.length, height = ys.length;
+
+    // Blocked nodes and blocked segments to the right / to the bottom of each node.
+    boolean[] blockedNode = new boolean[width * height],
+        blockedRight = new boolean[width * height],
+        blockedDown = new boolean[width * height];
+
+    for (int ix = 0; ix < width; ix++)
+      for (int iy = 0; iy < height; iy++) {
+        int node = iy * width + ix;
+        blockedNode[node] = isInside(obstacles, xs[ix], ys[iy]);
+        if (ix + 1 < width)
+          blockedRight[node] = isInside(obstacles, (xs[ix] + xs[ix + 1]) / 2.0, ys[iy]);
+        if (iy + 1 < height)
+          blockedDown[node] = isInside(obstacles, xs[ix], (ys[iy] + ys[iy + 1]) / 2.0);
+      }
+
+    // A* with the direction in the state so bends can be penalized.
+    int[] cost = new int[width * height * 4];
+    int[] previous = new int[width * height * 4];
+    Arrays.fill(cost, Integer.MAX_VALUE);
+    Arrays.fill(previous, -1);
+
+    HashSet<Integer> goals = new HashSet<>();
+    HashMap<Integer, Integer> goalSide = new HashMap<>();
+    for (int side = 0; side < 4; side++) {
+      int node = Arrays.binarySearch(ys, targetStubs[side].y) * width + Arrays.binarySearch(xs, targetStubs[side].x);
+      goals.add(node);
+      goalSide.put(node, side);
+    }
+
+    PriorityQueue<int[]> open = new PriorityQueue<>((a, b) -> Integer.compare(a[0], b[0]));
+
+    for (int side = 0; side < 4; side++) {
+      int node = Arrays.binarySearch(ys, sourceStubs[side].y) * width + Arrays.binarySearch(xs, sourceStubs[side].x);
+      if (blockedNode[node]) continue;
+      int state = node * 4 + side;
+      cost[state] = 0;
+      open.add(new int[] {heuristic(xs[node % width], ys[node / width], targetStubs), state});
+    }
+
+    int found = -1;
+    final int[] dx = {0, 1, 0, -1}, dy = {-1, 0, 1, 0}; // top, right, bottom, left
+
+    while (!open.isEmpty()) {
+      int[] current = open.poll();
+      int state = current[1], node = state / 4, direction = state % 4;
+      int ix = node % width, iy = node / width;
+
+      if (current[0] - heuristic(xs[ix], ys[iy], targetStubs) > cost[state]) continue;
+
+      if (goals.contains(node)) {
+        found = state;
+        break;
+      }
+
+      for (int d = 0; d < 4; d++) {
+        int nx = ix + dx[d], ny = iy + dy[d];
+        if (nx < 0 || ny < 0 || nx >= width || ny >= height) continue;
+
+        int next = ny * width + nx;
+        if (blockedNode[next]) continue;
+        if (d == 1 && blockedRight[node] || d == 3 && blockedRight[next]
+            || d == 2 && blockedDown[node] || d == 0 && blockedDown[next])
+          continue;
+
+        int nextCost = cost[state] + Math.abs(xs[nx] - xs[ix]) + Math.abs(ys[ny] - ys[iy])
+                       + (d == direction ? 0 : BEND_COST);
+        int nextState = next * 4 + d;
+
+        if (nextCost < cost[nextState]) {
+          cost[nextState] = nextCost;
+          previous[nextState] = state;
+          open.add(new int[] {nextCost + heuristic(xs[nx], ys[ny], targetStubs), nextState});
+        }
+      }
+    }
+
+    if (found == -1) return null;
+
+    LinkedList<Point> path = new LinkedList<>();
+    int state = found;
+    int firstState = found;
+    while (state != -1) {
+      int node = state / 4;
+      path.addFirst(new Point(xs[node % width], ys[node / width]));
+      firstState = state;
+      state = previous[state];
+    }
+
+    // Add the ports on the borders.
+    path.addFirst(port(source, firstState % 4, path.getFirst()));
+    path.addLast(port(target, goalSide.get(found / 4), path.getLast()));
+
+    return simplify(path);
+  }
+
+  /**
+   * Get the four points in front of each side of the rectangle (top, right, bottom, left), aligned on the grid.
+   */
+  private static Point[] stubs(Rectangle r, int margin, int grid) {
+    int centerX = Math.min(Math.max(RelationGrip.adjust((int) r.getCenterX()), r.x), r.x + r.width),
+        centerY = Math.min(Math.max(RelationGrip.adjust((int) r.getCenterY()), r.y), r.y + r.height);
+
+    return new Point[] {
+        new Point(centerX, floor(r.y - margin, grid)),
+        new Point(ceil(r.x + r.width + margin, grid), centerY),
+        new Point(centerX, ceil(r.y + r.height + margin, grid)),
+        new Point(floor(r.x - margin, grid), centerY)};
+  }
+
+  private static Point port(Rectangle r, int side, Point stub) {
+    switch (side) {
+      case 0:
+        return new Point(stub.x, r.y);
+      case 1:
+        return new Point(r.x + r.width, stub.y);
+      case 2:
+        return new Point(stub.x, r.y + r.height);
+      default:
+        return new Point(r.x, stub.y);
+    }
+  }
+
+  private static List<Point> simplify(List<Point> path) {
+    LinkedList<Point> result = new LinkedList<>();
+
+    for (Point p : path) {
+      if (!result.isEmpty() && result.getLast().equals(p)) continue;
+
+      if (result.size() >= 2) {
+        Point a = result.get(result.size() - 2), b = result.getLast();
+        if (a.x == b.x && b.x == p.x || a.y == b.y && b.y == p.y) result.removeLast();
+      }
+      result.add(p);
+    }
+
+    return result;
+  }
+
+  private static boolean isInside(List<Rectangle> obstacles, double x, double y) {
+    for (Rectangle r : obstacles)
+      if (x > r.x && x < r.x + r.width && y > r.y && y < r.y + r.height) return true;
+    return false;
+  }
+
+  private static int heuristic(int x, int y, Point[] goals) {
+    int min = Integer.MAX_VALUE;
+    for (Point goal : goals)
+      min = Math.min(min, Math.abs(goal.x - x) + Math.abs(goal.y - y));
+    return min;
+  }
+
+  private static int floor(int value, int grid) {
+    return Math.floorDiv(value, grid) * grid;
+  }
+
+  private static int ceil(int value, int grid) {
+    return -Math.floorDiv(-value, grid) * grid;
+  }
+
+  private static int[] toArray(TreeSet<Integer> set) {
+    int[] array = new int[set.size()];
+    int i = 0;
+    for (Integer value : set)
+      array[i++] = value;
+    return array;
+  }
+
+  private static class Request {
+    final LineView line;
+    final int id;
+    final Rectangle source, target;
+    List<Point> route;
+
+    Request(LineView line, int id, Rectangle source, Rectangle target) {
+      this.line = line;
+      this.id = id;
+      this.source = source;
+      this.target = target;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package graphic.layout;
+
+/**
+ * Barnes-Hut quadtree used by the force-directed layout. Each cell stores the number of bodies it contains and their
+ * center of mass, so the repulsion of a far away cell can be approximated by a single body. The tree is built once per
+ * iteration and then only read, so it can be queried by several threads at the same time.
+ */
+class QuadTree {
+  private static final int MAX_DEPTH = 24;
+
+  private final double[] x, y;
+  private final Cell root;
+
+  /**
+   * Build a new quadtree containing all the given bodies.
+   *
+   * @param x the x coordinates of the bodies
+   * @param y the y coordinates of the bodies
+   */
+  QuadTree(double[] x, double[] y) {
+    this.x = x;
+    this.y = y;
+
+    double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+    for (int i = 0; i < x.length; i++) {
+      minX = Math.min(minX, x[i]);
+      minY = Math.min(minY, y[i]);
+      maxX = Math.max(maxX, x[i]);
+      maxY = Math.max(maxY, y[i]);
+    }
+
+    double half = Math.max(maxX - minX, maxY - minY) / 2.0 + 1.0;
+    root = new Cell((minX + maxX) / 2.0, (minY + maxY) / 2.0, half);
+
+    for (int i = 0; i < x.length; i++)
+      root.insert(i, 0);
+  }
+
+  /**
+   * Compute the repulsion applied on the body at the given index and add it to the force array.
+   *
+   * @param index the body on which the force is computed
+   * @param theta the Barnes-Hut opening criterion (0 for an exact computation)
+   * @param strength the repulsion constant (the force is strength / distance)
+   * @param force an array of two elements receiving the force on x and y
+   */
+  void computeRepulsion(int index, double theta, double strength, double[] force) {
+    Cell[] stack = new Cell[MAX_DEPTH * 4 + 4];
+    int top = 0;
+    stack[top++] = root;
+
+    while (top > 0) {
+      Cell cell = stack[--top];
+
+      if (cell.mass == 0 || cell.children == null && cell.body == index && cell.mass == 1) continue;
+
+      double dx = x[index] - cell.massX, dy = y[index] - cell.massY;
+      double dist2 = dx * dx + dy * dy;
+
+      if (cell.children == null || (cell.half * 2.0) * (cell.half * 2.0) < theta * theta * dist2) {
+        if (dist2 < 0.01) {
+          // Two bodies at the same location: push them apart in a stable direction.
+          dx = index % 2 == 0 ? 0.1 : -0.1;
+          dy = index % 3 == 0 ? 0.1 : -0.1;
+          dist2 = 0.02;
+        }
+        double f = strength * cell.mass / dist2;
+        force[0] += dx * f;
+        force[1] += dy * f;
+      } else {
+        for (Cell child : cell.children)
+          if (child != null) stack[top++] = child;
+      }
+    }
+  }
+
+  private class Cell {
+    final double cx, cy, half;
+    double massX, massY;
+    int mass;
+    int body = -1;
+    Cell[] children;
+
+    Cell(double cx, double cy, double half) {
+      this.cx = cx;
+      this.cy = cy;
+      this.half = half;
+    }
+
+    void insert(int index, int depth) {
+      massX = (massX * mass + x[index]) / (mass + 1);
+      massY = (massY * mass + y[index]) / (mass + 1);
+      mass++;
+
+      if (mass == 1) {
+        body = index;
+        return;
+      }
+
+      // Coincident bodies beyond the maximal depth are merged in a single leaf.
+      if (depth >= MAX_DEPTH) return;
+
+      if (children == null) {
+        children = new Cell[4];
+        if (body != -1) {
+          int previous = body;
+          body = -1;
+          child(previous).insert(previous, depth + 1);
+        }
+      }
+
+      child(index).insert(index, depth + 1);
+    }
+
+    private Cell child(int index) {
+      int quadrant = (x[index] < cx ? 0 : 1) + (y[index] < cy ? 0 : 2);
+
+      if (children[quadrant] == null) {
+        double h = half / 2.0;
+        children[quadrant] = new Cell(cx + ((quadrant & 1) == 0 ? -h : h), cy + ((quadrant & 2) == 0 ? -h : h), h);
+      }
+
+      return children[quadrant];
+    }
+  }
+}
@@ -5,6 +5,7 @@ import classDiagram.IDiagramComponent.UpdateMessage;
 import classDiagram.relationships.Association;
 import classDiagram.relationships.Association.NavigateDirection;
 import graphic.GraphicView;
+import graphic.LevelOfDetail;
 import graphic.entity.EntityView;
 import graphic.textbox.TextBoxLabelTitle;
 
@@ -38,14 +39,18 @@ public abstract class AssociationView extends RelationView {
                          Point posTarget, boolean checkRecursivity) {
     super(parent, source, target, association, posSource, posTarget,
           checkRecursivity);
-    JMenu menuNavigation;
     TextBoxLabelTitle tb = new TextBoxLabelTitle(parent, association, this);
 
     this.association = association;
     tbRoles.add(tb);
     parent.addOthersComponents(tb);
+  }
+
+  @Override
+  protected void initializePopupMenu(JPopupMenu popupMenu) {
+    super.initializePopupMenu(popupMenu);
 
-    // Gestion du menu contextuel
+    JMenu menuNavigation;
     popupMenu.addSeparator();
     popupMenu.add(menuNavigation = new JMenu("Navigability"));
     btnGrpNavigation = new ButtonGroup();
@@ -58,8 +63,6 @@ public abstract class AssociationView extends RelationView {
     menuNavigation.add(navSecondToFirst = makeRadioButtonMenuItem("",
                                                                   NavigateDirection.SECOND_TO_FIRST.toString(),
                                                                   btnGrpNavigation));
-
-    setMenuItemText();
   }
 
   @Override
@@ -81,8 +84,10 @@ public abstract class AssociationView extends RelationView {
 
   @Override
   public void maybeShowPopup(MouseEvent e, JPopupMenu popupMenu) {
-    setMenuItemText();
-    checkMenuItemSelected();
+    if (e.isPopupTrigger()) {
+      setMenuItemText();
+      checkMenuItemSelected();
+    }
     super.maybeShowPopup(e, popupMenu);
   }
 
@@ -123,7 +128,9 @@ public abstract class AssociationView extends RelationView {
   @Override
   public void paintComponent(Graphics2D g2) {
     super.paintComponent(g2);
-    paintNavigability(g2);
+
+    if (parent.getLevelOfDetail().isAtLeast(LevelOfDetail.NAMES))
+      paintNavigability(g2);
   }
 
   protected void paintNavigability(Graphics2D g2) {
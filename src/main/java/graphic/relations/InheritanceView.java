@@ -99,14 +99,19 @@ public class InheritanceView extends RelationView {
 
     this.inheritance = inheritance;
 
+    if (inheritance.getParent().getClass() == InterfaceEntity.class)
+      lineStroke = getInterfaceLineStroke();
+  }
+
+  @Override
+  protected void initializePopupMenu(JPopupMenu popupMenu) {
+    super.initializePopupMenu(popupMenu);
+
     popupMenu.addSeparator();
     popupMenu.add(menuItemOI = makeMenuItem("Overrides & Implementations...",
                                             "O&I", "method"));
     popupMenu.add(makeMenuItem("Autopath", Slyum.ACTION_ADJUST_INHERITANCE,
                                "adjust-inheritance"));
-
-    if (inheritance.getParent().getClass() == InterfaceEntity.class)
-      lineStroke = getInterfaceLineStroke();
   }
 
   private Stroke getInterfaceLineStroke() {
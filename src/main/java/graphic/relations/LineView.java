@@ -1,11 +1,13 @@
 package graphic.relations;
 
 import change.BufferBounds;
+import change.BufferGrips;
 import change.Change;
 import classDiagram.IDiagramComponent;
 import graphic.ColoredComponent;
 import graphic.GraphicComponent;
 import graphic.GraphicView;
+import graphic.LevelOfDetail;
 import graphic.textbox.TextBox;
 import graphic.textbox.TextBoxLabel;
 import swing.Slyum;
@@ -104,13 +106,18 @@ public abstract class LineView extends GraphicComponent
 
     if (checkRecursivity) reinitGrips();
 
+    setColor(getBasicColor());
+  }
+
+  @Override
+  protected void initializePopupMenu(JPopupMenu popupMenu) {
+    super.initializePopupMenu(popupMenu);
+
     popupMenu.addSeparator();
     popupMenu.add(makeMenuItem("Add grip", "AddGrip", "pointer-grip"));
     popupMenu.add(makeMenuItem("Delete grip", "DeleteGrip", "delete-grip"));
     popupMenu.addSeparator();
     popupMenu.add(makeMenuItem("Delete relation", "Delete", "delete"));
-
-    setColor(getBasicColor());
   }
 
   @Override
@@ -209,6 +216,43 @@ public abstract class LineView extends GraphicComponent
     addGrip(grip, index);
   }
 
+  /**
+   * Replace all grips by the given route. The first and the last points of the route are the anchors on the linked
+   * components, the others points become intermediate grips. The previous grips are saved so the whole replacement
+   * can be undone at once.
+   *
+   * @param route the points of the new route (at least two)
+   */
+  public void applyRoute(List<Point> route) {
+    if (route == null || route.size() < 2)
+      throw new IllegalArgumentException("route must contain at least two points");
+
+    final BufferGrips previous = new BufferGrips(this);
+    final boolean isBlocked = Change.isBlocked();
+    Change.setBlocked(true);
+
+    try {
+      removeAllGrip();
+
+      for (int i = 1; i < route.size() - 1; i++)
+        addGripAtLocation(i, route.get(i));
+
+      getFirstPoint().setAnchor(route.get(0));
+      getLastPoint().setAnchor(route.get(route.size() - 1));
+    } finally {
+      Change.setBlocked(isBlocked);
+    }
+
+    final boolean isRecord = Change.isRecord();
+    Change.record();
+    Change.push(previous);
+    Change.push(new BufferGrips(this));
+    if (!isRecord) Change.stopRecord();
+
+    reinitializeTextBoxesLocation();
+    repaint();
+  }
+
   public void reinitializeTextBoxesLocation() {
     for (TextBoxLabel textbox : tbRoles)
       textbox.reinitializeLocation();
@@ -568,7 +612,7 @@ public abstract class LineView extends GraphicComponent
       bb[1] = new BufferBounds(points.get(saveGrip + 1));
     }
 
-    maybeShowPopup(e, popupMenu);
+    maybeShowPopup(e, getPopupMenu());
   }
 
   @Override
@@ -594,7 +638,7 @@ public abstract class LineView extends GraphicComponent
       }
     }
 
-    maybeShowPopup(e, popupMenu);
+    maybeShowPopup(e, getPopupMenu());
     acceptGripCreation = false;
     if (!isSelected()) showGrips(false);
   }
@@ -674,12 +718,19 @@ public abstract class LineView extends GraphicComponent
     g2.setStroke(lineStroke);
     g2.setColor(getColor());
 
-    LinkedList<GraphicComponent> components = parent.getAllComponents();
-    int index = components.indexOf(this);
-    LineView[] lines = components.stream()
-                                 .filter(g -> g instanceof LineView &&
-                                              index > components.indexOf(g))
-                                 .toArray(size -> new LineView[size]);
+    // The intersections and the extremities are too small to be seen at the lower levels of detail.
+    final LevelOfDetail levelOfDetail = parent.getLevelOfDetail();
+    final boolean isIntersectionPainted = Slyum.isShowIntersectionLine() && levelOfDetail == LevelOfDetail.FULL;
+
+    LineView[] lines = new LineView[0];
+    if (isIntersectionPainted) {
+      LinkedList<GraphicComponent> components = parent.getAllComponents();
+      int index = components.indexOf(this);
+      lines = components.stream()
+                        .filter(g -> g instanceof LineView &&
+                                     index > components.indexOf(g))
+                        .toArray(size -> new LineView[size]);
+    }
 
     final short LENGTH_ARC = Slyum.getSizeIntersectionLine().getSize();
     final int nbrPoints = points.size();
@@ -693,7 +744,7 @@ public abstract class LineView extends GraphicComponent
         Line2D.Double currentLine = new Line2D.Double(previousPoint, currentPoint);
         List<Point2D.Double> intersectPts = new LinkedList<>();
 
-        if (Slyum.isShowIntersectionLine()) {
+        if (isIntersectionPainted) {
           for (LineView lv : lines)
             if (mustPaintIntersection(lv))
               intersectPts.addAll(
@@ -734,8 +785,9 @@ public abstract class LineView extends GraphicComponent
       previousPoint = currentPoint;
     }
 
-    drawExtremity(g2, points.get(points.size() - 2).getAnchor(), points
-        .getLast().getAnchor());
+    if (levelOfDetail.isAtLeast(LevelOfDetail.NAMES))
+      drawExtremity(g2, points.get(points.size() - 2).getAnchor(), points
+          .getLast().getAnchor());
   }
 
   public LinkedList<Line2D.Double> getLines() {
@@ -86,11 +86,6 @@ public class MultiView extends MovableComponent implements Observer, ColoredComp
     setBounds(new Rectangle(xMoy, yMoy, bounds.width, bounds.height));
     setColor(EntityView.getBasicColor());
 
-    popupMenu.addSeparator();
-
-    final JMenuItem menuItem = makeMenuItem("Delete", "Delete", "delete");
-    popupMenu.add(menuItem);
-
     // Cet élément n'est pas redimensionnable. Suppression des grips.
     boolean isBlocked = Change.isBlocked();
     Change.setBlocked(true);
@@ -99,6 +94,16 @@ public class MultiView extends MovableComponent implements Observer, ColoredComp
     Change.setBlocked(isBlocked);
   }
 
+  @Override
+  protected void initializePopupMenu(JPopupMenu popupMenu) {
+    super.initializePopupMenu(popupMenu);
+
+    popupMenu.addSeparator();
+
+    final JMenuItem menuItem = makeMenuItem("Delete", "Delete", "delete");
+    popupMenu.add(menuItem);
+  }
+
   @Override
   public void actionPerformed(ActionEvent e) {
     super.actionPerformed(e);
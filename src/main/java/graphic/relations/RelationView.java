@@ -120,14 +120,19 @@ public abstract class RelationView extends LineView implements Observer {
     if (component == null)
       throw new IllegalArgumentException("component is null");
 
+    relation = component;
+    component.addObserver(this);
+  }
+
+  @Override
+  protected void initializePopupMenu(JPopupMenu popupMenu) {
+    super.initializePopupMenu(popupMenu);
+
     popupMenu.addSeparator();
 
     JMenuItem menuItem = makeMenuItem("Change orientation",
                                       ACTION_CHANGE_ORIENTATION, "orientation");
     popupMenu.add(menuItem);
-
-    relation = component;
-    component.addObserver(this);
   }
 
   @Override
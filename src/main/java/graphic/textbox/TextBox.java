@@ -214,6 +214,7 @@ public abstract class TextBox extends GraphicComponent {
   public void gMouseEntered(MouseEvent e) {
     previousCursor = parent.getScene().getCursor();
     parent.getScene().setCursor(new Cursor(Cursor.TEXT_CURSOR));
+    parent.getScene().setToolTipText(getProblem());
 
     setMouseHover(true);
   }
@@ -221,6 +222,7 @@ public abstract class TextBox extends GraphicComponent {
   @Override
   public void gMouseExited(MouseEvent e) {
     parent.getScene().setCursor(previousCursor);
+    parent.getScene().setToolTipText(null);
     setMouseHover(false);
   }
 
@@ -277,6 +279,8 @@ public abstract class TextBox extends GraphicComponent {
 
     if (!pictureMode && isHighlight())
       paintSelectedStyle(g2, new Color(76, 175, 80), new Color(76, 175, 80, 150));
+    else if (!pictureMode && getProblem() != null)
+      paintSelectedStyle(g2, new Color(229, 57, 53), new Color(229, 57, 53, 80));
   }
 
   protected void paintSelectedStyle(Graphics2D g2) {
@@ -8,6 +8,7 @@ import classDiagram.IDiagramComponent.UpdateMessage;
 import graphic.ColoredComponent;
 import graphic.GraphicComponent;
 import graphic.GraphicView;
+import graphic.LevelOfDetail;
 import graphic.MovableComponent;
 import graphic.entity.EntityView;
 import graphic.relations.LineCommentary;
@@ -278,6 +279,15 @@ public class TextBoxCommentary extends MovableComponent implements ColoredCompon
     this.text = text;
 
     setColor(EntityView.getBasicColor());
+    parent.selectOnly(this);
+
+    pushBufferCreation();
+  }
+
+  @Override
+  protected void initializePopupMenu(JPopupMenu popupMenu) {
+    super.initializePopupMenu(popupMenu);
+
     popupMenu.addSeparator();
     final JMenuItem item = new JMenuItem("Delete commentary",
                                          PersonalizedIcon.createImageIcon("delete.png"));
@@ -289,10 +299,7 @@ public class TextBoxCommentary extends MovableComponent implements ColoredCompon
       }
     });
 
-    parent.selectOnly(this);
     popupMenu.add(item);
-
-    pushBufferCreation();
   }
 
   @Override
@@ -312,7 +319,7 @@ public class TextBoxCommentary extends MovableComponent implements ColoredCompon
     if (ghost.isEmpty()) computeWidth(g2);
 
     drawNote(g2, getBounds(), 15, getColor());
-    drawText(g2);
+    if (parent.getLevelOfDetail() == LevelOfDetail.FULL) drawText(g2);
     drawSelectedEffect(g2);
 
     final Rectangle bounds = getBounds();
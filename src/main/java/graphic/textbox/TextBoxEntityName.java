@@ -48,6 +48,11 @@ public class TextBoxEntityName extends TextBox {
     return new Rectangle(bounds.x, bounds.y, bounds.width, textDim.height);
   }
 
+  @Override
+  public String getProblem() {
+    return parent.getClassDiagram().getValidator().getProblem(entity);
+  }
+
   @Override
   public String getText() {
     return entity.getName();
@@ -3,10 +3,12 @@ package graphic.textbox;
 import classDiagram.IDiagramComponent;
 import classDiagram.IDiagramComponent.UpdateMessage;
 import classDiagram.components.EnumValue;
+import classDiagram.components.MemberParser;
 import graphic.GraphicView;
 import utility.Utility;
 
 import java.awt.*;
+import java.text.ParseException;
 import java.util.Observable;
 import java.util.Observer;
 
@@ -52,10 +54,10 @@ public class TextBoxEnumValue extends TextBox implements Observer {
   @Override
   public void setText(String text) {
     try {
-      enumValue.setValue(text);
-      super.setText(text);
+      enumValue.setValue(MemberParser.parseEnumValue(text));
+      super.setText(enumValue.getValue());
       enumValue.notifyObservers();
-    } catch (IllegalArgumentException ex) {
+    } catch (ParseException | IllegalArgumentException ex) {
       System.err.println(ex.getMessage());
     }
   }
@@ -4,6 +4,7 @@ import change.BufferDeplacement;
 import change.Change;
 import change.Changeable;
 import graphic.GraphicView;
+import graphic.LevelOfDetail;
 
 import java.awt.*;
 import java.awt.event.MouseEvent;
@@ -122,6 +123,9 @@ public abstract class TextBoxLabel extends TextBox implements Observer {
 
   @Override
   public void paintComponent(Graphics2D g2) {
+    // The labels of the relations are hidden at the lower levels of detail.
+    if (parent.getLevelOfDetail() != LevelOfDetail.FULL) return;
+
     super.paintComponent(g2);
     if (!pictureMode && (mouseHover || isSelected())) paintLink(g2);
   }
@@ -12,7 +12,6 @@ import org.xml.sax.SAXException;
 import swing.dialog.DialogDeleteView;
 import swing.hierarchicalView.HierarchicalView;
 import utility.SMessageDialog;
-import utility.WatchDir;
 
 import javax.swing.*;
 import javax.xml.parsers.DocumentBuilder;
@@ -22,7 +21,6 @@ import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Path;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.logging.Level;
@@ -247,7 +245,6 @@ public class MultiViewManager {
     if (getCurrentFile() == null)
       return;
 
-    WatchDir.stopWatchingFile(getCurrentPath(), true);
     try {
 
       String strOpen = String.valueOf(open);
@@ -269,11 +266,6 @@ public class MultiViewManager {
     } catch (TransformerException | ParserConfigurationException | SAXException | IOException ex) {
       Logger.getLogger(PanelClassDiagram.class.getName()).log(Level.SEVERE, null, ex);
     }
-    SwingUtilities.invokeLater(() -> WatchDir.stopWatchingFile(getCurrentPath(), false));
-  }
-
-  private static Path getCurrentPath() {
-    return PanelClassDiagram.getInstance().getCurrentPath();
   }
 
   private static File getCurrentFile() {
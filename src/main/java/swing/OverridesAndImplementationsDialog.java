@@ -1,6 +1,5 @@
 package swing;
 
-import classDiagram.components.Entity;
 import classDiagram.components.Method;
 import classDiagram.components.SimpleEntity;
 import swing.slyumCustomizedComponents.SList;
@@ -13,6 +12,8 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Vector;
 
 public class OverridesAndImplementationsDialog extends JDialog {
@@ -167,21 +168,19 @@ public class OverridesAndImplementationsDialog extends JDialog {
   private Vector<CheckableItem> createData() {
     items = new Vector<CheckableItem>();
 
-    for (final Entity e : parent.getAllParents()) {
+    // The methods of the parent first, then those of its ancestors not overridden by a nearer one.
+    final Map<String, Method> methods = new LinkedHashMap<>();
 
-      SimpleEntity se = (SimpleEntity) e;
+    for (final Method m : parent.getMethods())
+      if (!m.isStatic()) methods.putIfAbsent(m.getSignature(), m);
 
-      out:
-      for (final Method m : se.getMethods()) {
-        for (final CheckableItem c : items)
-          if (c.getMethod().equals(m)) continue out;
+    for (final Map.Entry<String, Method> inherited : parent.getInheritedMethods().entrySet())
+      methods.putIfAbsent(inherited.getKey(), inherited.getValue());
 
-        if (m.isStatic()) continue;
-
-        final CheckableItem ci = new CheckableItem(m);
-        ci.setSelected(child.getMethods().contains(m));
-        items.add(ci);
-      }
+    for (final Map.Entry<String, Method> m : methods.entrySet()) {
+      final CheckableItem ci = new CheckableItem(m.getValue());
+      ci.setSelected(child.getMethod(m.getKey()) != null);
+      items.add(ci);
     }
 
     return items;
@@ -1,6 +1,7 @@
 package swing;
 
 import change.Change;
+import classDiagram.ArchitectureMetrics;
 import classDiagram.ClassDiagram;
 import classDiagram.IDiagramComponent;
 import classDiagram.components.Attribute;
@@ -8,6 +9,8 @@ import classDiagram.components.Method;
 import classDiagram.components.PrimitiveType;
 import classDiagram.components.SimpleEntity;
 import classDiagram.components.Visibility;
+import classDiagram.sourceCode.JavaSourceGenerator;
+import classDiagram.sourceCode.JavaSourceImporter;
 import classDiagram.verifyName.SyntaxeNameException;
 import graphic.GraphicComponent;
 import graphic.GraphicView;
@@ -22,6 +25,7 @@ import swing.hierarchicalView.HierarchicalView;
 import swing.propretiesView.DiagramPropreties;
 import swing.propretiesView.PropretiesChanger;
 import swing.slyumCustomizedComponents.SSplitPane;
+import utility.Instrumentation;
 import utility.MultiBorderLayout;
 import utility.SMessageDialog;
 import utility.Utility;
@@ -31,6 +35,7 @@ import utility.WatchFileListener;
 import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.filechooser.FileFilter;
+import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
@@ -57,6 +62,7 @@ import java.nio.file.WatchEvent;
 import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -102,6 +108,7 @@ public class PanelClassDiagram extends JPanel {
   private boolean disabledUpdate = false;
   private WatchEvent.Kind<Path> fileChanged;
   private HierarchicalView hierarchicalView;
+  private JavaSourceGenerator javaSourceGenerator;
   private int savedDividerBottomLocation;
   private SSplitPane splitInner; // Split graphicview part and properties part.
   private SSplitPane splitOuter; // Split inner split and hierarchical part.
@@ -308,6 +315,134 @@ public class PanelClassDiagram extends JPanel {
     }
   }
 
+  /**
+   * Ask a directory and import the Java source files it contains in a new view. The files are parsed in background.
+   */
+  public void importJavaSources() {
+    final JFileChooser fc = new JFileChooser(Slyum.getCurrentDirectoryFileChooser());
+    fc.setDialogTitle("Import Java sources");
+    fc.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+
+    if (fc.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+    final JavaSourceImporter importer = new JavaSourceImporter(fc.getSelectedFile().toPath());
+    new Thread(new Runnable() {
+
+      @Override
+      public void run() {
+        try {
+          importer.importSources();
+          final String report = importer.getReport();
+          SwingUtilities.invokeLater(new Runnable() {
+
+            @Override
+            public void run() {
+              SMessageDialog.showInformationMessage(report);
+            }
+          });
+        } catch (IOException | RuntimeException e) {
+          Slyum.LOGGER.log(Level.SEVERE, "Java sources import failed", e);
+          SwingUtilities.invokeLater(new Runnable() {
+
+            @Override
+            public void run() {
+              SMessageDialog.showErrorMessage("An error occurred while importing Java sources: " + e.getMessage());
+            }
+          });
+        }
+      }
+    }, "Slyum Java import").start();
+  }
+
+  /**
+   * Generate the Java skeletons of the diagram. Only the files of the entities modified since the last generation in
+   * the same directory are written, and files modified by the user are never overwritten.
+   */
+  public void generateJavaSources() {
+    final String initialDirectory = javaSourceGenerator == null ? Slyum.getCurrentDirectoryFileChooser()
+                                                                : javaSourceGenerator.getDirectory().toString();
+    final JFileChooser fc = new JFileChooser(initialDirectory);
+    fc.setDialogTitle("Generate Java sources");
+    fc.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+    if (javaSourceGenerator != null) fc.setSelectedFile(javaSourceGenerator.getDirectory().toFile());
+
+    if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+    try {
+      Path directory = fc.getSelectedFile().toPath();
+      if (javaSourceGenerator == null || !javaSourceGenerator.getDirectory().equals(directory))
+        javaSourceGenerator = new JavaSourceGenerator(directory);
+    } catch (IOException e) {
+      showJavaSourcesError(e);
+      return;
+    }
+
+    // The model is rendered here, on the event dispatch thread; only the files are written in background.
+    final JavaSourceGenerator.Generation generation = javaSourceGenerator.prepare(getClassDiagram().getEntities());
+    new SwingWorker<JavaSourceGenerator.Report, Void>() {
+      @Override
+      protected JavaSourceGenerator.Report doInBackground() throws IOException {
+        return generation.write();
+      }
+
+      @Override
+      protected void done() {
+        try {
+          SMessageDialog.showInformationMessage(get().toString());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+          showJavaSourcesError(e.getCause());
+        }
+      }
+    }.execute();
+  }
+
+  private static void showJavaSourcesError(Throwable e) {
+    Slyum.LOGGER.log(Level.SEVERE, "Java sources generation failed", e);
+    SMessageDialog.showErrorMessage("An error occurred while generating Java sources: " + e.getMessage());
+  }
+
+  /**
+   * Write the statistics of the diagram in an XML file chosen by the user (see {@link
+   * classDiagram.DiagramStatistics#getXmlElement(Document)}).
+   */
+  public void exportStatistics() {
+    exportXml("Export statistics", getClassDiagram().getStatistics());
+  }
+
+  /**
+   * Analyse the architecture of the diagram and write the metrics in an XML file chosen by the user (see {@link
+   * ArchitectureMetrics}).
+   */
+  public void exportArchitectureMetrics() {
+    exportXml("Export architecture metrics", ArchitectureMetrics.analyze(getClassDiagram()));
+  }
+
+  private void exportXml(String title, XmlElement element) {
+    final JFileChooser fc = new JFileChooser(Slyum.getCurrentDirectoryFileChooser());
+    fc.setDialogTitle(title);
+    fc.setAcceptAllFileFilterUsed(false);
+    fc.setFileFilter(createChoosableFileFilter("xml"));
+
+    if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+    File file = fc.getSelectedFile();
+    if (Utility.getExtension(file) == null) file = new File(file.getPath() + fc.getFileFilter().toString());
+
+    if (file.exists() && SMessageDialog.showQuestionMessageOkCancel(file + " already exists. Overwrite?") ==
+                         JOptionPane.CANCEL_OPTION) return;
+
+    try {
+      final Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+      document.appendChild(element.getXmlElement(document));
+      saveDocumentInCurrentFile(document, file);
+    } catch (ParserConfigurationException | TransformerException e) {
+      Slyum.LOGGER.log(Level.SEVERE, "XML export failed", e);
+      SMessageDialog.showErrorMessage("An error occurred while exporting: " + e.getMessage());
+    }
+  }
+
   public void exportAsVectoriel(final String selectedExtension, final String... extensions) {
     final JFileChooser fc = new JFileChooser(Slyum.getCurrentDirectoryFileChooser());
     fc.setDialogTitle("Save as " + selectedExtension.toUpperCase(Locale.ROOT));
@@ -395,7 +530,7 @@ public class PanelClassDiagram extends JPanel {
   public void setCurrentFile(File file) {
     WatchDir.unregister(getCurrentPath());
     currentFile = file;
-    Slyum.getInstance().getMenuItemLocate().setEnabled(file != null);
+    if (Slyum.getInstance() != null) Slyum.getInstance().getMenuItemLocate().setEnabled(file != null);
 
     if (Slyum.isCleanAtOpeningEnable()) PanelClassDiagram.cleanComponents();
 
@@ -580,7 +715,9 @@ public class PanelClassDiagram extends JPanel {
       return;
     }
 
+    long start = Instrumentation.start();
     cleanApplication();
+    Instrumentation.fileProcessed("open", "clean", file, start);
 
     final GraphicView rootGraphicView = MultiViewManager.getSelectedGraphicView();
     rootGraphicView.getScrollPane().setVisible(false);
@@ -592,10 +729,15 @@ public class PanelClassDiagram extends JPanel {
     setXmlImportation(true);
 
     try {
+      start = Instrumentation.start();
       SAXParser parser = factory.newSAXParser();
       XMLParser handler = new XMLParser(classDiagram);
       parser.parse(file, handler);
+      Instrumentation.fileProcessed("open", "parse", file, start);
+
+      start = Instrumentation.start();
       handler.createDiagram();
+      Instrumentation.fileProcessed("open", "create", file, start);
     } catch (SyntaxeNameException | IOException | ParserConfigurationException | SAXException e) {
       showErrorImportationMessage(e);
 
@@ -636,6 +778,31 @@ public class PanelClassDiagram extends JPanel {
     });
   }
 
+  /**
+   * Reload a file modified by another program. Only the difference between the file and the current diagram is applied
+   * (see {@link XMLParser#mergeDiagram()}), so the views keep their state and the reload can be undone. If the file
+   * cannot be merged, it is opened again.
+   *
+   * @param file the file to reload
+   */
+  public void reloadFromXML(final File file) {
+    setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+    try {
+      SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
+      XMLParser handler = new XMLParser(classDiagram, true);
+      parser.parse(file, handler);
+      handler.mergeDiagram();
+
+      Change.setHasChange(false);
+    } catch (SyntaxeNameException | IOException | ParserConfigurationException | SAXException | RuntimeException e) {
+      Slyum.LOGGER.log(Level.WARNING, "Unable to merge " + file + ", the file is opened again.", e);
+      openFromXML(file);
+    } finally {
+      setCursor(null);
+    }
+  }
+
   /**
    * Open a new project.
    */
@@ -695,7 +862,13 @@ public class PanelClassDiagram extends JPanel {
 
     // Création et configuration du Transformer. Sauvegarde du fichier.
     try {
-      PanelClassDiagram.saveDocumentInCurrentFile(XmlFactory.getDocument(), getCurrentFile());
+      long start = Instrumentation.start();
+      Document document = XmlFactory.getDocument();
+      Instrumentation.fileProcessed("save", "build", getCurrentFile(), start);
+
+      start = Instrumentation.start();
+      PanelClassDiagram.saveDocumentInCurrentFile(document, getCurrentFile());
+      Instrumentation.fileProcessed("save", "write", getCurrentFile(), start);
     } catch (TransformerException e) {
       Logger.getGlobal().log(Level.SEVERE, "Unable to save file.", e);
       SMessageDialog.showErrorMessage(e.getLocalizedMessage());
@@ -707,11 +880,6 @@ public class PanelClassDiagram extends JPanel {
   public static void saveDocumentInCurrentFile(Document document, File currentFile) throws
       TransformerConfigurationException, TransformerException {
 
-    Path currentPath = currentFile.toPath();
-
-    //WatchDir.stopWatchingFile(currentPath, true);
-    WatchDir.unregister(currentPath);
-
     // write the content into xml file
     TransformerFactory transformerFactory = TransformerFactory.newInstance();
     Transformer transformer = transformerFactory.newTransformer();
@@ -723,12 +891,8 @@ public class PanelClassDiagram extends JPanel {
     StreamResult result = new StreamResult(currentFile);
     transformer.transform(source, result);
 
-    //SwingUtilities.invokeLater(() -> WatchDir.stopWatchingFile(currentPath, false));
-    try {
-      WatchDir.register(currentPath, getInstance().watchFileListener);
-    } catch (IOException ioe) {
-      Logger.getLogger(PanelClassDiagram.class.getName()).log(Level.SEVERE, "Unable to register file", ioe);
-    }
+    // Our own write must not be notified as a modification by another program.
+    WatchDir.fileWritten(currentFile.toPath());
   }
 
   public HierarchicalView getHierarchicalView() {
@@ -739,7 +903,7 @@ public class PanelClassDiagram extends JPanel {
     if (fileChanged == StandardWatchEventKinds.ENTRY_MODIFY) {
       if (SMessageDialog.showQuestionMessageYesNo(
           "The file has been modified by another program.\n" + "Do you want to reload it?", PanelClassDiagram.this) ==
-          JOptionPane.YES_OPTION) openFromXML(currentFile);
+          JOptionPane.YES_OPTION) reloadFromXML(currentFile);
     } else if (fileChanged == StandardWatchEventKinds.ENTRY_DELETE) {
       if (SMessageDialog.showQuestionMessageYesNo(
           "The file has been deleted by another program.\n" + "Do you want to close it?", PanelClassDiagram.this) ==
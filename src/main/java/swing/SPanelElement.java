@@ -151,7 +151,8 @@ public class SPanelElement extends SToolBar implements ActionListener, IListener
         Color.GREEN, TT_ADJUST_WIDTH));
 
     add(new SSeparator());
-    sliderZoom = new SSlider(100, 50, 200) {
+    // Below 50%, the views are painted with less details (see LevelOfDetail).
+    sliderZoom = new SSlider(100, 10, 200) {
       @Override
       public void setValue(int value) {
         super.setValue(value);
@@ -2,42 +2,86 @@ package swing;
 
 import graphic.GraphicComponent;
 import graphic.GraphicView;
-import utility.Utility;
 
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
+/**
+ * Search the graphic components of a view by their text. The labels of the view are indexed (see {@link SearchIndex})
+ * and the index is kept while the components and their labels do not change; a query extending the previous one only
+ * checks the previous results.
+ *
+ * {@link #search(String, GraphicView, Consumer)} matches the query in background: only the result of the last query is
+ * delivered.
+ */
 public class SearchEngine {
   private static List<GraphicComponent> searchResults = new LinkedList<>();
   private static GraphicComponent current = null;
 
+  private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "Slyum search");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  // Index of the last searched components, accessed on the event dispatch thread.
+  private static List<GraphicComponent> indexedComponents = new ArrayList<>();
+  private static String[] indexedLabels = new String[0];
+  private static SearchIndex index;
+
+  // Last completed query and its results, for narrowing.
+  private static String lastQuery = "";
+  private static int[] lastResults;
+
+  private static long generation = 0;
+
   public static GraphicComponent initialize(String searchQuery) {
     return SearchEngine.initialize(searchQuery, MultiViewManager.getSelectedGraphicView());
   }
 
   public static GraphicComponent initialize(String searchQuery, GraphicView graphicView) {
+    generation++;
+
     if (searchQuery.isEmpty()) {
       searchResults.clear();
+      lastQuery = "";
       return null;
     }
 
-    searchResults = graphicView.getChildsRecursively().stream().filter(c ->
-                                                                           Utility.stripAccents(
-                                                                                      c.getFullString().toLowerCase())
-                                                                                  .contains(
-                                                                                      Utility.stripAccents(
-                                                                                          searchQuery.toLowerCase())))
-                               .collect(Collectors.toList());
+    Snapshot snapshot = snapshot(SearchIndex.normalize(searchQuery), graphicView);
+    return setResults(snapshot, snapshot.run());
+  }
 
-    if (!searchResults.isEmpty()) {
-      if (current == null || !searchResults.contains(current))
-        current = searchResults.get(0);
-    } else {
-      current = null;
+  /**
+   * Search the query in background and give the first result to the callback, on the event dispatch thread. The
+   * callback is not called if another search starts meanwhile.
+   *
+   * @param searchQuery the text to search
+   * @param graphicView the view containing the components
+   * @param onResult called with the current result, null if nothing is found
+   */
+  public static void search(String searchQuery, GraphicView graphicView, Consumer<GraphicComponent> onResult) {
+    if (searchQuery.isEmpty()) {
+      onResult.accept(initialize(searchQuery, graphicView));
+      return;
     }
 
-    return current;
+    final long searchGeneration = ++generation;
+    final Snapshot snapshot = snapshot(SearchIndex.normalize(searchQuery), graphicView);
+
+    executor.execute(() -> {
+      final int[] results = snapshot.run();
+
+      SwingUtilities.invokeLater(() -> {
+        if (searchGeneration == generation) onResult.accept(setResults(snapshot, results));
+      });
+    });
   }
 
   public static GraphicComponent current() {
@@ -60,4 +104,100 @@ public class SearchEngine {
     return current = searchResults.get(currentIndex == 0 ? searchResults.size() - 1 : currentIndex - 1);
   }
 
+  /**
+   * Take what the search needs from the view, on the event dispatch thread. The index is built again only if the
+   * components or their labels have changed since the last search.
+   */
+  private static Snapshot snapshot(String query, GraphicView graphicView) {
+    List<GraphicComponent> components = graphicView.getChildsRecursively();
+    String[] labels = new String[components.size()];
+
+    int i = 0;
+    for (GraphicComponent component : components)
+      labels[i++] = component.getFullString();
+
+    if (index == null || !isSameContent(indexedComponents, indexedLabels, components, labels)) {
+      indexedComponents = new ArrayList<>(components);
+      indexedLabels = labels;
+      index = null;
+      lastQuery = "";
+    }
+
+    // The results of the previous query contain all the results of a longer one.
+    int[] candidates = !lastQuery.isEmpty() && query.contains(lastQuery) ? lastResults : null;
+
+    return new Snapshot(query, index, labels, candidates, indexedComponents);
+  }
+
+  /**
+   * Check if the indexed components and their labels are still the components of the view, in the same order.
+   *
+   * @param indexedComponents the components of the index
+   * @param indexedLabels the labels of the index
+   * @param components the components of the view
+   * @param labels the current labels of the components
+   *
+   * @return true if the index can be kept; false otherwise
+   */
+  static boolean isSameContent(List<?> indexedComponents, String[] indexedLabels, List<?> components,
+                               String[] labels) {
+    if (components.size() != indexedComponents.size() || labels.length != indexedLabels.length) return false;
+
+    // The components of the view are in a linked list: they are iterated, not accessed by their position.
+    Iterator<?> indexed = indexedComponents.iterator();
+    int i = 0;
+
+    for (Object component : components) {
+      if (component != indexed.next() || !labels[i].equals(indexedLabels[i])) return false;
+      i++;
+    }
+
+    return true;
+  }
+
+  private static GraphicComponent setResults(Snapshot snapshot, int[] results) {
+    if (snapshot.components == indexedComponents) {
+      if (index == null) index = snapshot.index;
+      lastQuery = snapshot.query;
+      lastResults = results;
+    }
+
+    searchResults = new ArrayList<>(results.length);
+    for (int id : results)
+      searchResults.add(snapshot.components.get(id));
+
+    if (!searchResults.isEmpty()) {
+      if (current == null || !searchResults.contains(current))
+        current = searchResults.get(0);
+    } else {
+      current = null;
+    }
+
+    return current;
+  }
+
+  /**
+   * Everything needed for running a search outside of the event dispatch thread.
+   */
+  private static class Snapshot {
+    final String query;
+    final String[] labels;
+    final int[] candidates;
+    final List<GraphicComponent> components;
+    SearchIndex index;
+
+    Snapshot(String query, SearchIndex index, String[] labels, int[] candidates, List<GraphicComponent> components) {
+      this.query = query;
+      this.index = index;
+      this.labels = labels;
+      this.candidates = candidates;
+      this.components = components;
+    }
+
+    int[] run() {
+      if (index == null) index = new SearchIndex(labels);
+
+      return candidates == null ? index.search(query) : index.search(query, candidates);
+    }
+  }
 }
@@ -0,0 +1,182 @@
+package swing;
+
+import utility.Utility;
+
+import java.util.Arrays;
+
+/**
+ * Index of the labels of a graphic view, for finding quickly the labels containing a query. Each substring of one, two
+ * or three characters (packed in a long) is associated with the sorted list of the labels containing it. A longer
+ * query is found by intersecting the lists of its trigrams, then checking the remaining labels.
+ *
+ * The index only holds strings: it can be built and queried outside of the event dispatch thread.
+ */
+public class SearchIndex {
+  private static final int GRAM_LENGTH = 3;
+  private static final int[] EMPTY = new int[0];
+
+  /**
+   * Normalize a label or a query: matching ignores case and accents.
+   *
+   * @param s the string to normalize
+   *
+   * @return the normalized string
+   */
+  public static String normalize(String s) {
+    return Utility.stripAccents(s.toLowerCase());
+  }
+
+  private final String[] labels;
+  private final GramTable grams = new GramTable();
+
+  /**
+   * Create the index of the given labels. The labels are identified by their position in the array.
+   *
+   * @param labels the labels to index, not normalized
+   */
+  public SearchIndex(String[] labels) {
+    this.labels = new String[labels.length];
+
+    for (int id = 0; id < labels.length; id++) {
+      String label = this.labels[id] = normalize(labels[id] == null ? "" : labels[id]);
+
+      for (int i = 0; i < label.length(); i++) {
+        long gram = 0;
+        for (int length = 1; length <= GRAM_LENGTH && i + length <= label.length(); length++) {
+          gram = gram << 16 | label.charAt(i + length - 1);
+          grams.add(gram | (long) length << 48, id);
+        }
+      }
+    }
+  }
+
+  public int size() {
+    return labels.length;
+  }
+
+  /**
+   * Get the labels containing the query.
+   *
+   * @param query the normalized query
+   *
+   * @return the ids of the labels, in increasing order
+   */
+  public int[] search(String query) {
+    if (query.isEmpty()) return EMPTY;
+
+    if (query.length() <= GRAM_LENGTH) return grams.get(gramOf(query, 0, query.length()));
+
+    // Start with the rarest trigram.
+    int[] candidates = null;
+    for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+      int[] list = grams.get(gramOf(query, i, GRAM_LENGTH));
+      if (candidates == null || list.length < candidates.length) candidates = list;
+    }
+
+    return search(query, candidates);
+  }
+
+  /**
+   * Get the labels containing the query among the given candidates. Used for narrowing the results of a previous query
+   * contained in this one.
+   *
+   * @param query the normalized query
+   * @param candidates the ids of the labels to check, in increasing order
+   *
+   * @return the ids of the labels, in increasing order
+   */
+  public int[] search(String query, int[] candidates) {
+    IntList results = new IntList();
+
+    for (int id : candidates)
+      if (labels[id].contains(query)) results.add(id);
+
+    return results.toArray();
+  }
+
+  /**
+   * Pack a substring of one to three characters in a long, with its length in the high bits.
+   */
+  private static long gramOf(String s, int start, int length) {
+    long gram = 0;
+    for (int i = start; i < start + length; i++)
+      gram = gram << 16 | s.charAt(i);
+    return gram | (long) length << 48;
+  }
+
+  /**
+   * Hash table from the grams to the lists of labels containing them, with open addressing. Avoids boxing the millions
+   * of grams of a large diagram.
+   */
+  private static class GramTable {
+    private long[] keys = new long[1024];
+    private IntList[] lists = new IntList[1024];
+    private int size = 0;
+
+    void add(long gram, int id) {
+      int slot = slotOf(gram);
+
+      if (lists[slot] == null) {
+        keys[slot] = gram;
+        lists[slot] = new IntList();
+
+        if (++size * 2 > keys.length) {
+          grow();
+          slot = slotOf(gram);
+        }
+      }
+
+      lists[slot].add(id);
+    }
+
+    int[] get(long gram) {
+      IntList list = lists[slotOf(gram)];
+      return list == null ? EMPTY : list.toArray();
+    }
+
+    private int slotOf(long gram) {
+      int mask = keys.length - 1;
+      int slot = (int) (gram * 0x9E3779B97F4A7C15L >>> 32) & mask;
+
+      while (lists[slot] != null && keys[slot] != gram)
+        slot = (slot + 1) & mask;
+
+      return slot;
+    }
+
+    private void grow() {
+      long[] oldKeys = keys;
+      IntList[] oldLists = lists;
+
+      keys = new long[oldKeys.length * 2];
+      lists = new IntList[oldKeys.length * 2];
+
+      for (int i = 0; i < oldKeys.length; i++)
+        if (oldLists[i] != null) {
+          int slot = slotOf(oldKeys[i]);
+          keys[slot] = oldKeys[i];
+          lists[slot] = oldLists[i];
+        }
+    }
+  }
+
+  /**
+   * Growable list of ids, avoiding the boxing of the integers.
+   */
+  private static class IntList {
+    private int[] values = new int[4];
+    private int size = 0;
+
+    void add(int value) {
+      // A label containing a gram several times is listed once.
+      if (size > 0 && values[size - 1] == value) return;
+
+      if (size == values.length) values = Arrays.copyOf(values, size * 2);
+      values[size++] = value;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+}
@@ -6,6 +6,7 @@ import graphic.GraphicView;
 import swing.SPanelDiagramComponent.Mode;
 import swing.slyumCustomizedComponents.SButton;
 import update.UpdateInfo;
+import utility.Instrumentation;
 import utility.OSValidator;
 import utility.POMReader;
 import utility.PersonalizedIcon;
@@ -13,6 +14,8 @@ import utility.SMessageDialog;
 import utility.Utility;
 
 import javax.swing.*;
+import javax.swing.event.MenuEvent;
+import javax.swing.event.MenuListener;
 import java.awt.*;
 import java.awt.desktop.AboutEvent;
 import java.awt.desktop.AboutHandler;
@@ -82,8 +85,11 @@ public class Slyum extends JFrame
 
   public static final String ACTION_EXPORT_PDF = "ExportPdf";
   public static final String ACTION_EXPORT_SVG = "ExportSvg";
+  public static final String ACTION_FORCE_DIRECTED_LAYOUT = "ForceDirectedLayout";
   public static final String ACTION_FULL_SCREEN = "fullScreen";
+  public static final String ACTION_GENERATE_JAVA = "GenerateJava";
   public final static String ACTION_HELP = "Help";
+  public static final String ACTION_IMPORT_JAVA = "ImportJava";
   public final static String ACTION_KLIPPER = "Klipper";
   public final static String ACTION_LOCATE = "locate";
 
@@ -112,8 +118,13 @@ public class Slyum extends JFrame
   public static final String ACTION_OPEN = "Open";
   public static final String ACTION_OPEN_RECENT_RPOJECT = "openRecentProject";
   public static final String ACTION_OPEN_VIEW = "openView";
+  public static final String ACTION_ORTHOGONAL_ROUTING = "OrthogonalRouting";
   public static final String ACTION_PAGE_SETUP = "PageSetup";
+  public static final String ACTION_PASTE = "Paste";
+  public static final String ACTION_PASTE_MEMBERS = "PasteMembers";
   public static final String ACTION_PATCH_NOTE = "PatchNote";
+  public static final String ACTION_PERFORMANCE_OVERLAY = "PerformanceOverlay";
+  public static final String ACTION_PIN = "Pin";
   public static final String ACTION_PRINT = "Print";
   public static final String ACTION_PROJECT_PAGE = "ProjectPage";
   public static final String ACTION_PROPERTIES = "Properties";
@@ -122,6 +133,7 @@ public class Slyum extends JFrame
   public static final String ACTION_SAVE = "Save";
   public static final String ACTION_SAVE_AS = "SaveAs";
   public static final String ACTION_SELECT_ALL = "SelectAll";
+  public static final String ACTION_SELECT_USAGES = "SelectUsages";
 
   public static final String ACTION_TEXTBOX_DOWN = "MoveTextBoxDown";
   public static final String ACTION_TEXTBOX_UP = "MoveTextBoxUp";
@@ -208,6 +220,7 @@ public class Slyum extends JFrame
   public static final String KEY_NEW_PROJECT = "ctrl N";
   public final static String KEY_NOTE = "O";
   public final static String KEY_OPEN_PROJECT = "ctrl O";
+  public static final String KEY_PASTE = "ctrl V";
 
   public final static String KEY_PRINT = "ctrl P";
 
@@ -251,10 +264,12 @@ public class Slyum extends JFrame
   private static final String ARGUMENT_OPEN_NEW_PROJECT = "-newProject";
   public static final String URL_ISSUES_PAGE = "https://github.com/Slyum/slyum/issues";
   public static final String URL_PROJECT_PAGE = "https://github.com/Slyum/slyum";
-  private static String[] arguments;
+  private static String[] arguments = new String[0];
 
   private static Slyum instance;
   private static JCheckBoxMenuItem menuItemFullScreen;
+  private JCheckBoxMenuItem menuItemOrthogonalRouting;
+  private JCheckBoxMenuItem menuItemPerformanceOverlay;
   private static JMenuItem redo;
   private static final String ACTION_CLEAN_DIAGRAM = "CleanDiagram";
 
@@ -616,7 +631,7 @@ public class Slyum extends JFrame
 
   public static void updateWindowTitle(final File projectName) {
     windowTitle = APP_NAME + (projectName == null ? "" : " - " + projectName.getPath());
-    Slyum.getInstance().setTitle(windowTitle);
+    if (Slyum.getInstance() != null) Slyum.getInstance().setTitle(windowTitle);
   }
 
   public static boolean isCleanAtOpeningEnable() {
@@ -738,6 +753,9 @@ public class Slyum extends JFrame
       case ACTION_REPORT_ISSUE:
         openURL(URL_ISSUES_PAGE);
         break;
+      case ACTION_PASTE:
+        gv.pasteFromClipboard();
+        break;
       case ACTION_SELECT_ALL:
         gv.selectAll();
         break;
@@ -778,6 +796,9 @@ public class Slyum extends JFrame
       case ACTION_FULL_SCREEN:
         PanelClassDiagram.getInstance().setFullScreen(menuItemFullScreen.isSelected());
         break;
+      case ACTION_PERFORMANCE_OVERLAY:
+        Instrumentation.setOverlayVisible(menuItemPerformanceOverlay.isSelected());
+        break;
       case ACTION_OPEN_VIEW:
         SMessageDialog.showErrorMessage("Not implemeted");
         break;
@@ -803,6 +824,18 @@ public class Slyum extends JFrame
       case ACTION_EXPORT_EPS:
         PanelClassDiagram.getInstance().exportAsVectoriel("eps", new String[] {"pdf", "svg", "eps"});
         break;
+      case ACTION_IMPORT_JAVA:
+        p.importJavaSources();
+        break;
+      case ACTION_GENERATE_JAVA:
+        p.generateJavaSources();
+        break;
+      case ACTION_FORCE_DIRECTED_LAYOUT:
+        gv.toggleForceDirectedLayout();
+        break;
+      case ACTION_ORTHOGONAL_ROUTING:
+        gv.setOrthogonalRouting(menuItemOrthogonalRouting.isSelected());
+        break;
       case ACTION_CLEAN_DIAGRAM:
         SMessageDialog.showInformationMessage(
             "Cleaning complete!\n" + PanelClassDiagram.cleanComponents() + " component(s) removed.");
@@ -1073,6 +1106,14 @@ public class Slyum extends JFrame
         menu.add(subMenu);
       }
 
+      // Menu item Import Java sources
+      menuItem = createMenuItem("Import Java sources...", "open", KeyEvent.VK_J, null, ACTION_IMPORT_JAVA);
+      menu.add(menuItem);
+
+      // Menu item Generate Java sources
+      menuItem = createMenuItem("Generate Java sources...", "save", KeyEvent.VK_G, null, ACTION_GENERATE_JAVA);
+      menu.add(menuItem);
+
       // Menu item Copy to clipboard
       menuItem = createMenuItem("Copy selection to clipboard", "klipper", KeyEvent.VK_K, KEY_KLIPPER, ACTION_KLIPPER,
                                 p.getBtnKlipper());
@@ -1143,6 +1184,10 @@ public class Slyum extends JFrame
       menuItem.setEnabled(false);
       menu.add(menuItem);
 
+      // Menu item Paste
+      menuItem = createMenuItem("Paste", "klipper", KeyEvent.VK_P, KEY_PASTE, ACTION_PASTE);
+      menu.add(menuItem);
+
       // Menu item Delete
       menuItem = createMenuItem("Delete", "delete", KeyEvent.VK_E, KEY_DELETE, ACTION_DELETE, p.getBtnDelete());
       menuItem.setEnabled(false);
@@ -1234,6 +1279,12 @@ public class Slyum extends JFrame
       menuItemFullScreen.setActionCommand(ACTION_FULL_SCREEN);
       menuItemFullScreen.addActionListener(this);
       menu.add(menuItemFullScreen);
+
+      // Menu item performance overlay, displays the measures of the instrumentation on the views.
+      menuItemPerformanceOverlay = new JCheckBoxMenuItem("Performance Overlay");
+      menuItemPerformanceOverlay.setActionCommand(ACTION_PERFORMANCE_OVERLAY);
+      menuItemPerformanceOverlay.addActionListener(this);
+      menu.add(menuItemPerformanceOverlay);
       menu.addSeparator();
 
       // Sub Menu Open view
@@ -1356,6 +1407,29 @@ public class Slyum extends JFrame
       menuItem.addActionListener(this);
       menu.add(menuItem);
 
+      // Menu item force-directed layout (start / stop)
+      menuItem = createMenuItem("Force-directed layout", "", KeyEvent.VK_F, null, ACTION_FORCE_DIRECTED_LAYOUT);
+      menu.add(menuItem);
+
+      // Menu item orthogonal routing, the state depends on the selected view.
+      menuItemOrthogonalRouting = new JCheckBoxMenuItem("Orthogonal routing");
+      menuItemOrthogonalRouting.setActionCommand(ACTION_ORTHOGONAL_ROUTING);
+      menuItemOrthogonalRouting.addActionListener(this);
+      menu.add(menuItemOrthogonalRouting);
+      menu.addMenuListener(new MenuListener() {
+
+        @Override
+        public void menuSelected(MenuEvent e) {
+          menuItemOrthogonalRouting.setSelected(MultiViewManager.getSelectedGraphicView().isOrthogonalRouting());
+        }
+
+        @Override
+        public void menuDeselected(MenuEvent e) { }
+
+        @Override
+        public void menuCanceled(MenuEvent e) { }
+      });
+
       menu.addSeparator();
       // Menu item default mode
       menuItem = createMenuItem("Default cursor", "pointer-arrow", KeyEvent.VK_E, KEY_DEFAULT_MODE, ACTION_MODE_CURSOR,
@@ -1,10 +1,9 @@
 package swing;
 
 import graphic.GraphicView;
-import graphic.export.ExportViewImage;
+import graphic.export.ExportViewPrint;
 
 import java.awt.*;
-import java.awt.image.BufferedImage;
 import java.awt.print.PageFormat;
 import java.awt.print.Paper;
 import java.awt.print.PrinterException;
@@ -28,7 +27,11 @@ public class SlyumPrinterJob {
 
   public static boolean print(GraphicView graphicView) throws PrinterException {
     PrinterJob prnJob = getSlyumPrinterJob().printerJob;
-    prnJob.setPrintable(graphicView, SlyumPrinterJob.getSlyumPrinterJob().getPageFormat(graphicView));
+
+    // Created once for the job: the printer asks each page, often in several bands.
+    ExportViewPrint printer = ExportViewPrint.create(graphicView);
+    printer.setPageFormat(getSlyumPrinterJob().getPageFormat(printer.getSize()));
+    prnJob.setPageable(printer);
 
     if (!prnJob.printDialog()) return false;
 
@@ -38,8 +41,8 @@ public class SlyumPrinterJob {
 
   public static void pageDialog(GraphicView graphicView) {
     SlyumPrinterJob spj = getSlyumPrinterJob();
-    PageFormat pf = SlyumPrinterJob.getSlyumPrinterJob().getPageFormat(graphicView), pfTemp = spj.printerJob.pageDialog(
-        pf);
+    PageFormat pf = spj.getPageFormat(ExportViewPrint.create(graphicView).getSize()),
+        pfTemp = spj.printerJob.pageDialog(pf);
 
     if (!pf.equals(pfTemp)) spj.pageFormat = pfTemp;
   }
@@ -59,19 +62,20 @@ public class SlyumPrinterJob {
    * @return PageFormat.PORTRAIT or PageFormat.LANDSCAPE.
    */
   public static int getPreferredOrientation(GraphicView graphicView) {
-    BufferedImage bi = ExportViewImage.create(graphicView).export();
-    Dimension sceneSize = new Dimension(bi.getWidth(), bi.getHeight());
+    return getPreferredOrientation(ExportViewPrint.create(graphicView).getSize());
+  }
 
+  private static int getPreferredOrientation(Dimension sceneSize) {
     if (sceneSize.width > sceneSize.height) return PageFormat.LANDSCAPE;
     else return PageFormat.PORTRAIT;
   }
 
-  private PageFormat getPageFormat(GraphicView graphicView) {
+  private PageFormat getPageFormat(Dimension sceneSize) {
     if (pageFormat == null) {
       final int MARGIN = 36;
       PageFormat pf = getSlyumPrinterJob().printerJob.defaultPage();
       Paper paper = pf.getPaper();
-      int orientation = getPreferredOrientation(graphicView);
+      int orientation = getPreferredOrientation(sceneSize);
 
       // Change default margins
       paper.setImageableArea(MARGIN, MARGIN, paper.getWidth() - MARGIN * 2, paper.getHeight() - MARGIN * 2);
@@ -1,8 +1,7 @@
 package swing;
 
 import graphic.GraphicView;
-import graphic.export.ExportViewImage;
-import org.imgscalr.Scalr;
+import graphic.export.ThumbnailService;
 
 import javax.swing.*;
 import java.awt.*;
@@ -118,7 +117,7 @@ public class ViewViewer
 
     g2d.translate(DiagramName.DIAGRAM_NAME_WIDTH + 1, 0);
 
-    BufferedImage image = currentHover.getImageOverview();
+    BufferedImage image = currentHover.getImageOverview(CONTENT_WIDTH, CONTENT_HEIGHT);
 
     if (image == null) {
       final String EMPTY_DIAGRAM_MESSAGE = currentHover.getNoImageOverviewMessage();
@@ -134,30 +133,11 @@ public class ViewViewer
       return;
     }
 
-    int imgWidth = image.getWidth(),
-        imgHeight = image.getHeight();
+    // The thumbnail is already rendered at the size of the content.
+    int thumbX = (CONTENT_WIDTH - image.getWidth()) / 2,
+        thumbY = (CONTENT_HEIGHT - image.getHeight()) / 2;
 
-    if (imgWidth > CONTENT_WIDTH) {
-      imgHeight = (CONTENT_WIDTH * imgHeight) / imgWidth;
-      imgWidth = CONTENT_WIDTH;
-    }
-
-    if (imgHeight > CONTENT_HEIGHT) {
-      imgWidth = (CONTENT_HEIGHT * imgWidth) / imgHeight;
-      imgHeight = CONTENT_HEIGHT;
-    }
-
-    BufferedImage thumbnail = Scalr.resize(
-        image,
-        Scalr.Method.ULTRA_QUALITY,
-        Scalr.Mode.AUTOMATIC,
-        imgWidth,
-        imgHeight);
-
-    int thumbX = (CONTENT_WIDTH - thumbnail.getWidth()) / 2,
-        thumbY = (CONTENT_HEIGHT - thumbnail.getHeight()) / 2;
-
-    g2d.drawImage(thumbnail, thumbX, thumbY, null);
+    g2d.drawImage(image, thumbX, thumbY, null);
   }
 
   private LeftButton getLeftButtonAtLocation(Point location) {
@@ -269,7 +249,7 @@ public class ViewViewer
       return new Color(219, 25, 25);
     }
 
-    protected BufferedImage getImageOverview() {
+    protected BufferedImage getImageOverview(int width, int height) {
       return null;
     }
 
@@ -282,6 +262,7 @@ public class ViewViewer
   private class DiagramName extends LeftButton {
 
     static final String NO_IMAGE_MESSAGE = "empty diagram";
+    static final String LOADING_MESSAGE = "loading preview...";
 
     private GraphicView graphicView;
 
@@ -302,15 +283,15 @@ public class ViewViewer
     }
 
     @Override
-    protected BufferedImage getImageOverview() {
+    protected BufferedImage getImageOverview(int width, int height) {
       if (graphicView.getAllDiagramComponents().isEmpty())
         return null;
-      return ExportViewImage.create(graphicView, false).export();
+      return ThumbnailService.getInstance().getThumbnail(graphicView, width, height, ViewViewer.this::repaint);
     }
 
     @Override
     protected String getNoImageOverviewMessage() {
-      return NO_IMAGE_MESSAGE;
+      return graphicView.getAllDiagramComponents().isEmpty() ? NO_IMAGE_MESSAGE : LOADING_MESSAGE;
     }
 
   }
@@ -1,6 +1,14 @@
 package swing;
 
+import change.BufferBounds;
+import change.BufferColor;
+import change.BufferCreation;
+import change.BufferDeepCreation;
+import change.BufferFirstCreation;
+import change.BufferRole;
+import change.Change;
 import classDiagram.ClassDiagram.ViewEntity;
+import classDiagram.DiagramChanges;
 import classDiagram.IDiagramComponent;
 import classDiagram.IDiagramComponent.UpdateMessage;
 import classDiagram.components.AssociationClass;
@@ -18,8 +26,10 @@ import classDiagram.components.Visibility;
 import classDiagram.relationships.Association.NavigateDirection;
 import classDiagram.relationships.Binary;
 import classDiagram.relationships.Composition;
+import classDiagram.relationships.IParentChild;
 import classDiagram.relationships.Multi;
 import classDiagram.relationships.Multiplicity;
+import classDiagram.relationships.Relation;
 import classDiagram.verifyName.MethodName;
 import classDiagram.verifyName.SyntaxeNameException;
 import classDiagram.verifyName.TypeName;
@@ -47,7 +57,9 @@ import swing.propretiesView.DiagramPropreties;
 import javax.swing.*;
 import java.awt.*;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Set;
 
 /**
  * This class read the XML file and create the diagram UML structured from this.
@@ -198,11 +210,15 @@ public class XMLParser extends DefaultHandler {
     HashMap<Integer, RelationView> relationView = new HashMap<>();
 
     public UMLView() {
-      graphicView = MultiViewManager.getSelectedGraphicView();
+      if (!detached) graphicView = MultiViewManager.getSelectedGraphicView();
     }
 
     public UMLView(String name, boolean open) {
       this.name = name;
+      this.open = open;
+
+      // Views of a detached parser are bound to the existing views when merging.
+      if (detached) return;
 
       if (open) graphicView = MultiViewManager.addAndOpenNewView(name);
       else graphicView = MultiViewManager.addNewView(name);
@@ -227,6 +243,7 @@ public class XMLParser extends DefaultHandler {
   private StringBuffer buffer;
 
   private final classDiagram.ClassDiagram classDiagram;
+  private final boolean detached;
 
   LinkedList<ClassEntity> classEntities = new LinkedList<>();
   // LinkedList<InnerCLass> innerCLass = new LinkedList<InnerCLass>();
@@ -269,11 +286,23 @@ public class XMLParser extends DefaultHandler {
   private ClassDiagram umlClassDiagram;
 
   public XMLParser(classDiagram.ClassDiagram classDiagram) {
+    this(classDiagram, false);
+  }
+
+  /**
+   * Create a new parser. A detached parser does not create any view while parsing: the parsed diagram is merged into
+   * the given class diagram with {@link #mergeDiagram()} instead of being created with {@link #createDiagram()}.
+   *
+   * @param classDiagram the class diagram to fill
+   * @param detached true for merging the parsed diagram into the existing one
+   */
+  public XMLParser(classDiagram.ClassDiagram classDiagram, boolean detached) {
     super();
 
     if (classDiagram == null) throw new IllegalArgumentException("classDiagram is null");
 
     this.classDiagram = classDiagram;
+    this.detached = detached;
   }
 
   @Override
@@ -334,49 +363,57 @@ public class XMLParser extends DefaultHandler {
     }
 
     if (isSimpleEntity) {
+      addAttributes((SimpleEntity) ce, e);
+      addMethods((SimpleEntity) ce, e);
+    } else {
+      addEnumValues((EnumEntity) ce, e);
+    }
 
-      SimpleEntity se = (SimpleEntity) ce;
-      for (Variable v : e.attribute) {
-        Attribute a = new Attribute(VariableName.verifyAndAskNewName(v.name), v.type);
-
-        se.addAttribute(a);
-        se.notifyObservers(UpdateMessage.ADD_ATTRIBUTE_NO_EDIT);
-        a.setConstant(v.constant);
-        a.setDefaultValue(v.defaultValue);
-        a.setStatic(v.isStatic);
-        a.setVisibility(v.visibility);
-        a.notifyObservers();
-      }
+    ce.notifyObservers();
+  }
 
-      for (Operation o : e.method) {
-        Method m;
-        if (o.isConstructor) m = new ConstructorMethod(MethodName.verifyAndAskNewName(o.name), o.visibility, se);
-        else
-          m = new Method(MethodName.verifyAndAskNewName(o.name), new Type(TypeName.verifyAndAskNewName(o.returnType)),
-                         o.visibility, se);
-        se.addMethod(m);
-        se.notifyObservers(UpdateMessage.ADD_METHOD_NO_EDIT);
-
-        m.setParametersViewStyle(o.view);
-        m.setStatic(o.isStatic);
-        m.setAbstract(o.isAbstract);
-
-        for (Variable v : o.variable) {
-          classDiagram.components.Variable va = new classDiagram.components.Variable(
-              VariableName.verifyAndAskNewName(v.name), v.type);
-          m.addParameter(va);
-        }
-        m.notifyObservers();
-      }
-    } else {
-      EnumEntity ee = (EnumEntity) ce;
-      for (EnumValue v : e.enums) {
-        ee.addEnumValue(v);
-        ee.notifyObservers(UpdateMessage.ADD_ENUM_NO_EDIT);
+  private void addAttributes(SimpleEntity se, Entity e) throws SyntaxeNameException {
+    for (Variable v : e.attribute) {
+      Attribute a = new Attribute(VariableName.verifyAndAskNewName(v.name), v.type);
+
+      se.addAttribute(a);
+      se.notifyObservers(UpdateMessage.ADD_ATTRIBUTE_NO_EDIT);
+      a.setConstant(v.constant);
+      a.setDefaultValue(v.defaultValue);
+      a.setStatic(v.isStatic);
+      a.setVisibility(v.visibility);
+      a.notifyObservers();
+    }
+  }
+
+  private void addMethods(SimpleEntity se, Entity e) throws SyntaxeNameException {
+    for (Operation o : e.method) {
+      Method m;
+      if (o.isConstructor) m = new ConstructorMethod(MethodName.verifyAndAskNewName(o.name), o.visibility, se);
+      else
+        m = new Method(MethodName.verifyAndAskNewName(o.name),
+                       classDiagram.getTypes().intern(TypeName.verifyAndAskNewName(o.returnType)), o.visibility, se);
+      se.addMethod(m);
+      se.notifyObservers(UpdateMessage.ADD_METHOD_NO_EDIT);
+
+      m.setParametersViewStyle(o.view);
+      m.setStatic(o.isStatic);
+      m.setAbstract(o.isAbstract);
+
+      for (Variable v : o.variable) {
+        classDiagram.components.Variable va = new classDiagram.components.Variable(
+            VariableName.verifyAndAskNewName(v.name), v.type);
+        m.addParameter(va);
       }
+      m.notifyObservers();
     }
+  }
 
-    ce.notifyObservers();
+  private void addEnumValues(EnumEntity ee, Entity e) {
+    for (EnumValue v : e.enums) {
+      ee.addEnumValue(v);
+      ee.notifyObservers(UpdateMessage.ADD_ENUM_NO_EDIT);
+    }
   }
 
   @Override
@@ -414,6 +451,554 @@ public class XMLParser extends DefaultHandler {
     locateComponentBounds();
   }
 
+  /**
+   * Merge the parsed diagram into the class diagram instead of creating it again like {@link #createDiagram()}. The
+   * components are matched by their id and only the difference is applied: components removed from the file are
+   * deleted, new ones are created and modified ones are updated in place. Selection, scroll position of the views and
+   * undo history are kept, and the whole merge can be undone at once.
+   *
+   * Views are matched by their name; views removed from the file are kept. Notes and bend points of relations already
+   * displayed are not merged.
+   *
+   * @return the number of components added, removed or modified
+   */
+  public int mergeDiagram() throws SyntaxeNameException, SAXNotRecognizedException {
+    if (!detached) throw new IllegalStateException("only a detached parser can be merged");
+
+    final DiagramElements elements = umlClassDiagram.diagrameElement;
+    final HashMap<Integer, String> parsedKeys = new HashMap<>();
+
+    for (Entity e : elements.entity)
+      parsedKeys.put(e.id, keyOf(e));
+    for (Association a : elements.association)
+      parsedKeys.put(a.id, keyOf(a));
+    for (Dependency d : elements.dependency)
+      parsedKeys.put(d.id, "DEPENDENCY:" + d.source + "," + d.target);
+    for (Inheritance i : elements.inheritance)
+      parsedKeys.put(i.id, (i.innerClass ? "INNER_CLASS:" : "INHERITANCE:") + i.child + "," + i.parent);
+
+    final boolean isRecord = Change.isRecord();
+    Change.record();
+
+    try {
+      int changes = 0;
+
+      if (!umlClassDiagram.name.equals(classDiagram.getName())) {
+        classDiagram.setName(umlClassDiagram.name);
+        changes++;
+      }
+
+      if (!umlClassDiagram.informations.equals(classDiagram.getInformations())) {
+        classDiagram.setInformation(umlClassDiagram.informations);
+        DiagramPropreties.setDiagramsInformations(umlClassDiagram.informations);
+        changes++;
+      }
+
+      // Components removed from the file, or whose kind or ends have changed: the latter are created again below.
+      for (IDiagramComponent component : classDiagram.getComponents()) {
+        final String key = keyOf(component);
+
+        if (key != null && !key.equals(parsedKeys.get(component.getId()))) {
+          classDiagram.removeComponent(component);
+          changes++;
+        }
+      }
+
+      final HashMap<Integer, IDiagramComponent> existing = new HashMap<>();
+      for (IDiagramComponent component : classDiagram.getComponents())
+        existing.put(component.getId(), component);
+
+      // Modified components.
+      for (Entity e : elements.entity)
+        if (existing.containsKey(e.id) && mergeEntity((classDiagram.components.Entity) existing.get(e.id), e))
+          changes++;
+
+      for (Association a : elements.association)
+        if (existing.containsKey(a.id) &&
+            mergeAssociation((classDiagram.relationships.Association) existing.get(a.id), a))
+          changes++;
+
+      for (Dependency d : elements.dependency) {
+        final IDiagramComponent component = existing.get(d.id);
+
+        if (component != null) {
+          final classDiagram.relationships.Dependency dependency = (classDiagram.relationships.Dependency) component;
+
+          if (!nonNull(dependency.getLabel()).equals(nonNull(d.label))) {
+            dependency.setLabel(d.label);
+            dependency.notifyObservers();
+            changes++;
+          }
+        }
+      }
+
+      // New components. Graphic components are created blocked: their creation is pushed once they are located.
+      elements.entity.removeIf(e -> existing.containsKey(e.id));
+      elements.association.removeIf(a -> existing.containsKey(a.id));
+      elements.dependency.removeIf(d -> existing.containsKey(d.id));
+      elements.inheritance.removeIf(i -> existing.containsKey(i.id));
+
+      changes += elements.entity.size() + elements.association.size() + elements.dependency.size() +
+                 elements.inheritance.size();
+
+      final boolean isBlocked = Change.isBlocked();
+      Change.setBlocked(true);
+      PanelClassDiagram.getInstance().setXmlImportation(true);
+
+      try {
+        bindViews();
+        createMissingComponents();
+      } finally {
+        PanelClassDiagram.getInstance().setXmlImportation(false);
+        Change.setBlocked(isBlocked);
+      }
+
+      final HashMap<Integer, IDiagramComponent> components = new HashMap<>();
+      final LinkedList<IDiagramComponent> created = new LinkedList<>();
+
+      for (IDiagramComponent component : classDiagram.getComponents()) {
+        components.put(component.getId(), component);
+        if (!existing.containsKey(component.getId())) created.add(component);
+      }
+
+      for (UMLView umlView : umlClassDiagram.uMLView)
+        changes += mergeView(umlView, components, new HashSet<>(created));
+
+      // Entities are created before relations: undo deletes the relations first.
+      for (IDiagramComponent component : created)
+        if (component instanceof classDiagram.components.Entity)
+          for (GraphicView graphicView : MultiViewManager.getAllGraphicViews()) {
+            final GraphicComponent g = graphicView.searchAssociedComponent(component);
+
+            if (g instanceof EntityView) {
+              Change.push(new BufferFirstCreation(g));
+              Change.push(new BufferCreation(true, g));
+            }
+          }
+
+      for (IDiagramComponent component : created)
+        if (!(component instanceof classDiagram.components.Entity)) {
+          Change.push(new BufferDeepCreation(false, component));
+          Change.push(new BufferDeepCreation(true, component));
+        }
+
+      return changes;
+    } finally {
+      if (!isRecord) Change.stopRecord();
+    }
+  }
+
+  /**
+   * Bind the parsed views to the existing views. The root view is bound to the root view, the others to the first
+   * existing view with the same name. A view that does not exist yet is created.
+   */
+  private void bindViews() {
+    if (umlClassDiagram.uMLView.isEmpty()) return;
+
+    final LinkedList<GraphicView> graphicViews = new LinkedList<>(MultiViewManager.getAllGraphicViews());
+
+    graphicViews.removeFirst();
+    umlClassDiagram.uMLView.getFirst().graphicView = MultiViewManager.getRootGraphicView();
+
+    for (UMLView umlView : umlClassDiagram.uMLView.subList(1, umlClassDiagram.uMLView.size())) {
+      for (GraphicView graphicView : graphicViews)
+        if (graphicView.getName().equals(umlView.name)) {
+          umlView.graphicView = graphicView;
+          break;
+        }
+
+      if (umlView.graphicView != null) graphicViews.remove(umlView.graphicView);
+      else if (umlView.open) umlView.graphicView = MultiViewManager.addAndOpenNewView(umlView.name);
+      else umlView.graphicView = MultiViewManager.addNewView(umlView.name);
+    }
+  }
+
+  private void createMissingComponents() throws SyntaxeNameException, SAXNotRecognizedException {
+    final Exception[] failure = new Exception[1];
+
+    // Same order than createDiagram().
+    classDiagram.batch(() -> {
+      try {
+        importClassesAndInterfaces();
+        importAssociations();
+        importAssociationClass();
+        importAssociations();
+        importInheritances();
+        importDepedency();
+      } catch (SyntaxeNameException | SAXNotRecognizedException e) {
+        failure[0] = e;
+      }
+    });
+
+    if (failure[0] instanceof SyntaxeNameException) throw (SyntaxeNameException) failure[0];
+    if (failure[0] instanceof SAXNotRecognizedException) throw (SAXNotRecognizedException) failure[0];
+  }
+
+  /**
+   * Apply the content of a parsed view to its graphic view: entities are added to or removed from the view, and
+   * their bounds, colors and display options are updated. Relations just created are located like when opening a
+   * file.
+   *
+   * @return the number of modified graphic components
+   */
+  private int mergeView(UMLView umlView, HashMap<Integer, IDiagramComponent> components,
+                        HashSet<IDiagramComponent> created) {
+    final GraphicView graphicView = umlView.graphicView;
+    final HashMap<IDiagramComponent, EntityView> entitiesView = new HashMap<>();
+    final HashSet<IDiagramComponent> added = new HashSet<>();
+    final boolean isBlocked = Change.isBlocked();
+    int changes = 0;
+
+    for (EntityView entityView : graphicView.getEntitiesView())
+      entitiesView.put(entityView.getAssociatedComponent(), entityView);
+
+    // Entities removed from the view. New entities are added in all views: they are removed silently.
+    for (EntityView entityView : new LinkedList<>(entitiesView.values())) {
+      final IDiagramComponent component = entityView.getAssociatedComponent();
+
+      if (umlView.componentView.containsKey(component.getId())) continue;
+
+      if (created.contains(component)) {
+        Change.setBlocked(true);
+        entityView.lightDelete();
+        Change.setBlocked(isBlocked);
+      } else {
+        entityView.lightDelete();
+        changes++;
+      }
+
+      entitiesView.remove(component);
+    }
+
+    // Existing entities added to the view.
+    PanelClassDiagram.getInstance().setXmlImportation(true);
+    Change.setBlocked(true);
+
+    for (ComponentView cv : umlView.componentView.values()) {
+      final IDiagramComponent component = components.get(cv.componentId);
+
+      if (!(component instanceof classDiagram.components.Entity) || entitiesView.containsKey(component)) continue;
+
+      DiagramChanges.notifyCreation(graphicView, component);
+      final GraphicComponent g = graphicView.searchAssociedComponent(component);
+
+      if (g instanceof EntityView) {
+        entitiesView.put(component, (EntityView) g);
+        added.add(component);
+      }
+    }
+
+    // Relations with an entity added to the view are displayed too.
+    if (!added.isEmpty())
+      for (Relation relation : classDiagram.getRelations())
+        if (isRelatedTo(relation, added)) DiagramChanges.notifyCreation(graphicView, relation);
+
+    PanelClassDiagram.getInstance().setXmlImportation(false);
+    Change.setBlocked(isBlocked);
+
+    for (IDiagramComponent component : added) {
+      final EntityView entityView = entitiesView.get(component);
+
+      Change.push(new BufferCreation(false, entityView));
+      Change.push(new BufferCreation(true, entityView));
+      changes++;
+    }
+
+    // Bounds, colors and display options.
+    for (ComponentView cv : umlView.componentView.values()) {
+      final IDiagramComponent component = components.get(cv.componentId);
+      final EntityView entityView = entitiesView.get(component);
+
+      if (entityView == null) continue;
+
+      final boolean isNew = created.contains(component) || added.contains(component);
+      if (mergeEntityView(entityView, cv, isNew) && !isNew) changes++;
+    }
+
+    // New relations.
+    Change.setBlocked(true);
+
+    for (LineView l : graphicView.getLinesView()) {
+      final IDiagramComponent component = l.getAssociatedXmlElement();
+
+      if (component != null && created.contains(component) && umlView.relationView.containsKey(component.getId()))
+        locateLineView(graphicView, l, umlView.relationView.get(component.getId()));
+    }
+
+    for (graphic.relations.MultiView mv : graphicView.getMultiView()) {
+      final IDiagramComponent component = mv.getAssociatedXmlElement();
+
+      if (component != null && created.contains(component) && umlView.multiView.containsKey(component.getId()))
+        locateMultiView(graphicView, mv, umlView.multiView.get(component.getId()));
+    }
+
+    Change.setBlocked(isBlocked);
+
+    return changes;
+  }
+
+  private boolean mergeEntityView(EntityView entityView, ComponentView cv, boolean isNew) {
+    final Rectangle bounds = entityView.getBounds();
+    final Color color = entityView.getColor();
+    final GraphicView graphicView = entityView.getGraphicView();
+
+    entityView.setBounds(cv.geometry);
+
+    final boolean boundsChanged = !bounds.equals(entityView.getBounds());
+    final boolean colorChanged = color.getRGB() != new Color(cv.color).getRGB();
+
+    if (boundsChanged && !isNew) {
+      Change.push(new BufferBounds(entityView, bounds));
+      Change.push(new BufferBounds(entityView));
+    }
+
+    if (colorChanged) {
+      if (!isNew) Change.push(new BufferColor(entityView, graphicView));
+      entityView.setColor(cv.color);
+      if (!isNew) Change.push(new BufferColor(entityView, graphicView));
+    }
+
+    if (entityView instanceof SimpleEntityView) {
+      final SimpleEntityView simpleEntityView = (SimpleEntityView) entityView;
+      simpleEntityView.setDisplayAttributes(cv.displayAttributes);
+      simpleEntityView.setDisplayMethods(cv.displayMethods);
+      simpleEntityView.setDisplayDefault(cv.displayDefault);
+    } else if (entityView instanceof EnumView) {
+      ((EnumView) entityView).setTypeEnumDisplay(cv.typeEnumDisplay);
+    }
+
+    return boundsChanged || colorChanged;
+  }
+
+  /**
+   * Update the entity with the parsed one. Members are replaced only if they differ.
+   *
+   * @return true if the entity has been modified; false otherwise
+   */
+  private boolean mergeEntity(classDiagram.components.Entity entity, Entity e) throws SyntaxeNameException {
+    boolean changed = false;
+
+    if (!entity.getName().equals(e.name)) changed |= entity.setName(e.name);
+
+    if (entity instanceof EnumEntity) {
+      final EnumEntity enumEntity = (EnumEntity) entity;
+      final LinkedList<String> values = new LinkedList<>(), parsedValues = new LinkedList<>();
+
+      for (EnumValue value : enumEntity.getEnumValues())
+        values.add(value.getValue());
+      for (EnumValue value : e.enums)
+        parsedValues.add(value.getValue());
+
+      if (!values.equals(parsedValues)) {
+        for (EnumValue value : new LinkedList<>(enumEntity.getEnumValues()))
+          enumEntity.removeEnumValue(value);
+
+        enumEntity.notifyObservers();
+        addEnumValues(enumEntity, e);
+        changed = true;
+      }
+    } else {
+      final SimpleEntity simpleEntity = (SimpleEntity) entity;
+      final LinkedList<String> attributes = new LinkedList<>(), parsedAttributes = new LinkedList<>();
+      final LinkedList<String> methods = new LinkedList<>(), parsedMethods = new LinkedList<>();
+
+      for (Attribute a : simpleEntity.getAttributes())
+        attributes.add(signature(a.getVisibility(), a.isStatic(), a.isConstant(), a.getName(), a.getType(),
+                                 a.getDefaultValue()));
+      for (Variable v : e.attribute)
+        parsedAttributes.add(signature(v.visibility, v.isStatic, v.constant, v.name, v.type, v.defaultValue));
+
+      for (Method m : simpleEntity.getMethods())
+        methods.add(signature(m));
+      for (Operation o : e.method)
+        parsedMethods.add(signature(o));
+
+      if (simpleEntity.getVisibility() != e.visibility) {
+        simpleEntity.setVisibility(e.visibility);
+        changed = true;
+      }
+
+      // Methods are removed before changing the abstract state of the entity, and added after.
+      final boolean methodsChanged = !methods.equals(parsedMethods);
+      if (methodsChanged)
+        for (Method m : new LinkedList<>(simpleEntity.getMethods()))
+          simpleEntity.removeMethod(m);
+
+      if (!(entity instanceof InterfaceEntity) && simpleEntity.isAbstract() != e.isAbstract) {
+        simpleEntity.setAbstract(e.isAbstract);
+        changed = true;
+      }
+
+      if (!attributes.equals(parsedAttributes)) {
+        for (Attribute a : new LinkedList<>(simpleEntity.getAttributes()))
+          simpleEntity.removeAttribute(a);
+
+        simpleEntity.notifyObservers();
+        addAttributes(simpleEntity, e);
+        changed = true;
+      }
+
+      if (methodsChanged) {
+        addMethods(simpleEntity, e);
+        changed = true;
+      }
+    }
+
+    if (changed) entity.notifyObservers();
+
+    return changed;
+  }
+
+  /**
+   * Update the roles, the name and the direction of the association with the parsed one.
+   *
+   * @return true if the association has been modified; false otherwise
+   */
+  private boolean mergeAssociation(classDiagram.relationships.Association association, Association a) {
+    final LinkedList<classDiagram.relationships.Role> roles = association.getRoles();
+    boolean changed = false;
+
+    for (int i = 0; i < roles.size() && i < a.role.size(); i++) {
+      final classDiagram.relationships.Role role = roles.get(i);
+      final Role parsed = a.role.get(i);
+      final Multiplicity m = role.getMultiplicity();
+      final Multiplicity parsedMultiplicity = parsed.multiplicity == null ? m : parsed.multiplicity;
+
+      if (nonNull(role.getName()).equals(nonNull(parsed.name)) && role.getVisibility() == parsed.visibility &&
+          m.getLowerBound() == parsedMultiplicity.getLowerBound() &&
+          m.getUpperBound() == parsedMultiplicity.getUpperBound())
+        continue;
+
+      Change.push(new BufferRole(role, role.getName(), role.getVisibility().name(), m.getLowerBound(),
+                                 m.getUpperBound()));
+      role.setName(parsed.name);
+      role.setVisibility(parsed.visibility);
+      role.setMultiplicity(parsed.multiplicity);
+      Change.push(new BufferRole(role, role.getName(), role.getVisibility().name(), m.getLowerBound(),
+                                 m.getUpperBound()));
+
+      role.notifyObservers();
+      role.getMultiplicity().notifyObservers();
+      changed = true;
+    }
+
+    if (!nonNull(association.getName()).equals(nonNull(a.name))) {
+      association.setName(a.name);
+      changed = true;
+    }
+
+    if (association.getDirected() != a.direction) {
+      association.setDirected(a.direction);
+      changed = true;
+    }
+
+    if (changed) association.notifyObservers();
+
+    return changed;
+  }
+
+  private static boolean isRelatedTo(Relation relation, Set<IDiagramComponent> entities) {
+    if (relation instanceof classDiagram.relationships.Association) {
+      for (classDiagram.relationships.Role role : ((classDiagram.relationships.Association) relation).getRoles())
+        if (entities.contains(role.getEntity())) return true;
+      return false;
+    }
+
+    return entities.contains(relation.getSource()) || entities.contains(relation.getTarget());
+  }
+
+  /**
+   * Get a key identifying the kind and the ends of a component. A component whose key changes in the file is created
+   * again.
+   */
+  private static String keyOf(IDiagramComponent component) {
+    if (component instanceof AssociationClass)
+      return EntityType.ASSOCIATION_CLASS + ":" + ((AssociationClass) component).getAssociation().getId();
+    if (component instanceof ClassEntity) return EntityType.CLASS.name();
+    if (component instanceof InterfaceEntity) return EntityType.INTERFACE.name();
+    if (component instanceof EnumEntity) return EntityType.ENUM.name();
+
+    if (component instanceof classDiagram.relationships.Association) {
+      final Aggregation aggregation;
+
+      if (component instanceof classDiagram.relationships.Aggregation) aggregation = Aggregation.AGGREGATE;
+      else if (component instanceof Composition) aggregation = Aggregation.COMPOSE;
+      else if (component instanceof Multi) aggregation = Aggregation.MULTI;
+      else aggregation = Aggregation.NONE;
+
+      final StringBuilder key = new StringBuilder(aggregation.name()).append(':');
+      for (classDiagram.relationships.Role role : ((classDiagram.relationships.Association) component).getRoles())
+        key.append(role.getEntity().getId()).append(',');
+      return key.toString();
+    }
+
+    if (component instanceof classDiagram.relationships.Dependency) {
+      final Relation relation = (Relation) component;
+      return "DEPENDENCY:" + relation.getSource().getId() + "," + relation.getTarget().getId();
+    }
+
+    if (component instanceof classDiagram.relationships.Inheritance ||
+        component instanceof classDiagram.relationships.InnerClass) {
+      final IParentChild relation = (IParentChild) component;
+      return (component instanceof classDiagram.relationships.InnerClass ? "INNER_CLASS:" : "INHERITANCE:") +
+             relation.getChild().getId() + "," + relation.getParent().getId();
+    }
+
+    return null;
+  }
+
+  private static String keyOf(Entity e) {
+    if (e.entityType == EntityType.ASSOCIATION_CLASS) return e.entityType + ":" + e.associationClassID;
+    return e.entityType.name();
+  }
+
+  private static String keyOf(Association a) {
+    final StringBuilder key = new StringBuilder(a.aggregation.name()).append(':');
+    for (Role role : a.role)
+      key.append(role.componentId).append(',');
+    return key.toString();
+  }
+
+  private static String signature(Visibility visibility, boolean isStatic, boolean isConstant, String name, Type type,
+                                  String defaultValue) {
+    return visibility + " " + isStatic + " " + isConstant + " " + name + ":" + (type == null ? "" : type.getName()) +
+           "=" + nonNull(defaultValue);
+  }
+
+  private static String signature(Method m) {
+    final StringBuilder signature = new StringBuilder();
+
+    signature.append(m.getVisibility()).append(' ').append(m.isStatic()).append(' ').append(m.isAbstract())
+             .append(' ').append(m.getParametersViewStyle()).append(' ').append(m.getName()).append('(');
+
+    for (classDiagram.components.Variable v : m.getParameters())
+      signature.append(v.getName()).append(':').append(v.getType().getName()).append(',');
+
+    signature.append(')');
+    if (!(m instanceof ConstructorMethod)) signature.append(':').append(m.getReturnType().getName());
+
+    return signature.toString();
+  }
+
+  private static String signature(Operation o) {
+    final StringBuilder signature = new StringBuilder();
+
+    signature.append(o.visibility).append(' ').append(o.isStatic).append(' ').append(o.isAbstract)
+             .append(' ').append(o.view).append(' ').append(o.name).append('(');
+
+    for (Variable v : o.variable)
+      signature.append(v.name).append(':').append(v.type == null ? "" : v.type.getName()).append(',');
+
+    signature.append(')');
+    if (!o.isConstructor) signature.append(':').append(o.returnType);
+
+    return signature.toString();
+  }
+
+  private static String nonNull(String text) {
+    return text == null ? "" : text;
+  }
+
   @Override
   public void endElement(String uri, String localName, String qName) throws SAXException {
     switch (qName) {
@@ -762,52 +1347,7 @@ public class XMLParser extends DefaultHandler {
 
         if (component != null) {
           final RelationView rl = umlView.relationView.get(component.getId());
-          if (rl == null) continue;
-
-          LinkedList<Point> points = rl.line;
-
-          for (int i = 1; i < points.size() - 1; i++) {
-            final RelationGrip rg = new RelationGrip(graphicView, l);
-            rg.setAnchor(points.get(i));
-            rg.notifyObservers();
-            l.addGrip(rg, i);
-          }
-
-          RelationGrip first = l.getFirstPoint(), last = l.getLastPoint();
-
-          first.setAnchor(points.getFirst());
-          last.setAnchor(points.getLast());
-
-          first.notifyObservers();
-          last.notifyObservers();
-
-          l.setColor(rl.color);
-          final LinkedList<TextBox> tb = l.getTextBoxRole();
-
-          SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-              if (tb.size() >= 1) {
-                ((TextBoxLabel) tb.getFirst()).computeDeplacement(
-                    new Point(rl.labelAssociation.x, rl.labelAssociation.y));
-
-                if (tb.size() >= 3) {
-                  ((TextBoxLabel) tb.get(1)).computeDeplacement(
-                      new Point(rl.roleAssociations.get(0).x, rl.roleAssociations.get(0).y));
-                  ((TextBoxLabel) tb.get(2)).computeDeplacement(
-                      new Point(rl.roleAssociations.get(1).x, rl.roleAssociations.get(1).y));
-
-                  ((TextBoxRole) tb.get(1)).getTextBoxMultiplicity()
-                                           .computeDeplacement(new Point(rl.multipliciteAssociations.get(0).x,
-                                                                         rl.multipliciteAssociations.get(0).y));
-                  ((TextBoxRole) tb.get(2)).getTextBoxMultiplicity()
-                                           .computeDeplacement(new Point(rl.multipliciteAssociations.get(1).x,
-                                                                         rl.multipliciteAssociations.get(1).y));
-                }
-              }
-            }
-          });
-
+          if (rl != null) locateLineView(graphicView, l, rl);
         }
       }
 
@@ -815,59 +1355,105 @@ public class XMLParser extends DefaultHandler {
       for (final graphic.relations.MultiView mv : graphicView.getMultiView()) {
         final IDiagramComponent component = mv.getAssociatedXmlElement();
 
-        if (component != null) {
-          final MultiView xmlMV = umlView.multiView.get(component.getId());
-
-          final LinkedList<MultiLineView> multiLinesView = mv.getMultiLinesView();
+        if (component != null) locateMultiView(graphicView, mv, umlView.multiView.get(component.getId()));
+      }
+    }
 
-          mv.setBounds(xmlMV.multiViewBounds);
+    importNotes();
+  }
 
-          for (int j = 0; j < multiLinesView.size(); j++) {
-            final RelationView rl = xmlMV.multiLineView.get(j);
-            final LinkedList<Point> points = rl.line;
-            final MultiLineView mlv = multiLinesView.get(j);
+  private void locateLineView(GraphicView graphicView, LineView l, final RelationView rl) {
+    LinkedList<Point> points = rl.line;
 
-            for (int i = 1; i < points.size() - 1; i++) {
-              final RelationGrip rg = new RelationGrip(graphicView, mlv);
-              rg.setAnchor(points.get(i));
-              rg.notifyObservers();
-              mlv.addGrip(rg, i);
-            }
+    for (int i = 1; i < points.size() - 1; i++) {
+      final RelationGrip rg = new RelationGrip(graphicView, l);
+      rg.setAnchor(points.get(i));
+      rg.notifyObservers();
+      l.addGrip(rg, i);
+    }
 
-            RelationGrip first = mlv.getFirstPoint(), last = mlv.getLastPoint();
+    RelationGrip first = l.getFirstPoint(), last = l.getLastPoint();
 
-            first.setAnchor(points.getFirst());
-            last.setAnchor(points.getLast());
+    first.setAnchor(points.getFirst());
+    last.setAnchor(points.getLast());
 
-            first.notifyObservers();
-            last.notifyObservers();
+    first.notifyObservers();
+    last.notifyObservers();
 
-            // Role
-            final LinkedList<TextBox> tb = mlv.getTextBoxRole();
+    l.setColor(rl.color);
+    final LinkedList<TextBox> tb = l.getTextBoxRole();
 
-            SwingUtilities.invokeLater(new Runnable() {
+    SwingUtilities.invokeLater(new Runnable() {
+      @Override
+      public void run() {
+        if (tb.size() >= 1) {
+          ((TextBoxLabel) tb.getFirst()).computeDeplacement(
+              new Point(rl.labelAssociation.x, rl.labelAssociation.y));
 
-              @Override
-              public void run() {
-                if (tb.size() == 1) {
-                  ((TextBoxLabel) tb.getFirst()).computeDeplacement(
-                      new Point(rl.roleAssociations.get(0).x, rl.roleAssociations.get(0).y));
+          if (tb.size() >= 3) {
+            ((TextBoxLabel) tb.get(1)).computeDeplacement(
+                new Point(rl.roleAssociations.get(0).x, rl.roleAssociations.get(0).y));
+            ((TextBoxLabel) tb.get(2)).computeDeplacement(
+                new Point(rl.roleAssociations.get(1).x, rl.roleAssociations.get(1).y));
 
-                  ((TextBoxRole) tb.getFirst()).getTextBoxMultiplicity()
-                                               .computeDeplacement(new Point(rl.multipliciteAssociations.get(0).x,
-                                                                             rl.multipliciteAssociations.get(0).y));
-                }
-              }
-            });
+            ((TextBoxRole) tb.get(1)).getTextBoxMultiplicity()
+                                     .computeDeplacement(new Point(rl.multipliciteAssociations.get(0).x,
+                                                                   rl.multipliciteAssociations.get(0).y));
+            ((TextBoxRole) tb.get(2)).getTextBoxMultiplicity()
+                                     .computeDeplacement(new Point(rl.multipliciteAssociations.get(1).x,
+                                                                   rl.multipliciteAssociations.get(1).y));
           }
-
-          mv.setColor(xmlMV.color);
-          mv.setBounds(xmlMV.multiViewBounds);
         }
       }
+    });
+  }
+
+  private void locateMultiView(GraphicView graphicView, graphic.relations.MultiView mv, MultiView xmlMV) {
+    final LinkedList<MultiLineView> multiLinesView = mv.getMultiLinesView();
+
+    mv.setBounds(xmlMV.multiViewBounds);
+
+    for (int j = 0; j < multiLinesView.size(); j++) {
+      final RelationView rl = xmlMV.multiLineView.get(j);
+      final LinkedList<Point> points = rl.line;
+      final MultiLineView mlv = multiLinesView.get(j);
+
+      for (int i = 1; i < points.size() - 1; i++) {
+        final RelationGrip rg = new RelationGrip(graphicView, mlv);
+        rg.setAnchor(points.get(i));
+        rg.notifyObservers();
+        mlv.addGrip(rg, i);
+      }
+
+      RelationGrip first = mlv.getFirstPoint(), last = mlv.getLastPoint();
+
+      first.setAnchor(points.getFirst());
+      last.setAnchor(points.getLast());
+
+      first.notifyObservers();
+      last.notifyObservers();
+
+      // Role
+      final LinkedList<TextBox> tb = mlv.getTextBoxRole();
+
+      SwingUtilities.invokeLater(new Runnable() {
+
+        @Override
+        public void run() {
+          if (tb.size() == 1) {
+            ((TextBoxLabel) tb.getFirst()).computeDeplacement(
+                new Point(rl.roleAssociations.get(0).x, rl.roleAssociations.get(0).y));
+
+            ((TextBoxRole) tb.getFirst()).getTextBoxMultiplicity()
+                                         .computeDeplacement(new Point(rl.multipliciteAssociations.get(0).x,
+                                                                       rl.multipliciteAssociations.get(0).y));
+          }
+        }
+      });
     }
 
-    importNotes();
+    mv.setColor(xmlMV.color);
+    mv.setBounds(xmlMV.multiViewBounds);
   }
 
   @Override
@@ -947,7 +1533,7 @@ public class XMLParser extends DefaultHandler {
         try {
           final Variable variable = new Variable();
           variable.name = attributes.getValue("name");
-          variable.type = new Type(TypeName.verifyAndAskNewName(attributes.getValue("type")));
+          variable.type = classDiagram.getTypes().intern(TypeName.verifyAndAskNewName(attributes.getValue("type")));
           variable.constant = Boolean.parseBoolean(attributes.getValue("const"));
 
           currentMethod.variable.add(variable);
@@ -959,7 +1545,7 @@ public class XMLParser extends DefaultHandler {
         try {
           final Variable variable = new Variable();
           variable.name = attributes.getValue("name");
-          variable.type = new Type(TypeName.verifyAndAskNewName(attributes.getValue("type")));
+          variable.type = classDiagram.getTypes().intern(TypeName.verifyAndAskNewName(attributes.getValue("type")));
           variable.constant = Boolean.parseBoolean(attributes.getValue("const"));
           variable.visibility = Visibility.valueOf(attributes.getValue("visibility"));
           variable.defaultValue = attributes.getValue("defaultValue");
@@ -7,7 +7,6 @@ import utility.PersonalizedIcon;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
-import javax.swing.tree.DefaultTreeModel;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.Observable;
@@ -22,9 +21,9 @@ public abstract class AbstractNode
 
   protected JPopupMenu popupMenu;
   protected STree tree;
-  protected DefaultTreeModel treeModel;
+  protected HierarchicalTreeModel treeModel;
 
-  public AbstractNode(Object userObject, DefaultTreeModel treeModel, STree tree) {
+  public AbstractNode(Object userObject, HierarchicalTreeModel treeModel, STree tree) {
     super(userObject);
     this.treeModel = treeModel;
     this.tree = tree;
@@ -51,9 +50,8 @@ public abstract class AbstractNode
   public void setUserObject(Object userObject) {
     super.setUserObject(userObject);
 
-    if (getParent() != null)
-      HierarchicalView.sortAlphabetically(
-          (DefaultMutableTreeNode) getParent(), treeModel, tree);
+    // Null while the node is constructed.
+    if (treeModel != null) treeModel.nodeRenamed(this);
   }
 
   @Override
@@ -0,0 +1,320 @@
+package swing.hierarchicalView;
+
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.MutableTreeNode;
+import javax.swing.tree.TreeNode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tree model of the hierarchical view. Children of the nodes are kept in alphabetical order (ignoring case): a new node
+ * is inserted at its position found by binary search, and a renamed node is moved to its new position. Only the
+ * inserted, removed or changed nodes are notified to the tree, subtrees are never reloaded.
+ *
+ * During a bulk update (see {@link #beginBulkUpdate()}), the nodes are modified without notifying the tree. The
+ * children of each modified parent are compared with the ones known by the tree when the bulk update ends, and at most
+ * one removal and one insertion event are sent per parent.
+ */
+public class HierarchicalTreeModel extends DefaultTreeModel {
+  private static final long serialVersionUID = 4632812750915624387L;
+
+  /**
+   * Compare two nodes by their name, like they are displayed in the tree.
+   */
+  public static int compare(TreeNode node1, TreeNode node2) {
+    return node1.toString().compareToIgnoreCase(node2.toString());
+  }
+
+  /**
+   * Get the index where the given node must be inserted for keeping the children of the parent sorted. The node is
+   * inserted after the nodes having the same name.
+   *
+   * @param parent the parent node, with sorted children
+   * @param node the node to insert
+   *
+   * @return the index of insertion
+   */
+  public static int sortedIndex(TreeNode parent, TreeNode node) {
+    int low = 0, high = parent.getChildCount();
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+
+      if (compare(parent.getChildAt(middle), node) <= 0) low = middle + 1;
+      else high = middle;
+    }
+
+    return low;
+  }
+
+  /**
+   * Children of a parent modified during a bulk update, as they are known by the tree.
+   */
+  private static class PendingParent {
+    final List<TreeNode> children = new ArrayList<>();
+    final Set<TreeNode> known = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Known children changed or moved: they are removed and inserted again at the end of the bulk update.
+    final Set<TreeNode> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    PendingParent(TreeNode parent) {
+      for (int i = 0; i < parent.getChildCount(); i++)
+        children.add(parent.getChildAt(i));
+      known.addAll(children);
+    }
+
+    boolean isKnown(TreeNode child) {
+      return known.contains(child) && !touched.contains(child);
+    }
+  }
+
+  private int bulkDepth = 0;
+  private final Map<TreeNode, PendingParent> pendingParents = new LinkedHashMap<>();
+
+  public HierarchicalTreeModel(TreeNode root) {
+    super(root);
+  }
+
+  /**
+   * Start a bulk update. Bulk updates can be nested, the tree is notified at the end of the outermost one.
+   */
+  public void beginBulkUpdate() {
+    bulkDepth++;
+  }
+
+  /**
+   * End a bulk update and notify the tree of the changes made since its beginning.
+   */
+  public void endBulkUpdate() {
+    if (bulkDepth == 0) throw new IllegalStateException("no bulk update running");
+
+    if (--bulkDepth == 0) flush();
+  }
+
+  public boolean isBulkUpdating() {
+    return bulkDepth > 0;
+  }
+
+  /**
+   * Insert the node in the parent at its sorted position.
+   *
+   * @param node the node to insert
+   * @param parent the parent node
+   */
+  public void insertSorted(MutableTreeNode node, MutableTreeNode parent) {
+    insertNodeInto(node, parent, sortedIndex(parent, node));
+  }
+
+  /**
+   * Notify that the name of the node has changed. The node is moved to its new sorted position if necessary.
+   *
+   * @param node the renamed node
+   */
+  public void nodeRenamed(MutableTreeNode node) {
+    MutableTreeNode parent = (MutableTreeNode) node.getParent();
+
+    if (parent == null) {
+      nodeChanged(node);
+      return;
+    }
+
+    int index = parent.getIndex(node);
+    boolean isSorted = (index == 0 || compare(parent.getChildAt(index - 1), node) <= 0) &&
+                       (index == parent.getChildCount() - 1 || compare(node, parent.getChildAt(index + 1)) <= 0);
+
+    if (isSorted) {
+      nodeChanged(node);
+      return;
+    }
+
+    // Move the node without calling removeNodeFromParent(): the node is not removed from the diagram.
+    parent.remove(index);
+    nodesWereRemoved(parent, new int[] {index}, new Object[] {node});
+
+    int newIndex = sortedIndex(parent, node);
+    parent.insert(node, newIndex);
+    nodesWereInserted(parent, new int[] {newIndex});
+  }
+
+  @Override
+  public void insertNodeInto(MutableTreeNode newChild, MutableTreeNode parent, int index) {
+    if (!isBulkUpdating()) {
+      super.insertNodeInto(newChild, parent, index);
+      return;
+    }
+
+    setPending(parent);
+    parent.insert(newChild, index);
+  }
+
+  @Override
+  public void removeNodeFromParent(MutableTreeNode node) {
+    if (node instanceof IClassDiagramNode)
+      ((IClassDiagramNode) node).remove();
+
+    if (!isBulkUpdating()) {
+      super.removeNodeFromParent(node);
+      return;
+    }
+
+    MutableTreeNode parent = (MutableTreeNode) node.getParent();
+    if (parent == null) throw new IllegalArgumentException("node does not have a parent.");
+
+    setPending(parent);
+    forgetPendingIn(node);
+    parent.remove(node);
+  }
+
+  @Override
+  public void nodesChanged(TreeNode node, int[] childIndices) {
+    if (!isBulkUpdating()) {
+      super.nodesChanged(node, childIndices);
+      return;
+    }
+
+    if (isUnknown(node)) return;
+
+    PendingParent pending = pendingParents.get(node);
+    if (pending == null) {
+      super.nodesChanged(node, childIndices);
+      return;
+    }
+
+    // The indices of the tree are not valid anymore.
+    if (childIndices != null)
+      for (int index : childIndices)
+        if (pending.known.contains(node.getChildAt(index))) pending.touched.add(node.getChildAt(index));
+  }
+
+  @Override
+  public void nodesWereInserted(TreeNode node, int[] childIndices) {
+    if (!isBulkUpdating()) {
+      super.nodesWereInserted(node, childIndices);
+      return;
+    }
+
+    // New children of a pending parent are found at the end of the bulk update.
+    if (!isUnknown(node) && !pendingParents.containsKey(node)) super.nodesWereInserted(node, childIndices);
+  }
+
+  @Override
+  public void nodesWereRemoved(TreeNode node, int[] childIndices, Object[] removedChildren) {
+    if (!isBulkUpdating()) {
+      super.nodesWereRemoved(node, childIndices, removedChildren);
+      return;
+    }
+
+    if (isUnknown(node)) return;
+
+    PendingParent pending = pendingParents.get(node);
+    if (pending == null) {
+      super.nodesWereRemoved(node, childIndices, removedChildren);
+      return;
+    }
+
+    // A known child removed then inserted again, like a renamed node, is moved at the end of the bulk update.
+    for (Object child : removedChildren)
+      if (pending.known.contains(child)) pending.touched.add((TreeNode) child);
+  }
+
+  @Override
+  public void nodeStructureChanged(TreeNode node) {
+    if (isBulkUpdating()) {
+      if (isUnknown(node)) return;
+
+      // The tree reads the whole subtree again, the pending changes it contains are included.
+      forgetPendingIn(node);
+    }
+
+    super.nodeStructureChanged(node);
+  }
+
+  /**
+   * Remember the children of the parent known by the tree, if it is the first modification of the parent during the
+   * bulk update.
+   */
+  private void setPending(TreeNode parent) {
+    if (!isUnknown(parent) && !pendingParents.containsKey(parent))
+      pendingParents.put(parent, new PendingParent(parent));
+  }
+
+  /**
+   * Forget the pending changes of the node and its descendants.
+   */
+  private void forgetPendingIn(TreeNode node) {
+    for (Iterator<TreeNode> it = pendingParents.keySet().iterator(); it.hasNext(); ) {
+      TreeNode parent = it.next();
+
+      for (TreeNode ancestor = parent; ancestor != null; ancestor = ancestor.getParent())
+        if (ancestor == node) {
+          it.remove();
+          break;
+        }
+    }
+  }
+
+  /**
+   * Get if the node, or one of its ancestors, has been inserted or changed since the beginning of the bulk update. Such
+   * a node is not known by the tree yet and no event must be sent about it.
+   */
+  private boolean isUnknown(TreeNode node) {
+    for (TreeNode parent = node.getParent(); parent != null; node = parent, parent = parent.getParent()) {
+      PendingParent pending = pendingParents.get(parent);
+      if (pending != null && !pending.isKnown(node)) return true;
+    }
+
+    // A node detached from the tree is unknown too.
+    return node != getRoot();
+  }
+
+  private void flush() {
+    List<Map.Entry<TreeNode, PendingParent>> entries = new ArrayList<>();
+
+    // Inserted and touched nodes are read entirely by the tree, the changes made in their subtree are included.
+    for (Map.Entry<TreeNode, PendingParent> entry : pendingParents.entrySet())
+      if (!isUnknown(entry.getKey())) entries.add(entry);
+
+    pendingParents.clear();
+
+    for (Map.Entry<TreeNode, PendingParent> entry : entries) {
+      TreeNode parent = entry.getKey();
+      PendingParent pending = entry.getValue();
+
+      List<Integer> removedIndices = new ArrayList<>();
+      List<Object> removed = new ArrayList<>();
+
+      for (int i = 0; i < pending.children.size(); i++) {
+        TreeNode child = pending.children.get(i);
+
+        if (child.getParent() != parent || pending.touched.contains(child)) {
+          removedIndices.add(i);
+          removed.add(child);
+        }
+      }
+
+      if (!removed.isEmpty())
+        super.nodesWereRemoved(parent, toArray(removedIndices), removed.toArray());
+
+      List<Integer> insertedIndices = new ArrayList<>();
+
+      for (int i = 0; i < parent.getChildCount(); i++)
+        if (!pending.isKnown(parent.getChildAt(i))) insertedIndices.add(i);
+
+      if (!insertedIndices.isEmpty())
+        super.nodesWereInserted(parent, toArray(insertedIndices));
+    }
+  }
+
+  private static int[] toArray(List<Integer> list) {
+    int[] array = new int[list.size()];
+    for (int i = 0; i < array.length; i++)
+      array[i] = list.get(i);
+    return array;
+  }
+}
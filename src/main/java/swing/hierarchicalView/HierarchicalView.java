@@ -1,6 +1,7 @@
 package swing.hierarchicalView;
 
 import classDiagram.ClassDiagram;
+import classDiagram.DiagramChanges;
 import classDiagram.IComponentsObserver;
 import classDiagram.IDiagramComponent;
 import classDiagram.IDiagramComponent.UpdateMessage;
@@ -26,11 +27,12 @@ import swing.slyumCustomizedComponents.SScrollPane;
 import utility.PersonalizedIcon;
 
 import javax.swing.*;
+import javax.swing.event.TreeExpansionEvent;
 import javax.swing.event.TreeSelectionEvent;
 import javax.swing.event.TreeSelectionListener;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
-import javax.swing.tree.MutableTreeNode;
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
@@ -45,8 +47,10 @@ import java.awt.event.KeyListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
 
@@ -79,65 +83,16 @@ public class HierarchicalView
       if (child.getAssociedComponent().equals(o))
         return child;
 
-      if (!root.getChildAt(i).isLeaf())
-        searchAssociedNodeIn(o, root.getChildAt(i));
-    }
-
-    return null;
-  }
-
-  public static void sortAlphabetically(DefaultMutableTreeNode parent, DefaultTreeModel treeModel, STree tree) {
-    int count = parent.getChildCount();
-
-    tree.stopFireEvent = true;
-    treeModel.reload(parent);
-    tree.stopFireEvent = false;
-
-    if (count >= 2) {
-      // Sort childs.
-      for (int i = 0; i < count; ++i) {
-        DefaultMutableTreeNode child = (DefaultMutableTreeNode) parent.getChildAt(i);
-        if (!child.isLeaf())
-          sortAlphabetically(child, treeModel, tree);
+      if (!root.getChildAt(i).isLeaf()) {
+        IClassDiagramNode result = searchAssociedNodeIn(o, root.getChildAt(i));
+        if (result != null) return result;
       }
-
-      quickSort(parent, 0, count - 1);
     }
 
-    tree.stopFireEvent = true;
-    treeModel.reload(parent);
-    tree.stopFireEvent = false;
+    return null;
   }
 
-  private static void quickSort(DefaultMutableTreeNode node, int low, int high) {
-    int i = low, j = high;
-    String pivot = ((DefaultMutableTreeNode) node.getChildAt(low + (high - low) / 2))
-        .getUserObject().toString();
-    while (i <= j) {
-
-      while (((DefaultMutableTreeNode) node.getChildAt(i)).getUserObject().toString().compareToIgnoreCase(pivot) < 0)
-        ++i;
-      while (((DefaultMutableTreeNode) node.getChildAt(j)).getUserObject().toString().compareToIgnoreCase(pivot) > 0)
-        --j;
-
-      // Exchange
-      if (i <= j) {
-        DefaultMutableTreeNode
-            nodeI = (DefaultMutableTreeNode) node.getChildAt(i),
-            nodeJ = (DefaultMutableTreeNode) node.getChildAt(j);
-
-        node.insert(nodeI, j);
-        node.insert(nodeJ, i);
-        ++i;
-        --j;
-      }
-    }
-    // Recursivity
-    if (low < j)
-      quickSort(node, low, j);
-    if (i < high)
-      quickSort(node, i, high);
-  }
+  private static final int SEARCH_DELAY = 150;
 
   private final DefaultMutableTreeNode
       associationsNode,
@@ -146,10 +101,12 @@ public class HierarchicalView
       inheritancesNode;
 
   private final STree tree;
-  private final DefaultTreeModel treeModel;
+  private final HierarchicalTreeModel treeModel;
   private JTextField txtFieldClassDiagramName;
   private final DefaultMutableTreeNode viewsNode;
   private JTextField txtFieldSearch;
+  private final ClassDiagram classDiagram;
+  private final Map<IDiagramComponent, IClassDiagramNode> nodes = new HashMap<>();
 
   /**
    * Create a new hierarchical view of the specified class diagram. The new view is empty, if class diagram had already
@@ -158,6 +115,7 @@ public class HierarchicalView
    * @param classDiagram the class diagram for constructing the hierarchical view.
    */
   public HierarchicalView(ClassDiagram classDiagram) {
+    this.classDiagram = classDiagram;
     setLayout(new BoxLayout(this, BoxLayout.PAGE_AXIS));
     setBackground(null);
     setForeground(Color.GRAY);
@@ -248,19 +206,25 @@ public class HierarchicalView
       }
     };
 
+    // The search starts once the user stops typing.
+    final Timer searchTimer = new Timer(SEARCH_DELAY, e -> SearchEngine.search(
+        txtFieldSearch.getText(), MultiViewManager.getSelectedGraphicView(), result -> {
+          GraphicComponent.removeHighlightForAllComponents();
+
+          if (result != null) {
+            result.setHighlight(true);
+            Slyum.enableSearchButtons(true);
+          } else {
+            Slyum.enableSearchButtons(false);
+          }
+        }));
+    searchTimer.setRepeats(false);
+
     txtFieldSearch.addKeyListener(new KeyAdapter() {
 
       @Override
       public void keyReleased(KeyEvent e) {
-        GraphicComponent result = SearchEngine.initialize(txtFieldSearch.getText());
-        GraphicComponent.removeHighlightForAllComponents();
-
-        if (result != null) {
-          result.setHighlight(true);
-          Slyum.enableSearchButtons(true);
-        } else {
-          Slyum.enableSearchButtons(false);
-        }
+        searchTimer.restart();
       }
 
     });
@@ -294,16 +258,24 @@ public class HierarchicalView
     dependenciesNode = new DefaultMutableTreeNode("Dependencies");
     root.add(dependenciesNode);
 
-    treeModel = new DefaultTreeModel(root) {
+    treeModel = new HierarchicalTreeModel(root);
+    tree = new STree(treeModel);
+
+    // Rows are all of the same height: the tree only lays out the visible ones.
+    tree.setLargeModel(true);
+    tree.setRowHeight(Math.max(18, tree.getFontMetrics(tree.getFont()).getHeight() + 4));
+    tree.addTreeWillExpandListener(new TreeWillExpandListener() {
       @Override
-      public void removeNodeFromParent(MutableTreeNode node) {
-        if (node instanceof IClassDiagramNode)
-          ((IClassDiagramNode) node).remove();
-        super.removeNodeFromParent(node);
+      public void treeWillExpand(TreeExpansionEvent event) {
+        Object node = event.getPath().getLastPathComponent();
+        if (node instanceof NodeEntity) ((NodeEntity) node).loadChildsNodes();
       }
-    };
-    tree = new STree(treeModel);
-    tree.setDragEnabled(true);
+
+      @Override
+      public void treeWillCollapse(TreeExpansionEvent event) {
+      }
+    });
+    tree.setDragEnabled(!GraphicsEnvironment.isHeadless());
     tree.setTransferHandler(new TransferHandler() {
 
       @Override
@@ -411,15 +383,15 @@ public class HierarchicalView
    * @param parent the parent of the new node
    */
   public void addNode(DefaultMutableTreeNode leaf, DefaultMutableTreeNode parent) {
-    parent.insert(leaf, 0);
-    sortAlphabetically(parent, treeModel, tree);
+    if (leaf instanceof IClassDiagramNode)
+      nodes.put(((IClassDiagramNode) leaf).getAssociedComponent(), (IClassDiagramNode) leaf);
+
+    treeModel.insertSorted(leaf, parent);
   }
 
   public void addView(GraphicView graphicView) {
-    viewsNode.insert(
-        new NodeView(graphicView, treeModel),
-        getLastIndex(viewsNode));
-    treeModel.reload(viewsNode);
+    treeModel.insertNodeInto(
+        new NodeView(graphicView, treeModel), viewsNode, viewsNode.getChildCount());
   }
 
   public void setDiagramName(String name) {
@@ -575,15 +547,30 @@ public class HierarchicalView
     addMulti(component);
   }
 
+  @Override
+  public void notifyBatchUpdate(DiagramChanges changes) {
+    // The bulk update may have been started by a removal during the batch.
+    if (!treeModel.isBulkUpdating()) treeModel.beginBulkUpdate();
+
+    try {
+      changes.dispatch(this);
+    } finally {
+      treeModel.endBulkUpdate();
+    }
+  }
+
   @Override
   public void notifyRemoveComponent(IDiagramComponent component) {
     removeComponent(component);
   }
 
   public void removeComponent(IDiagramComponent component) {
-    final IClassDiagramNode associedNode = searchAssociedNode(component);
+    final IClassDiagramNode associedNode = nodes.remove(component);
 
     if (associedNode != null) {
+      // Removals are notified immediately during a batch, the tree is updated at its end.
+      if (classDiagram.isBatching() && !treeModel.isBulkUpdating()) treeModel.beginBulkUpdate();
+
       treeModel.removeNodeFromParent((DefaultMutableTreeNode) associedNode);
       component.deleteObserver((Observer) associedNode);
     }
@@ -607,23 +594,14 @@ public class HierarchicalView
   }
 
   /**
-   * Search in the entire structure of JTree the node associated with the given UML object. Return null if no associated
-   * object are found.
+   * Get the node associated with the given UML object. Return null if no associated object are found.
    *
    * @param o the object associated with a node
    *
    * @return the node associated with the object; or null if no node are found
    */
   public IClassDiagramNode searchAssociedNode(Object o) {
-    IClassDiagramNode result = searchAssociedNodeIn(o, entitiesNode);
-
-    if (result == null) result = searchAssociedNodeIn(o, associationsNode);
-
-    if (result == null) result = searchAssociedNodeIn(o, inheritancesNode);
-
-    if (result == null) result = searchAssociedNodeIn(o, dependenciesNode);
-
-    return result;
+    return nodes.get(o);
   }
 
   public NodeView searchNodeViewAssociedWith(GraphicView graphicView) {
@@ -687,10 +665,6 @@ public class HierarchicalView
     }
   }
 
-  private int getLastIndex(DefaultMutableTreeNode node) {
-    return node.getLeafCount() + (node.isLeaf() ? -1 : 0);
-  }
-
   public static class STree extends JTree {
     private boolean stopFireEvent;
 
@@ -8,7 +8,6 @@ import swing.PanelClassDiagram;
 import swing.hierarchicalView.HierarchicalView.STree;
 
 import javax.swing.*;
-import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
 import java.util.LinkedList;
 import java.util.Observable;
@@ -57,7 +56,7 @@ public class NodeAssociation extends AbstractNode {
    * @param tree the JTree
    */
   public NodeAssociation(
-      Association association, DefaultTreeModel treeModel, ImageIcon icon, STree tree) {
+      Association association, HierarchicalTreeModel treeModel, ImageIcon icon, STree tree) {
     super(generateName(association), treeModel, tree);
 
     if (treeModel == null)
@@ -109,7 +108,6 @@ public class NodeAssociation extends AbstractNode {
       }
     } else {
       setUserObject(generateName(association));
-      treeModel.reload(this);
     }
   }
 
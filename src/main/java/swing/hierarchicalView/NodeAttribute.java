@@ -10,7 +10,6 @@ import utility.PersonalizedIcon;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
-import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
 import java.util.Observable;
 import java.util.Observer;
@@ -26,7 +25,7 @@ public class NodeAttribute
     implements ICustomizedIconNode, Observer, IClassDiagramNode {
   private final Attribute attribute;
   private final STree tree;
-  private final DefaultTreeModel treeModel;
+  private final HierarchicalTreeModel treeModel;
 
   /**
    * Create a new node associated with an attribute.
@@ -35,7 +34,7 @@ public class NodeAttribute
    * @param treeModel the model of the JTree
    * @param tree the JTree
    */
-  public NodeAttribute(Attribute attribute, DefaultTreeModel treeModel,
+  public NodeAttribute(Attribute attribute, HierarchicalTreeModel treeModel,
                        STree tree) {
     super(attribute.getName());
 
@@ -79,7 +78,7 @@ public class NodeAttribute
       }
     } else {
       setUserObject(attribute.getName());
-      treeModel.reload(this);
+      treeModel.nodeRenamed(this);
     }
   }
 
@@ -9,7 +9,6 @@ import swing.hierarchicalView.HierarchicalView.STree;
 import utility.PersonalizedIcon;
 
 import javax.swing.*;
-import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
 import java.util.Observable;
 
@@ -42,7 +41,7 @@ public class NodeDepedency extends AbstractNode {
    * @param tree the JTree
    */
   public NodeDepedency(
-      Dependency dependency, DefaultTreeModel treeModel, STree tree) {
+      Dependency dependency, HierarchicalTreeModel treeModel, STree tree) {
 
     super(generateName(dependency), treeModel, tree);
 
@@ -87,7 +86,6 @@ public class NodeDepedency extends AbstractNode {
       }
     } else {
       setUserObject(generateName(dependency));
-      treeModel.reload(this);
     }
   }
 
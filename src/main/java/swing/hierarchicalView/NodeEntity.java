@@ -10,16 +10,25 @@ import swing.hierarchicalView.HierarchicalView.STree;
 import utility.PersonalizedIcon;
 
 import javax.swing.*;
-import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.MutableTreeNode;
 import javax.swing.tree.TreePath;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.Set;
 
 /**
  * A JTree node associated with an entity UML.
  *
+ * The child nodes, one per member of the entity, are created only when the node is expanded for the first time (see
+ * {@link #loadChildsNodes()}). Until then, the node observes the members itself for showing them when they are
+ * selected.
+ *
  * @author David Miserez
  * @version 1.0 - 28.07.2011
  */
@@ -27,6 +36,8 @@ public abstract class NodeEntity extends AbstractNode {
 
   protected final Entity entity;
   protected final ImageIcon icon;
+  private boolean childsLoaded = false;
+  private final Set<IDiagramComponent> observedMembers = Collections.newSetFromMap(new IdentityHashMap<>());
 
   /**
    * Create a new node associated with an entity.
@@ -37,7 +48,7 @@ public abstract class NodeEntity extends AbstractNode {
    * @param icon the customized icon
    */
   public NodeEntity(
-      Entity entity, DefaultTreeModel treeModel, STree tree, ImageIcon icon) {
+      Entity entity, HierarchicalTreeModel treeModel, STree tree, ImageIcon icon) {
 
     super(entity.getName(), treeModel, tree);
 
@@ -91,9 +102,15 @@ public abstract class NodeEntity extends AbstractNode {
     return icon;
   }
 
+  @Override
+  public boolean isLeaf() {
+    return childsLoaded ? getChildCount() == 0 : !hasMembers();
+  }
+
   @Override
   public void remove() {
     removeAllChildren();
+    observeMembers(Collections.emptyList());
   }
 
   @Override
@@ -107,6 +124,18 @@ public abstract class NodeEntity extends AbstractNode {
 
   @Override
   public void update(Observable arg0, Object arg1) {
+    if (arg0 != entity) {
+      // A member observed while the child nodes are not loaded.
+      if (arg1 == UpdateMessage.SELECT && !PanelClassDiagram.getInstance().isDisabledUpdate()) {
+        loadChildsNodes();
+
+        for (int i = 0; i < getChildCount(); i++)
+          if (((IClassDiagramNode) getChildAt(i)).getAssociedComponent() == arg0)
+            tree.addSelectionPathNoFire(new TreePath(((DefaultMutableTreeNode) getChildAt(i)).getPath()));
+      }
+      return;
+    }
+
     if (arg1 != null && arg1.getClass() == UpdateMessage.class) {
       final TreePath path = new TreePath(getPath());
 
@@ -130,8 +159,128 @@ public abstract class NodeEntity extends AbstractNode {
   }
 
   /**
-   * Remove and re-generate all child nodes according to methods and attributs containing by the entity.
+   * Create the child nodes if they are not created yet. Called when the node is expanded.
+   */
+  public void loadChildsNodes() {
+    if (childsLoaded) return;
+
+    createChildsNodes();
+    if (getChildCount() == 0) return;
+
+    int[] indices = new int[getChildCount()];
+    for (int i = 0; i < indices.length; i++)
+      indices[i] = i;
+
+    treeModel.nodesWereInserted(this, indices);
+  }
+
+  /**
+   * Update the name of the node and its child nodes according to the entity. Only the child nodes of the added or
+   * removed members are changed.
+   */
+  protected void reloadChildsNodes() {
+    if (!entity.getName().equals(getUserObject())) setUserObject(entity.getName());
+
+    List<? extends IDiagramComponent> members = getMembers();
+
+    if (!childsLoaded) {
+      observeMembers(members);
+      treeModel.nodeChanged(this);
+      return;
+    }
+
+    Set<IDiagramComponent> membersSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    membersSet.addAll(members);
+
+    // Removed members.
+    for (int i = getChildCount() - 1; i >= 0; i--) {
+      IClassDiagramNode node = (IClassDiagramNode) getChildAt(i);
+
+      if (!membersSet.remove(node.getAssociedComponent())) {
+        treeModel.removeNodeFromParent((MutableTreeNode) node);
+        node.getAssociedComponent().deleteObserver((Observer) node);
+      }
+    }
+
+    // Added members; membersSet now contains only them. The members are iterated, they can be in a linked list.
+    int index = 0;
+    for (IDiagramComponent member : members) {
+      if (membersSet.contains(member)) {
+        if (isSorted()) treeModel.insertSorted(createChildNode(member), this);
+        else treeModel.insertNodeInto(createChildNode(member), this, index);
+      }
+
+      index++;
+    }
+
+    // Members moved in an unsorted entity.
+    if (!isSorted()) {
+      index = 0;
+      for (IDiagramComponent member : members)
+        if (((IClassDiagramNode) getChildAt(index++)).getAssociedComponent() != member) {
+          removeAllChildren();
+          createChildsNodes();
+          treeModel.nodeStructureChanged(this);
+          break;
+        }
+    }
+  }
+
+  /**
+   * Get the members of the entity, represented by the child nodes.
+   *
+   * @return the members of the entity
+   */
+  protected abstract List<? extends IDiagramComponent> getMembers();
+
+  /**
+   * Get if the entity has members, without building the list of its members. Called each time the node is painted.
+   *
+   * @return true if the entity has at least one member
+   */
+  protected boolean hasMembers() {
+    return !getMembers().isEmpty();
+  }
+
+  /**
+   * Create the node representing the given member.
+   *
+   * @param member a member of the entity
+   *
+   * @return the new node
+   */
+  protected abstract MutableTreeNode createChildNode(IDiagramComponent member);
+
+  /**
+   * Get if the child nodes are sorted alphabetically, or kept in the order of the members.
+   *
+   * @return true if the child nodes are sorted
    */
-  protected abstract void reloadChildsNodes();
+  protected abstract boolean isSorted();
+
+  private void createChildsNodes() {
+    childsLoaded = true;
+    observeMembers(Collections.emptyList());
+
+    for (IDiagramComponent member : getMembers())
+      add(createChildNode(member));
+
+    if (isSorted() && children != null)
+      children.sort((node1, node2) -> HierarchicalTreeModel.compare(node1, node2));
+  }
+
+  private void observeMembers(List<? extends IDiagramComponent> members) {
+    Set<IDiagramComponent> membersSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    membersSet.addAll(members);
+
+    observedMembers.removeIf(member -> {
+      if (membersSet.contains(member)) return false;
+      member.deleteObserver(this);
+      return true;
+    });
+
+    for (IDiagramComponent member : members)
+      if (observedMembers.add(member)) member.addObserver(this);
+  }
 
 }
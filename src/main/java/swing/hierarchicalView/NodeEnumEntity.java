@@ -1,35 +1,35 @@
 package swing.hierarchicalView;
 
+import classDiagram.IDiagramComponent;
 import classDiagram.components.Entity;
 import classDiagram.components.EnumEntity;
 import classDiagram.components.EnumValue;
 import swing.hierarchicalView.HierarchicalView.STree;
 
 import javax.swing.*;
-import javax.swing.tree.DefaultMutableTreeNode;
-import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.MutableTreeNode;
+import java.util.List;
 
 public class NodeEnumEntity extends NodeEntity {
 
-  public NodeEnumEntity(Entity entity, DefaultTreeModel treeModel, STree tree,
+  public NodeEnumEntity(Entity entity, HierarchicalTreeModel treeModel, STree tree,
                         ImageIcon icon) {
     super(entity, treeModel, tree, icon);
   }
 
   @Override
-  protected void reloadChildsNodes() {
-    DefaultMutableTreeNode node;
-    EnumEntity enumEntity = (EnumEntity) super.entity;
-
-    setUserObject(enumEntity.getName());
-    removeAllChildren();
+  protected List<? extends IDiagramComponent> getMembers() {
+    return ((EnumEntity) super.entity).getEnumValues();
+  }
 
-    for (EnumValue a : enumEntity.getEnumValues()) {
-      node = new NodeEnumValue(a, treeModel, tree);
-      add(node);
-    }
+  @Override
+  protected MutableTreeNode createChildNode(IDiagramComponent member) {
+    return new NodeEnumValue((EnumValue) member, treeModel, tree);
+  }
 
-    treeModel.reload(this);
+  @Override
+  protected boolean isSorted() {
+    return false;
   }
 
 }
@@ -10,7 +10,6 @@ import utility.PersonalizedIcon;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
-import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
 import java.util.Observable;
 import java.util.Observer;
@@ -19,9 +18,9 @@ public class NodeEnumValue extends DefaultMutableTreeNode implements ICustomized
 
   private final EnumValue enumValue;
   private final STree tree;
-  private final DefaultTreeModel treeModel;
+  private final HierarchicalTreeModel treeModel;
 
-  public NodeEnumValue(EnumValue enumValue, DefaultTreeModel treeModel,
+  public NodeEnumValue(EnumValue enumValue, HierarchicalTreeModel treeModel,
                        STree tree) {
     super(enumValue.getValue());
 
@@ -62,7 +61,7 @@ public class NodeEnumValue extends DefaultMutableTreeNode implements ICustomized
       }
     } else {
       setUserObject(enumValue.getValue());
-      treeModel.reload(getParent());
+      treeModel.nodeChanged(this);
     }
   }
 
@@ -9,7 +9,6 @@ import swing.hierarchicalView.HierarchicalView.STree;
 import utility.PersonalizedIcon;
 
 import javax.swing.*;
-import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
 import java.util.Observable;
 
@@ -46,7 +45,7 @@ public class NodeInheritance extends AbstractNode {
    * @param tree the JTree
    */
   public NodeInheritance(
-      Inheritance inheritance, DefaultTreeModel treeModel, STree tree) {
+      Inheritance inheritance, HierarchicalTreeModel treeModel, STree tree) {
 
     super(generateName(inheritance), treeModel, tree);
 
@@ -87,7 +86,6 @@ public class NodeInheritance extends AbstractNode {
       }
     } else {
       setUserObject(generateName(inheritance));
-      treeModel.reload(this);
     }
   }
 
@@ -8,7 +8,6 @@ import swing.hierarchicalView.HierarchicalView.STree;
 import utility.PersonalizedIcon;
 
 import javax.swing.*;
-import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
 import java.util.Observable;
 
@@ -22,7 +21,7 @@ public class NodeInnerClass extends AbstractNode {
 
   private InnerClass innerClass;
 
-  public NodeInnerClass(InnerClass innerClass, DefaultTreeModel treeModel,
+  public NodeInnerClass(InnerClass innerClass, HierarchicalTreeModel treeModel,
                         STree tree) {
     super(innerClass, treeModel, tree);
 
@@ -67,7 +66,6 @@ public class NodeInnerClass extends AbstractNode {
       }
     } else {
       setUserObject(generateName(innerClass));
-      treeModel.reload(this);
     }
   }
 
@@ -8,7 +8,6 @@ import swing.hierarchicalView.HierarchicalView.STree;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
-import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
 import java.util.Observable;
 import java.util.Observer;
@@ -23,7 +22,7 @@ import java.util.Observer;
 public class NodeMethod extends DefaultMutableTreeNode implements Observer, IClassDiagramNode, ICustomizedIconNode {
   private final Method method;
   private final STree tree;
-  private final DefaultTreeModel treeModel;
+  private final HierarchicalTreeModel treeModel;
 
   /**
    * Create a new node associated with a method.
@@ -32,7 +31,7 @@ public class NodeMethod extends DefaultMutableTreeNode implements Observer, ICla
    * @param treeModel the model of the JTree
    * @param tree the JTree
    */
-  public NodeMethod(Method method, DefaultTreeModel treeModel, STree tree) {
+  public NodeMethod(Method method, HierarchicalTreeModel treeModel, STree tree) {
     super(method.getName());
 
     if (treeModel == null)
@@ -76,7 +75,7 @@ public class NodeMethod extends DefaultMutableTreeNode implements Observer, ICla
       }
     } else {
       setUserObject(method.getName());
-      treeModel.reload(this);
+      treeModel.nodeRenamed(this);
     }
   }
 
@@ -1,35 +1,46 @@
 package swing.hierarchicalView;
 
+import classDiagram.IDiagramComponent;
+import classDiagram.components.Attribute;
+import classDiagram.components.Method;
 import classDiagram.components.SimpleEntity;
 import swing.hierarchicalView.HierarchicalView.STree;
 
 import javax.swing.*;
-import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.MutableTreeNode;
+import java.util.ArrayList;
+import java.util.List;
 
 public class NodeSimpleEntity extends NodeEntity {
 
-  public NodeSimpleEntity(SimpleEntity entity, DefaultTreeModel treeModel,
+  public NodeSimpleEntity(SimpleEntity entity, HierarchicalTreeModel treeModel,
                           STree tree, ImageIcon icon) {
     super(entity, treeModel, tree, icon);
   }
 
   @Override
-  protected void reloadChildsNodes() {
+  protected List<? extends IDiagramComponent> getMembers() {
     SimpleEntity simpleEntity = (SimpleEntity) super.entity;
+    List<IDiagramComponent> members = new ArrayList<>(simpleEntity.getAttributes());
+    members.addAll(simpleEntity.getMethods());
+    return members;
+  }
 
-    setUserObject(simpleEntity.getName());
-    removeAllChildren();
-
-    simpleEntity.getAttributes().stream().forEach((a) -> {
-      add(new NodeAttribute(a, treeModel, tree));
-    });
+  @Override
+  protected boolean hasMembers() {
+    return ((SimpleEntity) super.entity).hasMembers();
+  }
 
-    simpleEntity.getMethods().stream().forEach((m) -> {
-      add(new NodeMethod(m, treeModel, tree));
-    });
+  @Override
+  protected MutableTreeNode createChildNode(IDiagramComponent member) {
+    if (member instanceof Attribute)
+      return new NodeAttribute((Attribute) member, treeModel, tree);
+    return new NodeMethod((Method) member, treeModel, tree);
+  }
 
-    HierarchicalView.sortAlphabetically(this, treeModel, tree);
-    treeModel.reload(this);
+  @Override
+  protected boolean isSorted() {
+    return true;
   }
 
 }
@@ -8,7 +8,6 @@ import utility.PersonalizedIcon;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
-import javax.swing.tree.DefaultTreeModel;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.Observable;
@@ -20,9 +19,9 @@ public class NodeView
 
   private GraphicView graphicView;
   private JPopupMenu popupMenu;
-  private DefaultTreeModel treeModel;
+  private HierarchicalTreeModel treeModel;
 
-  public NodeView(GraphicView graphicView, DefaultTreeModel treeModel) {
+  public NodeView(GraphicView graphicView, HierarchicalTreeModel treeModel) {
     super(graphicView.getName());
     this.graphicView = graphicView;
     this.treeModel = treeModel;
@@ -99,7 +98,7 @@ public class NodeView
   public void update(Observable o, Object arg) {
     if (o instanceof GraphicView) {
       setUserObject(((GraphicView) o).getName());
-      treeModel.reload(getParent());
+      treeModel.nodeChanged(this);
     }
   }
 
@@ -1,11 +1,18 @@
 package swing.propretiesView;
 
 import classDiagram.ClassDiagram;
+import classDiagram.DiagramStatistics;
 import classDiagram.IDiagramComponent.UpdateMessage;
+import classDiagram.components.AssociationClass;
+import classDiagram.components.ClassEntity;
+import classDiagram.components.EnumEntity;
+import classDiagram.components.InterfaceEntity;
 import classDiagram.components.Method;
 import swing.PanelClassDiagram;
+import swing.slyumCustomizedComponents.FlatButton;
 import swing.slyumCustomizedComponents.SCheckBox;
 import swing.slyumCustomizedComponents.SComboBox;
+import utility.PersonalizedIcon;
 
 import javax.swing.*;
 import java.awt.*;
@@ -41,8 +48,12 @@ public class DiagramPropreties
     instance.updateComponentInformations(null);
   }
 
+  // Delay for refreshing the statistics, for displaying them once after a batch of changes.
+  private static final int STATISTICS_REFRESH_DELAY = 200;
+
   JPanel west = createJPanelInformations(),
-      panelInformations = createJPanelInformations();
+      panelInformations = createJPanelInformations(),
+      panelStatistics = createJPanelInformations();
 
   private final String ACTION_ENTITY_VIEW = "1",
       ACTION_METHODS_VIEW = "2",
@@ -54,6 +65,8 @@ public class DiagramPropreties
   private final SCheckBox chkDisplayTypes;
   private final SCheckBox chkViewEnum;
   private final JTextArea txaDiagramsInformations;
+  private final JLabel lblStatistics;
+  private final Timer statisticsTimer;
 
   private boolean raiseEvent;
 
@@ -64,6 +77,11 @@ public class DiagramPropreties
 
     PanelClassDiagram.getInstance().getClassDiagram().addObserver(this);
 
+    statisticsTimer = new Timer(STATISTICS_REFRESH_DELAY, e -> updateStatistics());
+    statisticsTimer.setRepeats(false);
+    PanelClassDiagram.getInstance().getClassDiagram().getStatistics()
+                     .addObserver((o, arg) -> statisticsTimer.restart());
+
     GroupLayout layout = new GroupLayout(this);
     setLayout(layout);
 
@@ -152,10 +170,43 @@ public class DiagramPropreties
     pnlDiagramInformations.add(lblInformationsTitle);
     pnlDiagramInformations.add(panelInformations);
 
+    // Statistics
+    lblStatistics = new JLabel();
+    lblStatistics.setAlignmentX(Component.LEFT_ALIGNMENT);
+    panelStatistics.add(lblStatistics);
+    panelStatistics.add(Box.createVerticalStrut(HEIGHT_STRUT));
+
+    FlatButton btnExportStatistics = new FlatButton("Export...", PersonalizedIcon.createImageIcon("export.png"));
+    btnExportStatistics.setAlignmentX(Component.LEFT_ALIGNMENT);
+    btnExportStatistics.addActionListener(e -> PanelClassDiagram.getInstance().exportStatistics());
+    panelStatistics.add(btnExportStatistics);
+
+    FlatButton btnExportMetrics = new FlatButton("Architecture metrics...",
+                                                 PersonalizedIcon.createImageIcon("export.png"));
+    btnExportMetrics.setAlignmentX(Component.LEFT_ALIGNMENT);
+    btnExportMetrics.addActionListener(e -> PanelClassDiagram.getInstance().exportArchitectureMetrics());
+    panelStatistics.add(btnExportMetrics);
+
+    JPanel pnlDiagramStatistics = new JPanel();
+    pnlDiagramStatistics.setLayout(
+        new BoxLayout(pnlDiagramStatistics, BoxLayout.Y_AXIS));
+    pnlDiagramStatistics.setMaximumSize(new Dimension(200, Short.MAX_VALUE));
+
+    JLabel lblStatisticsTitle = new JLabel("Project's statistics");
+    lblStatisticsTitle.setHorizontalTextPosition(JLabel.LEFT);
+    lblStatisticsTitle.setVerticalTextPosition(JLabel.BOTTOM);
+    lblStatisticsTitle.setBorder(BorderFactory.createEmptyBorder(0, 10, 5, 0));
+
+    pnlDiagramStatistics.add(lblStatisticsTitle);
+    pnlDiagramStatistics.add(panelStatistics);
+    updateStatistics();
+
     setLayout(new BoxLayout(this, BoxLayout.X_AXIS));
     add(pnlDiagramProperties);
     add(Box.createHorizontalStrut(10));
     add(pnlDiagramInformations);
+    add(Box.createHorizontalStrut(10));
+    add(pnlDiagramStatistics);
     add(Box.createHorizontalGlue());
     add(new JLabel("Select a component to see it's members"));
     add(Box.createHorizontalGlue());
@@ -202,6 +253,26 @@ public class DiagramPropreties
     return panel;
   }
 
+  private void updateStatistics() {
+    PanelClassDiagram panel = PanelClassDiagram.getInstance();
+    if (panel == null || panel.getClassDiagram() == null) return;
+
+    DiagramStatistics statistics = panel.getClassDiagram().getStatistics();
+    int entities = statistics.countEntities();
+
+    lblStatistics.setText(String.format(
+        "<html>Classes: %d<br>Association classes: %d<br>Interfaces: %d<br>Enums: %d<br>Relations: %d<br>"
+        + "Attributes: %d (%.1f by entity)<br>Methods: %d (%.1f by entity)<br>Inheritance depth: %d</html>",
+        statistics.count(ClassEntity.class) - statistics.count(AssociationClass.class),
+        statistics.count(AssociationClass.class),
+        statistics.count(InterfaceEntity.class),
+        statistics.count(EnumEntity.class),
+        statistics.countRelations(),
+        statistics.countAttributes(), entities == 0 ? 0.0 : (double) statistics.countAttributes() / entities,
+        statistics.countMethods(), entities == 0 ? 0.0 : (double) statistics.countMethods() / entities,
+        statistics.getMaxDepth()));
+  }
+
   @Override
   public void updateComponentInformations(UpdateMessage msg) {
     PanelClassDiagram panel = PanelClassDiagram.getInstance();
@@ -1,6 +1,7 @@
 package swing.propretiesView;
 
 import classDiagram.IDiagramComponent.UpdateMessage;
+import classDiagram.TypeRegistry;
 import classDiagram.components.Attribute;
 import classDiagram.components.ClassEntity;
 import classDiagram.components.ConstructorMethod;
@@ -38,11 +39,16 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
-import java.util.NoSuchElementException;
+import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.Set;
 
 /**
  * Show the propreties of an UML SimpleEntity with Swing components. All inner classes are used for create customized
@@ -53,62 +59,193 @@ import java.util.Observer;
  */
 public class SimpleEntityPropreties extends GlobalPropreties {
 
-  private class AttributeTableModel extends AbstractTableModel implements Observer, TableModelListener, MouseListener {
-    private final String[] columnNames = {
-        "Attribute", "Type", "Visibility",
-        "Constant", "Static"};
+  /**
+   * Model of a table showing the members of the current entity, one member per row. The rows are synchronized with the
+   * members of the entity by {@link #setMembers(List)}, which only inserts, removes, moves or updates the rows that
+   * changed: large entities are not rebuilt each time the entity is notified. Each member is observed for updating its
+   * own row.
+   *
+   * @param <T> the type of the members
+   */
+  private abstract class MemberTableModel<T extends Observable> extends AbstractTableModel implements Observer {
+    private static final long serialVersionUID = -2189466251031827745L;
 
-    private final LinkedList<Object[]> data = new LinkedList<>();
+    protected final ArrayList<T> members = new ArrayList<>();
 
-    private final HashMap<Attribute, Integer> mapIndex = new HashMap<>();
+    protected final ArrayList<Object[]> data = new ArrayList<>();
 
-    public void addAttribute(Attribute attribute) {
-      data.add(new Object[] {
-          attribute.getName(),
-          attribute.getType().getName(),
-          attribute.getVisibility().getName(), attribute.isConstant(),
-          attribute.isStatic()});
+    protected final HashMap<T, Integer> mapIndex = new HashMap<>();
 
-      attribute.addObserver(this);
-      mapIndex.put(attribute, data.size() - 1);
+    /**
+     * Get the values of the row showing the given member.
+     *
+     * @param member the member
+     *
+     * @return the values of the columns
+     */
+    protected abstract Object[] createRow(T member);
 
-      fireTableRowsInserted(0, data.size());
+    @Override
+    public Class<? extends Object> getColumnClass(int c) {
+      return c < 3 ? String.class : Boolean.class;
     }
 
-    public void clearAll() {
-      data.clear();
-      mapIndex.clear();
-      fireTableDataChanged();
+    /**
+     * Get the member shown at the given row.
+     *
+     * @param row the row
+     *
+     * @return the member, or null if the row does not exist
+     */
+    public T getMember(int row) {
+      return row >= 0 && row < members.size() ? members.get(row) : null;
     }
 
     @Override
-    public Class<? extends Object> getColumnClass(int c) {
-      return getValueAt(0, c).getClass();
+    public int getRowCount() {
+      return data.size();
     }
 
     @Override
-    public int getColumnCount() {
-      return columnNames.length;
+    public Object getValueAt(int row, int col) {
+      return data.get(row)[col];
+    }
+
+    /**
+     * Get the row showing the given member.
+     *
+     * @param member the member
+     *
+     * @return the row, or -1 if the member is not shown
+     */
+    public int indexOf(T member) {
+      final Integer index = mapIndex.get(member);
+      return index == null ? -1 : index;
+    }
+
+    /**
+     * Show the given members. The rows of the members already shown are kept and only updated if their values changed.
+     *
+     * @param newMembers the members to show, in order
+     */
+    public void setMembers(List<T> newMembers) {
+      final Set<T> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+      kept.addAll(newMembers);
+
+      if (!members.isEmpty() && Collections.disjoint(kept, members)) {
+        final int size = members.size();
+
+        for (T member : members)
+          unobserve(member);
+
+        members.clear();
+        data.clear();
+        fireTableRowsDeleted(0, size - 1);
+      }
+
+      for (int i = members.size() - 1; i >= 0; i--)
+        if (!kept.contains(members.get(i))) {
+          unobserve(members.remove(i));
+          data.remove(i);
+          fireTableRowsDeleted(i, i);
+        }
+
+      // Another entity is shown: all the rows are inserted at once.
+      if (members.isEmpty() && !newMembers.isEmpty()) {
+        for (T member : newMembers) {
+          observe(member);
+          members.add(member);
+          data.add(createRow(member));
+        }
+
+        fireTableRowsInserted(0, members.size() - 1);
+      }
+
+      // The rows before i are always the first members; a member not at its place is either new or further.
+      for (int i = 0; i < newMembers.size(); i++) {
+        final T member = newMembers.get(i);
+
+        if (i < members.size() && members.get(i) == member) {
+          updateRow(member, i);
+          continue;
+        }
+
+        final int from = mapIndex.containsKey(member) ? members.indexOf(member) : -1;
+
+        if (from == -1) {
+          observe(member);
+        } else {
+          members.remove(from);
+          data.remove(from);
+          fireTableRowsDeleted(from, from);
+        }
+
+        members.add(i, member);
+        data.add(i, createRow(member));
+        fireTableRowsInserted(i, i);
+      }
+
+      mapIndex.clear();
+      for (int i = 0; i < members.size(); i++)
+        mapIndex.put(members.get(i), i);
     }
 
     @Override
-    public String getColumnName(int col) {
-      return columnNames[col];
+    public void setValueAt(Object value, int row, int col) {
+      try {
+        data.get(row)[col] = value;
+        fireTableCellUpdated(row, col);
+      } catch (Exception e) {
+
+      }
     }
 
-    @SuppressWarnings("unchecked")
-    public HashMap<Attribute, Integer> getMapIndex() {
-      return (HashMap<Attribute, Integer>) mapIndex.clone();
+    /**
+     * Update the row showing the given member, if its values changed.
+     *
+     * @param member the member
+     * @param index the row of the member
+     */
+    protected void updateRow(T member, int index) {
+      final Object[] row = createRow(member);
+
+      if (!Arrays.equals(row, data.get(index))) {
+        data.set(index, row);
+        fireTableRowsUpdated(index, index);
+      }
     }
 
+    protected void observe(T member) {
+      member.addObserver(this);
+    }
+
+    protected void unobserve(T member) {
+      member.deleteObserver(this);
+    }
+  }
+
+  private class AttributeTableModel extends MemberTableModel<Attribute> implements TableModelListener, MouseListener {
+    private final String[] columnNames = {
+        "Attribute", "Type", "Visibility",
+        "Constant", "Static"};
+
     @Override
-    public int getRowCount() {
-      return data.size();
+    protected Object[] createRow(Attribute attribute) {
+      return new Object[] {
+          attribute.getName(),
+          attribute.getType().getName(),
+          attribute.getVisibility().getName(), attribute.isConstant(),
+          attribute.isStatic()};
     }
 
     @Override
-    public Object getValueAt(int row, int col) {
-      return data.get(row)[col];
+    public int getColumnCount() {
+      return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int col) {
+      return columnNames[col];
     }
 
     @Override
@@ -133,8 +270,9 @@ public class SimpleEntityPropreties extends GlobalPropreties {
       // Get the selected attribute
       final int index = attributesTable.getSelectionModel()
                                        .getLeadSelectionIndex();
-      final Attribute attribute = Utility.getKeysByValue(mapIndex, index)
-                                         .iterator().next();
+      final Attribute attribute = getMember(index);
+
+      if (attribute == null) return;
 
       // Unselect all attributes
       for (final Attribute a : ((SimpleEntity) currentObject).getAttributes()) {
@@ -152,26 +290,6 @@ public class SimpleEntityPropreties extends GlobalPropreties {
     @Override
     public void mouseReleased(MouseEvent e) { }
 
-    public void setAttribute(Attribute attribute, int index) {
-      data.set(index, new Object[] {
-          attribute.getName(),
-          attribute.getType().getName(),
-          attribute.getVisibility().getName(), attribute.isConstant(),
-          attribute.isStatic()});
-
-      fireTableRowsUpdated(index, index);
-    }
-
-    @Override
-    public void setValueAt(Object value, int row, int col) {
-      try {
-        data.get(row)[col] = value;
-        fireTableCellUpdated(row, col);
-      } catch (Exception e) {
-
-      }
-    }
-
     @Override
     public void tableChanged(TableModelEvent e) {
       final int row = e.getFirstRow();
@@ -181,8 +299,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
 
       final TableModel model = (TableModel) e.getSource();
       final Object data = model.getValueAt(row, column);
-      final Attribute attribute = Utility.getKeysByValue(mapIndex, row)
-                                         .iterator().next();
+      final Attribute attribute = getMember(row);
 
       switch (column) {
         case 0: // nom
@@ -198,7 +315,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
           if (!TypeName.getInstance().verifyName(s))
             setValueAt(attribute.getType().getName(), row, column);
           else
-            attribute.setType(new Type(s));
+            attribute.setType(TypeRegistry.internType(s));
 
           break;
 
@@ -226,7 +343,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
     public void update(Observable observable, Object o) {
       final Attribute attribute = (Attribute) observable;
       try {
-        final int index = mapIndex.get(attribute);
+        final int index = indexOf(attribute);
 
         if (index == -1) return;
 
@@ -249,7 +366,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
               break;
           }
 
-        setAttribute(attribute, index);
+        updateRow(attribute, index);
       } catch (final Exception e) {
 
       }
@@ -257,41 +374,19 @@ public class SimpleEntityPropreties extends GlobalPropreties {
 
   }
 
-  private class MethodTableModel
-      extends AbstractTableModel
-      implements Observer, TableModelListener, MouseListener {
+  private class MethodTableModel extends MemberTableModel<Method> implements TableModelListener, MouseListener {
 
     private final String[] columnNames = {
         "Method", "Type", "Visibility",
         "Abstract", "Static"};
 
-    private final LinkedList<Object[]> data = new LinkedList<>();
-
-    private final HashMap<Method, Integer> mapIndex = new HashMap<>();
-
-    public void addMethod(Method method) {
-      data.add(new Object[] {
+    @Override
+    protected Object[] createRow(Method method) {
+      return new Object[] {
           method.getName(),
           method.getReturnType().getName(),
           method.getVisibility().getName(), method.isAbstract(),
-          method.isStatic()});
-
-      method.addObserver(this);
-      method.addObserver((ParametersTableModel) parametersTable.getModel());
-      mapIndex.put(method, data.size() - 1);
-
-      fireTableRowsInserted(0, data.size());
-    }
-
-    public void clearAll() {
-      data.clear();
-      mapIndex.clear();
-      fireTableDataChanged();
-    }
-
-    @Override
-    public Class<? extends Object> getColumnClass(int c) {
-      return getValueAt(0, c).getClass();
+          method.isStatic()};
     }
 
     @Override
@@ -304,28 +399,12 @@ public class SimpleEntityPropreties extends GlobalPropreties {
       return columnNames[col];
     }
 
-    @SuppressWarnings({"unchecked"})
-    public HashMap<Method, Integer> getMapIndex() {
-      return (HashMap<Method, Integer>) mapIndex.clone();
-    }
-
-    @Override
-    public int getRowCount() {
-      return data.size();
-    }
-
-    @Override
-    public Object getValueAt(int row, int col) {
-      return data.get(row)[col];
-    }
-
     @Override
     public boolean isCellEditable(int row, int col) {
       Boolean isInterfaceEntityClass = currentObject.getClass()
                                                     .equals(InterfaceEntity.class);
-      Boolean isConstructorClass = Utility.getKeysByValue(mapIndex, row)
-                                          .iterator().next().getClass()
-                                          .equals(ConstructorMethod.class);
+      Boolean isConstructorClass = getMember(row).getClass()
+                                                 .equals(ConstructorMethod.class);
 
       Boolean retourn = !(((isInterfaceEntityClass || isConstructorClass) && col == 3) ||
                           isConstructorClass && col == 4 ||
@@ -350,8 +429,9 @@ public class SimpleEntityPropreties extends GlobalPropreties {
       // Get the selected method
       final int index = methodsTable.getSelectionModel()
                                     .getLeadSelectionIndex();
-      final Method method = Utility.getKeysByValue(mapIndex, index).iterator()
-                                   .next();
+      final Method method = getMember(index);
+
+      if (method == null) return;
 
       // Unselect all methods
       for (final Method m : ((SimpleEntity) currentObject).getMethods()) {
@@ -369,27 +449,6 @@ public class SimpleEntityPropreties extends GlobalPropreties {
     @Override
     public void mouseReleased(MouseEvent e) { }
 
-    public void setMethod(Method method, int index) {
-      data.set(index,
-               new Object[] {
-                   method.getName(),
-                   method.getReturnType().getName(),
-                   method.getVisibility().getName(), method.isAbstract(),
-                   method.isStatic()});
-
-      fireTableRowsUpdated(index, index);
-    }
-
-    @Override
-    public void setValueAt(Object value, int row, int col) {
-      try {
-        data.get(row)[col] = value;
-        fireTableCellUpdated(row, col);
-      } catch (Exception e) {
-
-      }
-    }
-
     @Override
     public void tableChanged(TableModelEvent e) {
       final int row = e.getFirstRow();
@@ -399,8 +458,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
 
       final TableModel model = (TableModel) e.getSource();
       final Object data = model.getValueAt(row, column);
-      final Method method = Utility.getKeysByValue(mapIndex, row).iterator()
-                                   .next();
+      final Method method = getMember(row);
 
       switch (column) {
         case 0: // nom
@@ -412,7 +470,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
         case 1: // type
           String s = (String) data;
           if (TypeName.getInstance().verifyName(s))
-            method.setReturnType(new Type(s));
+            method.setReturnType(TypeRegistry.internType(s));
           else
             setValueAt(method.getReturnType().getName(), row, column);
 
@@ -437,10 +495,22 @@ public class SimpleEntityPropreties extends GlobalPropreties {
       methodsTable.addRowSelectionInterval(row, row);
     }
 
+    @Override
+    protected void observe(Method method) {
+      super.observe(method);
+      method.addObserver((ParametersTableModel) parametersTable.getModel());
+    }
+
+    @Override
+    protected void unobserve(Method method) {
+      super.unobserve(method);
+      method.deleteObserver((ParametersTableModel) parametersTable.getModel());
+    }
+
     @Override
     public void update(Observable observable, Object o) {
       try {
-        final int index = mapIndex.get(observable);
+        final int index = indexOf((Method) observable);
 
         if (index == -1) return;
 
@@ -463,7 +533,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
               break;
           }
 
-        setMethod((Method) observable, index);
+        updateRow((Method) observable, index);
       } catch (final Exception e) {
 
       }
@@ -639,7 +709,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
         case 1: // type
           try {
             currentMethod.getParameters().get(row)
-                         .setType(new Type((String) data));
+                         .setType(TypeRegistry.internType((String) data));
           } catch (Exception ex) { }
           break;
       }
@@ -870,10 +940,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
           // Get the selected attribute
           final int index = attributesTable.getSelectionModel()
                                            .getLeadSelectionIndex();
-          final Attribute attribute = Utility
-              .getKeysByValue(
-                  ((AttributeTableModel) attributesTable.getModel())
-                      .getMapIndex(), index).iterator().next();
+          final Attribute attribute = ((AttributeTableModel) attributesTable.getModel()).getMember(index);
 
           ((SimpleEntity) currentObject).moveAttributePosition(attribute, -1);
           ((SimpleEntity) currentObject).notifyObservers();
@@ -894,10 +961,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
           // Get the selected attribute
           final int index = attributesTable.getSelectionModel()
                                            .getLeadSelectionIndex();
-          final Attribute attribute = Utility
-              .getKeysByValue(
-                  ((AttributeTableModel) attributesTable.getModel())
-                      .getMapIndex(), index).iterator().next();
+          final Attribute attribute = ((AttributeTableModel) attributesTable.getModel()).getMember(index);
 
           ((SimpleEntity) currentObject).moveAttributePosition(attribute, 1);
           ((SimpleEntity) currentObject).notifyObservers();
@@ -919,24 +983,15 @@ public class SimpleEntityPropreties extends GlobalPropreties {
           // Get the selected attribute
           final int index = attributesTable.getSelectionModel()
                                            .getLeadSelectionIndex();
-          Attribute attribute = Utility
-              .getKeysByValue(
-                  ((AttributeTableModel) attributesTable.getModel())
-                      .getMapIndex(), index).iterator().next();
+          Attribute attribute = ((AttributeTableModel) attributesTable.getModel()).getMember(index);
 
           ((SimpleEntity) currentObject).removeAttribute(attribute);
           ((SimpleEntity) currentObject).notifyObservers();
 
           for (int i = 0; i <= 1; i++) {
-            try {
-              attribute = Utility
-                  .getKeysByValue(
-                      ((AttributeTableModel) attributesTable.getModel())
-                          .getMapIndex(), index - i).iterator()
-                  .next();
-            } catch (final NoSuchElementException e) {
-              continue;
-            }
+            attribute = ((AttributeTableModel) attributesTable.getModel()).getMember(index - i);
+
+            if (attribute == null) continue;
 
             attribute.select();
             attribute.notifyObservers(UpdateMessage.SELECT);
@@ -1040,10 +1095,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
           // Get the selected method
           final int index = methodsTable.getSelectionModel()
                                         .getLeadSelectionIndex();
-          final Method method = Utility
-              .getKeysByValue(
-                  ((MethodTableModel) methodsTable.getModel())
-                      .getMapIndex(), index).iterator().next();
+          final Method method = ((MethodTableModel) methodsTable.getModel()).getMember(index);
 
           ((SimpleEntity) currentObject).moveMethodPosition(method, -1);
           ((SimpleEntity) currentObject).notifyObservers();
@@ -1065,10 +1117,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
           // Get the selected method
           final int index = methodsTable.getSelectionModel()
                                         .getLeadSelectionIndex();
-          final Method method = Utility
-              .getKeysByValue(
-                  ((MethodTableModel) methodsTable.getModel())
-                      .getMapIndex(), index).iterator().next();
+          final Method method = ((MethodTableModel) methodsTable.getModel()).getMember(index);
 
           ((SimpleEntity) currentObject).moveMethodPosition(method, 1);
           ((SimpleEntity) currentObject).notifyObservers();
@@ -1090,24 +1139,15 @@ public class SimpleEntityPropreties extends GlobalPropreties {
           // Get the selected method
           final int index = methodsTable.getSelectionModel()
                                         .getLeadSelectionIndex();
-          Method method = Utility
-              .getKeysByValue(
-                  ((MethodTableModel) methodsTable.getModel())
-                      .getMapIndex(), index).iterator().next();
+          Method method = ((MethodTableModel) methodsTable.getModel()).getMember(index);
 
           ((SimpleEntity) currentObject).removeMethod(method);
           ((SimpleEntity) currentObject).notifyObservers();
 
           for (int i = 0; i <= 1; i++) {
-            try {
-              method = Utility
-                  .getKeysByValue(
-                      ((MethodTableModel) methodsTable.getModel())
-                          .getMapIndex(), index - i).iterator()
-                  .next();
-            } catch (final NoSuchElementException e) {
-              continue;
-            }
+            method = ((MethodTableModel) methodsTable.getModel()).getMember(index - i);
+
+            if (method == null) continue;
 
             method.select();
             method.notifyObservers(UpdateMessage.SELECT);
@@ -1147,10 +1187,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
       public void actionPerformed(ActionEvent e) {
         // Get the selected parameter
         int index = methodsTable.getSelectionModel().getLeadSelectionIndex();
-        final Method method = Utility
-            .getKeysByValue(
-                ((MethodTableModel) methodsTable.getModel())
-                    .getMapIndex(), index).iterator().next();
+        final Method method = ((MethodTableModel) methodsTable.getModel()).getMember(index);
 
         final Variable parameter = method.getParameters().get(
             parametersTable.getSelectionModel().getLeadSelectionIndex());
@@ -1178,10 +1215,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
       public void actionPerformed(ActionEvent e) {
         // Get the selected parameter
         int index = methodsTable.getSelectionModel().getLeadSelectionIndex();
-        final Method method = Utility
-            .getKeysByValue(
-                ((MethodTableModel) methodsTable.getModel())
-                    .getMapIndex(), index).iterator().next();
+        final Method method = ((MethodTableModel) methodsTable.getModel()).getMember(index);
 
         index = parametersTable.getSelectionModel().getLeadSelectionIndex();
         final Variable parameter = method.getParameters().get(index);
@@ -1327,14 +1361,11 @@ public class SimpleEntityPropreties extends GlobalPropreties {
         .setEnabled(currentObject.getClass() != InterfaceEntity.class);
     comboBox.setSelectedItem(SimpleEntity.getVisibility().getName());
 
-    modelAttributes.clearAll();
-    modelMethods.clearAll();
-
-    for (Attribute attribute : attributes)
-      modelAttributes.addAttribute(attribute);
-
-    for (Method method : methods)
-      modelMethods.addMethod(method);
+    // Only the rows of the changed members are updated.
+    modelAttributes.setMembers(attributes);
+    modelMethods.setMembers(methods);
+    attributesTable.clearSelection();
+    methodsTable.clearSelection();
 
     btnRemoveMethod.setEnabled(false);
     btnRemoveAttribute.setEnabled(false);
@@ -1383,7 +1414,7 @@ public class SimpleEntityPropreties extends GlobalPropreties {
   private void addParameters(Method method) {
     if (method == null)
       return;
-    method.addParameter(new Variable("p", new Type(PrimitiveType.INTEGER_TYPE.getName())));
+    method.addParameter(new Variable("p", PrimitiveType.INTEGER_TYPE));
     method.notifyObservers();
     method.select();
     method.notifyObservers(UpdateMessage.SELECT);
@@ -6,12 +6,12 @@ import java.awt.*;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 
 public class SButton extends JButton {
 
   private final Color BACKGROUND = Color.WHITE;
-  private LinkedList<Component> linkedComponents = new LinkedList<>();
+  private LinkedHashSet<Component> linkedComponents = new LinkedHashSet<>();
 
   public SButton() {
     super();
@@ -82,8 +82,7 @@ public class SButton extends JButton {
   }
 
   public void linkComponent(Component c) {
-    if (!linkedComponents.contains(c))
-      linkedComponents.add(c);
+    linkedComponents.add(c);
   }
 
 }
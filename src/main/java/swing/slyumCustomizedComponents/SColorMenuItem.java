@@ -3,6 +3,8 @@ package swing.slyumCustomizedComponents;
 import swing.MultiViewManager;
 
 import javax.swing.*;
+import javax.swing.event.MenuEvent;
+import javax.swing.event.MenuListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -13,9 +15,27 @@ import java.awt.image.BufferedImage;
  */
 public class SColorMenuItem extends JMenu {
 
+  // Each graphic component has its own menu: the items are only created when the menu is opened.
+  private Color[] colors = new Color[0];
+
   public SColorMenuItem(String text) {
     super("Recent Color");
     setEnabled(false);
+
+    addMenuListener(new MenuListener() {
+      @Override
+      public void menuSelected(MenuEvent e) {
+        showColors();
+      }
+
+      @Override
+      public void menuDeselected(MenuEvent e) {
+      }
+
+      @Override
+      public void menuCanceled(MenuEvent e) {
+      }
+    });
   }
 
   public void updateColors(Color... colors) {
@@ -23,17 +43,20 @@ public class SColorMenuItem extends JMenu {
       throw new IllegalArgumentException("You cannot update colors with 0 or " +
                                          "less than the current color's number.");
 
+    this.colors = colors.clone();
+
+    if (getItemCount() > 0) showColors();
+
+    setEnabled(true);
+  }
+
+  private void showColors() {
     createMenuItems(colors.length);
 
     // Update item menu's color and display it.
-    boolean atLeastOneColor = false;
     for (int i = 0; i < colors.length; ++i)
-      if (colors[i] != null) {
+      if (colors[i] != null)
         getItem(i).setColor(colors[i]);
-        atLeastOneColor = true;
-      }
-
-    setEnabled(atLeastOneColor);
   }
 
   @Override
@@ -54,11 +77,21 @@ public class SColorMenuItem extends JMenu {
 
   @Override
   public final void setEnabled(boolean b) {
-    if (getItemCount() == 0)
+    if (!hasColor())
       b = false;
     super.setEnabled(b);
   }
 
+  private boolean hasColor() {
+    // Called by the constructor of JMenu, before the colors are initialized.
+    if (colors == null) return false;
+
+    for (Color color : colors)
+      if (color != null) return true;
+
+    return false;
+  }
+
   private void createMenuItems(int size) {
     for (int i = 0; i < size; ++i)
       if (getItem(i) == null)
@@ -73,11 +73,15 @@ public class STable extends JTable {
     setDefaultEditor(Boolean.class, new DefaultCellEditor(new SCheckBox()));
     setDefaultRenderer(Boolean.class, new TableCellRenderer() {
 
+      // The same check box is used for painting all the cells.
+      private final SCheckBox checkBox = new SCheckBox("");
+
       @Override
       public Component getTableCellRendererComponent(
           JTable table, Object value, boolean isSelected,
           boolean hasFocus, int row, int column) {
-        return new SCheckBox("", (boolean) value);
+        checkBox.setSelected((boolean) value);
+        return checkBox;
       }
     });
     setBorder(null);
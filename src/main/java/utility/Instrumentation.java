@@ -0,0 +1,406 @@
+package utility;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import swing.MultiViewManager;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Observable;
+
+/**
+ * Measure the painting of the views, the hit tests, the notifications of the observers, the changes and the opening
+ * and saving of files. The measures are committed as Java Flight Recorder events (see {@link InstrumentationEvents})
+ * while a recording is running, and are displayed in an overlay on the views when it is visible.
+ *
+ * Instrumentation is enabled only while a recording is running or the overlay is visible. Otherwise each hook only
+ * reads a static boolean:
+ *
+ * <pre>
+ * long start = Instrumentation.start();
+ * ...
+ * Instrumentation.changed("undo", start);
+ * </pre>
+ */
+public class Instrumentation {
+  private static final int OVERLAY_WIDTH = 320, OVERLAY_MARGIN = 10, OVERLAY_PADDING = 6, OVERLAY_TYPES = 5;
+  private static final int OVERLAY_REFRESH_DELAY = 500;
+  private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+  private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 180);
+
+  // Weight of the last frame in the average frame time.
+  private static final double AVERAGE_WEIGHT = 0.1;
+
+  private static volatile boolean enabled = false;
+  private static volatile boolean recording = false;
+  private static boolean overlayVisible = false;
+  private static Timer overlayTimer;
+
+  // Last bounds of the overlay in the scene of the selected view, for refreshing it.
+  private static Rectangle overlayBounds;
+
+  // Statistics displayed in the overlay, accessed on the event dispatch thread.
+  private static long lastFrame, frames;
+  private static double averageFrame, averageHitTest;
+  private static List<TypeTiming> lastFrameTypes = new ArrayList<>();
+  private static long lastHitTest;
+  private static String lastChange = "-", lastFile = "-";
+
+  // Notifications since the last frame and since the last periodic event; notifications may come from any thread.
+  private static final Object notificationsLock = new Object();
+  private static long frameNotifications, frameObservers;
+  private static int frameMaxFanOut;
+  private static long lastFrameNotifications, lastFrameObservers;
+  private static int lastFrameMaxFanOut;
+  private static long periodNotifications, periodObservers;
+  private static int periodMaxFanOut;
+
+  static {
+    FlightRecorder.addListener(new FlightRecorderListener() {
+
+      @Override
+      public void recorderInitialized(FlightRecorder recorder) {
+        updateRecording();
+      }
+
+      @Override
+      public void recordingStateChanged(Recording recording) {
+        updateRecording();
+      }
+    });
+
+    FlightRecorder.addPeriodicEvent(InstrumentationEvents.Notifications.class, Instrumentation::commitNotifications);
+  }
+
+  private Instrumentation() {
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Get the start time of an operation to measure.
+   *
+   * @return the current time in nanoseconds; 0 if the instrumentation is disabled
+   */
+  public static long start() {
+    return enabled ? System.nanoTime() : 0L;
+  }
+
+  public static boolean isOverlayVisible() {
+    return overlayVisible;
+  }
+
+  /**
+   * Show or hide the overlay displaying the measures on the selected view. Must be called on the event dispatch
+   * thread.
+   *
+   * @param visible true for showing the overlay
+   */
+  public static void setOverlayVisible(boolean visible) {
+    overlayVisible = visible;
+    updateEnabled();
+
+    if (visible) {
+      if (overlayTimer == null) overlayTimer = new Timer(OVERLAY_REFRESH_DELAY, e -> refreshOverlay());
+      overlayTimer.start();
+    } else if (overlayTimer != null) {
+      overlayTimer.stop();
+    }
+
+    overlayBounds = null;
+    MultiViewManager.getSelectedGraphicView().getScene().repaint();
+  }
+
+  /**
+   * Begin the measure of the painting of a view.
+   *
+   * @param view the name of the view
+   * @param clip the painted area of the scene
+   *
+   * @return the frame to give to {@link #endFrame(Frame)}; null if the instrumentation is disabled or if only the
+   * overlay is refreshed
+   */
+  public static Frame beginFrame(String view, Rectangle clip) {
+    if (!enabled) return null;
+    if (overlayBounds != null && clip != null && overlayBounds.contains(clip)) return null;
+
+    return new Frame(view);
+  }
+
+  /**
+   * End the measure of the painting of a view.
+   *
+   * @param frame the frame returned by {@link #beginFrame(String, Rectangle)}, can be null
+   */
+  public static void endFrame(Frame frame) {
+    if (frame == null) return;
+
+    long duration = System.nanoTime() - frame.start;
+    frame.event.end();
+
+    if (frame.event.shouldCommit()) {
+      frame.event.view = frame.view;
+      frame.event.components = frame.components;
+      frame.event.commit();
+
+      for (TypeTiming timing : frame.types.values()) {
+        InstrumentationEvents.PaintComponents event = new InstrumentationEvents.PaintComponents();
+        event.view = frame.view;
+        event.type = timing.type.getSimpleName();
+        event.count = timing.count;
+        event.elapsed = timing.duration;
+        event.commit();
+      }
+    }
+
+    lastFrame = duration;
+    averageFrame = frames++ == 0 ? duration : averageFrame + AVERAGE_WEIGHT * (duration - averageFrame);
+
+    lastFrameTypes = new ArrayList<>(frame.types.values());
+    lastFrameTypes.sort((timing1, timing2) -> Long.compare(timing2.duration, timing1.duration));
+
+    synchronized (notificationsLock) {
+      lastFrameNotifications = frameNotifications;
+      lastFrameObservers = frameObservers;
+      lastFrameMaxFanOut = frameMaxFanOut;
+      frameNotifications = frameObservers = frameMaxFanOut = 0;
+    }
+  }
+
+  /**
+   * Measure a search of the component at a location.
+   *
+   * @param start the value returned by {@link #start()}
+   * @param components the number of components searched
+   */
+  public static void hitTested(long start, int components) {
+    if (start == 0L) return;
+
+    long duration = System.nanoTime() - start;
+
+    InstrumentationEvents.HitTest event = new InstrumentationEvents.HitTest();
+    if (event.shouldCommit()) {
+      event.components = components;
+      event.elapsed = duration;
+      event.commit();
+    }
+
+    lastHitTest = duration;
+    averageHitTest = averageHitTest == 0 ? duration : averageHitTest + AVERAGE_WEIGHT * (duration - averageHitTest);
+  }
+
+  /**
+   * Count a notification of the observers of an observable. Must be called before notifying them.
+   *
+   * @param observable the observable notifying its observers
+   */
+  public static void notified(Observable observable) {
+    if (enabled && observable.hasChanged()) notified(observable.countObservers());
+  }
+
+  /**
+   * Count a notification of observers.
+   *
+   * @param observers the number of observers notified
+   */
+  public static void notified(int observers) {
+    if (!enabled) return;
+
+    synchronized (notificationsLock) {
+      frameNotifications++;
+      frameObservers += observers;
+      frameMaxFanOut = Math.max(frameMaxFanOut, observers);
+
+      periodNotifications++;
+      periodObservers += observers;
+      periodMaxFanOut = Math.max(periodMaxFanOut, observers);
+    }
+  }
+
+  /**
+   * Measure an operation on the changes.
+   *
+   * @param operation "push", "undo" or "redo"
+   * @param start the value returned by {@link #start()}
+   */
+  public static void changed(String operation, long start) {
+    if (start == 0L) return;
+
+    long duration = System.nanoTime() - start;
+
+    InstrumentationEvents.Change event = new InstrumentationEvents.Change();
+    if (event.shouldCommit()) {
+      event.operation = operation;
+      event.elapsed = duration;
+      event.commit();
+    }
+
+    lastChange = operation + " " + formatDuration(duration);
+  }
+
+  /**
+   * Measure a phase of the opening or the saving of a file. The phases of an operation are displayed together in the
+   * overlay, the first phase must be "clean" for opening and "build" for saving.
+   *
+   * @param operation "open" or "save"
+   * @param phase the name of the phase
+   * @param file the file
+   * @param start the value returned by {@link #start()}
+   */
+  public static void fileProcessed(String operation, String phase, File file, long start) {
+    if (start == 0L) return;
+
+    long duration = System.nanoTime() - start;
+
+    InstrumentationEvents.File event = new InstrumentationEvents.File();
+    if (event.shouldCommit()) {
+      event.operation = operation;
+      event.phase = phase;
+      event.path = file.getPath();
+      event.elapsed = duration;
+      event.commit();
+    }
+
+    String measure = phase + " " + formatDuration(duration);
+    lastFile = phase.equals("clean") || phase.equals("build") ? operation + ": " + measure : lastFile + ", " + measure;
+  }
+
+  /**
+   * Paint the overlay in the top right corner of the visible part of a scene, if it is visible.
+   *
+   * @param g2 the graphic context of the scene, not scaled
+   * @param visibleRect the visible part of the scene
+   */
+  public static void paintOverlay(Graphics2D g2, Rectangle visibleRect) {
+    if (!overlayVisible) return;
+
+    List<String> lines = new ArrayList<>();
+    lines.add(String.format(Locale.ROOT, "frame %s (avg %s)", formatDuration(lastFrame),
+                            formatDuration((long) averageFrame)));
+
+    for (int i = 0; i < Math.min(OVERLAY_TYPES, lastFrameTypes.size()); i++) {
+      TypeTiming timing = lastFrameTypes.get(i);
+      lines.add(String.format(Locale.ROOT, "  %-18s %5d %s", timing.type.getSimpleName(), timing.count,
+                              formatDuration(timing.duration)));
+    }
+
+    lines.add(String.format(Locale.ROOT, "hit test %s (avg %s)", formatDuration(lastHitTest),
+                            formatDuration((long) averageHitTest)));
+    lines.add(String.format(Locale.ROOT, "notifications %d (observers %d, max %d)", lastFrameNotifications,
+                            lastFrameObservers, lastFrameMaxFanOut));
+    lines.add("change " + lastChange);
+    lines.add("file " + lastFile);
+    lines.add(recording ? "JFR recording" : "JFR not recording");
+
+    g2.setFont(OVERLAY_FONT);
+    FontMetrics metrics = g2.getFontMetrics();
+    int lineHeight = metrics.getHeight();
+
+    Rectangle bounds = new Rectangle(visibleRect.x + visibleRect.width - OVERLAY_WIDTH - OVERLAY_MARGIN,
+                                     visibleRect.y + OVERLAY_MARGIN, OVERLAY_WIDTH,
+                                     lines.size() * lineHeight + 2 * OVERLAY_PADDING);
+
+    g2.setColor(OVERLAY_BACKGROUND);
+    g2.fillRoundRect(bounds.x, bounds.y, bounds.width, bounds.height, 8, 8);
+
+    g2.setColor(Color.WHITE);
+    for (int i = 0; i < lines.size(); i++)
+      g2.drawString(lines.get(i), bounds.x + OVERLAY_PADDING,
+                    bounds.y + OVERLAY_PADDING + i * lineHeight + metrics.getAscent());
+
+    overlayBounds = bounds;
+  }
+
+  /**
+   * Repaint the overlay of the selected view, without repainting the components behind it (they are painted, but not
+   * measured).
+   */
+  private static void refreshOverlay() {
+    JPanel scene = MultiViewManager.getSelectedGraphicView().getScene();
+    Rectangle bounds = overlayBounds == null ? scene.getVisibleRect() : overlayBounds;
+
+    RepaintManager.currentManager(scene).addDirtyRegion(scene, bounds.x, bounds.y, bounds.width, bounds.height);
+  }
+
+  private static void commitNotifications() {
+    InstrumentationEvents.Notifications event = new InstrumentationEvents.Notifications();
+
+    synchronized (notificationsLock) {
+      event.notifications = periodNotifications;
+      event.observers = periodObservers;
+      event.maxFanOut = periodMaxFanOut;
+      periodNotifications = periodObservers = periodMaxFanOut = 0;
+    }
+
+    event.commit();
+  }
+
+  private static void updateRecording() {
+    boolean isRecording = false;
+
+    for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings())
+      if (recording.getState() == RecordingState.RUNNING) isRecording = true;
+
+    recording = isRecording;
+    updateEnabled();
+  }
+
+  private static void updateEnabled() {
+    enabled = recording || overlayVisible;
+  }
+
+  private static String formatDuration(long nanos) {
+    return String.format(Locale.ROOT, "%.2f ms", nanos / 1e6);
+  }
+
+  /**
+   * Measure of the painting of a view, split by type of components.
+   */
+  public static class Frame {
+    private final String view;
+    private final long start = System.nanoTime();
+    private final InstrumentationEvents.Paint event = new InstrumentationEvents.Paint();
+    private final Map<Class<?>, TypeTiming> types = new HashMap<>();
+    private int components = 0;
+
+    private Frame(String view) {
+      this.view = view;
+      event.begin();
+    }
+
+    /**
+     * Measure the painting of a component.
+     *
+     * @param component the painted component
+     * @param start the time before painting the component, in nanoseconds
+     */
+    public void painted(Object component, long start) {
+      long duration = System.nanoTime() - start;
+
+      TypeTiming timing = types.computeIfAbsent(component.getClass(), TypeTiming::new);
+      timing.count++;
+      timing.duration += duration;
+      components++;
+    }
+  }
+
+  private static class TypeTiming {
+    final Class<?> type;
+    int count = 0;
+    long duration = 0;
+
+    TypeTiming(Class<?> type) {
+      this.type = type;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package utility;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events of Slyum, committed by {@link Instrumentation}. They are recorded by any running
+ * recording, for example one started with "jcmd &lt;pid&gt; JFR.start filename=slyum.jfr".
+ *
+ * The operations are measured before knowing if they are recorded, so their time is given by the "elapsed" field; only
+ * the painting of a view uses the duration of the event.
+ */
+class InstrumentationEvents {
+
+  private InstrumentationEvents() {
+  }
+
+  @Name("slyum.Paint")
+  @Label("Paint")
+  @Description("Painting of a graphic view on the screen")
+  @Category({"Slyum", "Rendering"})
+  @StackTrace(false)
+  static class Paint extends Event {
+    @Label("View")
+    String view;
+
+    @Label("Components")
+    int components;
+  }
+
+  @Name("slyum.PaintComponents")
+  @Label("Paint Components")
+  @Description("Painting of the components of a type during a painting of a view")
+  @Category({"Slyum", "Rendering"})
+  @StackTrace(false)
+  static class PaintComponents extends Event {
+    @Label("View")
+    String view;
+
+    @Label("Type")
+    String type;
+
+    @Label("Count")
+    int count;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+  }
+
+  @Name("slyum.HitTest")
+  @Label("Hit Test")
+  @Description("Search of the component at a location of a view")
+  @Category({"Slyum", "Rendering"})
+  @StackTrace(false)
+  static class HitTest extends Event {
+    @Label("Components")
+    int components;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+  }
+
+  @Name("slyum.Change")
+  @Label("Change")
+  @Description("Push, undo or redo of a change")
+  @Category({"Slyum", "Change"})
+  static class Change extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+  }
+
+  @Name("slyum.File")
+  @Label("File")
+  @Description("Phase of the opening or the saving of a file")
+  @Category({"Slyum", "File"})
+  @StackTrace(false)
+  static class File extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Path")
+    String path;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+  }
+
+  @Name("slyum.Notifications")
+  @Label("Notifications")
+  @Description("Notifications of the observers since the previous event")
+  @Category({"Slyum", "Model"})
+  @Period("1 s")
+  @StackTrace(false)
+  static class Notifications extends Event {
+    @Label("Notifications")
+    long notifications;
+
+    @Label("Observers Notified")
+    long observers;
+
+    @Label("Maximum Fan-Out")
+    int maxFanOut;
+  }
+}
@@ -1,60 +1,66 @@
 package utility;
 
+import javax.swing.*;
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.CRC32;
 
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
-
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watch files modified or deleted by other programs. Any number of files can be watched, each one with its own
+ * listener.
+ *
+ * A single daemon thread waits for the events of all watched directories. The events of a file are coalesced until it
+ * stays quiet during a short delay (saving a file often produces several events), then a single notification is
+ * delivered. A modification is delivered only if the content of the file really changed: writes done by Slyum itself
+ * are declared with {@link #fileWritten(Path)} and are not notified. Listeners are called on the delivery executor,
+ * the event dispatch thread by default.
+ */
 public class WatchDir {
 
-  private class SlyumKey {
-    Path file;
-    WatchFileListener listener;
-    boolean isDisable = false;
-    int ignore = 0;
+  private static final long NO_HASH = -1L;
 
-    SlyumKey(Path file, WatchFileListener listener) {
-      this.file = file;
-      this.listener = listener;
-    }
+  private static class WatchedFile {
+    final Path file;
+    final WatchFileListener listener;
+    volatile boolean isDisable = false;
+    volatile long hash;
 
-    int ignorePostDec() {
-      int temp = ignore;
-      ignore = (ignore == 0 ? 0 : --ignore);
-      return temp;
-    }
+    // Delivery time of the pending event, 0 if none. Accessed by the dispatcher thread only.
+    long deadline = 0;
 
-    Path dir() {
-      return file.getParent();
+    WatchedFile(Path file, WatchFileListener listener) {
+      this.file = file;
+      this.listener = listener;
+      this.hash = hashOf(file);
     }
-
-  }
-
-  @SuppressWarnings("unchecked")
-  private static <T> WatchEvent<T> cast(WatchEvent<?> event) {
-    return (WatchEvent<T>) event;
   }
 
   private static WatchDir instance;
 
   /**
-   * Register the given directory with the WatchService
+   * Register the given file. The listener replaces the previous one if the file is already watched.
    *
    * @param file the {@link Path} to watch.
    * @param listener the {@link WatchFileListener}.
    *
-   * @throws IOException if the path does not exist.
+   * @throws IOException if the directory of the file does not exist.
    */
   public static void register(final Path file, final WatchFileListener listener) throws IOException {
     getInstance()._register(file, listener);
@@ -64,23 +70,49 @@ public class WatchDir {
     getInstance()._unregister(file);
   }
 
+  /**
+   * Enable or disable the notifications for the given file. Events received while disabled are lost.
+   *
+   * @param file the watched file
+   * @param stopWatching true for disabling the notifications
+   */
   public static void stopWatchingFile(Path file, boolean stopWatching) {
     getInstance()._stopWatchingFile(file, stopWatching);
   }
 
-  public void _stopWatchingFile(Path file, boolean stopWatching) {
-    keys.get(searchByPath(file)).isDisable = stopWatching;
+  /**
+   * Declare that the given file has just been written by Slyum. Its new content is remembered and the events produced
+   * by this write are not notified.
+   *
+   * @param file the written file
+   */
+  public static void fileWritten(Path file) {
+    getInstance()._fileWritten(file);
   }
 
-  public static void ignoreNextEvents(Path file, int count) {
-    getInstance()._ignoreNextEvents(file, count);
+  /**
+   * Set the executor used for calling the listeners. Default is the event dispatch thread.
+   *
+   * @param executor the executor
+   */
+  public static void setExecutor(Executor executor) {
+    if (executor == null) throw new IllegalArgumentException("executor is null");
+
+    getInstance().executor = executor;
   }
 
-  public void _ignoreNextEvents(Path file, int count) {
-    keys.get(searchByPath(file)).ignore = count;
+  /**
+   * Set the delay during which the events of a same file are coalesced.
+   *
+   * @param delay the delay in milliseconds
+   */
+  public static void setCoalescingDelay(long delay) {
+    if (delay < 0) throw new IllegalArgumentException("delay is negative");
+
+    getInstance().coalescingDelay = delay;
   }
 
-  private static WatchDir getInstance() {
+  private static synchronized WatchDir getInstance() {
     if (instance == null) try {
       instance = new WatchDir();
     } catch (IOException ex) {
@@ -89,101 +121,140 @@ public class WatchDir {
     return instance;
   }
 
+  private static Path normalize(Path file) {
+    return file.toAbsolutePath().normalize();
+  }
+
+  private static long hashOf(Path file) {
+    try {
+      CRC32 crc = new CRC32();
+      crc.update(Files.readAllBytes(file));
+      return crc.getValue();
+    } catch (IOException ex) {
+      return NO_HASH;
+    }
+  }
+
   private final WatchService watcher;
-  private final HashMap<WatchKey, SlyumKey> keys;
+  private final Map<Path, WatchedFile> files = new ConcurrentHashMap<>();
+  private final Map<Path, WatchKey> directories = new ConcurrentHashMap<>();
 
-  private Thread thread = null;
+  private volatile Executor executor = SwingUtilities::invokeLater;
+  private volatile long coalescingDelay = 300;
 
   private WatchDir() throws IOException {
-    this.watcher = FileSystems.getDefault().newWatchService();
-    this.keys = new HashMap<>();
+    watcher = FileSystems.getDefault().newWatchService();
+
+    Thread dispatcher = new Thread(this::processEvents, "Slyum file watcher");
+    dispatcher.setDaemon(true);
+    dispatcher.start();
   }
 
   private void _register(Path file, WatchFileListener listener) throws IOException {
-    WatchKey key = file.getParent().register(watcher, ENTRY_DELETE, ENTRY_MODIFY);
-    keys.put(key, new SlyumKey(file, listener));
+    if (file == null) throw new IllegalArgumentException("file is null");
+    if (listener == null) throw new IllegalArgumentException("listener is null");
 
-    if (thread == null) {
-      thread = new Thread(new Runnable() {
+    file = normalize(file);
+    Path dir = file.getParent();
 
-        @Override
-        public void run() {
-          processEvents();
-          thread = null;
-        }
-      });
-      thread.start();
+    synchronized (directories) {
+      if (!directories.containsKey(dir))
+        directories.put(dir, dir.register(watcher, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY));
+
+      files.put(file, new WatchedFile(file, listener));
     }
   }
 
   private void _unregister(Path file) {
-    WatchKey key = searchByPath(file);
-    if (key == null) return;
+    if (file == null) return;
 
-    keys.remove(key);
-    key.cancel();
-  }
+    file = normalize(file);
+    Path dir = file.getParent();
+
+    synchronized (directories) {
+      if (files.remove(file) == null) return;
 
-  private WatchKey searchByPath(Path file) {
-    Iterator it = keys.entrySet().iterator();
-    while (it.hasNext()) {
-      Map.Entry pairs = (Map.Entry) it.next();
-      SlyumKey skey = (SlyumKey) pairs.getValue();
-      if (skey.file.equals(file)) return (WatchKey) pairs.getKey();
-      it.remove();
+      // The directory is still watched for the other files it contains.
+      for (Path watched : files.keySet())
+        if (watched.getParent().equals(dir)) return;
+
+      WatchKey key = directories.remove(dir);
+      if (key != null) key.cancel();
     }
-    return null;
+  }
+
+  private void _stopWatchingFile(Path file, boolean stopWatching) {
+    WatchedFile watchedFile = files.get(normalize(file));
+    if (watchedFile != null) watchedFile.isDisable = stopWatching;
+  }
+
+  private void _fileWritten(Path file) {
+    WatchedFile watchedFile = files.get(normalize(file));
+    if (watchedFile != null) watchedFile.hash = hashOf(watchedFile.file);
   }
 
   /**
-   * Process all events for keys queued to the watcher
+   * Process all events for keys queued to the watcher. Run by the dispatcher thread until the watcher is closed.
    */
   private void processEvents() {
     while (true) {
-
-      // wait for key to be signalled
       WatchKey key;
       try {
-        key = watcher.take();
-      } catch (InterruptedException x) {
+        long deadline = nextDeadline();
+        key = deadline == Long.MAX_VALUE ? watcher.take()
+            : watcher.poll(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+      } catch (InterruptedException | ClosedWatchServiceException x) {
         return;
       }
 
-      SlyumKey skey = keys.get(key);
-      if (skey.file == null) {
-        continue;
-      }
+      if (key != null) {
+        Path dir = (Path) key.watchable();
 
-      // Get only the last event.
-      List<WatchEvent<?>> events = key.pollEvents();
-      WatchEvent<?> event = events.get(events.size() - 1);
-      WatchEvent.Kind kind = event.kind();
-
-      // Context for directory entry event is the file name of entry
-      WatchEvent<Path> ev = cast(event);
-      Path name = ev.context();
-      Path child = skey.dir().resolve(name);
-
-      if (child.equals(skey.file) && !skey.isDisable && skey.ignorePostDec() == 0) {
-        if (kind == ENTRY_DELETE) {
-          skey.listener.fileDeleted();
-        } else if (kind == ENTRY_MODIFY) {
-          skey.listener.fileModified();
-        }
-      }
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == OVERFLOW) continue;
 
-      // reset key and remove from set if directory no longer accessible
-      boolean valid = key.reset();
-      if (!valid) {
-        keys.remove(key);
+          WatchedFile watchedFile = files.get(dir.resolve((Path) event.context()));
+          if (watchedFile == null) continue;
 
-        // all directories are inaccessible
-        if (keys.isEmpty()) {
-          break;
+          // Events of a file are merged, and delivered once the file is quiet.
+          watchedFile.deadline = System.currentTimeMillis() + coalescingDelay;
         }
+
+        if (!key.reset()) directories.remove(dir, key);
       }
+
+      deliverPendingEvents();
     }
   }
 
-}
+  private long nextDeadline() {
+    long deadline = Long.MAX_VALUE;
+
+    for (WatchedFile watchedFile : files.values())
+      if (watchedFile.deadline != 0) deadline = Math.min(deadline, watchedFile.deadline);
+
+    return deadline;
+  }
+
+  private void deliverPendingEvents() {
+    long now = System.currentTimeMillis();
 
+    for (final WatchedFile watchedFile : files.values()) {
+      if (watchedFile.deadline == 0 || watchedFile.deadline > now) continue;
+
+      watchedFile.deadline = 0;
+      if (watchedFile.isDisable) continue;
+
+      // The state of the file is read once it is quiet: the kind of the last event does not matter.
+      boolean exists = Files.exists(watchedFile.file);
+      long hash = exists ? hashOf(watchedFile.file) : NO_HASH;
+
+      // Same content than the last one known: our own write, or a touch without modification.
+      if (hash == watchedFile.hash) continue;
+      watchedFile.hash = hash;
+
+      if (exists) executor.execute(watchedFile.listener::fileModified);
+      else executor.execute(watchedFile.listener::fileDeleted);
+    }
+  }
+}